@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.impacts;
+
+
+import java.io.IOException;
+
+import org.apache.lucene.store.IndexInput;
+
+/**
+ * The postings of a term, in impact order. Postings are grouped into segments
+ * of decreasing term frequencies: all documents of a segment have a frequency
+ * that is greater than the frequencies of the documents of the following
+ * segments. Within a segment, documents are sorted by doc ID.
+ * <p>
+ * Segments must be read in order with {@link #readNextSegment(int[], int[])}.
+ * Documents that have been deleted are returned as well.
+ * @lucene.experimental
+ */
+public final class ImpactOrderedPostings {
+
+  private final IndexInput in;
+  private final int[] maxFreqs;
+  private final int[] docCounts;
+  private final int[] freqRanges;
+  private int nextSegment;
+
+  ImpactOrderedPostings(IndexInput in) throws IOException {
+    this.in = in;
+    final int numSegments = in.readVInt();
+    maxFreqs = new int[numSegments];
+    docCounts = new int[numSegments];
+    freqRanges = new int[numSegments];
+    for (int i = 0; i < numSegments; i++) {
+      maxFreqs[i] = in.readVInt();
+      docCounts[i] = in.readVInt();
+      freqRanges[i] = in.readVInt();
+    }
+  }
+
+  /** Returns the number of segments. */
+  public int numSegments() {
+    return maxFreqs.length;
+  }
+
+  /** Returns the maximum term frequency of the given segment. */
+  public int maxFreq(int segment) {
+    return maxFreqs[segment];
+  }
+
+  /** Returns the number of documents of the given segment. */
+  public int docCount(int segment) {
+    return docCounts[segment];
+  }
+
+  /** Returns the index of the segment that the next call to {@link #readNextSegment} will read. */
+  public int nextSegment() {
+    return nextSegment;
+  }
+
+  /**
+   * Reads the doc IDs and term frequencies of the next segment into
+   * {@code docs} and {@code freqs}, which must be able to hold
+   * {@link #docCount(int)} entries.
+   */
+  public void readNextSegment(int[] docs, int[] freqs) throws IOException {
+    if (nextSegment == maxFreqs.length) {
+      throw new IllegalStateException("all " + maxFreqs.length + " segments have been read already");
+    }
+    final int segment = nextSegment++;
+    final int count = docCounts[segment];
+    final int maxFreq = maxFreqs[segment];
+    final int freqRange = freqRanges[segment];
+    int doc = 0;
+    if (freqRange == 0) {
+      for (int i = 0; i < count; i++) {
+        doc += in.readVInt();
+        docs[i] = doc;
+        freqs[i] = maxFreq;
+      }
+    } else {
+      final int minFreq = maxFreq - freqRange;
+      for (int i = 0; i < count; i++) {
+        doc += in.readVInt();
+        docs[i] = doc;
+        freqs[i] = minFreq + in.readVInt();
+      }
+    }
+  }
+}
@@ -0,0 +1,264 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.impacts;
+
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.codecs.FieldsConsumer;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.Fields;
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.SegmentWriteState;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefBuilder;
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.StringHelper;
+
+import static org.apache.lucene.codecs.impacts.ImpactSortedPostingsFormat.IMPACTS_CODEC_NAME;
+import static org.apache.lucene.codecs.impacts.ImpactSortedPostingsFormat.IMPACTS_EXTENSION;
+import static org.apache.lucene.codecs.impacts.ImpactSortedPostingsFormat.VERSION_CURRENT;
+
+/**
+ * Writes the postings of the delegate, then the impact-ordered copy of the
+ * postings of frequent terms.
+ */
+final class ImpactSortedFieldsConsumer extends FieldsConsumer {
+
+  /** Number of impact segments: one per possible value of floor(log2(freq)). */
+  static final int NUM_SEGMENTS = 32;
+
+  private final FieldsConsumer delegateFieldsConsumer;
+  private final int minDocFreq;
+  private final SegmentWriteState state;
+  private IndexOutput out;
+
+  // index of the fields, written on close
+  private final List<FieldIndex> fieldIndexes = new ArrayList<>();
+
+  // postings of the current term, in doc ID order
+  private int[] docs = new int[64];
+  private int[] freqs = new int[64];
+  // postings of the current term, by impact segment
+  private int[] sortedDocs = new int[64];
+  private int[] sortedFreqs = new int[64];
+  private final int[] segmentStarts = new int[NUM_SEGMENTS + 1];
+  private final int[] segmentMinFreqs = new int[NUM_SEGMENTS];
+  private final int[] segmentMaxFreqs = new int[NUM_SEGMENTS];
+
+  ImpactSortedFieldsConsumer(FieldsConsumer delegateFieldsConsumer, String delegatePostingsFormatName,
+      int minDocFreq, SegmentWriteState state) throws IOException {
+    this.delegateFieldsConsumer = delegateFieldsConsumer;
+    this.minDocFreq = minDocFreq;
+    this.state = state;
+    String impactsFileName = IndexFileNames.segmentFileName(
+        state.segmentInfo.name, state.segmentSuffix, IMPACTS_EXTENSION);
+    boolean success = false;
+    try {
+      out = state.directory.createOutput(impactsFileName, state.context);
+      CodecUtil.writeIndexHeader(out, IMPACTS_CODEC_NAME, VERSION_CURRENT, state.segmentInfo.getId(), state.segmentSuffix);
+      // remember the name of the postings format we will delegate to
+      out.writeString(delegatePostingsFormatName);
+      success = true;
+    } finally {
+      if (!success) {
+        IOUtils.closeWhileHandlingException(out);
+      }
+    }
+  }
+
+  @Override
+  public void write(Fields fields) throws IOException {
+
+    // Delegate must write first: it may have opened files
+    // on creating the class, and write() will close them
+    delegateFieldsConsumer.write(fields);
+
+    for (String field : fields) {
+      Terms terms = fields.terms(field);
+      if (terms == null) {
+        continue;
+      }
+      FieldInfo fieldInfo = state.fieldInfos.fieldInfo(field);
+      if (fieldInfo.getIndexOptions().compareTo(IndexOptions.DOCS_AND_FREQS) < 0) {
+        // all documents have the same impact
+        continue;
+      }
+      FieldIndex fieldIndex = new FieldIndex(fieldInfo.number);
+      fieldIndexes.add(fieldIndex);
+
+      TermsEnum termsEnum = terms.iterator();
+      PostingsEnum postingsEnum = null;
+      while (true) {
+        BytesRef term = termsEnum.next();
+        if (term == null) {
+          break;
+        }
+        // docFreq() is not available on flush, count documents instead
+        postingsEnum = termsEnum.postings(postingsEnum, PostingsEnum.FREQS);
+        int docCount = 0;
+        for (int doc = postingsEnum.nextDoc(); doc != PostingsEnum.NO_MORE_DOCS; doc = postingsEnum.nextDoc()) {
+          if (docCount == docs.length) {
+            docs = ArrayUtil.grow(docs, docCount + 1);
+            freqs = ArrayUtil.grow(freqs, docCount + 1);
+          }
+          docs[docCount] = doc;
+          freqs[docCount] = postingsEnum.freq();
+          docCount++;
+        }
+        if (docCount >= minDocFreq) {
+          fieldIndex.add(term, out.getFilePointer());
+          writeTerm(docCount);
+        }
+      }
+    }
+  }
+
+  /** Writes the postings that have been buffered in {@link #docs} and {@link #freqs}. */
+  private void writeTerm(int docCount) throws IOException {
+    // counting sort by impact segment, doc IDs stay sorted within a segment
+    final int[] counts = new int[NUM_SEGMENTS];
+    for (int i = 0; i < docCount; i++) {
+      counts[segment(freqs[i])]++;
+    }
+    int numSegments = 0;
+    int upto = 0;
+    for (int seg = NUM_SEGMENTS - 1; seg >= 0; seg--) {
+      segmentStarts[seg] = upto;
+      segmentMinFreqs[seg] = Integer.MAX_VALUE;
+      segmentMaxFreqs[seg] = 0;
+      upto += counts[seg];
+      if (counts[seg] > 0) {
+        numSegments++;
+      }
+    }
+    if (sortedDocs.length < docCount) {
+      sortedDocs = new int[ArrayUtil.oversize(docCount, Integer.BYTES)];
+      sortedFreqs = new int[sortedDocs.length];
+    }
+    final int[] next = new int[NUM_SEGMENTS];
+    System.arraycopy(segmentStarts, 0, next, 0, NUM_SEGMENTS);
+    for (int i = 0; i < docCount; i++) {
+      final int freq = freqs[i];
+      final int seg = segment(freq);
+      sortedDocs[next[seg]] = docs[i];
+      sortedFreqs[next[seg]] = freq;
+      next[seg]++;
+      segmentMinFreqs[seg] = Math.min(segmentMinFreqs[seg], freq);
+      segmentMaxFreqs[seg] = Math.max(segmentMaxFreqs[seg], freq);
+    }
+
+    out.writeVInt(numSegments);
+    for (int seg = NUM_SEGMENTS - 1; seg >= 0; seg--) {
+      if (counts[seg] > 0) {
+        out.writeVInt(segmentMaxFreqs[seg]);
+        out.writeVInt(counts[seg]);
+        out.writeVInt(segmentMaxFreqs[seg] - segmentMinFreqs[seg]);
+      }
+    }
+    for (int seg = NUM_SEGMENTS - 1; seg >= 0; seg--) {
+      final int minFreq = segmentMinFreqs[seg];
+      final boolean writeFreqs = minFreq != segmentMaxFreqs[seg];
+      int lastDoc = 0;
+      for (int i = segmentStarts[seg], end = segmentStarts[seg] + counts[seg]; i < end; i++) {
+        out.writeVInt(sortedDocs[i] - lastDoc);
+        lastDoc = sortedDocs[i];
+        if (writeFreqs) {
+          out.writeVInt(sortedFreqs[i] - minFreq);
+        }
+      }
+    }
+  }
+
+  /** Returns the impact segment of the given term frequency. */
+  static int segment(int freq) {
+    assert freq > 0;
+    return 31 - Integer.numberOfLeadingZeros(freq);
+  }
+
+  private boolean closed;
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    boolean success = false;
+    try {
+      delegateFieldsConsumer.close();
+      final long indexStart = out.getFilePointer();
+      out.writeVInt(fieldIndexes.size());
+      for (FieldIndex fieldIndex : fieldIndexes) {
+        fieldIndex.writeTo(out);
+      }
+      out.writeLong(indexStart);
+      CodecUtil.writeFooter(out);
+      success = true;
+    } finally {
+      if (success) {
+        IOUtils.close(out);
+      } else {
+        IOUtils.closeWhileHandlingException(out);
+      }
+      fieldIndexes.clear();
+    }
+  }
+
+  /** The terms of a field that have impact-ordered postings, and where they are. */
+  private static final class FieldIndex {
+    final int fieldNumber;
+    final List<BytesRef> terms = new ArrayList<>();
+    final List<Long> filePointers = new ArrayList<>();
+
+    FieldIndex(int fieldNumber) {
+      this.fieldNumber = fieldNumber;
+    }
+
+    void add(BytesRef term, long fp) {
+      terms.add(BytesRef.deepCopyOf(term));
+      filePointers.add(fp);
+    }
+
+    void writeTo(IndexOutput out) throws IOException {
+      out.writeVInt(fieldNumber);
+      out.writeVInt(terms.size());
+      final BytesRefBuilder lastTerm = new BytesRefBuilder();
+      long lastFP = 0;
+      for (int i = 0; i < terms.size(); i++) {
+        final BytesRef term = terms.get(i);
+        final int prefix = StringHelper.bytesDifference(lastTerm.get(), term);
+        out.writeVInt(prefix);
+        out.writeVInt(term.length - prefix);
+        out.writeBytes(term.bytes, term.offset + prefix, term.length - prefix);
+        lastTerm.copyBytes(term);
+        final long fp = filePointers.get(i);
+        out.writeVLong(fp - lastFP);
+        lastFP = fp;
+      }
+    }
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.impacts;
+
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.codecs.FieldsProducer;
+import org.apache.lucene.codecs.PostingsFormat;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.index.SegmentReadState;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.Accountables;
+import org.apache.lucene.util.IOUtils;
+
+import static org.apache.lucene.codecs.impacts.ImpactSortedPostingsFormat.IMPACTS_CODEC_NAME;
+import static org.apache.lucene.codecs.impacts.ImpactSortedPostingsFormat.IMPACTS_EXTENSION;
+import static org.apache.lucene.codecs.impacts.ImpactSortedPostingsFormat.VERSION_CURRENT;
+import static org.apache.lucene.codecs.impacts.ImpactSortedPostingsFormat.VERSION_START;
+
+/**
+ * Opens the postings of the delegate, and loads the index of the impact-ordered
+ * postings in memory. Impact-ordered postings themselves are read on demand.
+ */
+final class ImpactSortedFieldsProducer extends FieldsProducer {
+
+  private final FieldsProducer delegateFieldsProducer;
+  private final IndexInput in;
+  private final Map<String,ImpactSortedTerms.FieldIndex> fieldIndexes = new HashMap<>();
+
+  ImpactSortedFieldsProducer(SegmentReadState state) throws IOException {
+    String impactsFileName = IndexFileNames.segmentFileName(
+        state.segmentInfo.name, state.segmentSuffix, IMPACTS_EXTENSION);
+    FieldsProducer delegateFieldsProducer = null;
+    boolean success = false;
+    in = state.directory.openInput(impactsFileName, state.context);
+    try {
+      CodecUtil.checkIndexHeader(in, IMPACTS_CODEC_NAME, VERSION_START, VERSION_CURRENT, state.segmentInfo.getId(), state.segmentSuffix);
+      PostingsFormat delegatePostingsFormat = PostingsFormat.forName(in.readString());
+      // checks the footer's structure, the whole file is verified in checkIntegrity()
+      CodecUtil.retrieveChecksum(in);
+
+      in.seek(in.length() - CodecUtil.footerLength() - Long.BYTES);
+      in.seek(in.readLong());
+      final int numFields = in.readVInt();
+      for (int i = 0; i < numFields; i++) {
+        FieldInfo fieldInfo = state.fieldInfos.fieldInfo(in.readVInt());
+        fieldIndexes.put(fieldInfo.name, ImpactSortedTerms.FieldIndex.read(in));
+      }
+
+      delegateFieldsProducer = delegatePostingsFormat.fieldsProducer(state);
+      success = true;
+    } finally {
+      if (!success) {
+        IOUtils.closeWhileHandlingException(in, delegateFieldsProducer);
+      }
+    }
+    this.delegateFieldsProducer = delegateFieldsProducer;
+  }
+
+  @Override
+  public Iterator<String> iterator() {
+    return delegateFieldsProducer.iterator();
+  }
+
+  @Override
+  public void close() throws IOException {
+    IOUtils.close(in, delegateFieldsProducer);
+  }
+
+  @Override
+  public Terms terms(String field) throws IOException {
+    Terms result = delegateFieldsProducer.terms(field);
+    ImpactSortedTerms.FieldIndex fieldIndex = fieldIndexes.get(field);
+    if (result == null || fieldIndex == null) {
+      return result;
+    }
+    return new ImpactSortedTerms(result, fieldIndex, in);
+  }
+
+  @Override
+  public int size() {
+    return delegateFieldsProducer.size();
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    long sizeInBytes = ((delegateFieldsProducer != null) ? delegateFieldsProducer.ramBytesUsed() : 0);
+    for (Map.Entry<String,ImpactSortedTerms.FieldIndex> entry : fieldIndexes.entrySet()) {
+      sizeInBytes += entry.getKey().length() * Character.BYTES;
+      sizeInBytes += entry.getValue().ramBytesUsed();
+    }
+    return sizeInBytes;
+  }
+
+  @Override
+  public Collection<Accountable> getChildResources() {
+    List<Accountable> resources = new ArrayList<>();
+    resources.addAll(Accountables.namedAccountables("field", fieldIndexes));
+    if (delegateFieldsProducer != null) {
+      resources.add(Accountables.namedAccountable("delegate", delegateFieldsProducer));
+    }
+    return Collections.unmodifiableList(resources);
+  }
+
+  @Override
+  public void checkIntegrity() throws IOException {
+    delegateFieldsProducer.checkIntegrity();
+    CodecUtil.checksumEntireFile(in);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "(fields=" + fieldIndexes.size() + ",delegate=" + delegateFieldsProducer + ")";
+  }
+}
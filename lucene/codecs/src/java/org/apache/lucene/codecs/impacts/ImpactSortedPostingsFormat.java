@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.impacts;
+
+
+import java.io.IOException;
+
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.codecs.FieldsConsumer;
+import org.apache.lucene.codecs.FieldsProducer;
+import org.apache.lucene.codecs.PostingsFormat;
+import org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat;
+import org.apache.lucene.index.SegmentReadState;
+import org.apache.lucene.index.SegmentWriteState;
+import org.apache.lucene.store.DataOutput;
+
+/**
+ * <p>
+ * A {@link PostingsFormat} that, on top of the doc-ordered postings of a
+ * delegate PostingsFormat, stores the postings of frequent terms a second time
+ * in impact order, so that top-k queries can visit the documents that score
+ * best first and stop early, see {@link ScoreAtATimeEvaluator}. Impact-ordered
+ * postings are maintained in a ".isp" file and are exposed through
+ * {@link ImpactSortedTerms}.
+ * </p>
+ * <p>
+ * The postings of a term are split into impact segments by term frequency:
+ * a document with frequency <code>freq</code> goes to the segment of
+ * <code>floor(log2(freq))</code>, and segments are written from the highest
+ * frequencies to the lowest. Since scores increase with the term frequency,
+ * an upper bound of the score of all documents of a segment can be computed
+ * at search time from its maximum frequency with
+ * {@link org.apache.lucene.search.similarities.Similarity.SimScorer#maxScore(float)},
+ * whatever the similarity. Norms are not known yet when postings are written,
+ * so they only contribute to the bound, not to the order.
+ * </p>
+ * <p>
+ * Only fields that index frequencies get impact-ordered postings, and only for
+ * terms that have at least <code>minDocFreq</code> documents: the postings of
+ * rarer terms are cheap to read entirely.
+ * </p>
+ * <p>
+ * The format of the isp file is as follows:
+ * </p>
+ * <ul>
+ * <li>ImpactSortedPostings (.isp) --&gt; Header, DelegatePostingsFormatName,
+ * TermPostings<sup>NumTerms</sup>, NumFields, FieldIndex<sup>NumFields</sup>,
+ * IndexStart, Footer</li>
+ * <li>TermPostings --&gt; NumSegments, SegmentHeader<sup>NumSegments</sup>,
+ * SegmentData<sup>NumSegments</sup></li>
+ * <li>SegmentHeader --&gt; MaxFreq, DocCount, FreqRange</li>
+ * <li>SegmentData --&gt; &lt;DocDelta, FreqDelta?&gt;<sup>DocCount</sup></li>
+ * <li>FieldIndex --&gt; FieldNumber, NumTerms, &lt;PrefixLength, Suffix,
+ * TermPostingsFPDelta&gt;<sup>NumTerms</sup></li>
+ * <li>Header --&gt; {@link CodecUtil#writeIndexHeader IndexHeader}</li>
+ * <li>DelegatePostingsFormatName --&gt; {@link DataOutput#writeString(String)
+ * String} The name of a ServiceProvider registered {@link PostingsFormat}</li>
+ * <li>NumSegments, MaxFreq, DocCount, FreqRange, DocDelta, FreqDelta, NumFields,
+ * FieldNumber, NumTerms, PrefixLength --&gt; {@link DataOutput#writeVInt VInt}</li>
+ * <li>Suffix --&gt; {@link DataOutput#writeVInt VInt} length followed by as many bytes</li>
+ * <li>TermPostingsFPDelta --&gt; {@link DataOutput#writeVLong VLong}</li>
+ * <li>IndexStart --&gt; {@link DataOutput#writeLong Uint64}</li>
+ * <li>Footer --&gt; {@link CodecUtil#writeFooter CodecFooter}</li>
+ * </ul>
+ * <p>Notes:</p>
+ * <ul>
+ * <li>Documents are sorted by doc ID within a segment and DocDelta is the
+ * difference with the previous document of the same segment.</li>
+ * <li>FreqRange is the difference between the maximum and the minimum
+ * frequency of the segment. FreqDelta, the difference between the frequency
+ * and <code>MaxFreq - FreqRange</code>, is only recorded if FreqRange is not 0.</li>
+ * <li>TermPostingsFPDelta is the difference between the file pointer of the
+ * TermPostings of the term and those of the previous term of the field.</li>
+ * </ul>
+ * @lucene.experimental
+ */
+public final class ImpactSortedPostingsFormat extends PostingsFormat {
+
+  public static final String IMPACTS_CODEC_NAME = "ImpactSortedPostings";
+  public static final int VERSION_START = 0;
+  public static final int VERSION_CURRENT = VERSION_START;
+
+  /** Extension of impact-sorted postings file */
+  static final String IMPACTS_EXTENSION = "isp";
+
+  /** Default minimum number of documents of a term to record impact-ordered postings for it. */
+  public static final int DEFAULT_MIN_DOC_FREQ = 128;
+
+  private final PostingsFormat delegatePostingsFormat;
+  private final int minDocFreq;
+
+  /**
+   * Records impact-ordered postings for the terms that have at least
+   * <code>minDocFreq</code> documents, in addition to the postings that the
+   * delegate PostingsFormat records.
+   *
+   * @param delegatePostingsFormat
+   *          The PostingsFormat that records all the doc-ordered postings data
+   * @param minDocFreq
+   *          The minimum number of documents of a term to record impact-ordered
+   *          postings for it
+   */
+  public ImpactSortedPostingsFormat(PostingsFormat delegatePostingsFormat, int minDocFreq) {
+    super(IMPACTS_CODEC_NAME);
+    if (minDocFreq < 1) {
+      throw new IllegalArgumentException("minDocFreq must be >= 1, got " + minDocFreq);
+    }
+    this.delegatePostingsFormat = delegatePostingsFormat;
+    this.minDocFreq = minDocFreq;
+  }
+
+  /**
+   * Records impact-ordered postings for the terms that have at least
+   * {@link #DEFAULT_MIN_DOC_FREQ} documents.
+   *
+   * @param delegatePostingsFormat
+   *          The PostingsFormat that records all the doc-ordered postings data
+   */
+  public ImpactSortedPostingsFormat(PostingsFormat delegatePostingsFormat) {
+    this(delegatePostingsFormat, DEFAULT_MIN_DOC_FREQ);
+  }
+
+  /** Delegates to {@link Lucene50PostingsFormat} with default settings. */
+  public ImpactSortedPostingsFormat() {
+    this(new Lucene50PostingsFormat());
+  }
+
+  @Override
+  public FieldsConsumer fieldsConsumer(SegmentWriteState state) throws IOException {
+    FieldsConsumer fieldsConsumer = delegatePostingsFormat.fieldsConsumer(state);
+    boolean success = false;
+    try {
+      FieldsConsumer ret = new ImpactSortedFieldsConsumer(fieldsConsumer, delegatePostingsFormat.getName(), minDocFreq, state);
+      success = true;
+      return ret;
+    } finally {
+      if (!success) {
+        fieldsConsumer.close();
+      }
+    }
+  }
+
+  @Override
+  public FieldsProducer fieldsProducer(SegmentReadState state) throws IOException {
+    return new ImpactSortedFieldsProducer(state);
+  }
+
+  @Override
+  public String toString() {
+    return "ImpactSortedPostingsFormat(minDocFreq=" + minDocFreq + ",delegate=" + delegatePostingsFormat + ")";
+  }
+}
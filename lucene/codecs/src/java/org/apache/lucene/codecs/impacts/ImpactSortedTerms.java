@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.impacts;
+
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.lucene.index.FilterLeafReader;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.store.DataInput;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.lucene.util.automaton.CompiledAutomaton;
+
+/**
+ * The {@link Terms} of a field that is indexed with
+ * {@link ImpactSortedPostingsFormat}. On top of the usual doc-ordered postings,
+ * they give access to the {@link ImpactOrderedPostings impact-ordered postings}
+ * of frequent terms.
+ * @lucene.experimental
+ */
+public final class ImpactSortedTerms extends FilterLeafReader.FilterTerms {
+
+  private final FieldIndex fieldIndex;
+  private final IndexInput impactsIn;
+
+  ImpactSortedTerms(Terms in, FieldIndex fieldIndex, IndexInput impactsIn) {
+    super(in);
+    this.fieldIndex = fieldIndex;
+    this.impactsIn = impactsIn;
+  }
+
+  /**
+   * Returns the impact-ordered postings of the given term, or {@code null} if
+   * the term does not exist or has too few documents to have impact-ordered
+   * postings. In the latter case, its doc-ordered postings should be used.
+   */
+  public ImpactOrderedPostings impactOrderedPostings(BytesRef term) throws IOException {
+    final long fp = fieldIndex.filePointer(term);
+    if (fp == -1) {
+      return null;
+    }
+    final IndexInput clone = impactsIn.clone();
+    clone.seek(fp);
+    return new ImpactOrderedPostings(clone);
+  }
+
+  @Override
+  public TermsEnum intersect(CompiledAutomaton compiled, BytesRef startTerm) throws IOException {
+    return in.intersect(compiled, startTerm);
+  }
+
+  @Override
+  public BytesRef getMin() throws IOException {
+    return in.getMin();
+  }
+
+  @Override
+  public BytesRef getMax() throws IOException {
+    return in.getMax();
+  }
+
+  /** The sorted terms of a field that have impact-ordered postings, with their file pointers. */
+  static final class FieldIndex implements Accountable {
+
+    private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(FieldIndex.class);
+
+    private final byte[] termBytes;
+    private final int[] termStarts;
+    private final long[] filePointers;
+
+    private FieldIndex(byte[] termBytes, int[] termStarts, long[] filePointers) {
+      this.termBytes = termBytes;
+      this.termStarts = termStarts;
+      this.filePointers = filePointers;
+    }
+
+    static FieldIndex read(DataInput in) throws IOException {
+      final int numTerms = in.readVInt();
+      final int[] termStarts = new int[numTerms + 1];
+      final long[] filePointers = new long[numTerms];
+      byte[] termBytes = new byte[16];
+      int upto = 0;
+      int lastStart = 0;
+      long fp = 0;
+      for (int i = 0; i < numTerms; i++) {
+        final int prefix = in.readVInt();
+        final int suffix = in.readVInt();
+        termBytes = ArrayUtil.grow(termBytes, upto + prefix + suffix);
+        // terms are written with the prefix they share with the previous term
+        System.arraycopy(termBytes, lastStart, termBytes, upto, prefix);
+        in.readBytes(termBytes, upto + prefix, suffix);
+        termStarts[i] = lastStart = upto;
+        upto += prefix + suffix;
+        fp += in.readVLong();
+        filePointers[i] = fp;
+      }
+      termStarts[numTerms] = upto;
+      return new FieldIndex(Arrays.copyOf(termBytes, upto), termStarts, filePointers);
+    }
+
+    /** Returns the file pointer of the impact-ordered postings of {@code term}, or -1 if it has none. */
+    long filePointer(BytesRef term) {
+      final BytesRef scratch = new BytesRef(termBytes);
+      int lo = 0;
+      int hi = filePointers.length - 1;
+      while (lo <= hi) {
+        final int mid = (lo + hi) >>> 1;
+        scratch.offset = termStarts[mid];
+        scratch.length = termStarts[mid + 1] - termStarts[mid];
+        final int cmp = scratch.compareTo(term);
+        if (cmp < 0) {
+          lo = mid + 1;
+        } else if (cmp > 0) {
+          hi = mid - 1;
+        } else {
+          return filePointers[mid];
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    public long ramBytesUsed() {
+      return BASE_RAM_BYTES_USED
+          + RamUsageEstimator.sizeOf(termBytes)
+          + RamUsageEstimator.sizeOf(termStarts)
+          + RamUsageEstimator.sizeOf(filePointers);
+    }
+
+    @Override
+    public String toString() {
+      return "FieldIndex(terms=" + filePointers.length + ")";
+    }
+  }
+}
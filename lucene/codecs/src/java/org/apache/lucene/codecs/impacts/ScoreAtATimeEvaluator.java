@@ -0,0 +1,602 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.impacts;
+
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.lucene.index.IndexReaderContext;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermContext;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.BulkScorer;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.LeafCollector;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.search.similarities.Similarity;
+import org.apache.lucene.search.similarities.Similarity.SimScorer;
+import org.apache.lucene.search.similarities.Similarity.SimWeight;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.PriorityQueue;
+
+/**
+ * Computes the top hits of term queries and of disjunctions of term queries
+ * score-at-a-time, on fields that are indexed with
+ * {@link ImpactSortedPostingsFormat}.
+ * <p>
+ * Impact segments of all terms are read from the one that may produce the
+ * highest scores to the one that may produce the lowest scores, and partial
+ * scores are accumulated per document. As soon as <code>n</code> documents are
+ * known to score better than any document that has not been seen yet, the
+ * remaining segments are skipped. Documents that have been seen and may still
+ * be competitive are then scored exactly with the doc-ordered postings, so
+ * that top hits and their scores are the same as with
+ * {@link IndexSearcher#search(Query, int)}. Early termination requires that
+ * the {@link Similarity} computes bounds of scores, see
+ * {@link SimScorer#maxScore(float)}, and that it does not produce negative
+ * scores.
+ * <p>
+ * Other queries, and segments whose fields do not have impact-ordered
+ * postings, are searched document-at-a-time. The total hit count of the
+ * returned {@link TopDocs} only counts documents that have been seen, so it is
+ * a lower bound of the number of matches when search terminated early.
+ * <p>
+ * This class is not thread-safe, but it is cheap to create, so threads can
+ * create their own instances on top of a shared {@link IndexSearcher}.
+ * @lucene.experimental
+ */
+public final class ScoreAtATimeEvaluator {
+
+  /** Maximum number of clauses of a disjunction that is evaluated score-at-a-time. */
+  public static final int MAX_CLAUSES = 32;
+
+  // relative error that final scores may have compared to the accumulated
+  // partial scores, because of the order in which per-term scores are summed
+  private static final double EPSILON = 1e-6;
+
+  private final IndexSearcher searcher;
+
+  // per-document accumulators, indexed by doc ID and reset between segments
+  private double[] partialScores = new double[0];
+  private int[] seenClauses = new int[0];
+  private int[] touched = new int[0];
+  private int numTouched;
+
+  // buffers for the postings of an impact segment
+  private int[] docBuffer = new int[128];
+  private int[] freqBuffer = new int[128];
+
+  /** Sole constructor. */
+  public ScoreAtATimeEvaluator(IndexSearcher searcher) {
+    this.searcher = searcher;
+  }
+
+  /**
+   * Finds the top <code>n</code> hits for <code>query</code>, like
+   * {@link IndexSearcher#search(Query, int)}.
+   */
+  public TopDocs search(Query query, int n) throws IOException {
+    if (n <= 0) {
+      throw new IllegalArgumentException("n must be > 0, got " + n);
+    }
+    final Query rewritten = searcher.rewrite(query);
+    final Disjunction disjunction = Disjunction.parse(rewritten);
+    if (disjunction == null) {
+      return searcher.search(rewritten, n);
+    }
+    n = Math.min(n, Math.max(1, searcher.getIndexReader().maxDoc()));
+    final TopDocs topDocs = new Search(disjunction, searcher.createNormalizedWeight(rewritten, true), n).run();
+    if (topDocs == null) {
+      // the similarity does not bound its scores the way we expect
+      return searcher.search(rewritten, n);
+    }
+    return topDocs;
+  }
+
+  /** A disjunction of term queries, which may have a single clause. */
+  private static final class Disjunction {
+    final Term[] terms;
+    final float[] boosts;
+    final boolean isBoolean;
+    final boolean disableCoord;
+
+    private Disjunction(Term[] terms, float[] boosts, boolean isBoolean, boolean disableCoord) {
+      this.terms = terms;
+      this.boosts = boosts;
+      this.isBoolean = isBoolean;
+      this.disableCoord = disableCoord;
+    }
+
+    /** Returns the disjunction that {@code query} is, or null if it is not one. */
+    static Disjunction parse(Query query) {
+      float boost = 1f;
+      while (query instanceof BoostQuery) {
+        boost = ((BoostQuery) query).getBoost() * boost;
+        query = ((BoostQuery) query).getQuery();
+      }
+      if (query instanceof TermQuery) {
+        return new Disjunction(new Term[] { ((TermQuery) query).getTerm() }, new float[] { boost }, false, true);
+      }
+      if (query instanceof BooleanQuery == false) {
+        return null;
+      }
+      final BooleanQuery bq = (BooleanQuery) query;
+      final List<BooleanClause> clauses = bq.clauses();
+      if (clauses.isEmpty() || clauses.size() > MAX_CLAUSES || bq.getMinimumNumberShouldMatch() > 1) {
+        return null;
+      }
+      final Term[] terms = new Term[clauses.size()];
+      final float[] boosts = new float[clauses.size()];
+      for (int i = 0; i < terms.length; i++) {
+        final BooleanClause clause = clauses.get(i);
+        if (clause.getOccur() != BooleanClause.Occur.SHOULD) {
+          return null;
+        }
+        Query sub = clause.getQuery();
+        // boosts apply from the outermost query to the innermost one
+        float subBoost = boost;
+        while (sub instanceof BoostQuery) {
+          subBoost = ((BoostQuery) sub).getBoost() * subBoost;
+          sub = ((BoostQuery) sub).getQuery();
+        }
+        if (sub instanceof TermQuery == false) {
+          return null;
+        }
+        terms[i] = ((TermQuery) sub).getTerm();
+        boosts[i] = subBoost;
+      }
+      return new Disjunction(terms, boosts, true, bq.isCoordDisabled());
+    }
+  }
+
+  /** Orders hits like {@link TopDocs}: by decreasing score, then by increasing doc ID. */
+  private static final class HitQueue extends PriorityQueue<ScoreDoc> {
+    HitQueue(int size) {
+      super(size);
+    }
+
+    @Override
+    protected boolean lessThan(ScoreDoc a, ScoreDoc b) {
+      if (a.score == b.score) {
+        return a.doc > b.doc;
+      } else {
+        return a.score < b.score;
+      }
+    }
+  }
+
+  /** Keeps track of the <code>n</code>-th greatest of the values that are added to it. */
+  private static final class NthGreatest {
+    private final float[] heap; // min-heap
+    private int size;
+
+    NthGreatest(int n) {
+      heap = new float[n];
+    }
+
+    void clear() {
+      size = 0;
+    }
+
+    void add(float value) {
+      if (size < heap.length) {
+        int i = size++;
+        heap[i] = value;
+        while (i > 0 && heap[(i - 1) >>> 1] > heap[i]) {
+          swap(i, (i - 1) >>> 1);
+          i = (i - 1) >>> 1;
+        }
+      } else if (value > heap[0]) {
+        heap[0] = value;
+        int i = 0;
+        while (true) {
+          int smallest = i;
+          final int left = 2 * i + 1;
+          final int right = left + 1;
+          if (left < size && heap[left] < heap[smallest]) {
+            smallest = left;
+          }
+          if (right < size && heap[right] < heap[smallest]) {
+            smallest = right;
+          }
+          if (smallest == i) {
+            break;
+          }
+          swap(i, smallest);
+          i = smallest;
+        }
+      }
+    }
+
+    private void swap(int i, int j) {
+      final float tmp = heap[i];
+      heap[i] = heap[j];
+      heap[j] = tmp;
+    }
+
+    /** Returns the n-th greatest value, or -Infinity if less than n values have been added. */
+    float get() {
+      return size < heap.length ? Float.NEGATIVE_INFINITY : heap[0];
+    }
+  }
+
+  /** The impact segments of a clause in a leaf. */
+  private static final class ClauseSegments {
+    final SimScorer scorer;
+    // null if the term has too few documents to have impact-ordered postings
+    final ImpactOrderedPostings postings;
+    // otherwise its doc-ordered postings, as a single segment
+    final int[] docs, freqs;
+    // upper bounds of the scores of the segments
+    final float[] maxScores;
+    int next;
+
+    ClauseSegments(SimScorer scorer, ImpactOrderedPostings postings) {
+      this.scorer = scorer;
+      this.postings = postings;
+      this.docs = this.freqs = null;
+      maxScores = new float[postings.numSegments()];
+      for (int i = 0; i < maxScores.length; i++) {
+        maxScores[i] = scorer.maxScore(postings.maxFreq(i));
+      }
+    }
+
+    ClauseSegments(SimScorer scorer, int[] docs, int[] freqs, int maxFreq) {
+      this.scorer = scorer;
+      this.postings = null;
+      this.docs = docs;
+      this.freqs = freqs;
+      maxScores = docs.length == 0 ? new float[0] : new float[] { scorer.maxScore(maxFreq) };
+    }
+
+    /** Returns an upper bound of the scores of the segments that have not been read yet. */
+    float remainingMaxScore() {
+      return next < maxScores.length ? Math.max(0f, maxScores[next]) : 0f;
+    }
+  }
+
+  /** The state of a top-k search. */
+  private final class Search {
+    final Disjunction disjunction;
+    final Weight weight;
+    final int n;
+    final Similarity similarity;
+    final SimWeight[] simWeights;
+    // coord factors by number of matching clauses, and their bounds for
+    // documents that match at least that many clauses
+    final float[] coords, minCoords, maxCoords;
+    final HitQueue pq;
+    final NthGreatest nthGreatest;
+    int totalHits;
+
+    Search(Disjunction disjunction, Weight weight, int n) throws IOException {
+      this.disjunction = disjunction;
+      this.weight = weight;
+      this.n = n;
+      this.pq = new HitQueue(n);
+      this.nthGreatest = new NthGreatest(n);
+
+      // same query weights as the Weight that the searcher created
+      similarity = searcher.getSimilarity(true);
+      final IndexReaderContext topReaderContext = searcher.getTopReaderContext();
+      final int numClauses = disjunction.terms.length;
+      simWeights = new SimWeight[numClauses];
+      float valueForNormalization = 0f;
+      for (int i = 0; i < numClauses; i++) {
+        final Term term = disjunction.terms[i];
+        final TermContext termContext = TermContext.build(topReaderContext, term);
+        simWeights[i] = similarity.computeWeight(
+            searcher.collectionStatistics(term.field()),
+            searcher.termStatistics(term, termContext));
+        simWeights[i].normalize(1f, disjunction.boosts[i]);
+        valueForNormalization += simWeights[i].getValueForNormalization();
+      }
+      float norm = similarity.queryNorm(valueForNormalization);
+      if (Float.isInfinite(norm) || Float.isNaN(norm)) {
+        norm = 1.0f;
+      }
+      for (int i = 0; i < numClauses; i++) {
+        simWeights[i].normalize(norm, disjunction.boosts[i]);
+      }
+
+      coords = new float[numClauses + 1];
+      for (int i = 1; i <= numClauses; i++) {
+        if (disjunction.isBoolean == false || disjunction.disableCoord || numClauses == 1) {
+          coords[i] = 1f;
+        } else {
+          coords[i] = similarity.coord(i, numClauses);
+        }
+      }
+      minCoords = new float[numClauses + 1];
+      maxCoords = new float[numClauses + 1];
+      minCoords[numClauses] = maxCoords[numClauses] = coords[numClauses];
+      for (int i = numClauses - 1; i >= 1; i--) {
+        minCoords[i] = Math.min(coords[i], minCoords[i + 1]);
+        maxCoords[i] = Math.max(coords[i], maxCoords[i + 1]);
+      }
+    }
+
+    /** Returns the top hits, or null if scores turned out to be out of their bounds. */
+    TopDocs run() throws IOException {
+      for (LeafReaderContext context : searcher.getIndexReader().leaves()) {
+        if (searchLeaf(context) == false) {
+          return null;
+        }
+      }
+      final ScoreDoc[] hits = new ScoreDoc[pq.size()];
+      for (int i = hits.length - 1; i >= 0; i--) {
+        hits[i] = pq.pop();
+      }
+      return new TopDocs(totalHits, hits, hits.length == 0 ? Float.NaN : hits[0].score);
+    }
+
+    private boolean searchLeaf(LeafReaderContext context) throws IOException {
+      final Bits liveDocs = context.reader().getLiveDocs();
+      final Term[] terms = disjunction.terms;
+      final ClauseSegments[] clauses = new ClauseSegments[terms.length];
+      for (int i = 0; i < terms.length; i++) {
+        final Terms fieldTerms = context.reader().terms(terms[i].field());
+        if (fieldTerms instanceof ImpactSortedTerms == false) {
+          if (fieldTerms == null) {
+            clauses[i] = new ClauseSegments(null, new int[0], new int[0], 0);
+            continue;
+          }
+          scoreAll(context, liveDocs);
+          return true;
+        }
+        final SimScorer simScorer = similarity.simScorer(simWeights[i], context);
+        if (Float.isFinite(simScorer.maxScore(1f)) == false) {
+          // scores are not bounded, segments would all need to be read
+          scoreAll(context, liveDocs);
+          return true;
+        }
+        final ImpactOrderedPostings postings = ((ImpactSortedTerms) fieldTerms).impactOrderedPostings(terms[i].bytes());
+        if (postings != null) {
+          clauses[i] = new ClauseSegments(simScorer, postings);
+        } else {
+          clauses[i] = readDocOrderedPostings(fieldTerms, terms[i], simScorer);
+        }
+        for (float maxScore : clauses[i].maxScores) {
+          if (Float.isFinite(maxScore) == false) {
+            scoreAll(context, liveDocs);
+            return true;
+          }
+        }
+      }
+
+      final Scorer scorer = weight.scorer(context);
+      if (scorer == null) {
+        return true;
+      }
+      final int maxDoc = context.reader().maxDoc();
+      if (partialScores.length < maxDoc) {
+        partialScores = new double[maxDoc];
+        seenClauses = new int[maxDoc];
+        touched = new int[maxDoc];
+      }
+      numTouched = 0;
+      try {
+        while (true) {
+          // read the segment that may produce the highest scores
+          int clause = -1;
+          float maxScore = Float.NEGATIVE_INFINITY;
+          for (int i = 0; i < clauses.length; i++) {
+            final ClauseSegments segments = clauses[i];
+            if (segments.next < segments.maxScores.length && segments.maxScores[segments.next] > maxScore) {
+              clause = i;
+              maxScore = segments.maxScores[segments.next];
+            }
+          }
+          if (clause == -1) {
+            break;
+          }
+          readSegment(clauses[clause], clause, liveDocs);
+          if (canSkipUnseenDocs(clauses)) {
+            break;
+          }
+        }
+        totalHits += numTouched;
+        return scoreCandidates(context, scorer, clauses);
+      } finally {
+        for (int i = 0; i < numTouched; i++) {
+          partialScores[touched[i]] = 0;
+          seenClauses[touched[i]] = 0;
+        }
+      }
+    }
+
+    /** Reads the postings of a term that does not have impact-ordered postings as a single segment. */
+    private ClauseSegments readDocOrderedPostings(Terms terms, Term term, SimScorer simScorer) throws IOException {
+      final TermsEnum termsEnum = terms.iterator();
+      if (termsEnum.seekExact(term.bytes()) == false) {
+        return new ClauseSegments(simScorer, new int[0], new int[0], 0);
+      }
+      final int[] docs = new int[termsEnum.docFreq()];
+      final int[] freqs = new int[docs.length];
+      final PostingsEnum postings = termsEnum.postings(null, PostingsEnum.FREQS);
+      int maxFreq = 0;
+      for (int i = 0; i < docs.length; i++) {
+        docs[i] = postings.nextDoc();
+        freqs[i] = postings.freq();
+        maxFreq = Math.max(maxFreq, freqs[i]);
+      }
+      return new ClauseSegments(simScorer, docs, freqs, maxFreq);
+    }
+
+    /** Adds the scores of the next segment of a clause to the partial scores of its documents. */
+    private void readSegment(ClauseSegments segments, int clause, Bits liveDocs) throws IOException {
+      final int[] docs, freqs;
+      final int count;
+      if (segments.postings != null) {
+        count = segments.postings.docCount(segments.next);
+        if (docBuffer.length < count) {
+          docBuffer = new int[ArrayUtil.oversize(count, Integer.BYTES)];
+          freqBuffer = new int[docBuffer.length];
+        }
+        docs = docBuffer;
+        freqs = freqBuffer;
+        segments.postings.readNextSegment(docs, freqs);
+      } else {
+        docs = segments.docs;
+        freqs = segments.freqs;
+        count = docs.length;
+      }
+      segments.next++;
+
+      final SimScorer simScorer = segments.scorer;
+      final int clauseBit = 1 << clause;
+      for (int i = 0; i < count; i++) {
+        final int doc = docs[i];
+        if (liveDocs != null && liveDocs.get(doc) == false) {
+          continue;
+        }
+        if (seenClauses[doc] == 0) {
+          touched[numTouched++] = doc;
+        }
+        seenClauses[doc] |= clauseBit;
+        partialScores[doc] += simScorer.score(doc, freqs[i]);
+      }
+    }
+
+    /** Returns a lower bound of the score of a document that has been seen. */
+    private float minScore(int doc) {
+      return (float) (partialScores[doc] * minCoords[Integer.bitCount(seenClauses[doc])] * (1 - EPSILON));
+    }
+
+    /** Returns an upper bound of the score of a document that has been seen. */
+    private float maxScore(int doc, ClauseSegments[] clauses) {
+      final int seen = seenClauses[doc];
+      double maxScore = partialScores[doc];
+      for (int i = 0; i < clauses.length; i++) {
+        if ((seen & (1 << i)) == 0) {
+          maxScore += clauses[i].remainingMaxScore();
+        }
+      }
+      return (float) (maxScore * maxCoords[Integer.bitCount(seen)] * (1 + EPSILON));
+    }
+
+    /**
+     * Returns true if <code>n</code> documents are known to score better than
+     * any document that has not been seen yet.
+     */
+    private boolean canSkipUnseenDocs(ClauseSegments[] clauses) {
+      double remaining = 0;
+      for (ClauseSegments segments : clauses) {
+        remaining += segments.remainingMaxScore();
+      }
+      final float maxUnseenScore = (float) (remaining * maxCoords[1] * (1 + EPSILON));
+      return minCompetitiveScore(clauses) > maxUnseenScore;
+    }
+
+    /** Returns the score that at least <code>n</code> documents, among top hits so far and seen documents, reach. */
+    private float minCompetitiveScore(ClauseSegments[] clauses) {
+      if (pq.size() + numTouched < n) {
+        return Float.NEGATIVE_INFINITY;
+      }
+      nthGreatest.clear();
+      for (ScoreDoc hit : pq) {
+        nthGreatest.add(hit.score);
+      }
+      for (int i = 0; i < numTouched; i++) {
+        nthGreatest.add(minScore(touched[i]));
+      }
+      return nthGreatest.get();
+    }
+
+    /** Scores the documents that have been seen and may be competitive, and adds them to the top hits. */
+    private boolean scoreCandidates(LeafReaderContext context, Scorer scorer, ClauseSegments[] clauses) throws IOException {
+      final float minCompetitiveScore = minCompetitiveScore(clauses);
+      int[] candidates = new int[numTouched];
+      int numCandidates = 0;
+      for (int i = 0; i < numTouched; i++) {
+        final int doc = touched[i];
+        if (maxScore(doc, clauses) >= minCompetitiveScore) {
+          candidates[numCandidates++] = doc;
+        }
+      }
+      Arrays.sort(candidates, 0, numCandidates);
+
+      final DocIdSetIterator iterator = scorer.iterator();
+      for (int i = 0; i < numCandidates; i++) {
+        final int doc = candidates[i];
+        if (iterator.docID() < doc) {
+          iterator.advance(doc);
+        }
+        if (iterator.docID() != doc) {
+          return false;
+        }
+        final float score = scorer.score();
+        if (score < minScore(doc) || score > maxScore(doc, clauses)) {
+          return false;
+        }
+        collect(context.docBase + doc, score);
+      }
+      return true;
+    }
+
+    /** Scores all matches of the leaf document-at-a-time. */
+    private void scoreAll(final LeafReaderContext context, Bits liveDocs) throws IOException {
+      final BulkScorer bulkScorer = weight.bulkScorer(context);
+      if (bulkScorer == null) {
+        return;
+      }
+      bulkScorer.score(new LeafCollector() {
+        private Scorer scorer;
+
+        @Override
+        public void setScorer(Scorer scorer) {
+          this.scorer = scorer;
+        }
+
+        @Override
+        public void collect(int doc) throws IOException {
+          totalHits++;
+          Search.this.collect(context.docBase + doc, scorer.score());
+        }
+      }, liveDocs);
+    }
+
+    private void collect(int doc, float score) {
+      if (pq.size() < n) {
+        pq.add(new ScoreDoc(doc, score));
+      } else {
+        final ScoreDoc top = pq.top();
+        if (score > top.score || (score == top.score && doc < top.doc)) {
+          top.doc = doc;
+          top.score = score;
+          pq.updateTop();
+        }
+      }
+    }
+  }
+}
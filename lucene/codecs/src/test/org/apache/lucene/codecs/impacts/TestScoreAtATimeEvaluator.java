@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.impacts;
+
+
+import java.io.IOException;
+
+import org.apache.lucene.analysis.MockAnalyzer;
+import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.RandomIndexWriter;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.CheckHits;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.similarities.BM25Similarity;
+import org.apache.lucene.search.similarities.ClassicSimilarity;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+
+public class TestScoreAtATimeEvaluator extends LuceneTestCase {
+
+  private static final int NUM_TERMS = 50;
+
+  private Directory dir;
+  private IndexReader reader;
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    dir = newDirectory();
+    Codec codec = TestUtil.alwaysPostingsFormat(
+        new ImpactSortedPostingsFormat(TestUtil.getDefaultPostingsFormat(), TestUtil.nextInt(random(), 1, 20)));
+    IndexWriterConfig iwc = newIndexWriterConfig(new MockAnalyzer(random())).setCodec(codec);
+    RandomIndexWriter w = new RandomIndexWriter(random(), dir, iwc);
+    final int numDocs = atLeast(1000);
+    for (int i = 0; i < numDocs; i++) {
+      StringBuilder text = new StringBuilder();
+      final int length = TestUtil.nextInt(random(), 1, 40);
+      for (int j = 0; j < length; j++) {
+        // skewed term distribution, so that terms have various frequencies
+        final int term = (int) Math.pow(NUM_TERMS, random().nextDouble());
+        text.append("t").append(term).append(' ');
+      }
+      Document doc = new Document();
+      doc.add(new StringField("id", Integer.toString(i), Store.NO));
+      doc.add(new TextField("body", text.toString(), Store.NO));
+      w.addDocument(doc);
+      if (random().nextInt(20) == 0) {
+        w.deleteDocuments(new Term("id", Integer.toString(random().nextInt(i + 1))));
+      }
+    }
+    reader = w.getReader();
+    w.close();
+  }
+
+  @Override
+  public void tearDown() throws Exception {
+    reader.close();
+    dir.close();
+    super.tearDown();
+  }
+
+  private static Query randomQuery() {
+    final int numClauses = TestUtil.nextInt(random(), 1, 5);
+    if (numClauses == 1) {
+      return new TermQuery(new Term("body", "t" + random().nextInt(NUM_TERMS)));
+    }
+    BooleanQuery.Builder builder = new BooleanQuery.Builder();
+    builder.setDisableCoord(random().nextBoolean());
+    for (int i = 0; i < numClauses; i++) {
+      Query query = new TermQuery(new Term("body", "t" + random().nextInt(NUM_TERMS)));
+      if (random().nextInt(4) == 0) {
+        query = new BoostQuery(query, 1 + random().nextInt(5));
+      }
+      builder.add(query, Occur.SHOULD);
+    }
+    Query query = builder.build();
+    if (random().nextInt(5) == 0) {
+      query = new BoostQuery(query, 3f);
+    }
+    return query;
+  }
+
+  private void assertSameTopHits(IndexSearcher searcher) throws IOException {
+    ScoreAtATimeEvaluator evaluator = new ScoreAtATimeEvaluator(searcher);
+    final int iters = atLeast(50);
+    for (int i = 0; i < iters; i++) {
+      Query query = randomQuery();
+      final int n = TestUtil.nextInt(random(), 1, 50);
+      TopDocs expected = searcher.search(query, n);
+      TopDocs actual = evaluator.search(query, n);
+      CheckHits.checkEqual(query, expected.scoreDocs, actual.scoreDocs);
+      assertTrue(actual.totalHits <= expected.totalHits);
+    }
+  }
+
+  public void testBM25() throws IOException {
+    IndexSearcher searcher = new IndexSearcher(reader);
+    searcher.setSimilarity(new BM25Similarity());
+    assertSameTopHits(searcher);
+  }
+
+  public void testUnboundedSimilarity() throws IOException {
+    // ClassicSimilarity has no score bounds, segments are searched document-at-a-time
+    IndexSearcher searcher = new IndexSearcher(reader);
+    searcher.setSimilarity(new ClassicSimilarity());
+    assertSameTopHits(searcher);
+  }
+
+  public void testWrappedReader() throws IOException {
+    // impact-ordered postings may not be visible through wrappers
+    IndexSearcher searcher = newSearcher(reader);
+    assertSameTopHits(searcher);
+  }
+
+  public void testOtherQueries() throws IOException {
+    IndexSearcher searcher = new IndexSearcher(reader);
+    ScoreAtATimeEvaluator evaluator = new ScoreAtATimeEvaluator(searcher);
+    Query query = new PhraseQuery("body", "t0", "t1");
+    CheckHits.checkEqual(query, searcher.search(query, 10).scoreDocs, evaluator.search(query, 10).scoreDocs);
+    query = new BooleanQuery.Builder()
+        .add(new TermQuery(new Term("body", "t0")), Occur.MUST)
+        .add(new TermQuery(new Term("body", "t1")), Occur.SHOULD)
+        .build();
+    CheckHits.checkEqual(query, searcher.search(query, 10).scoreDocs, evaluator.search(query, 10).scoreDocs);
+  }
+
+  public void testImpactOrderedPostings() throws IOException {
+    for (LeafReaderContext context : reader.leaves()) {
+      Terms terms = context.reader().terms("body");
+      assertTrue(terms instanceof ImpactSortedTerms);
+      TermsEnum termsEnum = terms.iterator();
+      for (BytesRef term = termsEnum.next(); term != null; term = termsEnum.next()) {
+        ImpactOrderedPostings postings = ((ImpactSortedTerms) terms).impactOrderedPostings(term);
+        if (postings == null) {
+          continue;
+        }
+        int[] freqs = new int[context.reader().maxDoc()];
+        int prevMinFreq = Integer.MAX_VALUE;
+        int docCount = 0;
+        for (int segment = 0; segment < postings.numSegments(); segment++) {
+          final int count = postings.docCount(segment);
+          int[] docs = new int[count];
+          int[] segmentFreqs = new int[count];
+          postings.readNextSegment(docs, segmentFreqs);
+          int minFreq = Integer.MAX_VALUE;
+          for (int i = 0; i < count; i++) {
+            if (i > 0) {
+              assertTrue(docs[i] > docs[i - 1]);
+            }
+            assertTrue(segmentFreqs[i] <= postings.maxFreq(segment));
+            minFreq = Math.min(minFreq, segmentFreqs[i]);
+            freqs[docs[i]] = segmentFreqs[i];
+          }
+          assertTrue(postings.maxFreq(segment) < prevMinFreq);
+          prevMinFreq = minFreq;
+          docCount += count;
+        }
+        assertEquals(termsEnum.docFreq(), docCount);
+        PostingsEnum docOrdered = termsEnum.postings(null, PostingsEnum.FREQS);
+        for (int doc = docOrdered.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = docOrdered.nextDoc()) {
+          assertEquals(docOrdered.freq(), freqs[doc]);
+        }
+      }
+    }
+  }
+
+  public void testSurvivesMerge() throws IOException {
+    IndexWriterConfig iwc = newIndexWriterConfig(new MockAnalyzer(random()))
+        .setCodec(TestUtil.alwaysPostingsFormat(new ImpactSortedPostingsFormat(TestUtil.getDefaultPostingsFormat(), 1)));
+    try (RandomIndexWriter w = new RandomIndexWriter(random(), dir, iwc)) {
+      w.forceMerge(1);
+    }
+    reader.close();
+    reader = DirectoryReader.open(dir);
+    assertTrue(reader.leaves().get(0).reader().terms("body") instanceof ImpactSortedTerms);
+    IndexSearcher searcher = new IndexSearcher(reader);
+    searcher.setSimilarity(new BM25Similarity());
+    assertSameTopHits(searcher);
+  }
+}
@@ -39,6 +39,22 @@ public abstract class StoredFieldsReader implements Cloneable, Closeable, Accoun
   /** Visit the stored fields for document <code>docID</code> */
   public abstract void visitDocument(int docID, StoredFieldVisitor visitor) throws IOException;
 
+  /**
+   * Visit the stored fields of the first <code>count</code> documents of
+   * <code>docIDs</code>, which must be in increasing order, with the visitor
+   * at the same index in <code>visitors</code>. Formats that compress several
+   * documents together may override this method to decode shared data only
+   * once.
+   * <p>
+   * The default implementation calls {@link #visitDocument(int, StoredFieldVisitor)}
+   * for each document.
+   */
+  public void visitDocuments(int[] docIDs, StoredFieldVisitor[] visitors, int count) throws IOException {
+    for (int i = 0; i < count; ++i) {
+      visitDocument(docIDs[i], visitors[i]);
+    }
+  }
+
   @Override
   public abstract StoredFieldsReader clone();
   
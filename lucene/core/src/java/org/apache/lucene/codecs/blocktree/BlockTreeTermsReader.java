@@ -23,6 +23,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import java.util.TreeMap;
 
 import org.apache.lucene.codecs.CodecUtil;
@@ -37,6 +38,7 @@ import org.apache.lucene.index.Terms;
 import org.apache.lucene.search.PrefixQuery;  // javadocs
 import org.apache.lucene.search.TermRangeQuery;  // javadocs
 import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.RandomAccessInput;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.Accountables;
 import org.apache.lucene.util.BytesRef;
@@ -77,6 +79,10 @@ import org.apache.lucene.util.fst.Outputs;
  *  option to see summary statistics on the blocks in the
  *  dictionary.
  *
+ *  <p>The terms index of each field is copied to the heap when the
+ *  segment is opened, unless another {@link FSTLoadMode} is passed to
+ *  {@link #BlockTreeTermsReader(PostingsReaderBase, SegmentReadState, FSTLoadMode)}.
+ *
  *  See {@link BlockTreeTermsWriter}.
  *
  * @lucene.experimental
@@ -117,9 +123,31 @@ public final class BlockTreeTermsReader extends FieldsProducer {
   static final String TERMS_INDEX_EXTENSION = "tip";
   final static String TERMS_INDEX_CODEC_NAME = "BlockTreeTermsIndex";
 
+  /**
+   * How the terms index (an {@link org.apache.lucene.util.fst.FST}) of a
+   * field is loaded when a segment is opened.
+   * @lucene.experimental
+   */
+  public enum FSTLoadMode {
+    /** Copy the terms index to the heap. This is the default. */
+    ON_HEAP,
+    /** Leave the terms index in the terms index file and read it in place,
+     *  which makes opening faster and uses less heap, at the cost of slower
+     *  term lookups if the file is not in the OS cache. */
+    OFF_HEAP,
+    /** Read the terms index in place if the terms index file supports
+     *  random access, like memory-mapped files do, and copy it to the heap
+     *  otherwise. */
+    AUTO
+  }
+
   // Open input to the main terms dict file (_X.tib)
   final IndexInput termsIn;
 
+  // Open input to the terms index file (_X.tip) if the terms index of any
+  // field is read in place, null otherwise
+  private IndexInput indexIn;
+
   //private static final boolean DEBUG = BlockTreeTermsWriter.DEBUG;
 
   // Reads the terms dict entries, to gather state to
@@ -140,10 +168,20 @@ public final class BlockTreeTermsReader extends FieldsProducer {
 
   final boolean anyAutoPrefixTerms;
 
-  /** Sole constructor. */
+  /** Creates a reader that copies the terms index of all fields to the heap. */
   public BlockTreeTermsReader(PostingsReaderBase postingsReader, SegmentReadState state) throws IOException {
+    this(postingsReader, state, FSTLoadMode.ON_HEAP);
+  }
+
+  /** Creates a reader that loads the terms index of all fields as
+   *  {@code fstLoadMode} says.
+   *  @lucene.experimental */
+  public BlockTreeTermsReader(PostingsReaderBase postingsReader, SegmentReadState state, FSTLoadMode fstLoadMode) throws IOException {
+    Objects.requireNonNull(fstLoadMode);
     boolean success = false;
     IndexInput indexIn = null;
+    final boolean mayLoadOffHeap = fstLoadMode != FSTLoadMode.ON_HEAP;
+    boolean anyOffHeap = false;
     
     this.postingsReader = postingsReader;
     this.segment = state.segmentInfo.name;
@@ -175,7 +213,9 @@ public final class BlockTreeTermsReader extends FieldsProducer {
       String indexName = IndexFileNames.segmentFileName(segment, state.segmentSuffix, TERMS_INDEX_EXTENSION);
       indexIn = state.directory.openInput(indexName, state.context);
       CodecUtil.checkIndexHeader(indexIn, TERMS_INDEX_CODEC_NAME, version, version, state.segmentInfo.getId(), state.segmentSuffix);
-      CodecUtil.checksumEntireFile(indexIn);
+      if (mayLoadOffHeap == false) {
+        CodecUtil.checksumEntireFile(indexIn);
+      }
 
       // Have PostingsReader init itself
       postingsReader.init(termsIn, state);
@@ -231,15 +271,28 @@ public final class BlockTreeTermsReader extends FieldsProducer {
           throw new CorruptIndexException("invalid sumTotalTermFreq: " + sumTotalTermFreq + " sumDocFreq: " + sumDocFreq, termsIn);
         }
         final long indexStartFP = indexIn.readVLong();
+        final boolean offHeapIndex = fstLoadMode == FSTLoadMode.OFF_HEAP
+            || (fstLoadMode == FSTLoadMode.AUTO && indexIn instanceof RandomAccessInput);
+        anyOffHeap |= offHeapIndex;
         FieldReader previous = fields.put(fieldInfo.name,       
                                           new FieldReader(this, fieldInfo, numTerms, rootCode, sumTotalTermFreq, sumDocFreq, docCount,
-                                                          indexStartFP, longsSize, indexIn, minTerm, maxTerm));
+                                                          indexStartFP, longsSize, indexIn, offHeapIndex, minTerm, maxTerm));
         if (previous != null) {
           throw new CorruptIndexException("duplicate field: " + fieldInfo.name, termsIn);
         }
       }
       
-      indexIn.close();
+      if (anyOffHeap) {
+        // verifying the checksum would read the whole terms index: like for the
+        // terms dict, only check the footer here and leave the rest to checkIntegrity
+        CodecUtil.retrieveChecksum(indexIn);
+        this.indexIn = indexIn;
+      } else {
+        if (mayLoadOffHeap) {
+          CodecUtil.checksumEntireFile(indexIn);
+        }
+        indexIn.close();
+      }
       success = true;
     } finally {
       if (!success) {
@@ -273,7 +326,7 @@ public final class BlockTreeTermsReader extends FieldsProducer {
   @Override
   public void close() throws IOException {
     try {
-      IOUtils.close(termsIn, postingsReader);
+      IOUtils.close(termsIn, indexIn, postingsReader);
     } finally { 
       // Clear so refs to terms index is GCable even if
       // app hangs onto us:
@@ -334,6 +387,11 @@ public final class BlockTreeTermsReader extends FieldsProducer {
   public void checkIntegrity() throws IOException { 
     // term dictionary
     CodecUtil.checksumEntireFile(termsIn);
+
+    // terms index, if it is read in place
+    if (indexIn != null) {
+      CodecUtil.checksumEntireFile(indexIn);
+    }
       
     // postings
     postingsReader.checkIntegrity();
@@ -68,6 +68,7 @@ import org.apache.lucene.util.BitUtil;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.IntsRef;
+import org.apache.lucene.util.StringHelper;
 import org.apache.lucene.util.packed.PackedInts;
 
 /**
@@ -87,11 +88,34 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
   private final Decompressor decompressor;
   private final int numDocs;
   private final boolean merging;
+  private final String segmentKey; // identifies the segment in the chunk cache
   private final BlockState state;
   private final long numChunks; // number of compressed blocks written
   private final long numDirtyChunks; // number of incomplete compressed blocks written
   private boolean closed;
 
+  private static volatile StoredFieldsChunkCache chunkCache;
+
+  /**
+   * Expert: set the cache of decompressed chunks that is shared by all
+   * instances, or <code>null</code> to disable caching, which is the default.
+   * This takes effect immediately, including on readers that are already open.
+   * Instances that have been created for merging never use the cache.
+   * @lucene.experimental
+   */
+  public static void setChunkCache(StoredFieldsChunkCache cache) {
+    chunkCache = cache;
+  }
+
+  /**
+   * Expert: return the cache of decompressed chunks that is shared by all
+   * instances, or <code>null</code> if chunks are not cached.
+   * @lucene.experimental
+   */
+  public static StoredFieldsChunkCache getChunkCache() {
+    return chunkCache;
+  }
+
   // used by clone
   private CompressingStoredFieldsReader(CompressingStoredFieldsReader reader, boolean merging) {
     this.version = reader.version;
@@ -107,6 +131,7 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
     this.numChunks = reader.numChunks;
     this.numDirtyChunks = reader.numDirtyChunks;
     this.merging = merging;
+    this.segmentKey = reader.segmentKey;
     this.state = new BlockState();
     this.closed = false;
   }
@@ -158,8 +183,8 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
 
       chunkSize = fieldsStream.readVInt();
       packedIntsVersion = fieldsStream.readVInt();
-      decompressor = compressionMode.newDecompressor();
       this.merging = false;
+      this.segmentKey = StringHelper.idToString(si.getId()) + segmentSuffix;
       this.state = new BlockState();
       
       if (version >= VERSION_CHUNK_STATS) {
@@ -172,6 +197,23 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
       } else {
         numChunks = numDirtyChunks = -1;
       }
+
+      if (compressionMode instanceof DictionaryCompressionMode) {
+        // the dictionary is stored after the chunk stats
+        if (version < VERSION_CHUNK_STATS) {
+          throw new CorruptIndexException("dictionary compression requires version >= " + VERSION_CHUNK_STATS + ", got " + version, fieldsStream);
+        }
+        final int dictionaryLength = fieldsStream.readVInt();
+        if (dictionaryLength < 0 || dictionaryLength > fieldsStream.length() - fieldsStream.getFilePointer()) {
+          throw new CorruptIndexException("invalid dictionary length: " + dictionaryLength, fieldsStream);
+        }
+        final BytesRef dictionary = new BytesRef(dictionaryLength);
+        fieldsStream.readBytes(dictionary.bytes, 0, dictionaryLength);
+        dictionary.length = dictionaryLength;
+        decompressor = ((DictionaryCompressionMode) compressionMode).newDecompressor(dictionary);
+      } else {
+        decompressor = compressionMode.newDecompressor();
+      }
       
       // NOTE: data file is too costly to verify checksum against all the bytes on open,
       // but for now we at least verify proper structure of the checksum footer: which looks
@@ -380,6 +422,10 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
     private final BytesRef spare = new BytesRef();
     private final BytesRef bytes = new BytesRef();
 
+    // the whole decompressed block, only valid if decompressed is true
+    private final BytesRef chunk = new BytesRef();
+    private boolean decompressed;
+
     boolean contains(int docID) {
       return docID >= docBase && docID < docBase + chunkDocs;
     }
@@ -470,6 +516,7 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
       }
 
       startPointer = fieldsStream.getFilePointer();
+      decompressed = false;
 
       if (merging) {
         final int totalLength = offsets[chunkDocs];
@@ -493,11 +540,53 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
       }
     }
 
+    /**
+     * Decompress the whole block unless it has been decompressed already,
+     * looking it up in the chunk cache first if there is one.
+     */
+    private void decompressChunk(StoredFieldsChunkCache cache) throws IOException {
+      if (decompressed) {
+        return;
+      }
+      final int totalLength = offsets[chunkDocs];
+      byte[] cached = null;
+      if (cache != null) {
+        cached = cache.get(segmentKey, startPointer);
+      }
+      if (cached != null) {
+        if (cached.length != totalLength) {
+          throw new CorruptIndexException("Corrupted: expected chunk size = " + totalLength + ", got " + cached.length + " from the chunk cache", fieldsStream);
+        }
+        chunk.bytes = cached;
+        chunk.offset = 0;
+        chunk.length = totalLength;
+      } else {
+        fieldsStream.seek(startPointer);
+        decompressor.decompress(fieldsStream, totalLength, 0, totalLength, bytes);
+        if (bytes.length != totalLength) {
+          throw new CorruptIndexException("Corrupted: expected chunk size = " + totalLength + ", got " + bytes.length, fieldsStream);
+        }
+        if (cache != null) {
+          // the cached array is shared so it must never be reused as a buffer
+          chunk.bytes = Arrays.copyOfRange(bytes.bytes, bytes.offset, bytes.offset + totalLength);
+          chunk.offset = 0;
+          cache.put(segmentKey, startPointer, chunk.bytes);
+        } else {
+          chunk.bytes = bytes.bytes;
+          chunk.offset = bytes.offset;
+        }
+        chunk.length = totalLength;
+      }
+      decompressed = true;
+    }
+
     /**
      * Get the serialized representation of the given docID. This docID has
-     * to be contained in the current block.
+     * to be contained in the current block. If <code>wholeChunk</code> is true,
+     * the whole block is decompressed and kept so that other documents of the
+     * same block can be read without decompressing it again.
      */
-    SerializedDocument document(int docID) throws IOException {
+    SerializedDocument document(int docID, boolean wholeChunk) throws IOException {
       if (contains(docID) == false) {
         throw new IllegalArgumentException();
       }
@@ -507,6 +596,7 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
       final int length = offsets[index+1] - offset;
       final int totalLength = offsets[chunkDocs];
       final int numStoredFields = this.numStoredFields[index];
+      final StoredFieldsChunkCache cache = chunkCache;
 
       final DataInput documentInput;
       if (length == 0) {
@@ -516,6 +606,7 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
         // already decompressed
         documentInput = new ByteArrayDataInput(bytes.bytes, bytes.offset + offset, length);
       } else if (sliced) {
+        // too large to be cached or decompressed at once
         fieldsStream.seek(startPointer);
         decompressor.decompress(fieldsStream, chunkSize, offset, Math.min(length, chunkSize - offset), bytes);
         documentInput = new DataInput() {
@@ -555,6 +646,9 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
           }
 
         };
+      } else if (decompressed || wholeChunk || cache != null) {
+        decompressChunk(cache);
+        documentInput = new ByteArrayDataInput(chunk.bytes, chunk.offset + offset, length);
       } else {
         fieldsStream.seek(startPointer);
         decompressor.decompress(fieldsStream, totalLength, offset, length, bytes);
@@ -568,19 +662,45 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
   }
 
   SerializedDocument document(int docID) throws IOException {
+    return document(docID, false);
+  }
+
+  private SerializedDocument document(int docID, boolean wholeChunk) throws IOException {
     if (state.contains(docID) == false) {
       fieldsStream.seek(indexReader.getStartPointer(docID));
       state.reset(docID);
     }
     assert state.contains(docID);
-    return state.document(docID);
+    return state.document(docID, wholeChunk);
   }
 
   @Override
   public void visitDocument(int docID, StoredFieldVisitor visitor)
       throws IOException {
+    visitDocument(document(docID), visitor);
+  }
+
+  /**
+   * Visit documents in order, decompressing each block once: a block is
+   * decompressed as a whole as soon as it contains the next document too.
+   */
+  @Override
+  public void visitDocuments(int[] docIDs, StoredFieldVisitor[] visitors, int count) throws IOException {
+    for (int i = 0; i < count; ++i) {
+      final int docID = docIDs[i];
+      if (i > 0 && docID < docIDs[i - 1]) {
+        throw new IllegalArgumentException("docIDs must be in increasing order, got " + docID + " after " + docIDs[i - 1]);
+      }
+      if (state.contains(docID) == false) {
+        fieldsStream.seek(indexReader.getStartPointer(docID));
+        state.reset(docID);
+      }
+      final boolean wholeChunk = i + 1 < count && state.contains(docIDs[i + 1]);
+      visitDocument(state.document(docID, wholeChunk), visitors[i]);
+    }
+  }
 
-    final SerializedDocument doc = document(docID);
+  private void visitDocument(SerializedDocument doc, StoredFieldVisitor visitor) throws IOException {
 
     for (int fieldIDX = 0; fieldIDX < doc.numStoredFields; fieldIDX++) {
       final long infoAndBits = doc.in.readVLong();
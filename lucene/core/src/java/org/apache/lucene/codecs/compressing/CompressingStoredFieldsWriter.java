@@ -77,12 +77,16 @@ public final class CompressingStoredFieldsWriter extends StoredFieldsWriter {
   static final int VERSION_CHUNK_STATS = 1;
   static final int VERSION_CURRENT = VERSION_CHUNK_STATS;
 
+  // number of bytes of documents that dictionaries of DictionaryCompressionModes are trained on
+  static final int DICTIONARY_SAMPLE_LENGTH = 64 * 1024;
+
   private final String segment;
   private CompressingStoredFieldsIndexWriter indexWriter;
   private IndexOutput fieldsStream;
 
   private Compressor compressor;
   private final CompressionMode compressionMode;
+  private BytesRef dictionary; // trained on the first documents, only used by DictionaryCompressionMode
   private final int chunkSize;
   private final int maxDocsPerChunk;
 
@@ -217,12 +221,21 @@ public final class CompressingStoredFieldsWriter extends StoredFieldsWriter {
   }
 
   private boolean triggerFlush() {
+    if (dictionary == null && compressionMode instanceof DictionaryCompressionMode) {
+      // keep buffering documents until there are enough to train the dictionary on
+      return bufferedDocs.getPosition() >= Math.max(chunkSize, DICTIONARY_SAMPLE_LENGTH) ||
+          numBufferedDocs >= Math.max(maxDocsPerChunk, DICTIONARY_SAMPLE_LENGTH);
+    }
     return bufferedDocs.getPosition() >= chunkSize || // chunks of at least chunkSize bytes
         numBufferedDocs >= maxDocsPerChunk;
   }
 
   private void flush() throws IOException {
-    indexWriter.writeIndex(numBufferedDocs, fieldsStream.getFilePointer());
+    if (dictionary == null && compressionMode instanceof DictionaryCompressionMode) {
+      trainDictionary((DictionaryCompressionMode) compressionMode);
+      flushSample();
+      return;
+    }
 
     // transform end offsets into lengths
     final int[] lengths = endOffsets;
@@ -230,23 +243,52 @@ public final class CompressingStoredFieldsWriter extends StoredFieldsWriter {
       lengths[i] = endOffsets[i] - endOffsets[i - 1];
       assert lengths[i] >= 0;
     }
-    final boolean sliced = bufferedDocs.getPosition() >= 2 * chunkSize;
-    writeHeader(docBase, numBufferedDocs, numStoredFields, lengths, sliced);
+    writeChunk(numBufferedDocs, numStoredFields, lengths, 0, bufferedDocs.getPosition());
+
+    // reset
+    numBufferedDocs = 0;
+    bufferedDocs.reset();
+  }
+
+  /**
+   * Write the documents that the dictionary has been trained on, which may be
+   * more than fit in a chunk, as chunks of the usual size.
+   */
+  private void flushSample() throws IOException {
+    for (int from = 0, to = 1; to <= numBufferedDocs; ++to) {
+      final int start = from == 0 ? 0 : endOffsets[from - 1];
+      if (to == numBufferedDocs || endOffsets[to - 1] - start >= chunkSize || to - from >= maxDocsPerChunk) {
+        final int[] lengths = new int[to - from];
+        for (int i = from; i < to; ++i) {
+          lengths[i - from] = endOffsets[i] - (i == 0 ? 0 : endOffsets[i - 1]);
+        }
+        writeChunk(to - from, Arrays.copyOfRange(numStoredFields, from, to), lengths, start, endOffsets[to - 1] - start);
+        from = to;
+      }
+    }
+
+    // reset
+    numBufferedDocs = 0;
+    bufferedDocs.reset();
+  }
+
+  private void writeChunk(int numDocs, int[] numStoredFields, int[] lengths, int offset, int length) throws IOException {
+    indexWriter.writeIndex(numDocs, fieldsStream.getFilePointer());
+
+    final boolean sliced = length >= 2 * chunkSize;
+    writeHeader(docBase, numDocs, numStoredFields, lengths, sliced);
 
     // compress stored fields to fieldsStream
     if (sliced) {
       // big chunk, slice it
-      for (int compressed = 0; compressed < bufferedDocs.getPosition(); compressed += chunkSize) {
-        compressor.compress(bufferedDocs.getBytes(), compressed, Math.min(chunkSize, bufferedDocs.getPosition() - compressed), fieldsStream);
+      for (int compressed = 0; compressed < length; compressed += chunkSize) {
+        compressor.compress(bufferedDocs.getBytes(), offset + compressed, Math.min(chunkSize, length - compressed), fieldsStream);
       }
     } else {
-      compressor.compress(bufferedDocs.getBytes(), 0, bufferedDocs.getPosition(), fieldsStream);
+      compressor.compress(bufferedDocs.getBytes(), offset, length, fieldsStream);
     }
 
-    // reset
-    docBase += numBufferedDocs;
-    numBufferedDocs = 0;
-    bufferedDocs.reset();
+    docBase += numDocs;
     numChunks++;
   }
   
@@ -460,6 +502,13 @@ public final class CompressingStoredFieldsWriter extends StoredFieldsWriter {
     }
   }
 
+  private void trainDictionary(DictionaryCompressionMode mode) throws IOException {
+    dictionary = mode.trainDictionary(bufferedDocs.getBytes(), endOffsets, numBufferedDocs);
+    final Compressor newCompressor = mode.newCompressor(dictionary);
+    IOUtils.close(compressor);
+    compressor = newCompressor;
+  }
+
   @Override
   public void finish(FieldInfos fis, int numDocs) throws IOException {
     if (numBufferedDocs > 0) {
@@ -474,6 +523,14 @@ public final class CompressingStoredFieldsWriter extends StoredFieldsWriter {
     indexWriter.finish(numDocs, fieldsStream.getFilePointer());
     fieldsStream.writeVLong(numChunks);
     fieldsStream.writeVLong(numDirtyChunks);
+    if (compressionMode instanceof DictionaryCompressionMode) {
+      if (dictionary == null) {
+        // no chunks
+        dictionary = new BytesRef();
+      }
+      fieldsStream.writeVInt(dictionary.length);
+      fieldsStream.writeBytes(dictionary.bytes, dictionary.offset, dictionary.length);
+    }
     CodecUtil.writeFooter(fieldsStream);
     assert bufferedDocs.getPosition() == 0;
   }
@@ -563,6 +620,7 @@ public final class CompressingStoredFieldsWriter extends StoredFieldsWriter {
           ++docCount;
         }
       } else if (matchingFieldsReader.getCompressionMode() == compressionMode && 
+                 compressionMode instanceof DictionaryCompressionMode == false && // chunks depend on the segment's dictionary
                  matchingFieldsReader.getChunkSize() == chunkSize && 
                  matchingFieldsReader.getPackedIntsVersion() == PackedInts.VERSION_CURRENT &&
                  liveDocs == null &&
@@ -73,12 +73,12 @@ public abstract class CompressionMode {
       // notes:
       // 3 is the highest level that doesn't have lazy match evaluation
       // 6 is the default, higher than that is just a waste of cpu
-      return new DeflateCompressor(6);
+      return new DeflateCompressor(6, null);
     }
 
     @Override
     public Decompressor newDecompressor() {
-      return new DeflateDecompressor();
+      return new DeflateDecompressor(null);
     }
 
     @Override
@@ -113,6 +113,42 @@ public abstract class CompressionMode {
 
   };
 
+  /**
+   * A compression mode that compresses like {@link #HIGH_COMPRESSION} but
+   * against a dictionary that is trained once per segment. This mode provides
+   * much better compression ratios than {@link #HIGH_COMPRESSION} on small
+   * documents, so it can be used with smaller chunks, which in turn makes
+   * retrieving a single document cheaper.
+   * @see DictionaryCompressionMode
+   */
+  public static final CompressionMode HIGH_COMPRESSION_WITH_DICTIONARY = new DictionaryCompressionMode() {
+
+    // larger dictionaries hardly compress better but are stored in every segment
+    private static final int MAX_DICTIONARY_LENGTH = 8 * 1024;
+
+    @Override
+    public BytesRef trainDictionary(byte[] bytes, int[] endOffsets, int numDocs) {
+      final int sampleLength = numDocs == 0 ? 0 : endOffsets[numDocs - 1];
+      return buildDictionary(bytes, endOffsets, numDocs, Math.min(MAX_DICTIONARY_LENGTH, sampleLength / 8));
+    }
+
+    @Override
+    public Compressor newCompressor(BytesRef dictionary) {
+      return new DeflateCompressor(6, dictionary);
+    }
+
+    @Override
+    public Decompressor newDecompressor(BytesRef dictionary) {
+      return new DeflateDecompressor(dictionary);
+    }
+
+    @Override
+    public String toString() {
+      return "HIGH_COMPRESSION_WITH_DICTIONARY";
+    }
+
+  };
+
   /** Sole constructor. */
   protected CompressionMode() {}
 
@@ -192,9 +228,11 @@ public abstract class CompressionMode {
 
   private static final class DeflateDecompressor extends Decompressor {
 
+    final BytesRef dictionary; // null if none
     byte[] compressed;
 
-    DeflateDecompressor() {
+    DeflateDecompressor(BytesRef dictionary) {
+      this.dictionary = dictionary == null || dictionary.length == 0 ? null : dictionary;
       compressed = new byte[0];
     }
 
@@ -215,6 +253,9 @@ public abstract class CompressionMode {
 
       final Inflater decompressor = new Inflater(true);
       try {
+        if (dictionary != null) {
+          decompressor.setDictionary(dictionary.bytes, dictionary.offset, dictionary.length);
+        }
         // extra "dummy byte"
         decompressor.setInput(compressed, 0, paddedLength);
 
@@ -241,7 +282,7 @@ public abstract class CompressionMode {
 
     @Override
     public Decompressor clone() {
-      return new DeflateDecompressor();
+      return new DeflateDecompressor(dictionary);
     }
 
   }
@@ -249,17 +290,22 @@ public abstract class CompressionMode {
   private static class DeflateCompressor extends Compressor {
 
     final Deflater compressor;
+    final BytesRef dictionary; // null if none
     byte[] compressed;
     boolean closed;
 
-    DeflateCompressor(int level) {
+    DeflateCompressor(int level, BytesRef dictionary) {
       compressor = new Deflater(level, true);
+      this.dictionary = dictionary == null || dictionary.length == 0 ? null : dictionary;
       compressed = new byte[64];
     }
 
     @Override
     public void compress(byte[] bytes, int off, int len, DataOutput out) throws IOException {
       compressor.reset();
+      if (dictionary != null) {
+        compressor.setDictionary(dictionary.bytes, dictionary.offset, dictionary.length);
+      }
       compressor.setInput(bytes, off, len);
       compressor.finish();
 
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.compressing;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BytesRef;
+
+/**
+ * A {@link CompressionMode} that compresses all chunks of a segment against a
+ * shared dictionary. This helps a lot with small documents, which otherwise
+ * compress poorly because each chunk has to build its own context.
+ * <p>
+ * {@link CompressingStoredFieldsWriter} trains the dictionary on the first
+ * 64KB of documents (or the first chunk if chunks are larger) of every segment
+ * that it writes, so on flushes and merges alike, stores it once in the data
+ * file and uses it for all chunks of the segment. {@link CompressingStoredFieldsReader} loads it when the segment is
+ * opened. Chunks that have been compressed against a dictionary can never be
+ * copied to another segment as-is, so merges always recompress documents.
+ * <p>
+ * {@link #newCompressor()} and {@link #newDecompressor()} use an empty
+ * dictionary so that this mode can still be used where no dictionary is
+ * stored, e.g. for term vectors.
+ * @lucene.experimental
+ */
+public abstract class DictionaryCompressionMode extends CompressionMode {
+
+  /** Sole constructor. */
+  protected DictionaryCompressionMode() {}
+
+  /**
+   * Train a dictionary on the first <code>numDocs</code> documents of
+   * <code>bytes</code>, document <code>i</code> ending at offset
+   * <code>endOffsets[i]</code>. The returned dictionary may be empty.
+   */
+  public abstract BytesRef trainDictionary(byte[] bytes, int[] endOffsets, int numDocs);
+
+  /**
+   * Create a new {@link Compressor} instance that compresses against the given
+   * dictionary.
+   */
+  public abstract Compressor newCompressor(BytesRef dictionary);
+
+  /**
+   * Create a new {@link Decompressor} instance for data that has been
+   * compressed against the given dictionary.
+   */
+  public abstract Decompressor newDecompressor(BytesRef dictionary);
+
+  @Override
+  public final Compressor newCompressor() {
+    return newCompressor(new BytesRef());
+  }
+
+  @Override
+  public final Decompressor newDecompressor() {
+    return newDecompressor(new BytesRef());
+  }
+
+  // length of the byte sequences that we count across documents
+  private static final int GRAM_LENGTH = 8;
+  // length of the sequences that the dictionary is made of
+  private static final int SEGMENT_LENGTH = 64;
+
+  /**
+   * Build a dictionary of at most <code>maxLength</code> bytes out of the byte
+   * sequences that occur in several of the given documents. This is a
+   * simplified version of the COVER algorithm: the sample is split into as
+   * many epochs as the dictionary has segments, and every epoch contributes the
+   * segment that contains the most frequent 8-byte sequences that no previous
+   * segment contains. The best segments are written at the end of the
+   * dictionary, which is the cheapest place to reference for LZ77-based
+   * compressors.
+   */
+  protected static BytesRef buildDictionary(byte[] bytes, int[] endOffsets, int numDocs, int maxLength) {
+    final int sampleLength = numDocs == 0 ? 0 : endOffsets[numDocs - 1];
+    final int numSegments = maxLength / SEGMENT_LENGTH;
+    if (numDocs < 2 || numSegments == 0 || sampleLength < SEGMENT_LENGTH) {
+      return new BytesRef();
+    }
+
+    // 1. count the number of documents that contain every gram
+    final Map<Long, int[]> docFreqs = new HashMap<>(); // gram -> {docFreq, last doc}
+    for (int doc = 0, start = 0; doc < numDocs; start = endOffsets[doc++]) {
+      for (int i = start; i + GRAM_LENGTH <= endOffsets[doc]; ++i) {
+        final int[] stats = docFreqs.computeIfAbsent(gram(bytes, i), k -> new int[] { 0, -1 });
+        if (stats[1] != doc) {
+          stats[0]++;
+          stats[1] = doc;
+        }
+      }
+    }
+    // the score of a gram is the number of other documents it could be
+    // copied from, and drops to 0 once the dictionary contains it
+    final int numGrams = sampleLength - GRAM_LENGTH + 1;
+    final int[][] stats = new int[numGrams][]; // null for grams that cross documents
+    for (int i = 0; i < numGrams; ++i) {
+      stats[i] = docFreqs.get(gram(bytes, i));
+    }
+
+    // 2. pick the best segment of every epoch
+    final int gramsPerSegment = SEGMENT_LENGTH - GRAM_LENGTH + 1;
+    final int epochLength = Math.max(SEGMENT_LENGTH, sampleLength / numSegments);
+    final List<long[]> segments = new ArrayList<>(); // {score, start}
+    for (int epochStart = 0; epochStart + SEGMENT_LENGTH <= sampleLength; epochStart += epochLength) {
+      final int epochEnd = Math.min(sampleLength, epochStart + epochLength);
+      long score = 0, bestScore = 0;
+      int bestStart = -1;
+      for (int i = epochStart; i < epochEnd - GRAM_LENGTH + 1; ++i) {
+        score += score(stats[i]);
+        if (i - gramsPerSegment >= epochStart) {
+          score -= score(stats[i - gramsPerSegment]);
+        }
+        if (score > bestScore && i + 1 >= gramsPerSegment + epochStart) {
+          bestScore = score;
+          bestStart = i + 1 - gramsPerSegment;
+        }
+      }
+      if (bestStart == -1) {
+        continue;
+      }
+      segments.add(new long[] { bestScore, bestStart });
+      // the dictionary covers these grams now
+      for (int i = bestStart; i < bestStart + gramsPerSegment; ++i) {
+        if (stats[i] != null) {
+          stats[i][0] = 0;
+        }
+      }
+    }
+
+    // 3. write the best segments last
+    Collections.sort(segments, (a, b) -> Long.compare(a[0], b[0]));
+    final int length = Math.min(segments.size(), numSegments) * SEGMENT_LENGTH;
+    final BytesRef dictionary = new BytesRef(ArrayUtil.oversize(length, 1));
+    for (int i = segments.size() - length / SEGMENT_LENGTH; i < segments.size(); ++i) {
+      System.arraycopy(bytes, (int) segments.get(i)[1], dictionary.bytes, dictionary.length, SEGMENT_LENGTH);
+      dictionary.length += SEGMENT_LENGTH;
+    }
+    return dictionary;
+  }
+
+  private static int score(int[] stats) {
+    // grams that only occur in one document or that the dictionary covers already do not count
+    return stats == null || stats[0] < 2 ? 0 : stats[0] - 1;
+  }
+
+  private static long gram(byte[] bytes, int offset) {
+    long gram = 0;
+    for (int i = 0; i < GRAM_LENGTH; ++i) {
+      gram = (gram << 8) | (bytes[offset + i] & 0xFF);
+    }
+    return gram;
+  }
+
+}
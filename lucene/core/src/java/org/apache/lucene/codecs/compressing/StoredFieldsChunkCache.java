@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.compressing;
+
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.RamUsageEstimator;
+
+/**
+ * A size-bounded cache of decompressed stored fields chunks that may be shared
+ * across all {@link CompressingStoredFieldsReader}s of a JVM.
+ * <p>
+ * Entries are keyed by segment (the segment id and suffix) and by the start
+ * pointer of the chunk, so that retrieving several documents that sit in the
+ * same chunk only decompresses the chunk once, even when they are retrieved
+ * from different threads or different reader instances of the same segment.
+ * Segment files are write-once, so entries never go stale: the ones of
+ * segments that are not searched anymore simply get evicted in LRU order.
+ * <p>
+ * Chunks that are bigger than the cache itself and chunks of documents that
+ * are too large to fit in a single block are never cached.
+ * <p>
+ * Lookups and insertions only try to acquire the lock, so that contention
+ * never blocks a reader: under contention a lookup is counted as a miss and
+ * the reader decompresses the chunk on its own.
+ * <p>
+ * This cache exposes some global statistics ({@link #getHitCount() hit count},
+ * {@link #getMissCount() miss count}, {@link #getCacheSize() number of cache
+ * entries}, {@link #getCacheCount() total number of chunks that have ever
+ * been cached}, {@link #getEvictionCount() number of evicted entries}).
+ *
+ * @see CompressingStoredFieldsReader#setChunkCache(StoredFieldsChunkCache)
+ * @lucene.experimental
+ */
+public final class StoredFieldsChunkCache implements Accountable {
+
+  // key + boxed long + overhead of an entry of a linked hash map
+  static final long ENTRY_RAM_BYTES_USED =
+      RamUsageEstimator.shallowSizeOfInstance(ChunkKey.class)
+      + 2 * RamUsageEstimator.NUM_BYTES_OBJECT_HEADER
+      + 6 * RamUsageEstimator.NUM_BYTES_OBJECT_REF;
+
+  private final long maxRamBytesUsed;
+  private final ReentrantLock lock;
+  private final LinkedHashMap<ChunkKey, byte[]> cache;
+
+  // these variables are volatile so that we do not need to sync reads
+  // but increments need to be performed under the lock
+  private volatile long ramBytesUsed;
+  private volatile long hitCount;
+  private volatile long cacheCount;
+  private volatile long evictionCount;
+  // misses are also counted when the lock could not be acquired
+  private final LongAdder missCount = new LongAdder();
+
+  /**
+   * Create a new instance that will cache at most <code>maxRamBytesUsed</code>
+   * bytes of decompressed chunks.
+   */
+  public StoredFieldsChunkCache(long maxRamBytesUsed) {
+    if (maxRamBytesUsed <= 0) {
+      throw new IllegalArgumentException("maxRamBytesUsed must be > 0, got " + maxRamBytesUsed);
+    }
+    this.maxRamBytesUsed = maxRamBytesUsed;
+    this.lock = new ReentrantLock();
+    this.cache = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  /** Return the maximum amount of memory that this cache may use. */
+  public long getMaxRamBytesUsed() {
+    return maxRamBytesUsed;
+  }
+
+  /**
+   * Return the decompressed chunk that starts at <code>startPointer</code> in
+   * the given segment, or <code>null</code> if it is not cached. The returned
+   * array is shared and must not be modified.
+   */
+  byte[] get(String segmentKey, long startPointer) {
+    if (lock.tryLock() == false) {
+      missCount.increment();
+      return null;
+    }
+    try {
+      final byte[] chunk = cache.get(new ChunkKey(segmentKey, startPointer));
+      if (chunk == null) {
+        missCount.increment();
+      } else {
+        hitCount += 1;
+      }
+      return chunk;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Cache the decompressed chunk that starts at <code>startPointer</code> in
+   * the given segment. The array must not be modified after this call.
+   */
+  void put(String segmentKey, long startPointer, byte[] chunk) {
+    final long entryRamBytesUsed = ramBytesUsed(chunk);
+    if (entryRamBytesUsed > maxRamBytesUsed || lock.tryLock() == false) {
+      return;
+    }
+    try {
+      final byte[] previous = cache.put(new ChunkKey(segmentKey, startPointer), chunk);
+      if (previous != null) {
+        // another thread decompressed the same chunk concurrently
+        ramBytesUsed -= ramBytesUsed(previous);
+      } else {
+        cacheCount += 1;
+      }
+      ramBytesUsed += entryRamBytesUsed;
+      evictIfNecessary();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void evictIfNecessary() {
+    assert lock.isHeldByCurrentThread();
+    for (Iterator<byte[]> it = cache.values().iterator(); ramBytesUsed > maxRamBytesUsed && it.hasNext(); ) {
+      final byte[] eldest = it.next();
+      it.remove();
+      ramBytesUsed -= ramBytesUsed(eldest);
+      evictionCount += 1;
+    }
+  }
+
+  /** Remove all entries from this cache. */
+  public void clear() {
+    lock.lock();
+    try {
+      evictionCount += cache.size();
+      cache.clear();
+      ramBytesUsed = 0;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static long ramBytesUsed(byte[] chunk) {
+    return ENTRY_RAM_BYTES_USED + RamUsageEstimator.sizeOf(chunk);
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    return ramBytesUsed;
+  }
+
+  @Override
+  public Collection<Accountable> getChildResources() {
+    return Collections.emptyList();
+  }
+
+  /**
+   * Over the lifetime of this cache, how many times a chunk was found in the
+   * cache.
+   */
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Over the lifetime of this cache, how many times a chunk had to be
+   * decompressed because it was not in the cache.
+   */
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  /** Return the number of chunks that are currently in the cache. */
+  public long getCacheSize() {
+    lock.lock();
+    try {
+      return cache.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Return the total number of chunks that have been added to this cache,
+   * including the ones that have been evicted since then.
+   */
+  public long getCacheCount() {
+    return cacheCount;
+  }
+
+  /**
+   * Return the number of chunks that have been evicted from this cache,
+   * either because it was full or because it was {@link #clear() cleared}.
+   */
+  public long getEvictionCount() {
+    return evictionCount;
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "(maxRamBytesUsed=" + maxRamBytesUsed
+        + ", ramBytesUsed=" + ramBytesUsed + ", hitCount=" + hitCount
+        + ", missCount=" + getMissCount() + ", evictionCount=" + evictionCount + ")";
+  }
+
+  private static final class ChunkKey {
+
+    final String segmentKey;
+    final long startPointer;
+
+    ChunkKey(String segmentKey, long startPointer) {
+      this.segmentKey = segmentKey;
+      this.startPointer = startPointer;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == null || obj.getClass() != ChunkKey.class) {
+        return false;
+      }
+      final ChunkKey that = (ChunkKey) obj;
+      return startPointer == that.startPointer && segmentKey.equals(that.segmentKey);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * segmentKey.hashCode() + Long.hashCode(startPointer);
+    }
+
+  }
+
+}
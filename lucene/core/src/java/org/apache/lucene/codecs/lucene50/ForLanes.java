@@ -0,0 +1,1293 @@
+// This file has been automatically generated, DO NOT EDIT
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.lucene50;
+
+import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.BLOCK_SIZE;
+
+/**
+ * Packs blocks of {@link Lucene50PostingsFormat#BLOCK_SIZE} ints so that they
+ * can be decoded with loops of shifts and masks over whole int arrays, which
+ * the JIT can auto-vectorize.
+ * <p>
+ * Values of <code>bitsPerValue</code> bits are first collapsed into lanes of
+ * the smallest primitive width that holds them: 4 lanes of 8 bits per int
+ * when <code>bitsPerValue &lt;= 8</code>, 2 lanes of 16 bits when
+ * <code>bitsPerValue &lt;= 16</code> and a single lane otherwise. The value at
+ * index <code>lane * numCollapsed + i</code> goes to lane <code>lane</code> of
+ * collapsed int <code>i</code>, lane 0 being the most significant one.
+ * <p>
+ * Collapsed ints are then packed into <code>4 * bitsPerValue</code> ints: the
+ * first ones are shifted to the most significant bits of every lane of the
+ * packed ints, as many times as whole values fit in a lane, and the remaining
+ * collapsed ints are split into the low bits of the lanes, in order. All lanes
+ * are processed at once, so decoding a packed int never branches on the lane.
+ */
+final class ForLanes {
+
+  private ForLanes() {}
+
+  /** Number of ints that a block of values of <code>bitsPerValue</code> bits is packed into. */
+  static int packedLength(int bitsPerValue) {
+    return BLOCK_SIZE * bitsPerValue / Integer.SIZE;
+  }
+
+  /** Width of the lanes that values of <code>bitsPerValue</code> bits are collapsed into. */
+  private static int laneWidth(int bitsPerValue) {
+    return bitsPerValue <= 8 ? 8 : bitsPerValue <= 16 ? 16 : 32;
+  }
+
+  /** Replicates the <code>bits</code> low bits mask in every lane of an int. */
+  private static int laneMask(int laneWidth, int bits) {
+    final int mask = bits == 32 ? -1 : (1 << bits) - 1;
+    int laneMask = 0;
+    for (int shift = 0; shift < Integer.SIZE; shift += laneWidth) {
+      laneMask |= mask << shift;
+    }
+    return laneMask;
+  }
+
+  /**
+   * Packs the first {@link Lucene50PostingsFormat#BLOCK_SIZE} <code>values</code>,
+   * which must all fit in <code>bitsPerValue</code> bits, into
+   * {@link #packedLength(int) packedLength(bitsPerValue)} ints of
+   * <code>packed</code>. <code>collapsed</code> is used as a scratch buffer and
+   * must hold at least <code>BLOCK_SIZE</code> ints.
+   */
+  static void encode(int[] values, int bitsPerValue, int[] collapsed, int[] packed) {
+    final int laneWidth = laneWidth(bitsPerValue);
+    final int numLanes = Integer.SIZE / laneWidth;
+    final int numCollapsed = BLOCK_SIZE / numLanes;
+    for (int i = 0; i < numCollapsed; ++i) {
+      int c = 0;
+      for (int lane = 0; lane < numLanes; ++lane) {
+        c = (c << (laneWidth - 1) << 1) | values[lane * numCollapsed + i];
+      }
+      collapsed[i] = c;
+    }
+
+    final int numPacked = packedLength(bitsPerValue);
+    final int valuesPerLane = laneWidth / bitsPerValue;
+    int idx = 0;
+    for (int i = 0; i < numPacked; ++i) {
+      packed[i] = 0;
+    }
+    for (int j = 0; j < valuesPerLane; ++j) {
+      final int shift = laneWidth - (j + 1) * bitsPerValue;
+      for (int i = 0; i < numPacked; ++i) {
+        packed[i] |= collapsed[idx++] << shift;
+      }
+    }
+
+    // split the remaining collapsed ints into the low bits of the lanes
+    final int remainingBits = laneWidth - valuesPerLane * bitsPerValue;
+    int packedIdx = 0;
+    int packedBits = 0;
+    for (; idx < numCollapsed; ++idx) {
+      int valueBits = bitsPerValue;
+      while (valueBits > 0) {
+        final int n = Math.min(valueBits, remainingBits - packedBits);
+        final int chunk = (collapsed[idx] >>> (valueBits - n)) & laneMask(laneWidth, n);
+        packed[packedIdx] |= chunk << (remainingBits - packedBits - n);
+        valueBits -= n;
+        packedBits += n;
+        if (packedBits == remainingBits) {
+          packedIdx++;
+          packedBits = 0;
+        }
+      }
+    }
+    assert packedIdx == (remainingBits == 0 ? 0 : numPacked);
+  }
+
+  /**
+   * Decodes {@link Lucene50PostingsFormat#BLOCK_SIZE} values of
+   * <code>bitsPerValue</code> bits from the first
+   * {@link #packedLength(int) packedLength(bitsPerValue)} ints of
+   * <code>packed</code>, which are modified in the process.
+   */
+  static void decode(int bitsPerValue, int[] packed, int[] values) {
+    switch (bitsPerValue) {
+      case 1:
+        decode1(packed, values);
+        break;
+      case 2:
+        decode2(packed, values);
+        break;
+      case 3:
+        decode3(packed, values);
+        break;
+      case 4:
+        decode4(packed, values);
+        break;
+      case 5:
+        decode5(packed, values);
+        break;
+      case 6:
+        decode6(packed, values);
+        break;
+      case 7:
+        decode7(packed, values);
+        break;
+      case 8:
+        decode8(packed, values);
+        break;
+      case 9:
+        decode9(packed, values);
+        break;
+      case 10:
+        decode10(packed, values);
+        break;
+      case 11:
+        decode11(packed, values);
+        break;
+      case 12:
+        decode12(packed, values);
+        break;
+      case 13:
+        decode13(packed, values);
+        break;
+      case 14:
+        decode14(packed, values);
+        break;
+      case 15:
+        decode15(packed, values);
+        break;
+      case 16:
+        decode16(packed, values);
+        break;
+      case 17:
+        decode17(packed, values);
+        break;
+      case 18:
+        decode18(packed, values);
+        break;
+      case 19:
+        decode19(packed, values);
+        break;
+      case 20:
+        decode20(packed, values);
+        break;
+      case 21:
+        decode21(packed, values);
+        break;
+      case 22:
+        decode22(packed, values);
+        break;
+      case 23:
+        decode23(packed, values);
+        break;
+      case 24:
+        decode24(packed, values);
+        break;
+      case 25:
+        decode25(packed, values);
+        break;
+      case 26:
+        decode26(packed, values);
+        break;
+      case 27:
+        decode27(packed, values);
+        break;
+      case 28:
+        decode28(packed, values);
+        break;
+      case 29:
+        decode29(packed, values);
+        break;
+      case 30:
+        decode30(packed, values);
+        break;
+      case 31:
+        decode31(packed, values);
+        break;
+      case 32:
+        decode32(packed, values);
+        break;
+      default:
+        throw new AssertionError();
+    }
+  }
+
+  private static void decode1(int[] packed, int[] values) {
+    for (int i = 0; i < 4; ++i) {
+      values[i] = (packed[i] >>> 7) & 0x01010101;
+    }
+    for (int i = 0; i < 4; ++i) {
+      values[4 + i] = (packed[i] >>> 6) & 0x01010101;
+    }
+    for (int i = 0; i < 4; ++i) {
+      values[8 + i] = (packed[i] >>> 5) & 0x01010101;
+    }
+    for (int i = 0; i < 4; ++i) {
+      values[12 + i] = (packed[i] >>> 4) & 0x01010101;
+    }
+    for (int i = 0; i < 4; ++i) {
+      values[16 + i] = (packed[i] >>> 3) & 0x01010101;
+    }
+    for (int i = 0; i < 4; ++i) {
+      values[20 + i] = (packed[i] >>> 2) & 0x01010101;
+    }
+    for (int i = 0; i < 4; ++i) {
+      values[24 + i] = (packed[i] >>> 1) & 0x01010101;
+    }
+    for (int i = 0; i < 4; ++i) {
+      values[28 + i] = packed[i] & 0x01010101;
+    }
+    for (int i = 0; i < 32; ++i) {
+      values[96 + i] = values[i] & 0x000000FF;
+    }
+    for (int i = 0; i < 32; ++i) {
+      values[64 + i] = (values[i] >>> 8) & 0x000000FF;
+    }
+    for (int i = 0; i < 32; ++i) {
+      values[32 + i] = (values[i] >>> 16) & 0x000000FF;
+    }
+    for (int i = 0; i < 32; ++i) {
+      values[i] = (values[i] >>> 24);
+    }
+  }
+
+  private static void decode2(int[] packed, int[] values) {
+    for (int i = 0; i < 8; ++i) {
+      values[i] = (packed[i] >>> 6) & 0x03030303;
+    }
+    for (int i = 0; i < 8; ++i) {
+      values[8 + i] = (packed[i] >>> 4) & 0x03030303;
+    }
+    for (int i = 0; i < 8; ++i) {
+      values[16 + i] = (packed[i] >>> 2) & 0x03030303;
+    }
+    for (int i = 0; i < 8; ++i) {
+      values[24 + i] = packed[i] & 0x03030303;
+    }
+    for (int i = 0; i < 32; ++i) {
+      values[96 + i] = values[i] & 0x000000FF;
+    }
+    for (int i = 0; i < 32; ++i) {
+      values[64 + i] = (values[i] >>> 8) & 0x000000FF;
+    }
+    for (int i = 0; i < 32; ++i) {
+      values[32 + i] = (values[i] >>> 16) & 0x000000FF;
+    }
+    for (int i = 0; i < 32; ++i) {
+      values[i] = (values[i] >>> 24);
+    }
+  }
+
+  private static void decode3(int[] packed, int[] values) {
+    for (int i = 0; i < 12; ++i) {
+      values[i] = (packed[i] >>> 5) & 0x07070707;
+    }
+    for (int i = 0; i < 12; ++i) {
+      values[12 + i] = (packed[i] >>> 2) & 0x07070707;
+    }
+    for (int i = 0; i < 12; ++i) {
+      packed[i] &= 0x03030303;
+    }
+    values[24] = (packed[0] << 1) | ((packed[1] >>> 1) & 0x01010101);
+    values[25] = ((packed[1] & 0x01010101) << 2) | packed[2];
+    values[26] = (packed[3] << 1) | ((packed[4] >>> 1) & 0x01010101);
+    values[27] = ((packed[4] & 0x01010101) << 2) | packed[5];
+    values[28] = (packed[6] << 1) | ((packed[7] >>> 1) & 0x01010101);
+    values[29] = ((packed[7] & 0x01010101) << 2) | packed[8];
+    values[30] = (packed[9] << 1) | ((packed[10] >>> 1) & 0x01010101);
+    values[31] = ((packed[10] & 0x01010101) << 2) | packed[11];
+    for (int i = 0; i < 32; ++i) {
+      values[96 + i] = values[i] & 0x000000FF;
+    }
+    for (int i = 0; i < 32; ++i) {
+      values[64 + i] = (values[i] >>> 8) & 0x000000FF;
+    }
+    for (int i = 0; i < 32; ++i) {
+      values[32 + i] = (values[i] >>> 16) & 0x000000FF;
+    }
+    for (int i = 0; i < 32; ++i) {
+      values[i] = (values[i] >>> 24);
+    }
+  }
+
+  private static void decode4(int[] packed, int[] values) {
+    for (int i = 0; i < 16; ++i) {
+      values[i] = (packed[i] >>> 4) & 0x0F0F0F0F;
+    }
+    for (int i = 0; i < 16; ++i) {
+      values[16 + i] = packed[i] & 0x0F0F0F0F;
+    }
+    for (int i = 0; i < 32; ++i) {
+      values[96 + i] = values[i] & 0x000000FF;
+    }
+    for (int i = 0; i < 32; ++i) {
+      values[64 + i] = (values[i] >>> 8) & 0x000000FF;
+    }
+    for (int i = 0; i < 32; ++i) {
+      values[32 + i] = (values[i] >>> 16) & 0x000000FF;
+    }
+    for (int i = 0; i < 32; ++i) {
+      values[i] = (values[i] >>> 24);
+    }
+  }
+
+  private static void decode5(int[] packed, int[] values) {
+    for (int i = 0; i < 20; ++i) {
+      values[i] = (packed[i] >>> 3) & 0x1F1F1F1F;
+    }
+    for (int i = 0; i < 20; ++i) {
+      packed[i] &= 0x07070707;
+    }
+    values[20] = (packed[0] << 2) | ((packed[1] >>> 1) & 0x03030303);
+    values[21] = ((packed[1] & 0x01010101) << 4) | (packed[2] << 1) | ((packed[3] >>> 2) & 0x01010101);
+    values[22] = ((packed[3] & 0x03030303) << 3) | packed[4];
+    values[23] = (packed[5] << 2) | ((packed[6] >>> 1) & 0x03030303);
+    values[24] = ((packed[6] & 0x01010101) << 4) | (packed[7] << 1) | ((packed[8] >>> 2) & 0x01010101);
+    values[25] = ((packed[8] & 0x03030303) << 3) | packed[9];
+    values[26] = (packed[10] << 2) | ((packed[11] >>> 1) & 0x03030303);
+    values[27] = ((packed[11] & 0x01010101) << 4) | (packed[12] << 1) | ((packed[13] >>> 2) & 0x01010101);
+    values[28] = ((packed[13] & 0x03030303) << 3) | packed[14];
+    values[29] = (packed[15] << 2) | ((packed[16] >>> 1) & 0x03030303);
+    values[30] = ((packed[16] & 0x01010101) << 4) | (packed[17] << 1) | ((packed[18] >>> 2) & 0x01010101);
+    values[31] = ((packed[18] & 0x03030303) << 3) | packed[19];
+    for (int i = 0; i < 32; ++i) {
+      values[96 + i] = values[i] & 0x000000FF;
+    }
+    for (int i = 0; i < 32; ++i) {
+      values[64 + i] = (values[i] >>> 8) & 0x000000FF;
+    }
+    for (int i = 0; i < 32; ++i) {
+      values[32 + i] = (values[i] >>> 16) & 0x000000FF;
+    }
+    for (int i = 0; i < 32; ++i) {
+      values[i] = (values[i] >>> 24);
+    }
+  }
+
+  private static void decode6(int[] packed, int[] values) {
+    for (int i = 0; i < 24; ++i) {
+      values[i] = (packed[i] >>> 2) & 0x3F3F3F3F;
+    }
+    for (int i = 0; i < 24; ++i) {
+      packed[i] &= 0x03030303;
+    }
+    values[24] = (packed[0] << 4) | (packed[1] << 2) | packed[2];
+    values[25] = (packed[3] << 4) | (packed[4] << 2) | packed[5];
+    values[26] = (packed[6] << 4) | (packed[7] << 2) | packed[8];
+    values[27] = (packed[9] << 4) | (packed[10] << 2) | packed[11];
+    values[28] = (packed[12] << 4) | (packed[13] << 2) | packed[14];
+    values[29] = (packed[15] << 4) | (packed[16] << 2) | packed[17];
+    values[30] = (packed[18] << 4) | (packed[19] << 2) | packed[20];
+    values[31] = (packed[21] << 4) | (packed[22] << 2) | packed[23];
+    for (int i = 0; i < 32; ++i) {
+      values[96 + i] = values[i] & 0x000000FF;
+    }
+    for (int i = 0; i < 32; ++i) {
+      values[64 + i] = (values[i] >>> 8) & 0x000000FF;
+    }
+    for (int i = 0; i < 32; ++i) {
+      values[32 + i] = (values[i] >>> 16) & 0x000000FF;
+    }
+    for (int i = 0; i < 32; ++i) {
+      values[i] = (values[i] >>> 24);
+    }
+  }
+
+  private static void decode7(int[] packed, int[] values) {
+    for (int i = 0; i < 28; ++i) {
+      values[i] = (packed[i] >>> 1) & 0x7F7F7F7F;
+    }
+    for (int i = 0; i < 28; ++i) {
+      packed[i] &= 0x01010101;
+    }
+    values[28] = (packed[0] << 6) | (packed[1] << 5) | (packed[2] << 4) | (packed[3] << 3) | (packed[4] << 2) | (packed[5] << 1) | packed[6];
+    values[29] = (packed[7] << 6) | (packed[8] << 5) | (packed[9] << 4) | (packed[10] << 3) | (packed[11] << 2) | (packed[12] << 1) | packed[13];
+    values[30] = (packed[14] << 6) | (packed[15] << 5) | (packed[16] << 4) | (packed[17] << 3) | (packed[18] << 2) | (packed[19] << 1) | packed[20];
+    values[31] = (packed[21] << 6) | (packed[22] << 5) | (packed[23] << 4) | (packed[24] << 3) | (packed[25] << 2) | (packed[26] << 1) | packed[27];
+    for (int i = 0; i < 32; ++i) {
+      values[96 + i] = values[i] & 0x000000FF;
+    }
+    for (int i = 0; i < 32; ++i) {
+      values[64 + i] = (values[i] >>> 8) & 0x000000FF;
+    }
+    for (int i = 0; i < 32; ++i) {
+      values[32 + i] = (values[i] >>> 16) & 0x000000FF;
+    }
+    for (int i = 0; i < 32; ++i) {
+      values[i] = (values[i] >>> 24);
+    }
+  }
+
+  private static void decode8(int[] packed, int[] values) {
+    for (int i = 0; i < 32; ++i) {
+      values[96 + i] = packed[i] & 0x000000FF;
+    }
+    for (int i = 0; i < 32; ++i) {
+      values[64 + i] = (packed[i] >>> 8) & 0x000000FF;
+    }
+    for (int i = 0; i < 32; ++i) {
+      values[32 + i] = (packed[i] >>> 16) & 0x000000FF;
+    }
+    for (int i = 0; i < 32; ++i) {
+      values[i] = (packed[i] >>> 24);
+    }
+  }
+
+  private static void decode9(int[] packed, int[] values) {
+    for (int i = 0; i < 36; ++i) {
+      values[i] = (packed[i] >>> 7) & 0x01FF01FF;
+    }
+    for (int i = 0; i < 36; ++i) {
+      packed[i] &= 0x007F007F;
+    }
+    values[36] = (packed[0] << 2) | ((packed[1] >>> 5) & 0x00030003);
+    values[37] = ((packed[1] & 0x001F001F) << 4) | ((packed[2] >>> 3) & 0x000F000F);
+    values[38] = ((packed[2] & 0x00070007) << 6) | ((packed[3] >>> 1) & 0x003F003F);
+    values[39] = ((packed[3] & 0x00010001) << 8) | (packed[4] << 1) | ((packed[5] >>> 6) & 0x00010001);
+    values[40] = ((packed[5] & 0x003F003F) << 3) | ((packed[6] >>> 4) & 0x00070007);
+    values[41] = ((packed[6] & 0x000F000F) << 5) | ((packed[7] >>> 2) & 0x001F001F);
+    values[42] = ((packed[7] & 0x00030003) << 7) | packed[8];
+    values[43] = (packed[9] << 2) | ((packed[10] >>> 5) & 0x00030003);
+    values[44] = ((packed[10] & 0x001F001F) << 4) | ((packed[11] >>> 3) & 0x000F000F);
+    values[45] = ((packed[11] & 0x00070007) << 6) | ((packed[12] >>> 1) & 0x003F003F);
+    values[46] = ((packed[12] & 0x00010001) << 8) | (packed[13] << 1) | ((packed[14] >>> 6) & 0x00010001);
+    values[47] = ((packed[14] & 0x003F003F) << 3) | ((packed[15] >>> 4) & 0x00070007);
+    values[48] = ((packed[15] & 0x000F000F) << 5) | ((packed[16] >>> 2) & 0x001F001F);
+    values[49] = ((packed[16] & 0x00030003) << 7) | packed[17];
+    values[50] = (packed[18] << 2) | ((packed[19] >>> 5) & 0x00030003);
+    values[51] = ((packed[19] & 0x001F001F) << 4) | ((packed[20] >>> 3) & 0x000F000F);
+    values[52] = ((packed[20] & 0x00070007) << 6) | ((packed[21] >>> 1) & 0x003F003F);
+    values[53] = ((packed[21] & 0x00010001) << 8) | (packed[22] << 1) | ((packed[23] >>> 6) & 0x00010001);
+    values[54] = ((packed[23] & 0x003F003F) << 3) | ((packed[24] >>> 4) & 0x00070007);
+    values[55] = ((packed[24] & 0x000F000F) << 5) | ((packed[25] >>> 2) & 0x001F001F);
+    values[56] = ((packed[25] & 0x00030003) << 7) | packed[26];
+    values[57] = (packed[27] << 2) | ((packed[28] >>> 5) & 0x00030003);
+    values[58] = ((packed[28] & 0x001F001F) << 4) | ((packed[29] >>> 3) & 0x000F000F);
+    values[59] = ((packed[29] & 0x00070007) << 6) | ((packed[30] >>> 1) & 0x003F003F);
+    values[60] = ((packed[30] & 0x00010001) << 8) | (packed[31] << 1) | ((packed[32] >>> 6) & 0x00010001);
+    values[61] = ((packed[32] & 0x003F003F) << 3) | ((packed[33] >>> 4) & 0x00070007);
+    values[62] = ((packed[33] & 0x000F000F) << 5) | ((packed[34] >>> 2) & 0x001F001F);
+    values[63] = ((packed[34] & 0x00030003) << 7) | packed[35];
+    for (int i = 0; i < 64; ++i) {
+      values[64 + i] = values[i] & 0x0000FFFF;
+    }
+    for (int i = 0; i < 64; ++i) {
+      values[i] = (values[i] >>> 16);
+    }
+  }
+
+  private static void decode10(int[] packed, int[] values) {
+    for (int i = 0; i < 40; ++i) {
+      values[i] = (packed[i] >>> 6) & 0x03FF03FF;
+    }
+    for (int i = 0; i < 40; ++i) {
+      packed[i] &= 0x003F003F;
+    }
+    values[40] = (packed[0] << 4) | ((packed[1] >>> 2) & 0x000F000F);
+    values[41] = ((packed[1] & 0x00030003) << 8) | (packed[2] << 2) | ((packed[3] >>> 4) & 0x00030003);
+    values[42] = ((packed[3] & 0x000F000F) << 6) | packed[4];
+    values[43] = (packed[5] << 4) | ((packed[6] >>> 2) & 0x000F000F);
+    values[44] = ((packed[6] & 0x00030003) << 8) | (packed[7] << 2) | ((packed[8] >>> 4) & 0x00030003);
+    values[45] = ((packed[8] & 0x000F000F) << 6) | packed[9];
+    values[46] = (packed[10] << 4) | ((packed[11] >>> 2) & 0x000F000F);
+    values[47] = ((packed[11] & 0x00030003) << 8) | (packed[12] << 2) | ((packed[13] >>> 4) & 0x00030003);
+    values[48] = ((packed[13] & 0x000F000F) << 6) | packed[14];
+    values[49] = (packed[15] << 4) | ((packed[16] >>> 2) & 0x000F000F);
+    values[50] = ((packed[16] & 0x00030003) << 8) | (packed[17] << 2) | ((packed[18] >>> 4) & 0x00030003);
+    values[51] = ((packed[18] & 0x000F000F) << 6) | packed[19];
+    values[52] = (packed[20] << 4) | ((packed[21] >>> 2) & 0x000F000F);
+    values[53] = ((packed[21] & 0x00030003) << 8) | (packed[22] << 2) | ((packed[23] >>> 4) & 0x00030003);
+    values[54] = ((packed[23] & 0x000F000F) << 6) | packed[24];
+    values[55] = (packed[25] << 4) | ((packed[26] >>> 2) & 0x000F000F);
+    values[56] = ((packed[26] & 0x00030003) << 8) | (packed[27] << 2) | ((packed[28] >>> 4) & 0x00030003);
+    values[57] = ((packed[28] & 0x000F000F) << 6) | packed[29];
+    values[58] = (packed[30] << 4) | ((packed[31] >>> 2) & 0x000F000F);
+    values[59] = ((packed[31] & 0x00030003) << 8) | (packed[32] << 2) | ((packed[33] >>> 4) & 0x00030003);
+    values[60] = ((packed[33] & 0x000F000F) << 6) | packed[34];
+    values[61] = (packed[35] << 4) | ((packed[36] >>> 2) & 0x000F000F);
+    values[62] = ((packed[36] & 0x00030003) << 8) | (packed[37] << 2) | ((packed[38] >>> 4) & 0x00030003);
+    values[63] = ((packed[38] & 0x000F000F) << 6) | packed[39];
+    for (int i = 0; i < 64; ++i) {
+      values[64 + i] = values[i] & 0x0000FFFF;
+    }
+    for (int i = 0; i < 64; ++i) {
+      values[i] = (values[i] >>> 16);
+    }
+  }
+
+  private static void decode11(int[] packed, int[] values) {
+    for (int i = 0; i < 44; ++i) {
+      values[i] = (packed[i] >>> 5) & 0x07FF07FF;
+    }
+    for (int i = 0; i < 44; ++i) {
+      packed[i] &= 0x001F001F;
+    }
+    values[44] = (packed[0] << 6) | (packed[1] << 1) | ((packed[2] >>> 4) & 0x00010001);
+    values[45] = ((packed[2] & 0x000F000F) << 7) | (packed[3] << 2) | ((packed[4] >>> 3) & 0x00030003);
+    values[46] = ((packed[4] & 0x00070007) << 8) | (packed[5] << 3) | ((packed[6] >>> 2) & 0x00070007);
+    values[47] = ((packed[6] & 0x00030003) << 9) | (packed[7] << 4) | ((packed[8] >>> 1) & 0x000F000F);
+    values[48] = ((packed[8] & 0x00010001) << 10) | (packed[9] << 5) | packed[10];
+    values[49] = (packed[11] << 6) | (packed[12] << 1) | ((packed[13] >>> 4) & 0x00010001);
+    values[50] = ((packed[13] & 0x000F000F) << 7) | (packed[14] << 2) | ((packed[15] >>> 3) & 0x00030003);
+    values[51] = ((packed[15] & 0x00070007) << 8) | (packed[16] << 3) | ((packed[17] >>> 2) & 0x00070007);
+    values[52] = ((packed[17] & 0x00030003) << 9) | (packed[18] << 4) | ((packed[19] >>> 1) & 0x000F000F);
+    values[53] = ((packed[19] & 0x00010001) << 10) | (packed[20] << 5) | packed[21];
+    values[54] = (packed[22] << 6) | (packed[23] << 1) | ((packed[24] >>> 4) & 0x00010001);
+    values[55] = ((packed[24] & 0x000F000F) << 7) | (packed[25] << 2) | ((packed[26] >>> 3) & 0x00030003);
+    values[56] = ((packed[26] & 0x00070007) << 8) | (packed[27] << 3) | ((packed[28] >>> 2) & 0x00070007);
+    values[57] = ((packed[28] & 0x00030003) << 9) | (packed[29] << 4) | ((packed[30] >>> 1) & 0x000F000F);
+    values[58] = ((packed[30] & 0x00010001) << 10) | (packed[31] << 5) | packed[32];
+    values[59] = (packed[33] << 6) | (packed[34] << 1) | ((packed[35] >>> 4) & 0x00010001);
+    values[60] = ((packed[35] & 0x000F000F) << 7) | (packed[36] << 2) | ((packed[37] >>> 3) & 0x00030003);
+    values[61] = ((packed[37] & 0x00070007) << 8) | (packed[38] << 3) | ((packed[39] >>> 2) & 0x00070007);
+    values[62] = ((packed[39] & 0x00030003) << 9) | (packed[40] << 4) | ((packed[41] >>> 1) & 0x000F000F);
+    values[63] = ((packed[41] & 0x00010001) << 10) | (packed[42] << 5) | packed[43];
+    for (int i = 0; i < 64; ++i) {
+      values[64 + i] = values[i] & 0x0000FFFF;
+    }
+    for (int i = 0; i < 64; ++i) {
+      values[i] = (values[i] >>> 16);
+    }
+  }
+
+  private static void decode12(int[] packed, int[] values) {
+    for (int i = 0; i < 48; ++i) {
+      values[i] = (packed[i] >>> 4) & 0x0FFF0FFF;
+    }
+    for (int i = 0; i < 48; ++i) {
+      packed[i] &= 0x000F000F;
+    }
+    values[48] = (packed[0] << 8) | (packed[1] << 4) | packed[2];
+    values[49] = (packed[3] << 8) | (packed[4] << 4) | packed[5];
+    values[50] = (packed[6] << 8) | (packed[7] << 4) | packed[8];
+    values[51] = (packed[9] << 8) | (packed[10] << 4) | packed[11];
+    values[52] = (packed[12] << 8) | (packed[13] << 4) | packed[14];
+    values[53] = (packed[15] << 8) | (packed[16] << 4) | packed[17];
+    values[54] = (packed[18] << 8) | (packed[19] << 4) | packed[20];
+    values[55] = (packed[21] << 8) | (packed[22] << 4) | packed[23];
+    values[56] = (packed[24] << 8) | (packed[25] << 4) | packed[26];
+    values[57] = (packed[27] << 8) | (packed[28] << 4) | packed[29];
+    values[58] = (packed[30] << 8) | (packed[31] << 4) | packed[32];
+    values[59] = (packed[33] << 8) | (packed[34] << 4) | packed[35];
+    values[60] = (packed[36] << 8) | (packed[37] << 4) | packed[38];
+    values[61] = (packed[39] << 8) | (packed[40] << 4) | packed[41];
+    values[62] = (packed[42] << 8) | (packed[43] << 4) | packed[44];
+    values[63] = (packed[45] << 8) | (packed[46] << 4) | packed[47];
+    for (int i = 0; i < 64; ++i) {
+      values[64 + i] = values[i] & 0x0000FFFF;
+    }
+    for (int i = 0; i < 64; ++i) {
+      values[i] = (values[i] >>> 16);
+    }
+  }
+
+  private static void decode13(int[] packed, int[] values) {
+    for (int i = 0; i < 52; ++i) {
+      values[i] = (packed[i] >>> 3) & 0x1FFF1FFF;
+    }
+    for (int i = 0; i < 52; ++i) {
+      packed[i] &= 0x00070007;
+    }
+    values[52] = (packed[0] << 10) | (packed[1] << 7) | (packed[2] << 4) | (packed[3] << 1) | ((packed[4] >>> 2) & 0x00010001);
+    values[53] = ((packed[4] & 0x00030003) << 11) | (packed[5] << 8) | (packed[6] << 5) | (packed[7] << 2) | ((packed[8] >>> 1) & 0x00030003);
+    values[54] = ((packed[8] & 0x00010001) << 12) | (packed[9] << 9) | (packed[10] << 6) | (packed[11] << 3) | packed[12];
+    values[55] = (packed[13] << 10) | (packed[14] << 7) | (packed[15] << 4) | (packed[16] << 1) | ((packed[17] >>> 2) & 0x00010001);
+    values[56] = ((packed[17] & 0x00030003) << 11) | (packed[18] << 8) | (packed[19] << 5) | (packed[20] << 2) | ((packed[21] >>> 1) & 0x00030003);
+    values[57] = ((packed[21] & 0x00010001) << 12) | (packed[22] << 9) | (packed[23] << 6) | (packed[24] << 3) | packed[25];
+    values[58] = (packed[26] << 10) | (packed[27] << 7) | (packed[28] << 4) | (packed[29] << 1) | ((packed[30] >>> 2) & 0x00010001);
+    values[59] = ((packed[30] & 0x00030003) << 11) | (packed[31] << 8) | (packed[32] << 5) | (packed[33] << 2) | ((packed[34] >>> 1) & 0x00030003);
+    values[60] = ((packed[34] & 0x00010001) << 12) | (packed[35] << 9) | (packed[36] << 6) | (packed[37] << 3) | packed[38];
+    values[61] = (packed[39] << 10) | (packed[40] << 7) | (packed[41] << 4) | (packed[42] << 1) | ((packed[43] >>> 2) & 0x00010001);
+    values[62] = ((packed[43] & 0x00030003) << 11) | (packed[44] << 8) | (packed[45] << 5) | (packed[46] << 2) | ((packed[47] >>> 1) & 0x00030003);
+    values[63] = ((packed[47] & 0x00010001) << 12) | (packed[48] << 9) | (packed[49] << 6) | (packed[50] << 3) | packed[51];
+    for (int i = 0; i < 64; ++i) {
+      values[64 + i] = values[i] & 0x0000FFFF;
+    }
+    for (int i = 0; i < 64; ++i) {
+      values[i] = (values[i] >>> 16);
+    }
+  }
+
+  private static void decode14(int[] packed, int[] values) {
+    for (int i = 0; i < 56; ++i) {
+      values[i] = (packed[i] >>> 2) & 0x3FFF3FFF;
+    }
+    for (int i = 0; i < 56; ++i) {
+      packed[i] &= 0x00030003;
+    }
+    values[56] = (packed[0] << 12) | (packed[1] << 10) | (packed[2] << 8) | (packed[3] << 6) | (packed[4] << 4) | (packed[5] << 2) | packed[6];
+    values[57] = (packed[7] << 12) | (packed[8] << 10) | (packed[9] << 8) | (packed[10] << 6) | (packed[11] << 4) | (packed[12] << 2) | packed[13];
+    values[58] = (packed[14] << 12) | (packed[15] << 10) | (packed[16] << 8) | (packed[17] << 6) | (packed[18] << 4) | (packed[19] << 2) | packed[20];
+    values[59] = (packed[21] << 12) | (packed[22] << 10) | (packed[23] << 8) | (packed[24] << 6) | (packed[25] << 4) | (packed[26] << 2) | packed[27];
+    values[60] = (packed[28] << 12) | (packed[29] << 10) | (packed[30] << 8) | (packed[31] << 6) | (packed[32] << 4) | (packed[33] << 2) | packed[34];
+    values[61] = (packed[35] << 12) | (packed[36] << 10) | (packed[37] << 8) | (packed[38] << 6) | (packed[39] << 4) | (packed[40] << 2) | packed[41];
+    values[62] = (packed[42] << 12) | (packed[43] << 10) | (packed[44] << 8) | (packed[45] << 6) | (packed[46] << 4) | (packed[47] << 2) | packed[48];
+    values[63] = (packed[49] << 12) | (packed[50] << 10) | (packed[51] << 8) | (packed[52] << 6) | (packed[53] << 4) | (packed[54] << 2) | packed[55];
+    for (int i = 0; i < 64; ++i) {
+      values[64 + i] = values[i] & 0x0000FFFF;
+    }
+    for (int i = 0; i < 64; ++i) {
+      values[i] = (values[i] >>> 16);
+    }
+  }
+
+  private static void decode15(int[] packed, int[] values) {
+    for (int i = 0; i < 60; ++i) {
+      values[i] = (packed[i] >>> 1) & 0x7FFF7FFF;
+    }
+    for (int i = 0; i < 60; ++i) {
+      packed[i] &= 0x00010001;
+    }
+    values[60] = (packed[0] << 14) | (packed[1] << 13) | (packed[2] << 12) | (packed[3] << 11) | (packed[4] << 10) | (packed[5] << 9) | (packed[6] << 8) | (packed[7] << 7) | (packed[8] << 6) | (packed[9] << 5) | (packed[10] << 4) | (packed[11] << 3) | (packed[12] << 2) | (packed[13] << 1) | packed[14];
+    values[61] = (packed[15] << 14) | (packed[16] << 13) | (packed[17] << 12) | (packed[18] << 11) | (packed[19] << 10) | (packed[20] << 9) | (packed[21] << 8) | (packed[22] << 7) | (packed[23] << 6) | (packed[24] << 5) | (packed[25] << 4) | (packed[26] << 3) | (packed[27] << 2) | (packed[28] << 1) | packed[29];
+    values[62] = (packed[30] << 14) | (packed[31] << 13) | (packed[32] << 12) | (packed[33] << 11) | (packed[34] << 10) | (packed[35] << 9) | (packed[36] << 8) | (packed[37] << 7) | (packed[38] << 6) | (packed[39] << 5) | (packed[40] << 4) | (packed[41] << 3) | (packed[42] << 2) | (packed[43] << 1) | packed[44];
+    values[63] = (packed[45] << 14) | (packed[46] << 13) | (packed[47] << 12) | (packed[48] << 11) | (packed[49] << 10) | (packed[50] << 9) | (packed[51] << 8) | (packed[52] << 7) | (packed[53] << 6) | (packed[54] << 5) | (packed[55] << 4) | (packed[56] << 3) | (packed[57] << 2) | (packed[58] << 1) | packed[59];
+    for (int i = 0; i < 64; ++i) {
+      values[64 + i] = values[i] & 0x0000FFFF;
+    }
+    for (int i = 0; i < 64; ++i) {
+      values[i] = (values[i] >>> 16);
+    }
+  }
+
+  private static void decode16(int[] packed, int[] values) {
+    for (int i = 0; i < 64; ++i) {
+      values[64 + i] = packed[i] & 0x0000FFFF;
+    }
+    for (int i = 0; i < 64; ++i) {
+      values[i] = (packed[i] >>> 16);
+    }
+  }
+
+  private static void decode17(int[] packed, int[] values) {
+    for (int i = 0; i < 68; ++i) {
+      values[i] = (packed[i] >>> 15);
+    }
+    for (int i = 0; i < 68; ++i) {
+      packed[i] &= 0x00007FFF;
+    }
+    values[68] = (packed[0] << 2) | (packed[1] >>> 13);
+    values[69] = ((packed[1] & 0x00001FFF) << 4) | (packed[2] >>> 11);
+    values[70] = ((packed[2] & 0x000007FF) << 6) | (packed[3] >>> 9);
+    values[71] = ((packed[3] & 0x000001FF) << 8) | (packed[4] >>> 7);
+    values[72] = ((packed[4] & 0x0000007F) << 10) | (packed[5] >>> 5);
+    values[73] = ((packed[5] & 0x0000001F) << 12) | (packed[6] >>> 3);
+    values[74] = ((packed[6] & 0x00000007) << 14) | (packed[7] >>> 1);
+    values[75] = ((packed[7] & 0x00000001) << 16) | (packed[8] << 1) | (packed[9] >>> 14);
+    values[76] = ((packed[9] & 0x00003FFF) << 3) | (packed[10] >>> 12);
+    values[77] = ((packed[10] & 0x00000FFF) << 5) | (packed[11] >>> 10);
+    values[78] = ((packed[11] & 0x000003FF) << 7) | (packed[12] >>> 8);
+    values[79] = ((packed[12] & 0x000000FF) << 9) | (packed[13] >>> 6);
+    values[80] = ((packed[13] & 0x0000003F) << 11) | (packed[14] >>> 4);
+    values[81] = ((packed[14] & 0x0000000F) << 13) | (packed[15] >>> 2);
+    values[82] = ((packed[15] & 0x00000003) << 15) | packed[16];
+    values[83] = (packed[17] << 2) | (packed[18] >>> 13);
+    values[84] = ((packed[18] & 0x00001FFF) << 4) | (packed[19] >>> 11);
+    values[85] = ((packed[19] & 0x000007FF) << 6) | (packed[20] >>> 9);
+    values[86] = ((packed[20] & 0x000001FF) << 8) | (packed[21] >>> 7);
+    values[87] = ((packed[21] & 0x0000007F) << 10) | (packed[22] >>> 5);
+    values[88] = ((packed[22] & 0x0000001F) << 12) | (packed[23] >>> 3);
+    values[89] = ((packed[23] & 0x00000007) << 14) | (packed[24] >>> 1);
+    values[90] = ((packed[24] & 0x00000001) << 16) | (packed[25] << 1) | (packed[26] >>> 14);
+    values[91] = ((packed[26] & 0x00003FFF) << 3) | (packed[27] >>> 12);
+    values[92] = ((packed[27] & 0x00000FFF) << 5) | (packed[28] >>> 10);
+    values[93] = ((packed[28] & 0x000003FF) << 7) | (packed[29] >>> 8);
+    values[94] = ((packed[29] & 0x000000FF) << 9) | (packed[30] >>> 6);
+    values[95] = ((packed[30] & 0x0000003F) << 11) | (packed[31] >>> 4);
+    values[96] = ((packed[31] & 0x0000000F) << 13) | (packed[32] >>> 2);
+    values[97] = ((packed[32] & 0x00000003) << 15) | packed[33];
+    values[98] = (packed[34] << 2) | (packed[35] >>> 13);
+    values[99] = ((packed[35] & 0x00001FFF) << 4) | (packed[36] >>> 11);
+    values[100] = ((packed[36] & 0x000007FF) << 6) | (packed[37] >>> 9);
+    values[101] = ((packed[37] & 0x000001FF) << 8) | (packed[38] >>> 7);
+    values[102] = ((packed[38] & 0x0000007F) << 10) | (packed[39] >>> 5);
+    values[103] = ((packed[39] & 0x0000001F) << 12) | (packed[40] >>> 3);
+    values[104] = ((packed[40] & 0x00000007) << 14) | (packed[41] >>> 1);
+    values[105] = ((packed[41] & 0x00000001) << 16) | (packed[42] << 1) | (packed[43] >>> 14);
+    values[106] = ((packed[43] & 0x00003FFF) << 3) | (packed[44] >>> 12);
+    values[107] = ((packed[44] & 0x00000FFF) << 5) | (packed[45] >>> 10);
+    values[108] = ((packed[45] & 0x000003FF) << 7) | (packed[46] >>> 8);
+    values[109] = ((packed[46] & 0x000000FF) << 9) | (packed[47] >>> 6);
+    values[110] = ((packed[47] & 0x0000003F) << 11) | (packed[48] >>> 4);
+    values[111] = ((packed[48] & 0x0000000F) << 13) | (packed[49] >>> 2);
+    values[112] = ((packed[49] & 0x00000003) << 15) | packed[50];
+    values[113] = (packed[51] << 2) | (packed[52] >>> 13);
+    values[114] = ((packed[52] & 0x00001FFF) << 4) | (packed[53] >>> 11);
+    values[115] = ((packed[53] & 0x000007FF) << 6) | (packed[54] >>> 9);
+    values[116] = ((packed[54] & 0x000001FF) << 8) | (packed[55] >>> 7);
+    values[117] = ((packed[55] & 0x0000007F) << 10) | (packed[56] >>> 5);
+    values[118] = ((packed[56] & 0x0000001F) << 12) | (packed[57] >>> 3);
+    values[119] = ((packed[57] & 0x00000007) << 14) | (packed[58] >>> 1);
+    values[120] = ((packed[58] & 0x00000001) << 16) | (packed[59] << 1) | (packed[60] >>> 14);
+    values[121] = ((packed[60] & 0x00003FFF) << 3) | (packed[61] >>> 12);
+    values[122] = ((packed[61] & 0x00000FFF) << 5) | (packed[62] >>> 10);
+    values[123] = ((packed[62] & 0x000003FF) << 7) | (packed[63] >>> 8);
+    values[124] = ((packed[63] & 0x000000FF) << 9) | (packed[64] >>> 6);
+    values[125] = ((packed[64] & 0x0000003F) << 11) | (packed[65] >>> 4);
+    values[126] = ((packed[65] & 0x0000000F) << 13) | (packed[66] >>> 2);
+    values[127] = ((packed[66] & 0x00000003) << 15) | packed[67];
+  }
+
+  private static void decode18(int[] packed, int[] values) {
+    for (int i = 0; i < 72; ++i) {
+      values[i] = (packed[i] >>> 14);
+    }
+    for (int i = 0; i < 72; ++i) {
+      packed[i] &= 0x00003FFF;
+    }
+    values[72] = (packed[0] << 4) | (packed[1] >>> 10);
+    values[73] = ((packed[1] & 0x000003FF) << 8) | (packed[2] >>> 6);
+    values[74] = ((packed[2] & 0x0000003F) << 12) | (packed[3] >>> 2);
+    values[75] = ((packed[3] & 0x00000003) << 16) | (packed[4] << 2) | (packed[5] >>> 12);
+    values[76] = ((packed[5] & 0x00000FFF) << 6) | (packed[6] >>> 8);
+    values[77] = ((packed[6] & 0x000000FF) << 10) | (packed[7] >>> 4);
+    values[78] = ((packed[7] & 0x0000000F) << 14) | packed[8];
+    values[79] = (packed[9] << 4) | (packed[10] >>> 10);
+    values[80] = ((packed[10] & 0x000003FF) << 8) | (packed[11] >>> 6);
+    values[81] = ((packed[11] & 0x0000003F) << 12) | (packed[12] >>> 2);
+    values[82] = ((packed[12] & 0x00000003) << 16) | (packed[13] << 2) | (packed[14] >>> 12);
+    values[83] = ((packed[14] & 0x00000FFF) << 6) | (packed[15] >>> 8);
+    values[84] = ((packed[15] & 0x000000FF) << 10) | (packed[16] >>> 4);
+    values[85] = ((packed[16] & 0x0000000F) << 14) | packed[17];
+    values[86] = (packed[18] << 4) | (packed[19] >>> 10);
+    values[87] = ((packed[19] & 0x000003FF) << 8) | (packed[20] >>> 6);
+    values[88] = ((packed[20] & 0x0000003F) << 12) | (packed[21] >>> 2);
+    values[89] = ((packed[21] & 0x00000003) << 16) | (packed[22] << 2) | (packed[23] >>> 12);
+    values[90] = ((packed[23] & 0x00000FFF) << 6) | (packed[24] >>> 8);
+    values[91] = ((packed[24] & 0x000000FF) << 10) | (packed[25] >>> 4);
+    values[92] = ((packed[25] & 0x0000000F) << 14) | packed[26];
+    values[93] = (packed[27] << 4) | (packed[28] >>> 10);
+    values[94] = ((packed[28] & 0x000003FF) << 8) | (packed[29] >>> 6);
+    values[95] = ((packed[29] & 0x0000003F) << 12) | (packed[30] >>> 2);
+    values[96] = ((packed[30] & 0x00000003) << 16) | (packed[31] << 2) | (packed[32] >>> 12);
+    values[97] = ((packed[32] & 0x00000FFF) << 6) | (packed[33] >>> 8);
+    values[98] = ((packed[33] & 0x000000FF) << 10) | (packed[34] >>> 4);
+    values[99] = ((packed[34] & 0x0000000F) << 14) | packed[35];
+    values[100] = (packed[36] << 4) | (packed[37] >>> 10);
+    values[101] = ((packed[37] & 0x000003FF) << 8) | (packed[38] >>> 6);
+    values[102] = ((packed[38] & 0x0000003F) << 12) | (packed[39] >>> 2);
+    values[103] = ((packed[39] & 0x00000003) << 16) | (packed[40] << 2) | (packed[41] >>> 12);
+    values[104] = ((packed[41] & 0x00000FFF) << 6) | (packed[42] >>> 8);
+    values[105] = ((packed[42] & 0x000000FF) << 10) | (packed[43] >>> 4);
+    values[106] = ((packed[43] & 0x0000000F) << 14) | packed[44];
+    values[107] = (packed[45] << 4) | (packed[46] >>> 10);
+    values[108] = ((packed[46] & 0x000003FF) << 8) | (packed[47] >>> 6);
+    values[109] = ((packed[47] & 0x0000003F) << 12) | (packed[48] >>> 2);
+    values[110] = ((packed[48] & 0x00000003) << 16) | (packed[49] << 2) | (packed[50] >>> 12);
+    values[111] = ((packed[50] & 0x00000FFF) << 6) | (packed[51] >>> 8);
+    values[112] = ((packed[51] & 0x000000FF) << 10) | (packed[52] >>> 4);
+    values[113] = ((packed[52] & 0x0000000F) << 14) | packed[53];
+    values[114] = (packed[54] << 4) | (packed[55] >>> 10);
+    values[115] = ((packed[55] & 0x000003FF) << 8) | (packed[56] >>> 6);
+    values[116] = ((packed[56] & 0x0000003F) << 12) | (packed[57] >>> 2);
+    values[117] = ((packed[57] & 0x00000003) << 16) | (packed[58] << 2) | (packed[59] >>> 12);
+    values[118] = ((packed[59] & 0x00000FFF) << 6) | (packed[60] >>> 8);
+    values[119] = ((packed[60] & 0x000000FF) << 10) | (packed[61] >>> 4);
+    values[120] = ((packed[61] & 0x0000000F) << 14) | packed[62];
+    values[121] = (packed[63] << 4) | (packed[64] >>> 10);
+    values[122] = ((packed[64] & 0x000003FF) << 8) | (packed[65] >>> 6);
+    values[123] = ((packed[65] & 0x0000003F) << 12) | (packed[66] >>> 2);
+    values[124] = ((packed[66] & 0x00000003) << 16) | (packed[67] << 2) | (packed[68] >>> 12);
+    values[125] = ((packed[68] & 0x00000FFF) << 6) | (packed[69] >>> 8);
+    values[126] = ((packed[69] & 0x000000FF) << 10) | (packed[70] >>> 4);
+    values[127] = ((packed[70] & 0x0000000F) << 14) | packed[71];
+  }
+
+  private static void decode19(int[] packed, int[] values) {
+    for (int i = 0; i < 76; ++i) {
+      values[i] = (packed[i] >>> 13);
+    }
+    for (int i = 0; i < 76; ++i) {
+      packed[i] &= 0x00001FFF;
+    }
+    values[76] = (packed[0] << 6) | (packed[1] >>> 7);
+    values[77] = ((packed[1] & 0x0000007F) << 12) | (packed[2] >>> 1);
+    values[78] = ((packed[2] & 0x00000001) << 18) | (packed[3] << 5) | (packed[4] >>> 8);
+    values[79] = ((packed[4] & 0x000000FF) << 11) | (packed[5] >>> 2);
+    values[80] = ((packed[5] & 0x00000003) << 17) | (packed[6] << 4) | (packed[7] >>> 9);
+    values[81] = ((packed[7] & 0x000001FF) << 10) | (packed[8] >>> 3);
+    values[82] = ((packed[8] & 0x00000007) << 16) | (packed[9] << 3) | (packed[10] >>> 10);
+    values[83] = ((packed[10] & 0x000003FF) << 9) | (packed[11] >>> 4);
+    values[84] = ((packed[11] & 0x0000000F) << 15) | (packed[12] << 2) | (packed[13] >>> 11);
+    values[85] = ((packed[13] & 0x000007FF) << 8) | (packed[14] >>> 5);
+    values[86] = ((packed[14] & 0x0000001F) << 14) | (packed[15] << 1) | (packed[16] >>> 12);
+    values[87] = ((packed[16] & 0x00000FFF) << 7) | (packed[17] >>> 6);
+    values[88] = ((packed[17] & 0x0000003F) << 13) | packed[18];
+    values[89] = (packed[19] << 6) | (packed[20] >>> 7);
+    values[90] = ((packed[20] & 0x0000007F) << 12) | (packed[21] >>> 1);
+    values[91] = ((packed[21] & 0x00000001) << 18) | (packed[22] << 5) | (packed[23] >>> 8);
+    values[92] = ((packed[23] & 0x000000FF) << 11) | (packed[24] >>> 2);
+    values[93] = ((packed[24] & 0x00000003) << 17) | (packed[25] << 4) | (packed[26] >>> 9);
+    values[94] = ((packed[26] & 0x000001FF) << 10) | (packed[27] >>> 3);
+    values[95] = ((packed[27] & 0x00000007) << 16) | (packed[28] << 3) | (packed[29] >>> 10);
+    values[96] = ((packed[29] & 0x000003FF) << 9) | (packed[30] >>> 4);
+    values[97] = ((packed[30] & 0x0000000F) << 15) | (packed[31] << 2) | (packed[32] >>> 11);
+    values[98] = ((packed[32] & 0x000007FF) << 8) | (packed[33] >>> 5);
+    values[99] = ((packed[33] & 0x0000001F) << 14) | (packed[34] << 1) | (packed[35] >>> 12);
+    values[100] = ((packed[35] & 0x00000FFF) << 7) | (packed[36] >>> 6);
+    values[101] = ((packed[36] & 0x0000003F) << 13) | packed[37];
+    values[102] = (packed[38] << 6) | (packed[39] >>> 7);
+    values[103] = ((packed[39] & 0x0000007F) << 12) | (packed[40] >>> 1);
+    values[104] = ((packed[40] & 0x00000001) << 18) | (packed[41] << 5) | (packed[42] >>> 8);
+    values[105] = ((packed[42] & 0x000000FF) << 11) | (packed[43] >>> 2);
+    values[106] = ((packed[43] & 0x00000003) << 17) | (packed[44] << 4) | (packed[45] >>> 9);
+    values[107] = ((packed[45] & 0x000001FF) << 10) | (packed[46] >>> 3);
+    values[108] = ((packed[46] & 0x00000007) << 16) | (packed[47] << 3) | (packed[48] >>> 10);
+    values[109] = ((packed[48] & 0x000003FF) << 9) | (packed[49] >>> 4);
+    values[110] = ((packed[49] & 0x0000000F) << 15) | (packed[50] << 2) | (packed[51] >>> 11);
+    values[111] = ((packed[51] & 0x000007FF) << 8) | (packed[52] >>> 5);
+    values[112] = ((packed[52] & 0x0000001F) << 14) | (packed[53] << 1) | (packed[54] >>> 12);
+    values[113] = ((packed[54] & 0x00000FFF) << 7) | (packed[55] >>> 6);
+    values[114] = ((packed[55] & 0x0000003F) << 13) | packed[56];
+    values[115] = (packed[57] << 6) | (packed[58] >>> 7);
+    values[116] = ((packed[58] & 0x0000007F) << 12) | (packed[59] >>> 1);
+    values[117] = ((packed[59] & 0x00000001) << 18) | (packed[60] << 5) | (packed[61] >>> 8);
+    values[118] = ((packed[61] & 0x000000FF) << 11) | (packed[62] >>> 2);
+    values[119] = ((packed[62] & 0x00000003) << 17) | (packed[63] << 4) | (packed[64] >>> 9);
+    values[120] = ((packed[64] & 0x000001FF) << 10) | (packed[65] >>> 3);
+    values[121] = ((packed[65] & 0x00000007) << 16) | (packed[66] << 3) | (packed[67] >>> 10);
+    values[122] = ((packed[67] & 0x000003FF) << 9) | (packed[68] >>> 4);
+    values[123] = ((packed[68] & 0x0000000F) << 15) | (packed[69] << 2) | (packed[70] >>> 11);
+    values[124] = ((packed[70] & 0x000007FF) << 8) | (packed[71] >>> 5);
+    values[125] = ((packed[71] & 0x0000001F) << 14) | (packed[72] << 1) | (packed[73] >>> 12);
+    values[126] = ((packed[73] & 0x00000FFF) << 7) | (packed[74] >>> 6);
+    values[127] = ((packed[74] & 0x0000003F) << 13) | packed[75];
+  }
+
+  private static void decode20(int[] packed, int[] values) {
+    for (int i = 0; i < 80; ++i) {
+      values[i] = (packed[i] >>> 12);
+    }
+    for (int i = 0; i < 80; ++i) {
+      packed[i] &= 0x00000FFF;
+    }
+    values[80] = (packed[0] << 8) | (packed[1] >>> 4);
+    values[81] = ((packed[1] & 0x0000000F) << 16) | (packed[2] << 4) | (packed[3] >>> 8);
+    values[82] = ((packed[3] & 0x000000FF) << 12) | packed[4];
+    values[83] = (packed[5] << 8) | (packed[6] >>> 4);
+    values[84] = ((packed[6] & 0x0000000F) << 16) | (packed[7] << 4) | (packed[8] >>> 8);
+    values[85] = ((packed[8] & 0x000000FF) << 12) | packed[9];
+    values[86] = (packed[10] << 8) | (packed[11] >>> 4);
+    values[87] = ((packed[11] & 0x0000000F) << 16) | (packed[12] << 4) | (packed[13] >>> 8);
+    values[88] = ((packed[13] & 0x000000FF) << 12) | packed[14];
+    values[89] = (packed[15] << 8) | (packed[16] >>> 4);
+    values[90] = ((packed[16] & 0x0000000F) << 16) | (packed[17] << 4) | (packed[18] >>> 8);
+    values[91] = ((packed[18] & 0x000000FF) << 12) | packed[19];
+    values[92] = (packed[20] << 8) | (packed[21] >>> 4);
+    values[93] = ((packed[21] & 0x0000000F) << 16) | (packed[22] << 4) | (packed[23] >>> 8);
+    values[94] = ((packed[23] & 0x000000FF) << 12) | packed[24];
+    values[95] = (packed[25] << 8) | (packed[26] >>> 4);
+    values[96] = ((packed[26] & 0x0000000F) << 16) | (packed[27] << 4) | (packed[28] >>> 8);
+    values[97] = ((packed[28] & 0x000000FF) << 12) | packed[29];
+    values[98] = (packed[30] << 8) | (packed[31] >>> 4);
+    values[99] = ((packed[31] & 0x0000000F) << 16) | (packed[32] << 4) | (packed[33] >>> 8);
+    values[100] = ((packed[33] & 0x000000FF) << 12) | packed[34];
+    values[101] = (packed[35] << 8) | (packed[36] >>> 4);
+    values[102] = ((packed[36] & 0x0000000F) << 16) | (packed[37] << 4) | (packed[38] >>> 8);
+    values[103] = ((packed[38] & 0x000000FF) << 12) | packed[39];
+    values[104] = (packed[40] << 8) | (packed[41] >>> 4);
+    values[105] = ((packed[41] & 0x0000000F) << 16) | (packed[42] << 4) | (packed[43] >>> 8);
+    values[106] = ((packed[43] & 0x000000FF) << 12) | packed[44];
+    values[107] = (packed[45] << 8) | (packed[46] >>> 4);
+    values[108] = ((packed[46] & 0x0000000F) << 16) | (packed[47] << 4) | (packed[48] >>> 8);
+    values[109] = ((packed[48] & 0x000000FF) << 12) | packed[49];
+    values[110] = (packed[50] << 8) | (packed[51] >>> 4);
+    values[111] = ((packed[51] & 0x0000000F) << 16) | (packed[52] << 4) | (packed[53] >>> 8);
+    values[112] = ((packed[53] & 0x000000FF) << 12) | packed[54];
+    values[113] = (packed[55] << 8) | (packed[56] >>> 4);
+    values[114] = ((packed[56] & 0x0000000F) << 16) | (packed[57] << 4) | (packed[58] >>> 8);
+    values[115] = ((packed[58] & 0x000000FF) << 12) | packed[59];
+    values[116] = (packed[60] << 8) | (packed[61] >>> 4);
+    values[117] = ((packed[61] & 0x0000000F) << 16) | (packed[62] << 4) | (packed[63] >>> 8);
+    values[118] = ((packed[63] & 0x000000FF) << 12) | packed[64];
+    values[119] = (packed[65] << 8) | (packed[66] >>> 4);
+    values[120] = ((packed[66] & 0x0000000F) << 16) | (packed[67] << 4) | (packed[68] >>> 8);
+    values[121] = ((packed[68] & 0x000000FF) << 12) | packed[69];
+    values[122] = (packed[70] << 8) | (packed[71] >>> 4);
+    values[123] = ((packed[71] & 0x0000000F) << 16) | (packed[72] << 4) | (packed[73] >>> 8);
+    values[124] = ((packed[73] & 0x000000FF) << 12) | packed[74];
+    values[125] = (packed[75] << 8) | (packed[76] >>> 4);
+    values[126] = ((packed[76] & 0x0000000F) << 16) | (packed[77] << 4) | (packed[78] >>> 8);
+    values[127] = ((packed[78] & 0x000000FF) << 12) | packed[79];
+  }
+
+  private static void decode21(int[] packed, int[] values) {
+    for (int i = 0; i < 84; ++i) {
+      values[i] = (packed[i] >>> 11);
+    }
+    for (int i = 0; i < 84; ++i) {
+      packed[i] &= 0x000007FF;
+    }
+    values[84] = (packed[0] << 10) | (packed[1] >>> 1);
+    values[85] = ((packed[1] & 0x00000001) << 20) | (packed[2] << 9) | (packed[3] >>> 2);
+    values[86] = ((packed[3] & 0x00000003) << 19) | (packed[4] << 8) | (packed[5] >>> 3);
+    values[87] = ((packed[5] & 0x00000007) << 18) | (packed[6] << 7) | (packed[7] >>> 4);
+    values[88] = ((packed[7] & 0x0000000F) << 17) | (packed[8] << 6) | (packed[9] >>> 5);
+    values[89] = ((packed[9] & 0x0000001F) << 16) | (packed[10] << 5) | (packed[11] >>> 6);
+    values[90] = ((packed[11] & 0x0000003F) << 15) | (packed[12] << 4) | (packed[13] >>> 7);
+    values[91] = ((packed[13] & 0x0000007F) << 14) | (packed[14] << 3) | (packed[15] >>> 8);
+    values[92] = ((packed[15] & 0x000000FF) << 13) | (packed[16] << 2) | (packed[17] >>> 9);
+    values[93] = ((packed[17] & 0x000001FF) << 12) | (packed[18] << 1) | (packed[19] >>> 10);
+    values[94] = ((packed[19] & 0x000003FF) << 11) | packed[20];
+    values[95] = (packed[21] << 10) | (packed[22] >>> 1);
+    values[96] = ((packed[22] & 0x00000001) << 20) | (packed[23] << 9) | (packed[24] >>> 2);
+    values[97] = ((packed[24] & 0x00000003) << 19) | (packed[25] << 8) | (packed[26] >>> 3);
+    values[98] = ((packed[26] & 0x00000007) << 18) | (packed[27] << 7) | (packed[28] >>> 4);
+    values[99] = ((packed[28] & 0x0000000F) << 17) | (packed[29] << 6) | (packed[30] >>> 5);
+    values[100] = ((packed[30] & 0x0000001F) << 16) | (packed[31] << 5) | (packed[32] >>> 6);
+    values[101] = ((packed[32] & 0x0000003F) << 15) | (packed[33] << 4) | (packed[34] >>> 7);
+    values[102] = ((packed[34] & 0x0000007F) << 14) | (packed[35] << 3) | (packed[36] >>> 8);
+    values[103] = ((packed[36] & 0x000000FF) << 13) | (packed[37] << 2) | (packed[38] >>> 9);
+    values[104] = ((packed[38] & 0x000001FF) << 12) | (packed[39] << 1) | (packed[40] >>> 10);
+    values[105] = ((packed[40] & 0x000003FF) << 11) | packed[41];
+    values[106] = (packed[42] << 10) | (packed[43] >>> 1);
+    values[107] = ((packed[43] & 0x00000001) << 20) | (packed[44] << 9) | (packed[45] >>> 2);
+    values[108] = ((packed[45] & 0x00000003) << 19) | (packed[46] << 8) | (packed[47] >>> 3);
+    values[109] = ((packed[47] & 0x00000007) << 18) | (packed[48] << 7) | (packed[49] >>> 4);
+    values[110] = ((packed[49] & 0x0000000F) << 17) | (packed[50] << 6) | (packed[51] >>> 5);
+    values[111] = ((packed[51] & 0x0000001F) << 16) | (packed[52] << 5) | (packed[53] >>> 6);
+    values[112] = ((packed[53] & 0x0000003F) << 15) | (packed[54] << 4) | (packed[55] >>> 7);
+    values[113] = ((packed[55] & 0x0000007F) << 14) | (packed[56] << 3) | (packed[57] >>> 8);
+    values[114] = ((packed[57] & 0x000000FF) << 13) | (packed[58] << 2) | (packed[59] >>> 9);
+    values[115] = ((packed[59] & 0x000001FF) << 12) | (packed[60] << 1) | (packed[61] >>> 10);
+    values[116] = ((packed[61] & 0x000003FF) << 11) | packed[62];
+    values[117] = (packed[63] << 10) | (packed[64] >>> 1);
+    values[118] = ((packed[64] & 0x00000001) << 20) | (packed[65] << 9) | (packed[66] >>> 2);
+    values[119] = ((packed[66] & 0x00000003) << 19) | (packed[67] << 8) | (packed[68] >>> 3);
+    values[120] = ((packed[68] & 0x00000007) << 18) | (packed[69] << 7) | (packed[70] >>> 4);
+    values[121] = ((packed[70] & 0x0000000F) << 17) | (packed[71] << 6) | (packed[72] >>> 5);
+    values[122] = ((packed[72] & 0x0000001F) << 16) | (packed[73] << 5) | (packed[74] >>> 6);
+    values[123] = ((packed[74] & 0x0000003F) << 15) | (packed[75] << 4) | (packed[76] >>> 7);
+    values[124] = ((packed[76] & 0x0000007F) << 14) | (packed[77] << 3) | (packed[78] >>> 8);
+    values[125] = ((packed[78] & 0x000000FF) << 13) | (packed[79] << 2) | (packed[80] >>> 9);
+    values[126] = ((packed[80] & 0x000001FF) << 12) | (packed[81] << 1) | (packed[82] >>> 10);
+    values[127] = ((packed[82] & 0x000003FF) << 11) | packed[83];
+  }
+
+  private static void decode22(int[] packed, int[] values) {
+    for (int i = 0; i < 88; ++i) {
+      values[i] = (packed[i] >>> 10);
+    }
+    for (int i = 0; i < 88; ++i) {
+      packed[i] &= 0x000003FF;
+    }
+    values[88] = (packed[0] << 12) | (packed[1] << 2) | (packed[2] >>> 8);
+    values[89] = ((packed[2] & 0x000000FF) << 14) | (packed[3] << 4) | (packed[4] >>> 6);
+    values[90] = ((packed[4] & 0x0000003F) << 16) | (packed[5] << 6) | (packed[6] >>> 4);
+    values[91] = ((packed[6] & 0x0000000F) << 18) | (packed[7] << 8) | (packed[8] >>> 2);
+    values[92] = ((packed[8] & 0x00000003) << 20) | (packed[9] << 10) | packed[10];
+    values[93] = (packed[11] << 12) | (packed[12] << 2) | (packed[13] >>> 8);
+    values[94] = ((packed[13] & 0x000000FF) << 14) | (packed[14] << 4) | (packed[15] >>> 6);
+    values[95] = ((packed[15] & 0x0000003F) << 16) | (packed[16] << 6) | (packed[17] >>> 4);
+    values[96] = ((packed[17] & 0x0000000F) << 18) | (packed[18] << 8) | (packed[19] >>> 2);
+    values[97] = ((packed[19] & 0x00000003) << 20) | (packed[20] << 10) | packed[21];
+    values[98] = (packed[22] << 12) | (packed[23] << 2) | (packed[24] >>> 8);
+    values[99] = ((packed[24] & 0x000000FF) << 14) | (packed[25] << 4) | (packed[26] >>> 6);
+    values[100] = ((packed[26] & 0x0000003F) << 16) | (packed[27] << 6) | (packed[28] >>> 4);
+    values[101] = ((packed[28] & 0x0000000F) << 18) | (packed[29] << 8) | (packed[30] >>> 2);
+    values[102] = ((packed[30] & 0x00000003) << 20) | (packed[31] << 10) | packed[32];
+    values[103] = (packed[33] << 12) | (packed[34] << 2) | (packed[35] >>> 8);
+    values[104] = ((packed[35] & 0x000000FF) << 14) | (packed[36] << 4) | (packed[37] >>> 6);
+    values[105] = ((packed[37] & 0x0000003F) << 16) | (packed[38] << 6) | (packed[39] >>> 4);
+    values[106] = ((packed[39] & 0x0000000F) << 18) | (packed[40] << 8) | (packed[41] >>> 2);
+    values[107] = ((packed[41] & 0x00000003) << 20) | (packed[42] << 10) | packed[43];
+    values[108] = (packed[44] << 12) | (packed[45] << 2) | (packed[46] >>> 8);
+    values[109] = ((packed[46] & 0x000000FF) << 14) | (packed[47] << 4) | (packed[48] >>> 6);
+    values[110] = ((packed[48] & 0x0000003F) << 16) | (packed[49] << 6) | (packed[50] >>> 4);
+    values[111] = ((packed[50] & 0x0000000F) << 18) | (packed[51] << 8) | (packed[52] >>> 2);
+    values[112] = ((packed[52] & 0x00000003) << 20) | (packed[53] << 10) | packed[54];
+    values[113] = (packed[55] << 12) | (packed[56] << 2) | (packed[57] >>> 8);
+    values[114] = ((packed[57] & 0x000000FF) << 14) | (packed[58] << 4) | (packed[59] >>> 6);
+    values[115] = ((packed[59] & 0x0000003F) << 16) | (packed[60] << 6) | (packed[61] >>> 4);
+    values[116] = ((packed[61] & 0x0000000F) << 18) | (packed[62] << 8) | (packed[63] >>> 2);
+    values[117] = ((packed[63] & 0x00000003) << 20) | (packed[64] << 10) | packed[65];
+    values[118] = (packed[66] << 12) | (packed[67] << 2) | (packed[68] >>> 8);
+    values[119] = ((packed[68] & 0x000000FF) << 14) | (packed[69] << 4) | (packed[70] >>> 6);
+    values[120] = ((packed[70] & 0x0000003F) << 16) | (packed[71] << 6) | (packed[72] >>> 4);
+    values[121] = ((packed[72] & 0x0000000F) << 18) | (packed[73] << 8) | (packed[74] >>> 2);
+    values[122] = ((packed[74] & 0x00000003) << 20) | (packed[75] << 10) | packed[76];
+    values[123] = (packed[77] << 12) | (packed[78] << 2) | (packed[79] >>> 8);
+    values[124] = ((packed[79] & 0x000000FF) << 14) | (packed[80] << 4) | (packed[81] >>> 6);
+    values[125] = ((packed[81] & 0x0000003F) << 16) | (packed[82] << 6) | (packed[83] >>> 4);
+    values[126] = ((packed[83] & 0x0000000F) << 18) | (packed[84] << 8) | (packed[85] >>> 2);
+    values[127] = ((packed[85] & 0x00000003) << 20) | (packed[86] << 10) | packed[87];
+  }
+
+  private static void decode23(int[] packed, int[] values) {
+    for (int i = 0; i < 92; ++i) {
+      values[i] = (packed[i] >>> 9);
+    }
+    for (int i = 0; i < 92; ++i) {
+      packed[i] &= 0x000001FF;
+    }
+    values[92] = (packed[0] << 14) | (packed[1] << 5) | (packed[2] >>> 4);
+    values[93] = ((packed[2] & 0x0000000F) << 19) | (packed[3] << 10) | (packed[4] << 1) | (packed[5] >>> 8);
+    values[94] = ((packed[5] & 0x000000FF) << 15) | (packed[6] << 6) | (packed[7] >>> 3);
+    values[95] = ((packed[7] & 0x00000007) << 20) | (packed[8] << 11) | (packed[9] << 2) | (packed[10] >>> 7);
+    values[96] = ((packed[10] & 0x0000007F) << 16) | (packed[11] << 7) | (packed[12] >>> 2);
+    values[97] = ((packed[12] & 0x00000003) << 21) | (packed[13] << 12) | (packed[14] << 3) | (packed[15] >>> 6);
+    values[98] = ((packed[15] & 0x0000003F) << 17) | (packed[16] << 8) | (packed[17] >>> 1);
+    values[99] = ((packed[17] & 0x00000001) << 22) | (packed[18] << 13) | (packed[19] << 4) | (packed[20] >>> 5);
+    values[100] = ((packed[20] & 0x0000001F) << 18) | (packed[21] << 9) | packed[22];
+    values[101] = (packed[23] << 14) | (packed[24] << 5) | (packed[25] >>> 4);
+    values[102] = ((packed[25] & 0x0000000F) << 19) | (packed[26] << 10) | (packed[27] << 1) | (packed[28] >>> 8);
+    values[103] = ((packed[28] & 0x000000FF) << 15) | (packed[29] << 6) | (packed[30] >>> 3);
+    values[104] = ((packed[30] & 0x00000007) << 20) | (packed[31] << 11) | (packed[32] << 2) | (packed[33] >>> 7);
+    values[105] = ((packed[33] & 0x0000007F) << 16) | (packed[34] << 7) | (packed[35] >>> 2);
+    values[106] = ((packed[35] & 0x00000003) << 21) | (packed[36] << 12) | (packed[37] << 3) | (packed[38] >>> 6);
+    values[107] = ((packed[38] & 0x0000003F) << 17) | (packed[39] << 8) | (packed[40] >>> 1);
+    values[108] = ((packed[40] & 0x00000001) << 22) | (packed[41] << 13) | (packed[42] << 4) | (packed[43] >>> 5);
+    values[109] = ((packed[43] & 0x0000001F) << 18) | (packed[44] << 9) | packed[45];
+    values[110] = (packed[46] << 14) | (packed[47] << 5) | (packed[48] >>> 4);
+    values[111] = ((packed[48] & 0x0000000F) << 19) | (packed[49] << 10) | (packed[50] << 1) | (packed[51] >>> 8);
+    values[112] = ((packed[51] & 0x000000FF) << 15) | (packed[52] << 6) | (packed[53] >>> 3);
+    values[113] = ((packed[53] & 0x00000007) << 20) | (packed[54] << 11) | (packed[55] << 2) | (packed[56] >>> 7);
+    values[114] = ((packed[56] & 0x0000007F) << 16) | (packed[57] << 7) | (packed[58] >>> 2);
+    values[115] = ((packed[58] & 0x00000003) << 21) | (packed[59] << 12) | (packed[60] << 3) | (packed[61] >>> 6);
+    values[116] = ((packed[61] & 0x0000003F) << 17) | (packed[62] << 8) | (packed[63] >>> 1);
+    values[117] = ((packed[63] & 0x00000001) << 22) | (packed[64] << 13) | (packed[65] << 4) | (packed[66] >>> 5);
+    values[118] = ((packed[66] & 0x0000001F) << 18) | (packed[67] << 9) | packed[68];
+    values[119] = (packed[69] << 14) | (packed[70] << 5) | (packed[71] >>> 4);
+    values[120] = ((packed[71] & 0x0000000F) << 19) | (packed[72] << 10) | (packed[73] << 1) | (packed[74] >>> 8);
+    values[121] = ((packed[74] & 0x000000FF) << 15) | (packed[75] << 6) | (packed[76] >>> 3);
+    values[122] = ((packed[76] & 0x00000007) << 20) | (packed[77] << 11) | (packed[78] << 2) | (packed[79] >>> 7);
+    values[123] = ((packed[79] & 0x0000007F) << 16) | (packed[80] << 7) | (packed[81] >>> 2);
+    values[124] = ((packed[81] & 0x00000003) << 21) | (packed[82] << 12) | (packed[83] << 3) | (packed[84] >>> 6);
+    values[125] = ((packed[84] & 0x0000003F) << 17) | (packed[85] << 8) | (packed[86] >>> 1);
+    values[126] = ((packed[86] & 0x00000001) << 22) | (packed[87] << 13) | (packed[88] << 4) | (packed[89] >>> 5);
+    values[127] = ((packed[89] & 0x0000001F) << 18) | (packed[90] << 9) | packed[91];
+  }
+
+  private static void decode24(int[] packed, int[] values) {
+    for (int i = 0; i < 96; ++i) {
+      values[i] = (packed[i] >>> 8);
+    }
+    for (int i = 0; i < 96; ++i) {
+      packed[i] &= 0x000000FF;
+    }
+    values[96] = (packed[0] << 16) | (packed[1] << 8) | packed[2];
+    values[97] = (packed[3] << 16) | (packed[4] << 8) | packed[5];
+    values[98] = (packed[6] << 16) | (packed[7] << 8) | packed[8];
+    values[99] = (packed[9] << 16) | (packed[10] << 8) | packed[11];
+    values[100] = (packed[12] << 16) | (packed[13] << 8) | packed[14];
+    values[101] = (packed[15] << 16) | (packed[16] << 8) | packed[17];
+    values[102] = (packed[18] << 16) | (packed[19] << 8) | packed[20];
+    values[103] = (packed[21] << 16) | (packed[22] << 8) | packed[23];
+    values[104] = (packed[24] << 16) | (packed[25] << 8) | packed[26];
+    values[105] = (packed[27] << 16) | (packed[28] << 8) | packed[29];
+    values[106] = (packed[30] << 16) | (packed[31] << 8) | packed[32];
+    values[107] = (packed[33] << 16) | (packed[34] << 8) | packed[35];
+    values[108] = (packed[36] << 16) | (packed[37] << 8) | packed[38];
+    values[109] = (packed[39] << 16) | (packed[40] << 8) | packed[41];
+    values[110] = (packed[42] << 16) | (packed[43] << 8) | packed[44];
+    values[111] = (packed[45] << 16) | (packed[46] << 8) | packed[47];
+    values[112] = (packed[48] << 16) | (packed[49] << 8) | packed[50];
+    values[113] = (packed[51] << 16) | (packed[52] << 8) | packed[53];
+    values[114] = (packed[54] << 16) | (packed[55] << 8) | packed[56];
+    values[115] = (packed[57] << 16) | (packed[58] << 8) | packed[59];
+    values[116] = (packed[60] << 16) | (packed[61] << 8) | packed[62];
+    values[117] = (packed[63] << 16) | (packed[64] << 8) | packed[65];
+    values[118] = (packed[66] << 16) | (packed[67] << 8) | packed[68];
+    values[119] = (packed[69] << 16) | (packed[70] << 8) | packed[71];
+    values[120] = (packed[72] << 16) | (packed[73] << 8) | packed[74];
+    values[121] = (packed[75] << 16) | (packed[76] << 8) | packed[77];
+    values[122] = (packed[78] << 16) | (packed[79] << 8) | packed[80];
+    values[123] = (packed[81] << 16) | (packed[82] << 8) | packed[83];
+    values[124] = (packed[84] << 16) | (packed[85] << 8) | packed[86];
+    values[125] = (packed[87] << 16) | (packed[88] << 8) | packed[89];
+    values[126] = (packed[90] << 16) | (packed[91] << 8) | packed[92];
+    values[127] = (packed[93] << 16) | (packed[94] << 8) | packed[95];
+  }
+
+  private static void decode25(int[] packed, int[] values) {
+    for (int i = 0; i < 100; ++i) {
+      values[i] = (packed[i] >>> 7);
+    }
+    for (int i = 0; i < 100; ++i) {
+      packed[i] &= 0x0000007F;
+    }
+    values[100] = (packed[0] << 18) | (packed[1] << 11) | (packed[2] << 4) | (packed[3] >>> 3);
+    values[101] = ((packed[3] & 0x00000007) << 22) | (packed[4] << 15) | (packed[5] << 8) | (packed[6] << 1) | (packed[7] >>> 6);
+    values[102] = ((packed[7] & 0x0000003F) << 19) | (packed[8] << 12) | (packed[9] << 5) | (packed[10] >>> 2);
+    values[103] = ((packed[10] & 0x00000003) << 23) | (packed[11] << 16) | (packed[12] << 9) | (packed[13] << 2) | (packed[14] >>> 5);
+    values[104] = ((packed[14] & 0x0000001F) << 20) | (packed[15] << 13) | (packed[16] << 6) | (packed[17] >>> 1);
+    values[105] = ((packed[17] & 0x00000001) << 24) | (packed[18] << 17) | (packed[19] << 10) | (packed[20] << 3) | (packed[21] >>> 4);
+    values[106] = ((packed[21] & 0x0000000F) << 21) | (packed[22] << 14) | (packed[23] << 7) | packed[24];
+    values[107] = (packed[25] << 18) | (packed[26] << 11) | (packed[27] << 4) | (packed[28] >>> 3);
+    values[108] = ((packed[28] & 0x00000007) << 22) | (packed[29] << 15) | (packed[30] << 8) | (packed[31] << 1) | (packed[32] >>> 6);
+    values[109] = ((packed[32] & 0x0000003F) << 19) | (packed[33] << 12) | (packed[34] << 5) | (packed[35] >>> 2);
+    values[110] = ((packed[35] & 0x00000003) << 23) | (packed[36] << 16) | (packed[37] << 9) | (packed[38] << 2) | (packed[39] >>> 5);
+    values[111] = ((packed[39] & 0x0000001F) << 20) | (packed[40] << 13) | (packed[41] << 6) | (packed[42] >>> 1);
+    values[112] = ((packed[42] & 0x00000001) << 24) | (packed[43] << 17) | (packed[44] << 10) | (packed[45] << 3) | (packed[46] >>> 4);
+    values[113] = ((packed[46] & 0x0000000F) << 21) | (packed[47] << 14) | (packed[48] << 7) | packed[49];
+    values[114] = (packed[50] << 18) | (packed[51] << 11) | (packed[52] << 4) | (packed[53] >>> 3);
+    values[115] = ((packed[53] & 0x00000007) << 22) | (packed[54] << 15) | (packed[55] << 8) | (packed[56] << 1) | (packed[57] >>> 6);
+    values[116] = ((packed[57] & 0x0000003F) << 19) | (packed[58] << 12) | (packed[59] << 5) | (packed[60] >>> 2);
+    values[117] = ((packed[60] & 0x00000003) << 23) | (packed[61] << 16) | (packed[62] << 9) | (packed[63] << 2) | (packed[64] >>> 5);
+    values[118] = ((packed[64] & 0x0000001F) << 20) | (packed[65] << 13) | (packed[66] << 6) | (packed[67] >>> 1);
+    values[119] = ((packed[67] & 0x00000001) << 24) | (packed[68] << 17) | (packed[69] << 10) | (packed[70] << 3) | (packed[71] >>> 4);
+    values[120] = ((packed[71] & 0x0000000F) << 21) | (packed[72] << 14) | (packed[73] << 7) | packed[74];
+    values[121] = (packed[75] << 18) | (packed[76] << 11) | (packed[77] << 4) | (packed[78] >>> 3);
+    values[122] = ((packed[78] & 0x00000007) << 22) | (packed[79] << 15) | (packed[80] << 8) | (packed[81] << 1) | (packed[82] >>> 6);
+    values[123] = ((packed[82] & 0x0000003F) << 19) | (packed[83] << 12) | (packed[84] << 5) | (packed[85] >>> 2);
+    values[124] = ((packed[85] & 0x00000003) << 23) | (packed[86] << 16) | (packed[87] << 9) | (packed[88] << 2) | (packed[89] >>> 5);
+    values[125] = ((packed[89] & 0x0000001F) << 20) | (packed[90] << 13) | (packed[91] << 6) | (packed[92] >>> 1);
+    values[126] = ((packed[92] & 0x00000001) << 24) | (packed[93] << 17) | (packed[94] << 10) | (packed[95] << 3) | (packed[96] >>> 4);
+    values[127] = ((packed[96] & 0x0000000F) << 21) | (packed[97] << 14) | (packed[98] << 7) | packed[99];
+  }
+
+  private static void decode26(int[] packed, int[] values) {
+    for (int i = 0; i < 104; ++i) {
+      values[i] = (packed[i] >>> 6);
+    }
+    for (int i = 0; i < 104; ++i) {
+      packed[i] &= 0x0000003F;
+    }
+    values[104] = (packed[0] << 20) | (packed[1] << 14) | (packed[2] << 8) | (packed[3] << 2) | (packed[4] >>> 4);
+    values[105] = ((packed[4] & 0x0000000F) << 22) | (packed[5] << 16) | (packed[6] << 10) | (packed[7] << 4) | (packed[8] >>> 2);
+    values[106] = ((packed[8] & 0x00000003) << 24) | (packed[9] << 18) | (packed[10] << 12) | (packed[11] << 6) | packed[12];
+    values[107] = (packed[13] << 20) | (packed[14] << 14) | (packed[15] << 8) | (packed[16] << 2) | (packed[17] >>> 4);
+    values[108] = ((packed[17] & 0x0000000F) << 22) | (packed[18] << 16) | (packed[19] << 10) | (packed[20] << 4) | (packed[21] >>> 2);
+    values[109] = ((packed[21] & 0x00000003) << 24) | (packed[22] << 18) | (packed[23] << 12) | (packed[24] << 6) | packed[25];
+    values[110] = (packed[26] << 20) | (packed[27] << 14) | (packed[28] << 8) | (packed[29] << 2) | (packed[30] >>> 4);
+    values[111] = ((packed[30] & 0x0000000F) << 22) | (packed[31] << 16) | (packed[32] << 10) | (packed[33] << 4) | (packed[34] >>> 2);
+    values[112] = ((packed[34] & 0x00000003) << 24) | (packed[35] << 18) | (packed[36] << 12) | (packed[37] << 6) | packed[38];
+    values[113] = (packed[39] << 20) | (packed[40] << 14) | (packed[41] << 8) | (packed[42] << 2) | (packed[43] >>> 4);
+    values[114] = ((packed[43] & 0x0000000F) << 22) | (packed[44] << 16) | (packed[45] << 10) | (packed[46] << 4) | (packed[47] >>> 2);
+    values[115] = ((packed[47] & 0x00000003) << 24) | (packed[48] << 18) | (packed[49] << 12) | (packed[50] << 6) | packed[51];
+    values[116] = (packed[52] << 20) | (packed[53] << 14) | (packed[54] << 8) | (packed[55] << 2) | (packed[56] >>> 4);
+    values[117] = ((packed[56] & 0x0000000F) << 22) | (packed[57] << 16) | (packed[58] << 10) | (packed[59] << 4) | (packed[60] >>> 2);
+    values[118] = ((packed[60] & 0x00000003) << 24) | (packed[61] << 18) | (packed[62] << 12) | (packed[63] << 6) | packed[64];
+    values[119] = (packed[65] << 20) | (packed[66] << 14) | (packed[67] << 8) | (packed[68] << 2) | (packed[69] >>> 4);
+    values[120] = ((packed[69] & 0x0000000F) << 22) | (packed[70] << 16) | (packed[71] << 10) | (packed[72] << 4) | (packed[73] >>> 2);
+    values[121] = ((packed[73] & 0x00000003) << 24) | (packed[74] << 18) | (packed[75] << 12) | (packed[76] << 6) | packed[77];
+    values[122] = (packed[78] << 20) | (packed[79] << 14) | (packed[80] << 8) | (packed[81] << 2) | (packed[82] >>> 4);
+    values[123] = ((packed[82] & 0x0000000F) << 22) | (packed[83] << 16) | (packed[84] << 10) | (packed[85] << 4) | (packed[86] >>> 2);
+    values[124] = ((packed[86] & 0x00000003) << 24) | (packed[87] << 18) | (packed[88] << 12) | (packed[89] << 6) | packed[90];
+    values[125] = (packed[91] << 20) | (packed[92] << 14) | (packed[93] << 8) | (packed[94] << 2) | (packed[95] >>> 4);
+    values[126] = ((packed[95] & 0x0000000F) << 22) | (packed[96] << 16) | (packed[97] << 10) | (packed[98] << 4) | (packed[99] >>> 2);
+    values[127] = ((packed[99] & 0x00000003) << 24) | (packed[100] << 18) | (packed[101] << 12) | (packed[102] << 6) | packed[103];
+  }
+
+  private static void decode27(int[] packed, int[] values) {
+    for (int i = 0; i < 108; ++i) {
+      values[i] = (packed[i] >>> 5);
+    }
+    for (int i = 0; i < 108; ++i) {
+      packed[i] &= 0x0000001F;
+    }
+    values[108] = (packed[0] << 22) | (packed[1] << 17) | (packed[2] << 12) | (packed[3] << 7) | (packed[4] << 2) | (packed[5] >>> 3);
+    values[109] = ((packed[5] & 0x00000007) << 24) | (packed[6] << 19) | (packed[7] << 14) | (packed[8] << 9) | (packed[9] << 4) | (packed[10] >>> 1);
+    values[110] = ((packed[10] & 0x00000001) << 26) | (packed[11] << 21) | (packed[12] << 16) | (packed[13] << 11) | (packed[14] << 6) | (packed[15] << 1) | (packed[16] >>> 4);
+    values[111] = ((packed[16] & 0x0000000F) << 23) | (packed[17] << 18) | (packed[18] << 13) | (packed[19] << 8) | (packed[20] << 3) | (packed[21] >>> 2);
+    values[112] = ((packed[21] & 0x00000003) << 25) | (packed[22] << 20) | (packed[23] << 15) | (packed[24] << 10) | (packed[25] << 5) | packed[26];
+    values[113] = (packed[27] << 22) | (packed[28] << 17) | (packed[29] << 12) | (packed[30] << 7) | (packed[31] << 2) | (packed[32] >>> 3);
+    values[114] = ((packed[32] & 0x00000007) << 24) | (packed[33] << 19) | (packed[34] << 14) | (packed[35] << 9) | (packed[36] << 4) | (packed[37] >>> 1);
+    values[115] = ((packed[37] & 0x00000001) << 26) | (packed[38] << 21) | (packed[39] << 16) | (packed[40] << 11) | (packed[41] << 6) | (packed[42] << 1) | (packed[43] >>> 4);
+    values[116] = ((packed[43] & 0x0000000F) << 23) | (packed[44] << 18) | (packed[45] << 13) | (packed[46] << 8) | (packed[47] << 3) | (packed[48] >>> 2);
+    values[117] = ((packed[48] & 0x00000003) << 25) | (packed[49] << 20) | (packed[50] << 15) | (packed[51] << 10) | (packed[52] << 5) | packed[53];
+    values[118] = (packed[54] << 22) | (packed[55] << 17) | (packed[56] << 12) | (packed[57] << 7) | (packed[58] << 2) | (packed[59] >>> 3);
+    values[119] = ((packed[59] & 0x00000007) << 24) | (packed[60] << 19) | (packed[61] << 14) | (packed[62] << 9) | (packed[63] << 4) | (packed[64] >>> 1);
+    values[120] = ((packed[64] & 0x00000001) << 26) | (packed[65] << 21) | (packed[66] << 16) | (packed[67] << 11) | (packed[68] << 6) | (packed[69] << 1) | (packed[70] >>> 4);
+    values[121] = ((packed[70] & 0x0000000F) << 23) | (packed[71] << 18) | (packed[72] << 13) | (packed[73] << 8) | (packed[74] << 3) | (packed[75] >>> 2);
+    values[122] = ((packed[75] & 0x00000003) << 25) | (packed[76] << 20) | (packed[77] << 15) | (packed[78] << 10) | (packed[79] << 5) | packed[80];
+    values[123] = (packed[81] << 22) | (packed[82] << 17) | (packed[83] << 12) | (packed[84] << 7) | (packed[85] << 2) | (packed[86] >>> 3);
+    values[124] = ((packed[86] & 0x00000007) << 24) | (packed[87] << 19) | (packed[88] << 14) | (packed[89] << 9) | (packed[90] << 4) | (packed[91] >>> 1);
+    values[125] = ((packed[91] & 0x00000001) << 26) | (packed[92] << 21) | (packed[93] << 16) | (packed[94] << 11) | (packed[95] << 6) | (packed[96] << 1) | (packed[97] >>> 4);
+    values[126] = ((packed[97] & 0x0000000F) << 23) | (packed[98] << 18) | (packed[99] << 13) | (packed[100] << 8) | (packed[101] << 3) | (packed[102] >>> 2);
+    values[127] = ((packed[102] & 0x00000003) << 25) | (packed[103] << 20) | (packed[104] << 15) | (packed[105] << 10) | (packed[106] << 5) | packed[107];
+  }
+
+  private static void decode28(int[] packed, int[] values) {
+    for (int i = 0; i < 112; ++i) {
+      values[i] = (packed[i] >>> 4);
+    }
+    for (int i = 0; i < 112; ++i) {
+      packed[i] &= 0x0000000F;
+    }
+    values[112] = (packed[0] << 24) | (packed[1] << 20) | (packed[2] << 16) | (packed[3] << 12) | (packed[4] << 8) | (packed[5] << 4) | packed[6];
+    values[113] = (packed[7] << 24) | (packed[8] << 20) | (packed[9] << 16) | (packed[10] << 12) | (packed[11] << 8) | (packed[12] << 4) | packed[13];
+    values[114] = (packed[14] << 24) | (packed[15] << 20) | (packed[16] << 16) | (packed[17] << 12) | (packed[18] << 8) | (packed[19] << 4) | packed[20];
+    values[115] = (packed[21] << 24) | (packed[22] << 20) | (packed[23] << 16) | (packed[24] << 12) | (packed[25] << 8) | (packed[26] << 4) | packed[27];
+    values[116] = (packed[28] << 24) | (packed[29] << 20) | (packed[30] << 16) | (packed[31] << 12) | (packed[32] << 8) | (packed[33] << 4) | packed[34];
+    values[117] = (packed[35] << 24) | (packed[36] << 20) | (packed[37] << 16) | (packed[38] << 12) | (packed[39] << 8) | (packed[40] << 4) | packed[41];
+    values[118] = (packed[42] << 24) | (packed[43] << 20) | (packed[44] << 16) | (packed[45] << 12) | (packed[46] << 8) | (packed[47] << 4) | packed[48];
+    values[119] = (packed[49] << 24) | (packed[50] << 20) | (packed[51] << 16) | (packed[52] << 12) | (packed[53] << 8) | (packed[54] << 4) | packed[55];
+    values[120] = (packed[56] << 24) | (packed[57] << 20) | (packed[58] << 16) | (packed[59] << 12) | (packed[60] << 8) | (packed[61] << 4) | packed[62];
+    values[121] = (packed[63] << 24) | (packed[64] << 20) | (packed[65] << 16) | (packed[66] << 12) | (packed[67] << 8) | (packed[68] << 4) | packed[69];
+    values[122] = (packed[70] << 24) | (packed[71] << 20) | (packed[72] << 16) | (packed[73] << 12) | (packed[74] << 8) | (packed[75] << 4) | packed[76];
+    values[123] = (packed[77] << 24) | (packed[78] << 20) | (packed[79] << 16) | (packed[80] << 12) | (packed[81] << 8) | (packed[82] << 4) | packed[83];
+    values[124] = (packed[84] << 24) | (packed[85] << 20) | (packed[86] << 16) | (packed[87] << 12) | (packed[88] << 8) | (packed[89] << 4) | packed[90];
+    values[125] = (packed[91] << 24) | (packed[92] << 20) | (packed[93] << 16) | (packed[94] << 12) | (packed[95] << 8) | (packed[96] << 4) | packed[97];
+    values[126] = (packed[98] << 24) | (packed[99] << 20) | (packed[100] << 16) | (packed[101] << 12) | (packed[102] << 8) | (packed[103] << 4) | packed[104];
+    values[127] = (packed[105] << 24) | (packed[106] << 20) | (packed[107] << 16) | (packed[108] << 12) | (packed[109] << 8) | (packed[110] << 4) | packed[111];
+  }
+
+  private static void decode29(int[] packed, int[] values) {
+    for (int i = 0; i < 116; ++i) {
+      values[i] = (packed[i] >>> 3);
+    }
+    for (int i = 0; i < 116; ++i) {
+      packed[i] &= 0x00000007;
+    }
+    values[116] = (packed[0] << 26) | (packed[1] << 23) | (packed[2] << 20) | (packed[3] << 17) | (packed[4] << 14) | (packed[5] << 11) | (packed[6] << 8) | (packed[7] << 5) | (packed[8] << 2) | (packed[9] >>> 1);
+    values[117] = ((packed[9] & 0x00000001) << 28) | (packed[10] << 25) | (packed[11] << 22) | (packed[12] << 19) | (packed[13] << 16) | (packed[14] << 13) | (packed[15] << 10) | (packed[16] << 7) | (packed[17] << 4) | (packed[18] << 1) | (packed[19] >>> 2);
+    values[118] = ((packed[19] & 0x00000003) << 27) | (packed[20] << 24) | (packed[21] << 21) | (packed[22] << 18) | (packed[23] << 15) | (packed[24] << 12) | (packed[25] << 9) | (packed[26] << 6) | (packed[27] << 3) | packed[28];
+    values[119] = (packed[29] << 26) | (packed[30] << 23) | (packed[31] << 20) | (packed[32] << 17) | (packed[33] << 14) | (packed[34] << 11) | (packed[35] << 8) | (packed[36] << 5) | (packed[37] << 2) | (packed[38] >>> 1);
+    values[120] = ((packed[38] & 0x00000001) << 28) | (packed[39] << 25) | (packed[40] << 22) | (packed[41] << 19) | (packed[42] << 16) | (packed[43] << 13) | (packed[44] << 10) | (packed[45] << 7) | (packed[46] << 4) | (packed[47] << 1) | (packed[48] >>> 2);
+    values[121] = ((packed[48] & 0x00000003) << 27) | (packed[49] << 24) | (packed[50] << 21) | (packed[51] << 18) | (packed[52] << 15) | (packed[53] << 12) | (packed[54] << 9) | (packed[55] << 6) | (packed[56] << 3) | packed[57];
+    values[122] = (packed[58] << 26) | (packed[59] << 23) | (packed[60] << 20) | (packed[61] << 17) | (packed[62] << 14) | (packed[63] << 11) | (packed[64] << 8) | (packed[65] << 5) | (packed[66] << 2) | (packed[67] >>> 1);
+    values[123] = ((packed[67] & 0x00000001) << 28) | (packed[68] << 25) | (packed[69] << 22) | (packed[70] << 19) | (packed[71] << 16) | (packed[72] << 13) | (packed[73] << 10) | (packed[74] << 7) | (packed[75] << 4) | (packed[76] << 1) | (packed[77] >>> 2);
+    values[124] = ((packed[77] & 0x00000003) << 27) | (packed[78] << 24) | (packed[79] << 21) | (packed[80] << 18) | (packed[81] << 15) | (packed[82] << 12) | (packed[83] << 9) | (packed[84] << 6) | (packed[85] << 3) | packed[86];
+    values[125] = (packed[87] << 26) | (packed[88] << 23) | (packed[89] << 20) | (packed[90] << 17) | (packed[91] << 14) | (packed[92] << 11) | (packed[93] << 8) | (packed[94] << 5) | (packed[95] << 2) | (packed[96] >>> 1);
+    values[126] = ((packed[96] & 0x00000001) << 28) | (packed[97] << 25) | (packed[98] << 22) | (packed[99] << 19) | (packed[100] << 16) | (packed[101] << 13) | (packed[102] << 10) | (packed[103] << 7) | (packed[104] << 4) | (packed[105] << 1) | (packed[106] >>> 2);
+    values[127] = ((packed[106] & 0x00000003) << 27) | (packed[107] << 24) | (packed[108] << 21) | (packed[109] << 18) | (packed[110] << 15) | (packed[111] << 12) | (packed[112] << 9) | (packed[113] << 6) | (packed[114] << 3) | packed[115];
+  }
+
+  private static void decode30(int[] packed, int[] values) {
+    for (int i = 0; i < 120; ++i) {
+      values[i] = (packed[i] >>> 2);
+    }
+    for (int i = 0; i < 120; ++i) {
+      packed[i] &= 0x00000003;
+    }
+    values[120] = (packed[0] << 28) | (packed[1] << 26) | (packed[2] << 24) | (packed[3] << 22) | (packed[4] << 20) | (packed[5] << 18) | (packed[6] << 16) | (packed[7] << 14) | (packed[8] << 12) | (packed[9] << 10) | (packed[10] << 8) | (packed[11] << 6) | (packed[12] << 4) | (packed[13] << 2) | packed[14];
+    values[121] = (packed[15] << 28) | (packed[16] << 26) | (packed[17] << 24) | (packed[18] << 22) | (packed[19] << 20) | (packed[20] << 18) | (packed[21] << 16) | (packed[22] << 14) | (packed[23] << 12) | (packed[24] << 10) | (packed[25] << 8) | (packed[26] << 6) | (packed[27] << 4) | (packed[28] << 2) | packed[29];
+    values[122] = (packed[30] << 28) | (packed[31] << 26) | (packed[32] << 24) | (packed[33] << 22) | (packed[34] << 20) | (packed[35] << 18) | (packed[36] << 16) | (packed[37] << 14) | (packed[38] << 12) | (packed[39] << 10) | (packed[40] << 8) | (packed[41] << 6) | (packed[42] << 4) | (packed[43] << 2) | packed[44];
+    values[123] = (packed[45] << 28) | (packed[46] << 26) | (packed[47] << 24) | (packed[48] << 22) | (packed[49] << 20) | (packed[50] << 18) | (packed[51] << 16) | (packed[52] << 14) | (packed[53] << 12) | (packed[54] << 10) | (packed[55] << 8) | (packed[56] << 6) | (packed[57] << 4) | (packed[58] << 2) | packed[59];
+    values[124] = (packed[60] << 28) | (packed[61] << 26) | (packed[62] << 24) | (packed[63] << 22) | (packed[64] << 20) | (packed[65] << 18) | (packed[66] << 16) | (packed[67] << 14) | (packed[68] << 12) | (packed[69] << 10) | (packed[70] << 8) | (packed[71] << 6) | (packed[72] << 4) | (packed[73] << 2) | packed[74];
+    values[125] = (packed[75] << 28) | (packed[76] << 26) | (packed[77] << 24) | (packed[78] << 22) | (packed[79] << 20) | (packed[80] << 18) | (packed[81] << 16) | (packed[82] << 14) | (packed[83] << 12) | (packed[84] << 10) | (packed[85] << 8) | (packed[86] << 6) | (packed[87] << 4) | (packed[88] << 2) | packed[89];
+    values[126] = (packed[90] << 28) | (packed[91] << 26) | (packed[92] << 24) | (packed[93] << 22) | (packed[94] << 20) | (packed[95] << 18) | (packed[96] << 16) | (packed[97] << 14) | (packed[98] << 12) | (packed[99] << 10) | (packed[100] << 8) | (packed[101] << 6) | (packed[102] << 4) | (packed[103] << 2) | packed[104];
+    values[127] = (packed[105] << 28) | (packed[106] << 26) | (packed[107] << 24) | (packed[108] << 22) | (packed[109] << 20) | (packed[110] << 18) | (packed[111] << 16) | (packed[112] << 14) | (packed[113] << 12) | (packed[114] << 10) | (packed[115] << 8) | (packed[116] << 6) | (packed[117] << 4) | (packed[118] << 2) | packed[119];
+  }
+
+  private static void decode31(int[] packed, int[] values) {
+    for (int i = 0; i < 124; ++i) {
+      values[i] = (packed[i] >>> 1);
+    }
+    for (int i = 0; i < 124; ++i) {
+      packed[i] &= 0x00000001;
+    }
+    values[124] = (packed[0] << 30) | (packed[1] << 29) | (packed[2] << 28) | (packed[3] << 27) | (packed[4] << 26) | (packed[5] << 25) | (packed[6] << 24) | (packed[7] << 23) | (packed[8] << 22) | (packed[9] << 21) | (packed[10] << 20) | (packed[11] << 19) | (packed[12] << 18) | (packed[13] << 17) | (packed[14] << 16) | (packed[15] << 15) | (packed[16] << 14) | (packed[17] << 13) | (packed[18] << 12) | (packed[19] << 11) | (packed[20] << 10) | (packed[21] << 9) | (packed[22] << 8) | (packed[23] << 7) | (packed[24] << 6) | (packed[25] << 5) | (packed[26] << 4) | (packed[27] << 3) | (packed[28] << 2) | (packed[29] << 1) | packed[30];
+    values[125] = (packed[31] << 30) | (packed[32] << 29) | (packed[33] << 28) | (packed[34] << 27) | (packed[35] << 26) | (packed[36] << 25) | (packed[37] << 24) | (packed[38] << 23) | (packed[39] << 22) | (packed[40] << 21) | (packed[41] << 20) | (packed[42] << 19) | (packed[43] << 18) | (packed[44] << 17) | (packed[45] << 16) | (packed[46] << 15) | (packed[47] << 14) | (packed[48] << 13) | (packed[49] << 12) | (packed[50] << 11) | (packed[51] << 10) | (packed[52] << 9) | (packed[53] << 8) | (packed[54] << 7) | (packed[55] << 6) | (packed[56] << 5) | (packed[57] << 4) | (packed[58] << 3) | (packed[59] << 2) | (packed[60] << 1) | packed[61];
+    values[126] = (packed[62] << 30) | (packed[63] << 29) | (packed[64] << 28) | (packed[65] << 27) | (packed[66] << 26) | (packed[67] << 25) | (packed[68] << 24) | (packed[69] << 23) | (packed[70] << 22) | (packed[71] << 21) | (packed[72] << 20) | (packed[73] << 19) | (packed[74] << 18) | (packed[75] << 17) | (packed[76] << 16) | (packed[77] << 15) | (packed[78] << 14) | (packed[79] << 13) | (packed[80] << 12) | (packed[81] << 11) | (packed[82] << 10) | (packed[83] << 9) | (packed[84] << 8) | (packed[85] << 7) | (packed[86] << 6) | (packed[87] << 5) | (packed[88] << 4) | (packed[89] << 3) | (packed[90] << 2) | (packed[91] << 1) | packed[92];
+    values[127] = (packed[93] << 30) | (packed[94] << 29) | (packed[95] << 28) | (packed[96] << 27) | (packed[97] << 26) | (packed[98] << 25) | (packed[99] << 24) | (packed[100] << 23) | (packed[101] << 22) | (packed[102] << 21) | (packed[103] << 20) | (packed[104] << 19) | (packed[105] << 18) | (packed[106] << 17) | (packed[107] << 16) | (packed[108] << 15) | (packed[109] << 14) | (packed[110] << 13) | (packed[111] << 12) | (packed[112] << 11) | (packed[113] << 10) | (packed[114] << 9) | (packed[115] << 8) | (packed[116] << 7) | (packed[117] << 6) | (packed[118] << 5) | (packed[119] << 4) | (packed[120] << 3) | (packed[121] << 2) | (packed[122] << 1) | packed[123];
+  }
+
+  private static void decode32(int[] packed, int[] values) {
+    System.arraycopy(packed, 0, values, 0, 128);
+  }
+
+}
@@ -28,10 +28,17 @@ import org.apache.lucene.util.packed.PackedInts.FormatAndBits;
 import org.apache.lucene.util.packed.PackedInts;
 
 import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.BLOCK_SIZE;
+import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.VERSION_DENSE_DOC_BLOCKS;
+import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.VERSION_VECTORIZED_BLOCKS;
 
 /**
  * Encode all values in normal area with fixed bit width, 
  * which is determined by the max value in this block.
+ * <p>
+ * Since {@link Lucene50PostingsFormat#VERSION_VECTORIZED_BLOCKS}, blocks are
+ * laid out by {@link ForLanes} rather than {@link PackedInts}, so that they can
+ * be decoded by loops that the JIT vectorizes. Blocks written by older versions
+ * are still decoded with {@link PackedInts.Decoder}s.
  */
 final class ForUtil {
 
@@ -40,15 +47,37 @@ final class ForUtil {
    */
   private static final int ALL_VALUES_EQUAL = 0;
 
+  /**
+   * Special number of bits per value used by doc blocks that are encoded as
+   * a bit set.
+   */
+  private static final int DENSE_DOCS = -1;
+
   /**
    * Upper limit of the number of bytes that might be required to stored
    * <code>BLOCK_SIZE</code> encoded values.
    */
   static final int MAX_ENCODED_SIZE = BLOCK_SIZE * 4;
 
+  /**
+   * Upper limit of the number of ints that <code>BLOCK_SIZE</code> values are
+   * packed into, which is the minimum size of the <code>packed</code> buffer
+   * that is passed to {@link #readBlock(IndexInput, byte[], int[], int[])}.
+   */
+  static final int MAX_PACKED_SIZE = BLOCK_SIZE;
+
+  /**
+   * Upper limit of the number of longs of a doc block that is encoded as a bit
+   * set, which is the minimum size of the <code>denseBits</code> buffer that is
+   * passed to {@link #readDocBlock(IndexInput, byte[], int[], int[], long[])}.
+   * Bit sets are only used when they are not larger than the packed block, so
+   * they never need more than {@link #MAX_ENCODED_SIZE} bytes.
+   */
+  static final int MAX_DENSE_SIZE = MAX_ENCODED_SIZE / Long.BYTES;
+
   /**
    * Upper limit of the number of values that might be decoded in a single call to
-   * {@link #readBlock(IndexInput, byte[], int[])}. Although values after
+   * {@link #readBlock(IndexInput, byte[], int[], int[])}. Although values after
    * <code>BLOCK_SIZE</code> are garbage, it is necessary to allocate value buffers
    * whose size is {@code >= MAX_DATA_SIZE} to avoid {@link ArrayIndexOutOfBoundsException}s.
    */
@@ -92,16 +121,33 @@ final class ForUtil {
   private final PackedInts.Encoder[] encoders;
   private final PackedInts.Decoder[] decoders;
   private final int[] iterations;
+  private final boolean laneLayout;
+  private final boolean denseDocBlocks;
+
+  // only used when writing
+  private final int[] laneBits;
+  private final int[] collapsedBuffer;
+  private final int[] packedBuffer;
+  private final long[] denseBuffer;
 
   /**
    * Create a new {@link ForUtil} instance and save state into <code>out</code>.
+   * Blocks are written as <code>version</code> of the postings format
+   * specifies, and <code>acceptableOverheadRatio</code> decides how many bits
+   * per value may be wasted in order to get faster decoding.
    */
-  ForUtil(float acceptableOverheadRatio, DataOutput out) throws IOException {
+  ForUtil(float acceptableOverheadRatio, DataOutput out, int version) throws IOException {
     out.writeVInt(PackedInts.VERSION_CURRENT);
     encodedSizes = new int[33];
     encoders = new PackedInts.Encoder[33];
     decoders = new PackedInts.Decoder[33];
     iterations = new int[33];
+    laneLayout = version >= VERSION_VECTORIZED_BLOCKS;
+    denseDocBlocks = version >= VERSION_DENSE_DOC_BLOCKS;
+    laneBits = new int[33];
+    collapsedBuffer = new int[BLOCK_SIZE];
+    packedBuffer = new int[MAX_PACKED_SIZE];
+    denseBuffer = new long[MAX_DENSE_SIZE];
 
     for (int bpv = 1; bpv <= 32; ++bpv) {
       final FormatAndBits formatAndBits = PackedInts.fastestFormatAndBits(
@@ -114,21 +160,29 @@ final class ForUtil {
       decoders[bpv] = PackedInts.getDecoder(
           formatAndBits.format, PackedInts.VERSION_CURRENT, formatAndBits.bitsPerValue);
       iterations[bpv] = computeIterations(decoders[bpv]);
+      laneBits[bpv] = formatAndBits.bitsPerValue;
 
       out.writeVInt(formatAndBits.format.getId() << 5 | (formatAndBits.bitsPerValue - 1));
     }
   }
 
   /**
-   * Restore a {@link ForUtil} from a {@link DataInput}.
+   * Restore a {@link ForUtil} from a {@link DataInput}. <code>version</code>
+   * is the version of the postings format that wrote <code>in</code>.
    */
-  ForUtil(DataInput in) throws IOException {
+  ForUtil(DataInput in, int version) throws IOException {
     int packedIntsVersion = in.readVInt();
     PackedInts.checkVersion(packedIntsVersion);
     encodedSizes = new int[33];
     encoders = new PackedInts.Encoder[33];
     decoders = new PackedInts.Decoder[33];
     iterations = new int[33];
+    laneLayout = version >= VERSION_VECTORIZED_BLOCKS;
+    denseDocBlocks = version >= VERSION_DENSE_DOC_BLOCKS;
+    laneBits = null;
+    collapsedBuffer = null;
+    packedBuffer = null;
+    denseBuffer = null;
 
     for (int bpv = 1; bpv <= 32; ++bpv) {
       final int code = in.readVInt();
@@ -163,6 +217,23 @@ final class ForUtil {
 
     final int numBits = bitsRequired(data);
     assert numBits > 0 && numBits <= 32 : numBits;
+
+    if (laneLayout) {
+      final int bitsPerValue = laneBits[numBits];
+      final int numPacked = ForLanes.packedLength(bitsPerValue);
+      ForLanes.encode(data, bitsPerValue, collapsedBuffer, packedBuffer);
+      for (int i = 0, j = 0; i < numPacked; ++i) {
+        final int v = packedBuffer[i];
+        encoded[j++] = (byte) (v >>> 24);
+        encoded[j++] = (byte) (v >>> 16);
+        encoded[j++] = (byte) (v >>> 8);
+        encoded[j++] = (byte) v;
+      }
+      out.writeByte((byte) bitsPerValue);
+      out.writeBytes(encoded, numPacked * Integer.BYTES);
+      return;
+    }
+
     final PackedInts.Encoder encoder = encoders[numBits];
     final int iters = iterations[numBits];
     assert iters * encoder.byteValueCount() >= BLOCK_SIZE;
@@ -175,17 +246,121 @@ final class ForUtil {
     out.writeBytes(encoded, encodedSize);
   }
 
+  /**
+   * Write a block of doc deltas. Since version
+   * {@link Lucene50PostingsFormat#VERSION_DENSE_DOC_BLOCKS}, blocks whose docs
+   * are dense enough that a bit set of the covered doc range is not larger than
+   * the packed deltas are written as a bit set, other blocks are written like
+   * {@link #writeBlock(int[], byte[], IndexOutput)} does.
+   * <p>
+   * Bit <code>i</code> of the bit set is set if the doc that precedes the block
+   * plus <code>i</code> is in the block.
+   *
+   * @param docDeltas  the doc deltas to write, the first one being relative to
+   *                   the doc that precedes the block
+   * @param encoded    a buffer to use to encode data
+   * @param out        the destination output
+   * @throws IOException If there is a low-level I/O error
+   */
+  void writeDocBlock(int[] docDeltas, byte[] encoded, IndexOutput out) throws IOException {
+    if (denseDocBlocks && isAllEqual(docDeltas) == false) {
+      long maxBit = 0;
+      for (int i = 0; i < BLOCK_SIZE; ++i) {
+        maxBit += docDeltas[i];
+      }
+      final long numLongs = (maxBit >>> 6) + 1;
+      final int packedSize = ForLanes.packedLength(laneBits[bitsRequired(docDeltas)]) * Integer.BYTES;
+      if (numLongs * Long.BYTES + 1 <= packedSize) {
+        Arrays.fill(denseBuffer, 0L);
+        int bit = 0;
+        for (int i = 0; i < BLOCK_SIZE; ++i) {
+          bit += docDeltas[i];
+          denseBuffer[bit >>> 6] |= 1L << bit;
+        }
+        out.writeByte((byte) DENSE_DOCS);
+        out.writeByte((byte) numLongs);
+        for (int i = 0; i < numLongs; ++i) {
+          out.writeLong(denseBuffer[i]);
+        }
+        return;
+      }
+    }
+    writeBlock(docDeltas, encoded, out);
+  }
+
+  /**
+   * Read the next block of doc deltas, which was written by
+   * {@link #writeDocBlock(int[], byte[], IndexOutput)}. Bit sets are returned
+   * as-is in <code>denseBits</code> rather than decoded.
+   *
+   * @param in         the input to use to read data
+   * @param encoded    a buffer that can be used to store encoded data
+   * @param packed     a buffer of at least {@link #MAX_PACKED_SIZE} ints that
+   *                   can be used to store packed data
+   * @param decoded    where to write decoded doc deltas
+   * @param denseBits  a buffer of at least {@link #MAX_DENSE_SIZE} longs where
+   *                   to write the bit set, if the block is dense
+   * @return the number of longs of the bit set, or 0 if the block was decoded
+   *         into <code>decoded</code>
+   * @throws IOException If there is a low-level I/O error
+   */
+  int readDocBlock(IndexInput in, byte[] encoded, int[] packed, int[] decoded, long[] denseBits) throws IOException {
+    final int numBits = in.readByte();
+    if (numBits == DENSE_DOCS) {
+      final int numLongs = in.readByte();
+      assert numLongs > 0 && numLongs <= MAX_DENSE_SIZE : numLongs;
+      for (int i = 0; i < numLongs; ++i) {
+        denseBits[i] = in.readLong();
+      }
+      return numLongs;
+    }
+    decodeBlock(numBits, in, encoded, packed, decoded);
+    return 0;
+  }
+
+  /**
+   * Read the next block of doc deltas like
+   * {@link #readDocBlock(IndexInput, byte[], int[], int[], long[])}, but
+   * always decode them into <code>decoded</code>.
+   */
+  void readDocBlock(IndexInput in, byte[] encoded, int[] packed, int[] decoded) throws IOException {
+    final int numBits = in.readByte();
+    if (numBits == DENSE_DOCS) {
+      final int numLongs = in.readByte();
+      assert numLongs > 0 && numLongs <= MAX_DENSE_SIZE : numLongs;
+      int upto = 0;
+      int lastBit = 0;
+      for (int i = 0; i < numLongs; ++i) {
+        long bits = in.readLong();
+        while (bits != 0) {
+          final int bit = (i << 6) + Long.numberOfTrailingZeros(bits);
+          decoded[upto++] = bit - lastBit;
+          lastBit = bit;
+          bits &= bits - 1;
+        }
+      }
+      assert upto == BLOCK_SIZE : upto;
+      return;
+    }
+    decodeBlock(numBits, in, encoded, packed, decoded);
+  }
+
   /**
    * Read the next block of data (<code>For</code> format).
    *
    * @param in        the input to use to read data
    * @param encoded   a buffer that can be used to store encoded data
+   * @param packed    a buffer of at least {@link #MAX_PACKED_SIZE} ints that
+   *                  can be used to store packed data
    * @param decoded   where to write decoded data
    * @throws IOException If there is a low-level I/O error
    */
-  void readBlock(IndexInput in, byte[] encoded, int[] decoded) throws IOException {
-    final int numBits = in.readByte();
-    assert numBits <= 32 : numBits;
+  void readBlock(IndexInput in, byte[] encoded, int[] packed, int[] decoded) throws IOException {
+    decodeBlock(in.readByte(), in, encoded, packed, decoded);
+  }
+
+  private void decodeBlock(int numBits, IndexInput in, byte[] encoded, int[] packed, int[] decoded) throws IOException {
+    assert numBits >= 0 && numBits <= 32 : numBits;
 
     if (numBits == ALL_VALUES_EQUAL) {
       final int value = in.readVInt();
@@ -193,6 +368,15 @@ final class ForUtil {
       return;
     }
 
+    if (laneLayout) {
+      final int numPacked = ForLanes.packedLength(numBits);
+      for (int i = 0; i < numPacked; ++i) {
+        packed[i] = in.readInt();
+      }
+      ForLanes.decode(numBits, packed, decoded);
+      return;
+    }
+
     final int encodedSize = encodedSizes[numBits];
     in.readBytes(encoded, 0, encodedSize);
 
@@ -216,10 +400,22 @@ final class ForUtil {
       return;
     }
     assert numBits > 0 && numBits <= 32 : numBits;
-    final int encodedSize = encodedSizes[numBits];
+    final int encodedSize = laneLayout ? ForLanes.packedLength(numBits) * Integer.BYTES : encodedSizes[numBits];
     in.seek(in.getFilePointer() + encodedSize);
   }
 
+  /**
+   * Turn the first <code>count</code> deltas of <code>buffer</code> into
+   * absolute values, <code>base</code> being the value that precedes the first
+   * delta.
+   */
+  static void prefixSum(int[] buffer, int count, int base) {
+    buffer[0] += base;
+    for (int i = 1; i < count; ++i) {
+      buffer[i] += buffer[i-1];
+    }
+  }
+
   private static boolean isAllEqual(final int[] data) {
     final int v = data[0];
     for (int i = 1; i < BLOCK_SIZE; ++i) {
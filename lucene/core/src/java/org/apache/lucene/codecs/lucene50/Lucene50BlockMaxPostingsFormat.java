@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.lucene50;
+
+
+import java.io.IOException;
+import java.util.Objects;
+
+import org.apache.lucene.codecs.FieldsConsumer;
+import org.apache.lucene.codecs.FieldsProducer;
+import org.apache.lucene.codecs.PostingsFormat;
+import org.apache.lucene.codecs.PostingsReaderBase;
+import org.apache.lucene.codecs.PostingsWriterBase;
+import org.apache.lucene.codecs.blocktree.BlockTreeTermsReader;
+import org.apache.lucene.codecs.blocktree.BlockTreeTermsReader.FSTLoadMode;
+import org.apache.lucene.codecs.blocktree.BlockTreeTermsWriter;
+import org.apache.lucene.index.SegmentReadState;
+import org.apache.lucene.index.SegmentWriteState;
+import org.apache.lucene.util.IOUtils;
+
+/**
+ * Variant of {@link Lucene50PostingsFormat} that writes the latest version of
+ * its file formats:
+ * <ul>
+ *   <li>skip data records the maximum term frequency of the skipped blocks, which
+ *       lets scorers skip blocks that cannot produce competitive hits,</li>
+ *   <li>packed blocks are laid out so that they can be decoded by vectorized loops,</li>
+ *   <li>blocks of dense doc deltas are written as bit sets.</li>
+ * </ul>
+ * Segments that are written with this format can only be read by releases that
+ * know this format's name; use {@link Lucene50PostingsFormat} for segments that
+ * must stay readable by any release.
+ *
+ * @see Lucene50PostingsFormat
+ * @lucene.experimental
+ */
+public final class Lucene50BlockMaxPostingsFormat extends PostingsFormat {
+
+  private final int minTermBlockSize;
+  private final int maxTermBlockSize;
+  private final FSTLoadMode fstLoadMode;
+
+  /** Creates {@code Lucene50BlockMaxPostingsFormat} with default
+   *  settings. */
+  public Lucene50BlockMaxPostingsFormat() {
+    this(BlockTreeTermsWriter.DEFAULT_MIN_BLOCK_SIZE, BlockTreeTermsWriter.DEFAULT_MAX_BLOCK_SIZE);
+  }
+
+  /** Creates {@code Lucene50BlockMaxPostingsFormat} with custom
+   *  values for {@code minBlockSize} and {@code
+   *  maxBlockSize} passed to block terms dictionary.
+   *  @see BlockTreeTermsWriter#BlockTreeTermsWriter(SegmentWriteState,PostingsWriterBase,int,int) */
+  public Lucene50BlockMaxPostingsFormat(int minTermBlockSize, int maxTermBlockSize) {
+    this(minTermBlockSize, maxTermBlockSize, FSTLoadMode.ON_HEAP);
+  }
+
+  /** Creates {@code Lucene50BlockMaxPostingsFormat} with custom
+   *  values for {@code minBlockSize} and {@code
+   *  maxBlockSize} passed to block terms dictionary, whose segments load
+   *  their terms index as {@code fstLoadMode} says.
+   *  @see Lucene50PostingsFormat#Lucene50PostingsFormat(int, int, FSTLoadMode) */
+  public Lucene50BlockMaxPostingsFormat(int minTermBlockSize, int maxTermBlockSize, FSTLoadMode fstLoadMode) {
+    super("Lucene50BlockMax");
+    BlockTreeTermsWriter.validateSettings(minTermBlockSize, maxTermBlockSize);
+    this.minTermBlockSize = minTermBlockSize;
+    this.maxTermBlockSize = maxTermBlockSize;
+    this.fstLoadMode = Objects.requireNonNull(fstLoadMode);
+  }
+
+  @Override
+  public String toString() {
+    return getName() + "(blocksize=" + Lucene50PostingsFormat.BLOCK_SIZE + ")";
+  }
+
+  @Override
+  public FieldsConsumer fieldsConsumer(SegmentWriteState state) throws IOException {
+    Lucene50PostingsFormat.writeFSTLoadMode(state, fstLoadMode);
+    PostingsWriterBase postingsWriter = new Lucene50PostingsWriter(state, Lucene50PostingsFormat.VERSION_CURRENT);
+
+    boolean success = false;
+    try {
+      FieldsConsumer ret = new BlockTreeTermsWriter(state, 
+                                                    postingsWriter,
+                                                    minTermBlockSize, 
+                                                    maxTermBlockSize);
+      success = true;
+      return ret;
+    } finally {
+      if (!success) {
+        IOUtils.closeWhileHandlingException(postingsWriter);
+      }
+    }
+  }
+
+  @Override
+  public FieldsProducer fieldsProducer(SegmentReadState state) throws IOException {
+    PostingsReaderBase postingsReader = new Lucene50PostingsReader(state);
+    boolean success = false;
+    try {
+      FieldsProducer ret = new BlockTreeTermsReader(postingsReader, state, Lucene50PostingsFormat.readFSTLoadMode(state, fstLoadMode));
+      success = true;
+      return ret;
+    } finally {
+      if (!success) {
+        IOUtils.closeWhileHandlingException(postingsReader);
+      }
+    }
+  }
+}
@@ -19,6 +19,7 @@ package org.apache.lucene.codecs.lucene50;
 
 
 import java.io.IOException;
+import java.util.Objects;
 
 import org.apache.lucene.codecs.BlockTermState;
 import org.apache.lucene.codecs.CodecUtil;
@@ -29,6 +30,7 @@ import org.apache.lucene.codecs.PostingsFormat;
 import org.apache.lucene.codecs.PostingsReaderBase;
 import org.apache.lucene.codecs.PostingsWriterBase;
 import org.apache.lucene.codecs.blocktree.BlockTreeTermsReader;
+import org.apache.lucene.codecs.blocktree.BlockTreeTermsReader.FSTLoadMode;
 import org.apache.lucene.codecs.blocktree.BlockTreeTermsWriter;
 import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.SegmentReadState;
@@ -43,6 +45,12 @@ import org.apache.lucene.util.packed.PackedInts;
  * for fast decode.
  *
  * <p>
+ * This format always writes version 0 of the file formats described below, so
+ * that its segments can be read by any release that knows this format. Versions
+ * 1 to 3 are only written by {@link Lucene50BlockMaxPostingsFormat}, which has its
+ * own name and shares the reader with this format.
+ *
+ * <p>
  * Basic idea:
  * <ul>
  *   <li>
@@ -50,6 +58,16 @@ import org.apache.lucene.util.packed.PackedInts;
  *   <p>In packed blocks, integers are encoded with the same bit width ({@link PackedInts packed format}):
  *      the block size (i.e. number of integers inside block) is fixed (currently 128). Additionally blocks
  *      that are all the same value are encoded in an optimized way.</p>
+ *   <p>Since version 2 of the format, the bits of a packed block are interleaved so that all
+ *      values can be decoded by a few shift-and-mask loops over 32-bit ints, which the JIT
+ *      compiles to SIMD instructions. Such a block is written as its bit width followed by
+ *      4*bitWidth big-endian ints.</p>
+ *   <p>Since version 3 of the format, blocks of document deltas whose documents are so dense
+ *      that a bit set of the range of documents they cover is not larger than the packed block
+ *      are written as a bit set instead: the special bit width -1, the number of longs of the
+ *      bit set as a byte, then the longs. Bit <i>i</i> is set when the document that precedes
+ *      the block plus <i>i</i> is in the block. Such blocks are advanced by bit set lookups
+ *      rather than by scanning decoded deltas.</p>
  *   <p>In VInt blocks, integers are encoded as {@link DataOutput#writeVInt VInt}:
  *      the block size is variable.</p>
  *   </li>
@@ -195,10 +213,10 @@ import org.apache.lucene.util.packed.PackedInts;
  *   <li>SkipData --&gt; &lt;&lt;SkipLevelLength, SkipLevel&gt;
  *       <sup>NumSkipLevels-1</sup>, SkipLevel&gt;, SkipDatum?</li>
  *   <li>SkipLevel --&gt; &lt;SkipDatum&gt; <sup>TrimmedDocFreq/(PackedBlockSize^(Level + 1))</sup></li>
- *   <li>SkipDatum --&gt; DocSkip, DocFPSkip, &lt;PosFPSkip, PosBlockOffset, PayLength?, 
+ *   <li>SkipDatum --&gt; DocSkip, DocFPSkip, MaxFreq?, &lt;PosFPSkip, PosBlockOffset, PayLength?, 
  *                        PayFPSkip?&gt;?, SkipChildLevelPointer?</li>
  *   <li>PackedDocDeltaBlock, PackedFreqBlock --&gt; {@link PackedInts PackedInts}</li>
- *   <li>DocDelta, Freq, DocSkip, DocFPSkip, PosFPSkip, PosBlockOffset, PayByteUpto, PayFPSkip 
+ *   <li>DocDelta, Freq, DocSkip, DocFPSkip, MaxFreq, PosFPSkip, PosBlockOffset, PayByteUpto, PayFPSkip 
  *       --&gt; 
  *   {@link DataOutput#writeVInt VInt}</li>
  *   <li>SkipChildLevelPointer --&gt; {@link DataOutput#writeVLong VLong}</li>
@@ -251,6 +269,11 @@ import org.apache.lucene.util.packed.PackedInts;
  *       PackedBlockSize+1<sup>th</sup>, 2*PackedBlockSize+1<sup>th</sup> ... , in DocFile. 
  *       The file offsets are relative to the start of current term's TermFreqs. 
  *       On disk it is also stored as the difference from previous SkipDatum in the sequence.</li>
+ *   <li>MaxFreq records the maximum term frequency of the documents between the previous
+ *       SkipDatum of the same level (exclusive) and DocSkip (inclusive). It allows scorers
+ *       to compute an upper bound of the scores of a range of documents without decoding
+ *       them. It is only stored when frequencies are indexed, and only since version 1 of
+ *       the format.</li>
  *   <li>Since positions and payloads are also block encoded, the skip should skip to related block first,
  *       then fetch the values according to in-block offset. PosFPSkip and PayFPSkip record the file 
  *       offsets of related block in .pos and .pay, respectively. While PosBlockOffset indicates
@@ -382,12 +405,25 @@ public final class Lucene50PostingsFormat extends PostingsFormat {
   final static String POS_CODEC = "Lucene50PostingsWriterPos";
   final static String PAY_CODEC = "Lucene50PostingsWriterPay";
 
-  // Increment version to change it
+  // Increment version to change it; versions after VERSION_START are only
+  // written by Lucene50BlockMaxPostingsFormat
   final static int VERSION_START = 0;
-  final static int VERSION_CURRENT = VERSION_START;
+  // skip data records the max freq of the skipped blocks
+  final static int VERSION_IMPACTS = 1;
+  // packed blocks are laid out by ForLanes
+  final static int VERSION_VECTORIZED_BLOCKS = 2;
+  // dense doc blocks are written as bit sets
+  final static int VERSION_DENSE_DOC_BLOCKS = 3;
+  final static int VERSION_CURRENT = VERSION_DENSE_DOC_BLOCKS;
+
+  /** Attribute key for the {@link FSTLoadMode} of the terms index, followed
+   *  by the segment suffix since a segment may be written by several
+   *  instances of this format. */
+  public static final String FST_LOAD_MODE_KEY = Lucene50PostingsFormat.class.getSimpleName() + ".fstLoadMode";
 
   private final int minTermBlockSize;
   private final int maxTermBlockSize;
+  private final FSTLoadMode fstLoadMode;
 
   /**
    * Fixed packed block size, number of integers encoded in 
@@ -407,10 +443,31 @@ public final class Lucene50PostingsFormat extends PostingsFormat {
    *  maxBlockSize} passed to block terms dictionary.
    *  @see BlockTreeTermsWriter#BlockTreeTermsWriter(SegmentWriteState,PostingsWriterBase,int,int) */
   public Lucene50PostingsFormat(int minTermBlockSize, int maxTermBlockSize) {
+    this(minTermBlockSize, maxTermBlockSize, FSTLoadMode.ON_HEAP);
+  }
+
+  /** Creates {@code Lucene50PostingsFormat} with default block sizes,
+   *  whose segments load their terms index as {@code fstLoadMode} says.
+   *  @see #Lucene50PostingsFormat(int, int, FSTLoadMode) */
+  public Lucene50PostingsFormat(FSTLoadMode fstLoadMode) {
+    this(BlockTreeTermsWriter.DEFAULT_MIN_BLOCK_SIZE, BlockTreeTermsWriter.DEFAULT_MAX_BLOCK_SIZE, fstLoadMode);
+  }
+
+  /** Creates {@code Lucene50PostingsFormat} with custom
+   *  values for {@code minBlockSize} and {@code
+   *  maxBlockSize} passed to block terms dictionary, whose segments load
+   *  their terms index as {@code fstLoadMode} says. Since segments are read
+   *  with the instance of this format that is registered under its name,
+   *  modes other than {@link FSTLoadMode#ON_HEAP} are recorded in the
+   *  attributes of the segments that this instance writes.
+   *  @see BlockTreeTermsWriter#BlockTreeTermsWriter(SegmentWriteState,PostingsWriterBase,int,int)
+   *  @lucene.experimental */
+  public Lucene50PostingsFormat(int minTermBlockSize, int maxTermBlockSize, FSTLoadMode fstLoadMode) {
     super("Lucene50");
     BlockTreeTermsWriter.validateSettings(minTermBlockSize, maxTermBlockSize);
     this.minTermBlockSize = minTermBlockSize;
     this.maxTermBlockSize = maxTermBlockSize;
+    this.fstLoadMode = Objects.requireNonNull(fstLoadMode);
   }
 
   @Override
@@ -420,6 +477,7 @@ public final class Lucene50PostingsFormat extends PostingsFormat {
 
   @Override
   public FieldsConsumer fieldsConsumer(SegmentWriteState state) throws IOException {
+    writeFSTLoadMode(state, fstLoadMode);
     PostingsWriterBase postingsWriter = new Lucene50PostingsWriter(state);
 
     boolean success = false;
@@ -442,7 +500,7 @@ public final class Lucene50PostingsFormat extends PostingsFormat {
     PostingsReaderBase postingsReader = new Lucene50PostingsReader(state);
     boolean success = false;
     try {
-      FieldsProducer ret = new BlockTreeTermsReader(postingsReader, state);
+      FieldsProducer ret = new BlockTreeTermsReader(postingsReader, state, readFSTLoadMode(state, fstLoadMode));
       success = true;
       return ret;
     } finally {
@@ -451,6 +509,25 @@ public final class Lucene50PostingsFormat extends PostingsFormat {
       }
     }
   }
+
+  /** Records {@code mode} in the segment, unless it is the default. */
+  static void writeFSTLoadMode(SegmentWriteState state, FSTLoadMode mode) {
+    if (mode != FSTLoadMode.ON_HEAP) {
+      final String key = FST_LOAD_MODE_KEY + state.segmentSuffix;
+      final String previous = state.segmentInfo.putAttribute(key, mode.name());
+      if (previous != null && previous.equals(mode.name()) == false) {
+        throw new IllegalStateException("found existing value for " + key + " for segment: " + state.segmentInfo.name + ", " +
+                                        "old=" + previous + ", new=" + mode.name());
+      }
+    }
+  }
+
+  /** Returns the mode recorded in the segment, or {@code defaultMode} if
+   *  the segment has none. */
+  static FSTLoadMode readFSTLoadMode(SegmentReadState state, FSTLoadMode defaultMode) {
+    final String value = state.segmentInfo.getAttribute(FST_LOAD_MODE_KEY + state.segmentSuffix);
+    return value == null ? defaultMode : FSTLoadMode.valueOf(value);
+  }
   
   final static class IntBlockTermState extends BlockTermState {
     long docStartFP = 0;
@@ -25,6 +25,7 @@ import org.apache.lucene.codecs.CodecUtil;
 import org.apache.lucene.codecs.PostingsReaderBase;
 import org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.IntBlockTermState;
 import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.ImpactsEnum;
 import org.apache.lucene.index.IndexFileNames;
 import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.PostingsEnum;
@@ -37,7 +38,9 @@ import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.RamUsageEstimator;
 
 import static org.apache.lucene.codecs.lucene50.ForUtil.MAX_DATA_SIZE;
+import static org.apache.lucene.codecs.lucene50.ForUtil.MAX_DENSE_SIZE;
 import static org.apache.lucene.codecs.lucene50.ForUtil.MAX_ENCODED_SIZE;
+import static org.apache.lucene.codecs.lucene50.ForUtil.MAX_PACKED_SIZE;
 import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.BLOCK_SIZE;
 import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.DOC_CODEC;
 import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.MAX_SKIP_LEVELS;
@@ -45,6 +48,7 @@ import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.PAY_CODEC
 import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.POS_CODEC;
 import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.TERMS_CODEC;
 import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.VERSION_CURRENT;
+import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.VERSION_IMPACTS;
 import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.VERSION_START;
 
 /**
@@ -80,7 +84,7 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
     try {
       docIn = state.directory.openInput(docName, state.context);
       version = CodecUtil.checkIndexHeader(docIn, DOC_CODEC, VERSION_START, VERSION_CURRENT, state.segmentInfo.getId(), state.segmentSuffix);
-      forUtil = new ForUtil(docIn);
+      forUtil = new ForUtil(docIn, version);
       CodecUtil.retrieveChecksum(docIn);
 
       if (state.fieldInfos.hasProx()) {
@@ -234,21 +238,37 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
     }
   }
 
-  final class BlockDocsEnum extends PostingsEnum {
+  final class BlockDocsEnum extends ImpactsEnum {
     private final byte[] encoded;
+    private final int[] packed = new int[MAX_PACKED_SIZE];
     
-    private final int[] docDeltaBuffer = new int[MAX_DATA_SIZE];
+    private final int[] docBuffer = new int[MAX_DATA_SIZE]; // absolute doc IDs
     private final int[] freqBuffer = new int[MAX_DATA_SIZE];
 
     private int docBufferUpto;
 
+    // when the current block is dense, its docs are not decoded into
+    // docBuffer but looked up in this bit set instead:
+    private final long[] denseBits = new long[MAX_DENSE_SIZE];
+    private final int[] denseRanks = new int[MAX_DENSE_SIZE]; // number of docs before each long
+    private boolean dense;
+    private int denseBase;                            // doc ID of bit 0
+    private int denseBit;                             // bit of the doc we last read
+
     private Lucene50SkipReader skipper;
     private boolean skipped;
 
+    // separate skipper for advanceShallow, so that it never moves the
+    // skipper that is used to position docIn:
+    private Lucene50SkipReader impactsSkipper;
+    private boolean impactsSkipped;
+    private int shallowTarget;
+
     final IndexInput startDocIn;
 
     IndexInput docIn;
     final boolean indexHasFreq;
+    final boolean indexHasMaxFreqs;
     final boolean indexHasPos;
     final boolean indexHasOffsets;
     final boolean indexHasPayloads;
@@ -257,7 +277,7 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
     private long totalTermFreq;                       // sum of freqs in this posting list (or docFreq when omitted)
     private int docUpto;                              // how many docs we've read
     private int doc;                                  // doc we last read
-    private int accum;                                // accumulator for doc deltas
+    private int accum;                                // last doc ID before docBuffer
     private int freq;                                 // freq we last read
 
     // Where this term's postings start in the .doc file:
@@ -279,6 +299,7 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
       this.startDocIn = Lucene50PostingsReader.this.docIn;
       this.docIn = null;
       indexHasFreq = fieldInfo.getIndexOptions().compareTo(IndexOptions.DOCS_AND_FREQS) >= 0;
+      indexHasMaxFreqs = indexHasFreq && version >= VERSION_IMPACTS;
       indexHasPos = fieldInfo.getIndexOptions().compareTo(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS) >= 0;
       indexHasOffsets = fieldInfo.getIndexOptions().compareTo(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS) >= 0;
       indexHasPayloads = fieldInfo.hasPayloads();
@@ -295,6 +316,8 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
     public PostingsEnum reset(IntBlockTermState termState, int flags) throws IOException {
       docFreq = termState.docFreq;
       totalTermFreq = indexHasFreq ? termState.totalTermFreq : docFreq;
+      impactsSkipped = false;
+      shallowTarget = -1;
       docTermStartFP = termState.docStartFP;
       skipOffset = termState.skipOffset;
       singletonDocID = termState.singletonDocID;
@@ -353,22 +376,40 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
       final int left = docFreq - docUpto;
       assert left > 0;
 
+      dense = false;
       if (left >= BLOCK_SIZE) {
-        forUtil.readBlock(docIn, encoded, docDeltaBuffer);
+        final int numLongs = forUtil.readDocBlock(docIn, encoded, packed, docBuffer, denseBits);
+        if (numLongs > 0) {
+          int rank = 0;
+          for (int i = 0; i < numLongs; ++i) {
+            denseRanks[i] = rank;
+            rank += Long.bitCount(denseBits[i]);
+          }
+          assert rank == BLOCK_SIZE : rank;
+          dense = true;
+          denseBase = accum;
+          denseBit = -1;
+          accum += (numLongs << 6) - 1 - Long.numberOfLeadingZeros(denseBits[numLongs - 1]);
+        } else {
+          ForUtil.prefixSum(docBuffer, BLOCK_SIZE, accum);
+          accum = docBuffer[BLOCK_SIZE - 1];
+        }
 
         if (indexHasFreq) {
           if (needsFreq) {
-            forUtil.readBlock(docIn, encoded, freqBuffer);
+            forUtil.readBlock(docIn, encoded, packed, freqBuffer);
           } else {
             forUtil.skipBlock(docIn); // skip over freqs
           }
         }
       } else if (docFreq == 1) {
-        docDeltaBuffer[0] = singletonDocID;
+        docBuffer[0] = singletonDocID;
         freqBuffer[0] = (int) totalTermFreq;
       } else {
         // Read vInts:
-        readVIntBlock(docIn, docDeltaBuffer, freqBuffer, left, indexHasFreq);
+        readVIntBlock(docIn, docBuffer, freqBuffer, left, indexHasFreq);
+        ForUtil.prefixSum(docBuffer, left, accum);
+        accum = docBuffer[left - 1];
       }
       docBufferUpto = 0;
     }
@@ -382,10 +423,13 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
         refillDocs();
       }
 
-      accum += docDeltaBuffer[docBufferUpto];
       docUpto++;
-
-      doc = accum;
+      if (dense) {
+        denseBit = nextDenseBit(denseBit + 1);
+        doc = denseBase + denseBit;
+      } else {
+        doc = docBuffer[docBufferUpto];
+      }
       freq = freqBuffer[docBufferUpto];
       docBufferUpto++;
       return doc;
@@ -405,7 +449,8 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
                                            MAX_SKIP_LEVELS,
                                            indexHasPos,
                                            indexHasOffsets,
-                                           indexHasPayloads);
+                                           indexHasPayloads,
+                                           indexHasMaxFreqs);
         }
 
         if (!skipped) {
@@ -441,26 +486,105 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
         refillDocs();
       }
 
-      // Now scan... this is an inlined/pared down version
-      // of nextDoc():
-      while (true) {
-        accum += docDeltaBuffer[docBufferUpto];
-        docUpto++;
-
-        if (accum >= target) {
-          break;
+      // the last full block has no skip entry if no docs follow it, so the
+      // target may be after this block even though the skipper did not move
+      while (dense && target > accum) { // accum is the last doc of a dense block
+        docUpto += BLOCK_SIZE - docBufferUpto;
+        if (docUpto == docFreq) {
+          return doc = NO_MORE_DOCS;
         }
+        refillDocs();
+      }
+
+      if (dense) {
+        // the target is in this block: find its bit and count the docs
+        // that we skipped over
+        denseBit = nextDenseBit(Math.max(denseBit + 1, target - denseBase));
+        final int rank = denseRanks[denseBit >>> 6] + Long.bitCount(denseBits[denseBit >>> 6] & ((1L << denseBit) - 1));
+        docUpto += rank - docBufferUpto + 1;
+        docBufferUpto = rank;
+        freq = freqBuffer[docBufferUpto];
+        docBufferUpto++;
+        return doc = denseBase + denseBit;
+      }
+
+      // Now scan... doc IDs are already decoded, so this is a
+      // plain search over docBuffer:
+      while (docBuffer[docBufferUpto] < target) {
         docBufferUpto++;
+        docUpto++;
         if (docUpto == docFreq) {
           return doc = NO_MORE_DOCS;
         }
       }
 
+      docUpto++;
       freq = freqBuffer[docBufferUpto];
+      doc = docBuffer[docBufferUpto];
       docBufferUpto++;
-      return doc = accum;
+      return doc;
     }
     
+    /** Returns the first bit of the current dense block that is set, starting at {@code fromBit}. */
+    private int nextDenseBit(int fromBit) {
+      assert fromBit <= accum - denseBase : "fromBit=" + fromBit + " is after the last doc of the block";
+      int i = fromBit >>> 6;
+      long bits = denseBits[i] & (-1L << fromBit);
+      while (bits == 0) {
+        bits = denseBits[++i];
+      }
+      return (i << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    @Override
+    public int advanceShallow(int target) throws IOException {
+      shallowTarget = Math.max(shallowTarget, target);
+      if (docFreq <= BLOCK_SIZE || indexHasMaxFreqs == false) {
+        // no skip data or no max freqs in it: only term-level bounds
+        return NO_MORE_DOCS;
+      }
+      if (impactsSkipper == null) {
+        impactsSkipper = new Lucene50SkipReader(startDocIn.clone(),
+                                                MAX_SKIP_LEVELS,
+                                                indexHasPos,
+                                                indexHasOffsets,
+                                                indexHasPayloads,
+                                                true);
+      }
+      if (!impactsSkipped) {
+        assert skipOffset != -1;
+        impactsSkipper.init(docTermStartFP+skipOffset, docTermStartFP, 0, 0, docFreq);
+        impactsSkipped = true;
+      }
+      // skip entries start at 0 before anything is loaded, so make sure
+      // that the first call loads them
+      impactsSkipper.skipTo(Math.max(shallowTarget, 1));
+      final int nextSkipDoc = impactsSkipper.getNextSkipDoc();
+      return nextSkipDoc == Integer.MAX_VALUE ? NO_MORE_DOCS : nextSkipDoc;
+    }
+
+    @Override
+    public int getMaxFreq(int upTo) throws IOException {
+      if (indexHasFreq == false) {
+        return 1;
+      }
+      if (impactsSkipped) {
+        // levels whose current entry covers [shallowTarget, upTo]; higher levels
+        // cover wider ranges, so the first match gives the tightest bound
+        for (int level = 0; level < MAX_SKIP_LEVELS; level++) {
+          final int skipDoc = impactsSkipper.getSkipDoc(level);
+          if (skipDoc < Math.max(shallowTarget, 1) || skipDoc == Integer.MAX_VALUE) {
+            break;
+          }
+          if (skipDoc >= upTo) {
+            return impactsSkipper.getMaxFreq(level);
+          }
+        }
+      }
+      // every other doc has a freq of at least 1
+      return (int) Math.min(Integer.MAX_VALUE, totalTermFreq - docFreq + 1);
+    }
+
     @Override
     public long cost() {
       return docFreq;
@@ -471,6 +595,7 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
   final class BlockPostingsEnum extends PostingsEnum {
     
     private final byte[] encoded;
+    private final int[] packed = new int[MAX_PACKED_SIZE];
 
     private final int[] docDeltaBuffer = new int[MAX_DATA_SIZE];
     private final int[] freqBuffer = new int[MAX_DATA_SIZE];
@@ -598,8 +723,8 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
       assert left > 0;
 
       if (left >= BLOCK_SIZE) {
-        forUtil.readBlock(docIn, encoded, docDeltaBuffer);
-        forUtil.readBlock(docIn, encoded, freqBuffer);
+        forUtil.readDocBlock(docIn, encoded, packed, docDeltaBuffer);
+        forUtil.readBlock(docIn, encoded, packed, freqBuffer);
       } else if (docFreq == 1) {
         docDeltaBuffer[0] = singletonDocID;
         freqBuffer[0] = (int) totalTermFreq;
@@ -635,7 +760,7 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
           }
         }
       } else {
-        forUtil.readBlock(posIn, encoded, posDeltaBuffer);
+        forUtil.readBlock(posIn, encoded, packed, posDeltaBuffer);
       }
     }
 
@@ -670,7 +795,8 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
                                            MAX_SKIP_LEVELS,
                                            true,
                                            indexHasOffsets,
-                                           indexHasPayloads);
+                                           indexHasPayloads,
+                                           version >= VERSION_IMPACTS);
         }
 
         if (!skipped) {
@@ -803,6 +929,7 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
   final class EverythingEnum extends PostingsEnum {
     
     private final byte[] encoded;
+    private final int[] packed = new int[MAX_PACKED_SIZE];
 
     private final int[] docDeltaBuffer = new int[MAX_DATA_SIZE];
     private final int[] freqBuffer = new int[MAX_DATA_SIZE];
@@ -974,8 +1101,8 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
       assert left > 0;
 
       if (left >= BLOCK_SIZE) {
-        forUtil.readBlock(docIn, encoded, docDeltaBuffer);
-        forUtil.readBlock(docIn, encoded, freqBuffer);
+        forUtil.readDocBlock(docIn, encoded, packed, docDeltaBuffer);
+        forUtil.readBlock(docIn, encoded, packed, freqBuffer);
       } else if (docFreq == 1) {
         docDeltaBuffer[0] = singletonDocID;
         freqBuffer[0] = (int) totalTermFreq;
@@ -1021,11 +1148,11 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
         }
         payloadByteUpto = 0;
       } else {
-        forUtil.readBlock(posIn, encoded, posDeltaBuffer);
+        forUtil.readBlock(posIn, encoded, packed, posDeltaBuffer);
 
         if (indexHasPayloads) {
           if (needsPayloads) {
-            forUtil.readBlock(payIn, encoded, payloadLengthBuffer);
+            forUtil.readBlock(payIn, encoded, packed, payloadLengthBuffer);
             int numBytes = payIn.readVInt();
 
             if (numBytes > payloadBytes.length) {
@@ -1043,8 +1170,8 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
 
         if (indexHasOffsets) {
           if (needsOffsets) {
-            forUtil.readBlock(payIn, encoded, offsetStartDeltaBuffer);
-            forUtil.readBlock(payIn, encoded, offsetLengthBuffer);
+            forUtil.readBlock(payIn, encoded, packed, offsetStartDeltaBuffer);
+            forUtil.readBlock(payIn, encoded, packed, offsetLengthBuffer);
           } else {
             // this works, because when writing a vint block we always force the first length to be written
             forUtil.skipBlock(payIn); // skip over starts
@@ -1086,7 +1213,8 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
                                         MAX_SKIP_LEVELS,
                                         true,
                                         indexHasOffsets,
-                                        indexHasPayloads);
+                                        indexHasPayloads,
+                                        version >= VERSION_IMPACTS);
         }
 
         if (!skipped) {
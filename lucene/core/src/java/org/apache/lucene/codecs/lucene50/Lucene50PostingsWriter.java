@@ -25,7 +25,8 @@ import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.MAX_SKIP_
 import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.PAY_CODEC;
 import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.POS_CODEC;
 import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.TERMS_CODEC;
-import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.VERSION_CURRENT;
+import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.VERSION_IMPACTS;
+import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.VERSION_START;
 
 import java.io.IOException;
 
@@ -82,6 +83,7 @@ public final class Lucene50PostingsWriter extends PushPostingsWriterBase {
   private int payloadByteUpto;
 
   private int lastBlockDocID;
+  private int lastBlockMaxFreq;
   private long lastBlockPosFP;
   private long lastBlockPayFP;
   private int lastBlockPosBufferUpto;
@@ -94,12 +96,19 @@ public final class Lucene50PostingsWriter extends PushPostingsWriterBase {
 
   final byte[] encoded;
 
+  private final int version;
   private final ForUtil forUtil;
   private final Lucene50SkipWriter skipWriter;
   
-  /** Creates a postings writer */
+  /** Creates a postings writer that writes the original version of the format */
   public Lucene50PostingsWriter(SegmentWriteState state) throws IOException {
+    this(state, VERSION_START);
+  }
+
+  /** Creates a postings writer that writes the given version of the format */
+  Lucene50PostingsWriter(SegmentWriteState state, int version) throws IOException {
     final float acceptableOverheadRatio = PackedInts.COMPACT;
+    this.version = version;
 
     String docFileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, Lucene50PostingsFormat.DOC_EXTENSION);
     docOut = state.directory.createOutput(docFileName, state.context);
@@ -107,14 +116,14 @@ public final class Lucene50PostingsWriter extends PushPostingsWriterBase {
     IndexOutput payOut = null;
     boolean success = false;
     try {
-      CodecUtil.writeIndexHeader(docOut, DOC_CODEC, VERSION_CURRENT, 
+      CodecUtil.writeIndexHeader(docOut, DOC_CODEC, version, 
                                    state.segmentInfo.getId(), state.segmentSuffix);
-      forUtil = new ForUtil(acceptableOverheadRatio, docOut);
+      forUtil = new ForUtil(acceptableOverheadRatio, docOut, version);
       if (state.fieldInfos.hasProx()) {
         posDeltaBuffer = new int[MAX_DATA_SIZE];
         String posFileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, Lucene50PostingsFormat.POS_EXTENSION);
         posOut = state.directory.createOutput(posFileName, state.context);
-        CodecUtil.writeIndexHeader(posOut, POS_CODEC, VERSION_CURRENT,
+        CodecUtil.writeIndexHeader(posOut, POS_CODEC, version,
                                      state.segmentInfo.getId(), state.segmentSuffix);
 
         if (state.fieldInfos.hasPayloads()) {
@@ -136,7 +145,7 @@ public final class Lucene50PostingsWriter extends PushPostingsWriterBase {
         if (state.fieldInfos.hasPayloads() || state.fieldInfos.hasOffsets()) {
           String payFileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, Lucene50PostingsFormat.PAY_EXTENSION);
           payOut = state.directory.createOutput(payFileName, state.context);
-          CodecUtil.writeIndexHeader(payOut, PAY_CODEC, VERSION_CURRENT,
+          CodecUtil.writeIndexHeader(payOut, PAY_CODEC, version,
                                        state.segmentInfo.getId(), state.segmentSuffix);
         }
       } else {
@@ -164,7 +173,8 @@ public final class Lucene50PostingsWriter extends PushPostingsWriterBase {
                                         state.segmentInfo.maxDoc(),
                                         docOut,
                                         posOut,
-                                        payOut);
+                                        payOut,
+                                        version >= VERSION_IMPACTS);
 
     encoded = new byte[MAX_ENCODED_SIZE];
   }
@@ -176,14 +186,14 @@ public final class Lucene50PostingsWriter extends PushPostingsWriterBase {
 
   @Override
   public void init(IndexOutput termsOut, SegmentWriteState state) throws IOException {
-    CodecUtil.writeIndexHeader(termsOut, TERMS_CODEC, VERSION_CURRENT, state.segmentInfo.getId(), state.segmentSuffix);
+    CodecUtil.writeIndexHeader(termsOut, TERMS_CODEC, version, state.segmentInfo.getId(), state.segmentSuffix);
     termsOut.writeVInt(BLOCK_SIZE);
   }
 
   @Override
   public int setField(FieldInfo fieldInfo) {
     super.setField(fieldInfo);
-    skipWriter.setField(writePositions, writeOffsets, writePayloads);
+    skipWriter.setField(writeFreqs, writePositions, writeOffsets, writePayloads);
     lastState = emptyState;
     if (writePositions) {
       if (writePayloads || writeOffsets) {
@@ -216,7 +226,7 @@ public final class Lucene50PostingsWriter extends PushPostingsWriterBase {
     // Should write skip data as well as postings list for
     // current block.
     if (lastBlockDocID != -1 && docBufferUpto == 0) {
-      skipWriter.bufferSkip(lastBlockDocID, docCount, lastBlockPosFP, lastBlockPayFP, lastBlockPosBufferUpto, lastBlockPayloadByteUpto);
+      skipWriter.bufferSkip(lastBlockDocID, lastBlockMaxFreq, docCount, lastBlockPosFP, lastBlockPayFP, lastBlockPosBufferUpto, lastBlockPayloadByteUpto);
     }
 
     final int docDelta = docID - lastDocID;
@@ -234,9 +244,16 @@ public final class Lucene50PostingsWriter extends PushPostingsWriterBase {
     docCount++;
 
     if (docBufferUpto == BLOCK_SIZE) {
-      forUtil.writeBlock(docDeltaBuffer, encoded, docOut);
+      forUtil.writeDocBlock(docDeltaBuffer, encoded, docOut);
       if (writeFreqs) {
+        int maxFreq = 0;
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+          maxFreq = Math.max(maxFreq, freqBuffer[i]);
+        }
+        lastBlockMaxFreq = maxFreq;
         forUtil.writeBlock(freqBuffer, encoded, docOut);
+      } else {
+        lastBlockMaxFreq = 1;
       }
       // NOTE: don't set docBufferUpto back to 0 here;
       // finishDoc will do so (because it needs to see that
@@ -41,6 +41,7 @@ import org.apache.lucene.codecs.MultiLevelSkipListWriter;
  * 2. its related file points(position, payload), 
  * 3. related numbers or uptos(position, payload).
  * 4. start offset.
+ * 5. the maximum term frequency of the skipped documents (if frequencies are indexed).
  *
  */
 final class Lucene50SkipWriter extends MultiLevelSkipListWriter {
@@ -49,6 +50,7 @@ final class Lucene50SkipWriter extends MultiLevelSkipListWriter {
   private long[] lastSkipPosPointer;
   private long[] lastSkipPayPointer;
   private int[] lastPayloadByteUpto;
+  private final int[] maxFreqs;
 
   private final IndexOutput docOut;
   private final IndexOutput posOut;
@@ -60,18 +62,27 @@ final class Lucene50SkipWriter extends MultiLevelSkipListWriter {
   private long curPayPointer;
   private int curPosBufferUpto;
   private int curPayloadByteUpto;
+  private final boolean writeMaxFreqs;
+  private boolean fieldHasFreqs;
   private boolean fieldHasPositions;
   private boolean fieldHasOffsets;
   private boolean fieldHasPayloads;
 
-  public Lucene50SkipWriter(int maxSkipLevels, int blockSize, int docCount, IndexOutput docOut, IndexOutput posOut, IndexOutput payOut) {
+  /**
+   * Creates a skip writer. Max frequencies are only written if
+   * {@code writeMaxFreqs} is true, which requires version
+   * {@link Lucene50PostingsFormat#VERSION_IMPACTS} of the format.
+   */
+  public Lucene50SkipWriter(int maxSkipLevels, int blockSize, int docCount, IndexOutput docOut, IndexOutput posOut, IndexOutput payOut, boolean writeMaxFreqs) {
     super(blockSize, 8, maxSkipLevels, docCount);
     this.docOut = docOut;
     this.posOut = posOut;
     this.payOut = payOut;
+    this.writeMaxFreqs = writeMaxFreqs;
     
     lastSkipDoc = new int[maxSkipLevels];
     lastSkipDocPointer = new long[maxSkipLevels];
+    maxFreqs = new int[maxSkipLevels];
     if (posOut != null) {
       lastSkipPosPointer = new long[maxSkipLevels];
       if (payOut != null) {
@@ -81,7 +92,8 @@ final class Lucene50SkipWriter extends MultiLevelSkipListWriter {
     }
   }
 
-  public void setField(boolean fieldHasPositions, boolean fieldHasOffsets, boolean fieldHasPayloads) {
+  public void setField(boolean fieldHasFreqs, boolean fieldHasPositions, boolean fieldHasOffsets, boolean fieldHasPayloads) {
+    this.fieldHasFreqs = fieldHasFreqs;
     this.fieldHasPositions = fieldHasPositions;
     this.fieldHasOffsets = fieldHasOffsets;
     this.fieldHasPayloads = fieldHasPayloads;
@@ -113,6 +125,7 @@ final class Lucene50SkipWriter extends MultiLevelSkipListWriter {
       super.resetSkip();
       Arrays.fill(lastSkipDoc, 0);
       Arrays.fill(lastSkipDocPointer, lastDocFP);
+      Arrays.fill(maxFreqs, 0);
       if (fieldHasPositions) {
         Arrays.fill(lastSkipPosPointer, lastPosFP);
         if (fieldHasPayloads) {
@@ -127,10 +140,15 @@ final class Lucene50SkipWriter extends MultiLevelSkipListWriter {
   }
 
   /**
-   * Sets the values for the current skip data. 
+   * Sets the values for the current skip data. {@code blockMaxFreq} is the
+   * maximum term frequency of the block that ends with {@code doc}.
    */
-  public void bufferSkip(int doc, int numDocs, long posFP, long payFP, int posBufferUpto, int payloadByteUpto) throws IOException {
+  public void bufferSkip(int doc, int blockMaxFreq, int numDocs, long posFP, long payFP, int posBufferUpto, int payloadByteUpto) throws IOException {
     initSkip();
+    // every level records the max freq since its previous skip entry:
+    for (int level = 0; level < maxFreqs.length; level++) {
+      maxFreqs[level] = Math.max(maxFreqs[level], blockMaxFreq);
+    }
     this.curDoc = doc;
     this.curDocPointer = docOut.getFilePointer();
     this.curPosPointer = posFP;
@@ -150,6 +168,11 @@ final class Lucene50SkipWriter extends MultiLevelSkipListWriter {
     skipBuffer.writeVLong(curDocPointer - lastSkipDocPointer[level]);
     lastSkipDocPointer[level] = curDocPointer;
 
+    if (writeMaxFreqs && fieldHasFreqs) {
+      skipBuffer.writeVInt(maxFreqs[level]);
+      maxFreqs[level] = 0;
+    }
+
     if (fieldHasPositions) {
 
       skipBuffer.writeVLong(curPosPointer - lastSkipPosPointer[level]);
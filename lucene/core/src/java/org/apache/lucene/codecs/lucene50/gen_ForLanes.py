@@ -0,0 +1,275 @@
+#! /usr/bin/env python
+
+# Licensed to the Apache Software Foundation (ASF) under one or more
+# contributor license agreements.  See the NOTICE file distributed with
+# this work for additional information regarding copyright ownership.
+# The ASF licenses this file to You under the Apache License, Version 2.0
+# (the "License"); you may not use this file except in compliance with
+# the License.  You may obtain a copy of the License at
+#
+#     http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+
+"""Code generation for ForLanes.java"""
+
+BLOCK_SIZE = 128
+OUTPUT_FILE = "ForLanes.java"
+HEADER = """// This file has been automatically generated, DO NOT EDIT
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.lucene50;
+
+import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.BLOCK_SIZE;
+
+/**
+ * Packs blocks of {@link Lucene50PostingsFormat#BLOCK_SIZE} ints so that they
+ * can be decoded with loops of shifts and masks over whole int arrays, which
+ * the JIT can auto-vectorize.
+ * <p>
+ * Values of <code>bitsPerValue</code> bits are first collapsed into lanes of
+ * the smallest primitive width that holds them: 4 lanes of 8 bits per int
+ * when <code>bitsPerValue &lt;= 8</code>, 2 lanes of 16 bits when
+ * <code>bitsPerValue &lt;= 16</code> and a single lane otherwise. The value at
+ * index <code>lane * numCollapsed + i</code> goes to lane <code>lane</code> of
+ * collapsed int <code>i</code>, lane 0 being the most significant one.
+ * <p>
+ * Collapsed ints are then packed into <code>4 * bitsPerValue</code> ints: the
+ * first ones are shifted to the most significant bits of every lane of the
+ * packed ints, as many times as whole values fit in a lane, and the remaining
+ * collapsed ints are split into the low bits of the lanes, in order. All lanes
+ * are processed at once, so decoding a packed int never branches on the lane.
+ */
+final class ForLanes {
+
+  private ForLanes() {}
+
+  /** Number of ints that a block of values of <code>bitsPerValue</code> bits is packed into. */
+  static int packedLength(int bitsPerValue) {
+    return BLOCK_SIZE * bitsPerValue / Integer.SIZE;
+  }
+
+  /** Width of the lanes that values of <code>bitsPerValue</code> bits are collapsed into. */
+  private static int laneWidth(int bitsPerValue) {
+    return bitsPerValue <= 8 ? 8 : bitsPerValue <= 16 ? 16 : 32;
+  }
+
+  /** Replicates the <code>bits</code> low bits mask in every lane of an int. */
+  private static int laneMask(int laneWidth, int bits) {
+    final int mask = bits == 32 ? -1 : (1 << bits) - 1;
+    int laneMask = 0;
+    for (int shift = 0; shift < Integer.SIZE; shift += laneWidth) {
+      laneMask |= mask << shift;
+    }
+    return laneMask;
+  }
+
+  /**
+   * Packs the first {@link Lucene50PostingsFormat#BLOCK_SIZE} <code>values</code>,
+   * which must all fit in <code>bitsPerValue</code> bits, into
+   * {@link #packedLength(int) packedLength(bitsPerValue)} ints of
+   * <code>packed</code>. <code>collapsed</code> is used as a scratch buffer and
+   * must hold at least <code>BLOCK_SIZE</code> ints.
+   */
+  static void encode(int[] values, int bitsPerValue, int[] collapsed, int[] packed) {
+    final int laneWidth = laneWidth(bitsPerValue);
+    final int numLanes = Integer.SIZE / laneWidth;
+    final int numCollapsed = BLOCK_SIZE / numLanes;
+    for (int i = 0; i < numCollapsed; ++i) {
+      int c = 0;
+      for (int lane = 0; lane < numLanes; ++lane) {
+        c = (c << (laneWidth - 1) << 1) | values[lane * numCollapsed + i];
+      }
+      collapsed[i] = c;
+    }
+
+    final int numPacked = packedLength(bitsPerValue);
+    final int valuesPerLane = laneWidth / bitsPerValue;
+    int idx = 0;
+    for (int i = 0; i < numPacked; ++i) {
+      packed[i] = 0;
+    }
+    for (int j = 0; j < valuesPerLane; ++j) {
+      final int shift = laneWidth - (j + 1) * bitsPerValue;
+      for (int i = 0; i < numPacked; ++i) {
+        packed[i] |= collapsed[idx++] << shift;
+      }
+    }
+
+    // split the remaining collapsed ints into the low bits of the lanes
+    final int remainingBits = laneWidth - valuesPerLane * bitsPerValue;
+    int packedIdx = 0;
+    int packedBits = 0;
+    for (; idx < numCollapsed; ++idx) {
+      int valueBits = bitsPerValue;
+      while (valueBits > 0) {
+        final int n = Math.min(valueBits, remainingBits - packedBits);
+        final int chunk = (collapsed[idx] >>> (valueBits - n)) & laneMask(laneWidth, n);
+        packed[packedIdx] |= chunk << (remainingBits - packedBits - n);
+        valueBits -= n;
+        packedBits += n;
+        if (packedBits == remainingBits) {
+          packedIdx++;
+          packedBits = 0;
+        }
+      }
+    }
+    assert packedIdx == (remainingBits == 0 ? 0 : numPacked);
+  }
+
+  /**
+   * Decodes {@link Lucene50PostingsFormat#BLOCK_SIZE} values of
+   * <code>bitsPerValue</code> bits from the first
+   * {@link #packedLength(int) packedLength(bitsPerValue)} ints of
+   * <code>packed</code>, which are modified in the process.
+   */
+  static void decode(int bitsPerValue, int[] packed, int[] values) {
+    switch (bitsPerValue) {
+"""
+
+FOOTER = """
+}
+"""
+
+def lane_width(bpv):
+  if bpv <= 8:
+    return 8
+  elif bpv <= 16:
+    return 16
+  else:
+    return 32
+
+def lane_mask(width, bits):
+  if bits == 32:
+    return -1
+  mask = (1 << bits) - 1
+  m = 0
+  for shift in range(0, 32, width):
+    m |= mask << shift
+  if m >= 1 << 31:
+    m -= 1 << 32
+  return m
+
+def hex_int(v):
+  if v < 0:
+    v += 1 << 32
+  return "0x%08X" % v
+
+def shr(expr, shift):
+  if shift == 0:
+    return expr
+  return "(%s >>> %d)" % (expr, shift)
+
+def shl(expr, shift):
+  if shift == 0:
+    return expr
+  return "(%s << %d)" % (expr, shift)
+
+def generate_decode(bpv, f):
+  width = lane_width(bpv)
+  num_lanes = 32 // width
+  num_collapsed = BLOCK_SIZE // num_lanes
+  num_packed = BLOCK_SIZE * bpv // 32
+  values_per_lane = width // bpv
+  remaining_bits = width - values_per_lane * bpv
+  mask = lane_mask(width, bpv)
+
+  f.write("  private static void decode%d(int[] packed, int[] values) {\n" % bpv)
+  src = "values"
+  idx = 0
+  for j in range(values_per_lane):
+    shift = width - (j + 1) * bpv
+    expr = shr("packed[i]", shift)
+    if num_lanes > 1 and bpv < width:
+      # clear the bits of the other values of the lane, and of the upper lane
+      expr = "%s & %s" % (expr, hex_int(mask))
+    if expr == "packed[i]":
+      # values fill whole lanes, nothing to unpack
+      if num_lanes == 1:
+        f.write("    System.arraycopy(packed, 0, values, 0, %d);\n" % num_packed)
+      else:
+        src = "packed"
+      idx += num_packed
+      continue
+    f.write("    for (int i = 0; i < %d; ++i) {\n" % num_packed)
+    if idx == 0:
+      f.write("      values[i] = %s;\n" % expr)
+    else:
+      f.write("      values[%d + i] = %s;\n" % (idx, expr))
+    f.write("    }\n")
+    idx += num_packed
+
+  if remaining_bits > 0:
+    f.write("    for (int i = 0; i < %d; ++i) {\n" % num_packed)
+    f.write("      packed[i] &= %s;\n" % hex_int(lane_mask(width, remaining_bits)))
+    f.write("    }\n")
+    packed_idx = 0
+    packed_bits = 0
+    while idx < num_collapsed:
+      value_bits = bpv
+      parts = []
+      while value_bits > 0:
+        n = min(value_bits, remaining_bits - packed_bits)
+        # chunk of n bits at position (remaining_bits - packed_bits - n) of packed[packed_idx]
+        shift = remaining_bits - packed_bits - n
+        expr = shr("packed[%d]" % packed_idx, shift)
+        if packed_bits > 0 or (shift > 0 and num_lanes > 1):
+          # higher bits belong to the previous value, or to the upper lane
+          expr = "(%s & %s)" % (expr, hex_int(lane_mask(width, n)))
+        parts.append(shl(expr, value_bits - n))
+        value_bits -= n
+        packed_bits += n
+        if packed_bits == remaining_bits:
+          packed_idx += 1
+          packed_bits = 0
+      f.write("    values[%d] = %s;\n" % (idx, " | ".join(parts)))
+      idx += 1
+    assert packed_idx == num_packed
+
+  # expand lanes, from the last one so that collapsed values are not overwritten
+  for lane in range(num_lanes - 1, -1 if num_lanes > 1 else 0, -1):
+    shift = (num_lanes - 1 - lane) * width
+    if lane == 0:
+      f.write("    for (int i = 0; i < %d; ++i) {\n" % num_collapsed)
+      f.write("      values[i] = %s;\n" % shr(src + "[i]", shift))
+    else:
+      f.write("    for (int i = 0; i < %d; ++i) {\n" % num_collapsed)
+      f.write("      values[%d + i] = %s & %s;\n" % (lane * num_collapsed, shr(src + "[i]", shift), hex_int((1 << width) - 1)))
+    f.write("    }\n")
+  f.write("  }\n")
+
+if __name__ == '__main__':
+  f = open(OUTPUT_FILE, 'w')
+  f.write(HEADER)
+  for bpv in range(1, 33):
+    f.write("      case %d:\n" % bpv)
+    f.write("        decode%d(packed, values);\n" % bpv)
+    f.write("        break;\n")
+  f.write("      default:\n")
+  f.write("        throw new AssertionError();\n")
+  f.write("    }\n")
+  f.write("  }\n")
+  for bpv in range(1, 33):
+    f.write("\n")
+    generate_decode(bpv, f)
+  f.write(FOOTER)
+  f.close()
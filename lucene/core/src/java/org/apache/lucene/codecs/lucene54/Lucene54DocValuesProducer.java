@@ -48,6 +48,7 @@ import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.store.RandomAccessInput;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.Accountables;
+import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.IOUtils;
@@ -489,16 +490,48 @@ final class Lucene54DocValuesProducer extends DocValuesProducer implements Close
           public long get(long index) {
             return live.get((int)index) ? constant : 0;
           }
+
+          @Override
+          public void get(int[] docIDs, long[] values, int count) {
+            for (int i = 0; i < count; ++i) {
+              values[i] = live.get(docIDs[i]) ? constant : 0;
+            }
+          }
+
+          @Override
+          public void getRange(int fromDocID, long[] values, int count) {
+            for (int i = 0; i < count; ++i) {
+              values[i] = live.get(fromDocID + i) ? constant : 0;
+            }
+          }
         };
       }
       case DELTA_COMPRESSED: {
         RandomAccessInput slice = this.data.randomAccessSlice(entry.offset, entry.endOffset - entry.offset);
         final long delta = entry.minValue;
-        final LongValues values = DirectReader.getInstance(slice, entry.bitsPerValue, 0);
+        final LongValues reader = DirectReader.getInstance(slice, entry.bitsPerValue, 0);
         return new LongValues() {
           @Override
           public long get(long id) {
-            return delta + values.get(id);
+            return delta + reader.get(id);
+          }
+
+          @Override
+          public void get(int[] docIDs, long[] values, int count) {
+            reader.get(docIDs, values, count);
+            addDelta(values, count);
+          }
+
+          @Override
+          public void getRange(int fromDocID, long[] values, int count) {
+            reader.getRange(fromDocID, values, count);
+            addDelta(values, count);
+          }
+
+          private void addDelta(long[] values, int count) {
+            for (int i = 0; i < count; ++i) {
+              values[i] += delta;
+            }
           }
         };
       }
@@ -512,6 +545,24 @@ final class Lucene54DocValuesProducer extends DocValuesProducer implements Close
           public long get(long id) {
             return min + mult * quotientReader.get(id);
           }
+
+          @Override
+          public void get(int[] docIDs, long[] values, int count) {
+            quotientReader.get(docIDs, values, count);
+            decode(values, count);
+          }
+
+          @Override
+          public void getRange(int fromDocID, long[] values, int count) {
+            quotientReader.getRange(fromDocID, values, count);
+            decode(values, count);
+          }
+
+          private void decode(long[] values, int count) {
+            for (int i = 0; i < count; ++i) {
+              values[i] = min + mult * values[i];
+            }
+          }
         };
       }
       case TABLE_COMPRESSED: {
@@ -523,6 +574,24 @@ final class Lucene54DocValuesProducer extends DocValuesProducer implements Close
           public long get(long id) {
             return table[(int) ords.get(id)];
           }
+
+          @Override
+          public void get(int[] docIDs, long[] values, int count) {
+            ords.get(docIDs, values, count);
+            decode(values, count);
+          }
+
+          @Override
+          public void getRange(int fromDocID, long[] values, int count) {
+            ords.getRange(fromDocID, values, count);
+            decode(values, count);
+          }
+
+          private void decode(long[] values, int count) {
+            for (int i = 0; i < count; ++i) {
+              values[i] = table[(int) values[i]];
+            }
+          }
         };
       }
       case SPARSE_COMPRESSED:
@@ -794,11 +863,33 @@ final class Lucene54DocValuesProducer extends DocValuesProducer implements Close
     final LongValues ordinals = getNumeric(entry);
     return new SortedDocValues() {
 
+      private long[] buffer = new long[0];
+
       @Override
       public int getOrd(int docID) {
         return (int) ordinals.get(docID);
       }
 
+      @Override
+      public void getOrds(int[] docIDs, int[] ords, int count) {
+        buffer = ArrayUtil.grow(buffer, count);
+        ordinals.get(docIDs, buffer, count);
+        copyOrds(ords, count);
+      }
+
+      @Override
+      public void getOrdRange(int fromDocID, int[] ords, int count) {
+        buffer = ArrayUtil.grow(buffer, count);
+        ordinals.getRange(fromDocID, buffer, count);
+        copyOrds(ords, count);
+      }
+
+      private void copyOrds(int[] ords, int count) {
+        for (int i = 0; i < count; ++i) {
+          ords[i] = (int) buffer[i];
+        }
+      }
+
       @Override
       public BytesRef lookupOrd(int ord) {
         return binary.get(ord);
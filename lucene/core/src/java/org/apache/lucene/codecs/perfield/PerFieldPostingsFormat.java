@@ -20,17 +20,20 @@ package org.apache.lucene.codecs.perfield;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader; // javadocs
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
 
 import org.apache.lucene.codecs.FieldsConsumer;
 import org.apache.lucene.codecs.FieldsProducer;
@@ -77,6 +80,17 @@ public abstract class PerFieldPostingsFormat extends PostingsFormat {
    *  segment suffix name for each field. */
   public static final String PER_FIELD_SUFFIX_KEY = PerFieldPostingsFormat.class.getSimpleName() + ".suffix";
 
+  /** Default maximum number of partitions that the fields of one postings
+   *  format are split into when merging concurrently.
+   *  @see #getMergePartitionCount */
+  public static final int DEFAULT_MAX_MERGE_PARTITIONS = 4;
+
+  /** Minimum number of postings ({@link Terms#getSumDocFreq()}) that a
+   *  partition should have by default: below that, the overhead of extra
+   *  files isn't worth it.
+   *  @see #getMergePartitionCount */
+  public static final long DEFAULT_MIN_MERGE_PARTITION_POSTINGS = 1 << 20;
+
   /** Sole constructor. */
   public PerFieldPostingsFormat() {
     super(PER_FIELD_NAME);
@@ -85,6 +99,7 @@ public abstract class PerFieldPostingsFormat extends PostingsFormat {
   /** Group of fields written by one PostingsFormat */
   static class FieldsGroup {
     final Set<String> fields = new TreeSet<>();
+    PostingsFormat format;
     int suffix;
 
     /** Custom SegmentWriteState for this group of fields,
@@ -118,15 +133,12 @@ public abstract class PerFieldPostingsFormat extends PostingsFormat {
 
     @Override
     public void write(Fields fields) throws IOException {
-      Map<PostingsFormat, FieldsGroup> formatToGroups = buildFieldsGroupMapping(fields);
+      List<FieldsGroup> groups = buildFieldsGroups(fields, null);
 
       // Write postings
       boolean success = false;
       try {
-        for (Map.Entry<PostingsFormat, FieldsGroup> ent : formatToGroups.entrySet()) {
-          PostingsFormat format = ent.getKey();
-          final FieldsGroup group = ent.getValue();
-
+        for (final FieldsGroup group : groups) {
           // Exposes only the fields from this group:
           Fields maskedFields = new FilterFields(fields) {
             @Override
@@ -135,7 +147,7 @@ public abstract class PerFieldPostingsFormat extends PostingsFormat {
             }
           };
 
-          FieldsConsumer consumer = format.fieldsConsumer(group.state);
+          FieldsConsumer consumer = group.format.fieldsConsumer(group.state);
           toClose.add(consumer);
           consumer.write(maskedFields);
         }
@@ -149,53 +161,82 @@ public abstract class PerFieldPostingsFormat extends PostingsFormat {
 
     @Override
     public void merge(MergeState mergeState) throws IOException {
-      Map<PostingsFormat, FieldsGroup> formatToGroups = buildFieldsGroupMapping(new MultiFields(mergeState.fieldsProducers, null));
+      final boolean concurrent = mergeState.mergeExecutor != null;
+      List<FieldsGroup> groups = buildFieldsGroups(new MultiFields(mergeState.fieldsProducers, null), concurrent ? mergeState : null);
 
       // Merge postings
-      PerFieldMergeState pfMergeState = new PerFieldMergeState(mergeState);
       boolean success = false;
       try {
-        for (Map.Entry<PostingsFormat, FieldsGroup> ent : formatToGroups.entrySet()) {
-          PostingsFormat format = ent.getKey();
-          final FieldsGroup group = ent.getValue();
-
-          FieldsConsumer consumer = format.fieldsConsumer(group.state);
-          toClose.add(consumer);
-          consumer.merge(pfMergeState.apply(group.fields));
+        if (concurrent && groups.size() > 1) {
+          // every group writes its own files, so we can merge them concurrently
+          List<Callable<Void>> tasks = new ArrayList<>();
+          for (final FieldsGroup group : groups) {
+            final FieldsConsumer consumer = group.format.fieldsConsumer(group.state);
+            toClose.add(consumer);
+            final MergeState groupMergeState = new MergeState(mergeState);
+            for (int i = 0; i < groupMergeState.fieldsProducers.length; i++) {
+              if (groupMergeState.fieldsProducers[i] != null) {
+                // merge instances are not thread-safe
+                groupMergeState.fieldsProducers[i] = groupMergeState.fieldsProducers[i].getMergeInstance();
+              }
+            }
+            tasks.add(() -> {
+              mergeGroup(consumer, group, groupMergeState);
+              return null;
+            });
+          }
+          mergeState.runConcurrently(tasks);
+        } else {
+          for (FieldsGroup group : groups) {
+            FieldsConsumer consumer = group.format.fieldsConsumer(group.state);
+            toClose.add(consumer);
+            mergeGroup(consumer, group, mergeState);
+          }
         }
         success = true;
       } finally {
-        pfMergeState.reset();
         if (!success) {
           IOUtils.closeWhileHandlingException(toClose);
         }
       }
     }
 
-    private Map<PostingsFormat, FieldsGroup> buildFieldsGroupMapping(Fields fields) {
-      // Maps a PostingsFormat instance to the suffix it
-      // should use
-      Map<PostingsFormat,FieldsGroup> formatToGroups = new HashMap<>();
-
-      // Holds last suffix of each PostingFormat name
-      Map<String,Integer> suffixes = new HashMap<>();
+    private void mergeGroup(FieldsConsumer consumer, FieldsGroup group, MergeState mergeState) throws IOException {
+      PerFieldMergeState pfMergeState = new PerFieldMergeState(mergeState);
+      try {
+        consumer.merge(pfMergeState.apply(group.fields));
+      } finally {
+        pfMergeState.reset();
+      }
+    }
 
-      // Assign field -> PostingsFormat
+    /**
+     * Assigns fields to groups, one per postings format, or, if a
+     * {@link MergeState} is given, possibly several per postings format so
+     * that the groups can be merged concurrently.
+     */
+    private List<FieldsGroup> buildFieldsGroups(Fields fields, MergeState mergeState) throws IOException {
+      // Assign field -> PostingsFormat, in the order formats are first seen
+      Map<PostingsFormat,List<String>> formatToFields = new LinkedHashMap<>();
       for(String field : fields) {
-        FieldInfo fieldInfo = writeState.fieldInfos.fieldInfo(field);
-
         final PostingsFormat format = getPostingsFormatForField(field);
   
         if (format == null) {
           throw new IllegalStateException("invalid null PostingsFormat for field=\"" + field + "\"");
         }
-        String formatName = format.getName();
-      
-        FieldsGroup group = formatToGroups.get(format);
-        if (group == null) {
-          // First time we are seeing this format; create a
-          // new instance
+        formatToFields.computeIfAbsent(format, k -> new ArrayList<>()).add(field);
+      }
 
+      // Holds last suffix of each PostingFormat name
+      Map<String,Integer> suffixes = new HashMap<>();
+      List<FieldsGroup> groups = new ArrayList<>();
+
+      for (Map.Entry<PostingsFormat,List<String>> ent : formatToFields.entrySet()) {
+        final PostingsFormat format = ent.getKey();
+        final String formatName = format.getName();
+        final List<List<String>> partitions = mergeState == null ? Collections.singletonList(ent.getValue()) : partition(ent.getValue(), mergeState);
+
+        for (List<String> partition : partitions) {
           // bump the suffix
           Integer suffix = suffixes.get(formatName);
           if (suffix == null) {
@@ -205,35 +246,79 @@ public abstract class PerFieldPostingsFormat extends PostingsFormat {
           }
           suffixes.put(formatName, suffix);
 
-          String segmentSuffix = getFullSegmentSuffix(field,
+          String segmentSuffix = getFullSegmentSuffix(partition.get(0),
                                                       writeState.segmentSuffix,
                                                       getSuffix(formatName, Integer.toString(suffix)));
-          group = new FieldsGroup();
+          FieldsGroup group = new FieldsGroup();
           group.state = new SegmentWriteState(writeState, segmentSuffix);
+          group.format = format;
           group.suffix = suffix;
-          formatToGroups.put(format, group);
-        } else {
-          // we've already seen this format, so just grab its suffix
-          if (!suffixes.containsKey(formatName)) {
-            throw new IllegalStateException("no suffix for format name: " + formatName + ", expected: " + group.suffix);
+          groups.add(group);
+
+          for (String field : partition) {
+            group.fields.add(field);
+
+            FieldInfo fieldInfo = writeState.fieldInfos.fieldInfo(field);
+            String previousValue = fieldInfo.putAttribute(PER_FIELD_FORMAT_KEY, formatName);
+            if (previousValue != null) {
+              throw new IllegalStateException("found existing value for " + PER_FIELD_FORMAT_KEY + 
+                                              ", field=" + fieldInfo.name + ", old=" + previousValue + ", new=" + formatName);
+            }
+
+            previousValue = fieldInfo.putAttribute(PER_FIELD_SUFFIX_KEY, Integer.toString(group.suffix));
+            if (previousValue != null) {
+              throw new IllegalStateException("found existing value for " + PER_FIELD_SUFFIX_KEY + 
+                                              ", field=" + fieldInfo.name + ", old=" + previousValue + ", new=" + group.suffix);
+            }
           }
         }
+      }
+      return groups;
+    }
 
-        group.fields.add(field);
-
-        String previousValue = fieldInfo.putAttribute(PER_FIELD_FORMAT_KEY, formatName);
-        if (previousValue != null) {
-          throw new IllegalStateException("found existing value for " + PER_FIELD_FORMAT_KEY + 
-                                          ", field=" + fieldInfo.name + ", old=" + previousValue + ", new=" + formatName);
+    /**
+     * Splits the given fields into partitions of about the same number of
+     * postings to merge, largest fields first into the smallest partition.
+     */
+    private List<List<String>> partition(List<String> fields, MergeState mergeState) throws IOException {
+      final long[] postings = new long[fields.size()];
+      long sumPostings = 0;
+      for (int i = 0; i < fields.size(); i++) {
+        for (FieldsProducer producer : mergeState.fieldsProducers) {
+          Terms terms = producer == null ? null : producer.terms(fields.get(i));
+          if (terms != null) {
+            postings[i] += Math.max(1, terms.getSumDocFreq());
+          }
         }
+        sumPostings += postings[i];
+      }
+
+      final int numPartitions = Math.min(fields.size(), Math.max(1, getMergePartitionCount(fields.size(), sumPostings)));
+      if (numPartitions == 1) {
+        return Collections.singletonList(fields);
+      }
 
-        previousValue = fieldInfo.putAttribute(PER_FIELD_SUFFIX_KEY, Integer.toString(group.suffix));
-        if (previousValue != null) {
-          throw new IllegalStateException("found existing value for " + PER_FIELD_SUFFIX_KEY + 
-                                          ", field=" + fieldInfo.name + ", old=" + previousValue + ", new=" + group.suffix);
+      Integer[] order = new Integer[fields.size()];
+      for (int i = 0; i < order.length; i++) {
+        order[i] = i;
+      }
+      Arrays.sort(order, (a, b) -> Long.compare(postings[b], postings[a]));
+      final List<List<String>> partitions = new ArrayList<>();
+      final long[] partitionPostings = new long[numPartitions];
+      for (int i = 0; i < numPartitions; i++) {
+        partitions.add(new ArrayList<>());
+      }
+      for (int field : order) {
+        int smallest = 0;
+        for (int i = 1; i < numPartitions; i++) {
+          if (partitionPostings[i] < partitionPostings[smallest]) {
+            smallest = i;
+          }
         }
+        partitions.get(smallest).add(fields.get(field));
+        partitionPostings[smallest] += postings[field];
       }
-      return formatToGroups;
+      return partitions;
     }
 
     @Override
@@ -379,4 +464,19 @@ public abstract class PerFieldPostingsFormat extends PostingsFormat {
    * The field to format mapping is written to the index, so
    * this method is only invoked when writing, not when reading. */
   public abstract PostingsFormat getPostingsFormatForField(String field);
+
+  /**
+   * Returns into how many partitions, each written to its own files, the
+   * given number of fields that use the same postings format should be split
+   * when they are merged with a {@link MergeState#mergeExecutor}. Partitions
+   * are merged concurrently. The default creates up to
+   * {@link #DEFAULT_MAX_MERGE_PARTITIONS} partitions of at least
+   * {@link #DEFAULT_MIN_MERGE_PARTITION_POSTINGS} postings each.
+   *
+   * @param numFields the number of fields with postings that use the format
+   * @param numPostings the sum of {@link Terms#getSumDocFreq()} of these fields over all merged segments
+   */
+  protected int getMergePartitionCount(int numFields, long numPostings) {
+    return (int) Math.min(DEFAULT_MAX_MERGE_PARTITIONS, numPostings / DEFAULT_MIN_MERGE_PARTITION_POSTINGS);
+  }
 }
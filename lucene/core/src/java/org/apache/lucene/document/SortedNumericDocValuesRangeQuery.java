@@ -23,6 +23,7 @@ import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SegmentFieldStats;
 import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.index.SortedNumericDocValues;
 import org.apache.lucene.search.ConstantScoreScorer;
@@ -93,6 +94,11 @@ abstract class SortedNumericDocValuesRangeQuery extends Query {
 
   abstract SortedNumericDocValues getValues(LeafReader reader, String field) throws IOException;
 
+  @Override
+  public boolean canMatch(SegmentFieldStats stats) throws IOException {
+    return stats.docValuesMightIntersect(field, lowerValue, upperValue);
+  }
+
   @Override
   public Weight createWeight(IndexSearcher searcher, boolean needsScores) throws IOException {
     return new ConstantScoreWeight(this) {
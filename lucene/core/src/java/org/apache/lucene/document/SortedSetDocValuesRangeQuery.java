@@ -23,6 +23,7 @@ import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SegmentFieldStats;
 import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.search.ConstantScoreScorer;
@@ -103,6 +104,11 @@ abstract class SortedSetDocValuesRangeQuery extends Query {
 
   abstract SortedSetDocValues getValues(LeafReader reader, String field) throws IOException;
 
+  @Override
+  public boolean canMatch(SegmentFieldStats stats) throws IOException {
+    return stats.docValuesMightIntersect(field, lowerValue, lowerInclusive, upperValue, upperInclusive);
+  }
+
   @Override
   public Weight createWeight(IndexSearcher searcher, boolean needsScores) throws IOException {
     return new ConstantScoreWeight(this) {
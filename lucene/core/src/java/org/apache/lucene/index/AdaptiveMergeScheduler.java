@@ -0,0 +1,418 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.lucene.util.Constants;
+import org.apache.lucene.util.ThreadInterruptedException;
+
+/** A {@link ConcurrentMergeScheduler} that adapts merge concurrency
+ *  and the merge IO rate limit to how searches are doing.
+ *
+ *  <p>Every {@link #setControlIntervalMillis control interval} the
+ *  scheduler samples the 99th percentile query latency from a
+ *  {@link LatencyProbe} and the utilization of the underlying devices
+ *  from an {@link IOUtilizationProbe} (by default {@link DiskStatsProbe},
+ *  which reads <code>/proc/diskstats</code> on Linux).  When latency is
+ *  above the target, or the devices are saturated, it halves the IO rate
+ *  ceiling for merges and runs one merge thread less, pausing the largest
+ *  merges.  When there is headroom again and merges are backed up, it
+ *  raises both back, up to the limits given to {@link #setMaxMergesAndThreads}
+ *  or detected by {@link ConcurrentMergeScheduler}.</p>
+ *
+ *  <p>Latency never wins over a merge backlog that already stalls
+ *  indexing threads (see {@link #maybeStall}): in that case the scheduler
+ *  holds the current limits instead of lowering them further, since
+ *  the growing segment count would hurt searches even more.</p>
+ *
+ *  <p>The rate ceiling only applies when {@link #getAutoIOThrottle auto IO
+ *  throttling} is enabled, and like in {@link ConcurrentMergeScheduler}
+ *  small merges and forced merges are not rate limited.</p>
+ *
+ *  @lucene.experimental
+ */
+public class AdaptiveMergeScheduler extends ConcurrentMergeScheduler {
+
+  /** Source of recent search latency, typically backed by a
+   *  histogram that is updated by the search threads. */
+  @FunctionalInterface
+  public interface LatencyProbe {
+    /** Returns the 99th percentile of recent query latencies in
+     *  milliseconds, or {@code Double.NaN} if unknown (e.g. no queries
+     *  ran since the last call). */
+    double getLatencyP99Millis();
+  }
+
+  /** Source of the utilization of the devices the index is stored on. */
+  @FunctionalInterface
+  public interface IOUtilizationProbe {
+    /** Returns the fraction of time the devices were busy since the last
+     *  call, between 0 and 1, or {@code Double.NaN} if unknown. */
+    double getIOUtilization();
+  }
+
+  /** Default value for {@link #setMaxIOUtilization}. */
+  public static final double DEFAULT_MAX_IO_UTILIZATION = 0.9;
+
+  /** Default value for {@link #setControlIntervalMillis}. */
+  public static final long DEFAULT_CONTROL_INTERVAL_MILLIS = 1000;
+
+  /** Latency and utilization must be this much below their targets before
+   *  limits are raised again, so that we don't oscillate around the target. */
+  private static final double HEADROOM = 0.8;
+
+  private final LatencyProbe latencyProbe;
+  private final double targetLatencyMillis;
+  private IOUtilizationProbe ioUtilizationProbe = DiskStatsProbe.getDefault();
+  private double maxIOUtilization = DEFAULT_MAX_IO_UTILIZATION;
+  private long controlIntervalMillis = DEFAULT_CONTROL_INTERVAL_MILLIS;
+
+  /** Upper bound for {@link #targetMBPerSec} derived from latency feedback. */
+  private double rateCeilingMBPerSec = Double.POSITIVE_INFINITY;
+
+  /** Largest merge thread count we may go up to; 0 until known. */
+  private int maxAdaptiveThreadCount;
+
+  private IndexWriter writer;
+  private ControlThread controlThread;
+  private boolean closing;
+
+  /** Creates a scheduler that tries to keep the latency reported by
+   *  {@code latencyProbe} below {@code targetLatencyMillis}. */
+  public AdaptiveMergeScheduler(LatencyProbe latencyProbe, double targetLatencyMillis) {
+    if (latencyProbe == null) {
+      throw new IllegalArgumentException("latencyProbe must not be null");
+    }
+    if (targetLatencyMillis > 0 == false) {
+      throw new IllegalArgumentException("targetLatencyMillis must be > 0; got: " + targetLatencyMillis);
+    }
+    this.latencyProbe = latencyProbe;
+    this.targetLatencyMillis = targetLatencyMillis;
+  }
+
+  /** Returns the latency target, in milliseconds. */
+  public double getTargetLatencyMillis() {
+    return targetLatencyMillis;
+  }
+
+  /** Sets the probe for device utilization, or {@code null} to only react
+   *  to latency.  Defaults to {@link DiskStatsProbe#getDefault()}. */
+  public synchronized void setIOUtilizationProbe(IOUtilizationProbe ioUtilizationProbe) {
+    this.ioUtilizationProbe = ioUtilizationProbe;
+  }
+
+  /** Returns the probe for device utilization, possibly {@code null}. */
+  public synchronized IOUtilizationProbe getIOUtilizationProbe() {
+    return ioUtilizationProbe;
+  }
+
+  /** Sets the device utilization above which merges are slowed down
+   *  (default: {@link #DEFAULT_MAX_IO_UTILIZATION}). */
+  public synchronized void setMaxIOUtilization(double maxIOUtilization) {
+    if (maxIOUtilization > 0 == false || maxIOUtilization > 1) {
+      throw new IllegalArgumentException("maxIOUtilization must be > 0 and <= 1; got: " + maxIOUtilization);
+    }
+    this.maxIOUtilization = maxIOUtilization;
+  }
+
+  /** Returns the device utilization above which merges are slowed down. */
+  public synchronized double getMaxIOUtilization() {
+    return maxIOUtilization;
+  }
+
+  /** Sets how often the probes are sampled (default: {@link #DEFAULT_CONTROL_INTERVAL_MILLIS}).
+   *  This only takes effect before the first merge. */
+  public synchronized void setControlIntervalMillis(long controlIntervalMillis) {
+    if (controlIntervalMillis <= 0) {
+      throw new IllegalArgumentException("controlIntervalMillis must be > 0; got: " + controlIntervalMillis);
+    }
+    this.controlIntervalMillis = controlIntervalMillis;
+  }
+
+  /** Returns how often the probes are sampled. */
+  public synchronized long getControlIntervalMillis() {
+    return controlIntervalMillis;
+  }
+
+  /** Returns the current upper bound for the merge IO rate limit that was
+   *  derived from latency and utilization feedback. */
+  public synchronized double getRateCeilingMBPerSec() {
+    return rateCeilingMBPerSec;
+  }
+
+  /** Sets the largest number of merges and merge threads this scheduler
+   *  may use; it may run fewer merge threads to hold the latency target. */
+  @Override
+  public synchronized void setMaxMergesAndThreads(int maxMergeCount, int maxThreadCount) {
+    super.setMaxMergesAndThreads(maxMergeCount, maxThreadCount);
+    maxAdaptiveThreadCount = maxThreadCount == AUTO_DETECT_MERGES_AND_THREADS ? 0 : maxThreadCount;
+  }
+
+  @Override
+  public synchronized void merge(IndexWriter writer, MergeTrigger trigger, boolean newMergesFound) throws IOException {
+    if (trigger == MergeTrigger.CLOSING) {
+      // Let pending merges finish as quickly as possible:
+      closing = true;
+      rateCeilingMBPerSec = Double.POSITIVE_INFINITY;
+      if (maxAdaptiveThreadCount > 0) {
+        super.setMaxMergesAndThreads(getMaxMergeCount(), maxAdaptiveThreadCount);
+      }
+    } else if (controlThread == null && closing == false) {
+      this.writer = writer;
+      controlThread = new ControlThread(controlIntervalMillis);
+      controlThread.start();
+    }
+    super.merge(writer, trigger, newMergesFound);
+  }
+
+  @Override
+  public void close() {
+    final ControlThread thread;
+    synchronized (this) {
+      closing = true;
+      thread = controlThread;
+    }
+    if (thread != null) {
+      thread.interrupt();
+      boolean interrupted = false;
+      while (true) {
+        try {
+          thread.join();
+          break;
+        } catch (InterruptedException ie) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    super.close();
+  }
+
+  @Override
+  protected void targetMBPerSecChanged() {
+    if (targetMBPerSec > rateCeilingMBPerSec) {
+      targetMBPerSec = rateCeilingMBPerSec;
+    }
+  }
+
+  /** Samples the probes once and adjusts limits accordingly. */
+  void sample() {
+    double latency = latencyProbe.getLatencyP99Millis();
+    IOUtilizationProbe ioProbe = getIOUtilizationProbe();
+    double utilization = ioProbe == null ? Double.NaN : ioProbe.getIOUtilization();
+    adjust(latency, utilization);
+  }
+
+  /** Adjusts merge concurrency and the IO rate ceiling given the latest
+   *  latency and device utilization samples, either of which may be
+   *  {@code Double.NaN} if unknown. */
+  protected synchronized void adjust(double latencyP99Millis, double ioUtilization) {
+    final int maxMergeCount = getMaxMergeCount();
+    if (closing || writer == null || maxMergeCount == AUTO_DETECT_MERGES_AND_THREADS) {
+      // Closing, or ConcurrentMergeScheduler did not pick its defaults yet
+      return;
+    }
+    int threadCount = getMaxThreadCount();
+    if (maxAdaptiveThreadCount == 0) {
+      maxAdaptiveThreadCount = threadCount;
+    }
+
+    final boolean overloaded = latencyP99Millis > targetLatencyMillis || ioUtilization > maxIOUtilization;
+    final boolean headroom = (latencyP99Millis <= targetLatencyMillis * HEADROOM || Double.isNaN(latencyP99Millis))
+        && (ioUtilization <= maxIOUtilization * HEADROOM || Double.isNaN(ioUtilization));
+    final int activeMerges = mergeThreadCount();
+    final boolean pendingMerges = writer.hasPendingMerges();
+    final boolean stalling = pendingMerges && activeMerges >= maxMergeCount;
+    final boolean backlog = pendingMerges || activeMerges > threadCount;
+
+    final double curCeiling = rateCeilingMBPerSec;
+    final int curThreadCount = threadCount;
+
+    if (overloaded) {
+      if (stalling == false) {
+        // Multiplicative decrease, starting from the rate merges actually run at:
+        rateCeilingMBPerSec = Math.max(MIN_MERGE_MB_PER_SEC, Math.min(rateCeilingMBPerSec, targetMBPerSec) / 2);
+        threadCount = Math.max(1, threadCount - 1);
+      }
+    } else if (headroom) {
+      if (rateCeilingMBPerSec != Double.POSITIVE_INFINITY) {
+        rateCeilingMBPerSec *= backlog ? 1.5 : 1.1;
+        if (rateCeilingMBPerSec >= MAX_MERGE_MB_PER_SEC) {
+          rateCeilingMBPerSec = Double.POSITIVE_INFINITY;
+        }
+      }
+      if (backlog) {
+        threadCount = Math.min(maxAdaptiveThreadCount, threadCount + 1);
+        // Catch up faster than the per-merge feedback of ConcurrentMergeScheduler would:
+        targetMBPerSec = Math.min(MAX_MERGE_MB_PER_SEC, targetMBPerSec * 1.2);
+      }
+    }
+
+    if (threadCount != curThreadCount) {
+      super.setMaxMergesAndThreads(maxMergeCount, threadCount);
+    }
+    targetMBPerSecChanged();
+
+    if (verbose() && (threadCount != curThreadCount || rateCeilingMBPerSec != curCeiling)) {
+      message(String.format(Locale.ROOT,
+                            "adaptive: p99=%.1f ms (target %.1f ms) ioUtil=%.2f backlog=%s stalling=%s: maxThreadCount %d -> %d, rate ceiling %s -> %s",
+                            latencyP99Millis, targetLatencyMillis, ioUtilization, backlog, stalling,
+                            curThreadCount, threadCount, rateToString(curCeiling), rateToString(rateCeilingMBPerSec)));
+    }
+
+    updateMergeThreads();
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder(super.toString());
+    sb.append(", targetLatencyMillis=").append(targetLatencyMillis);
+    sb.append(", maxIOUtilization=").append(maxIOUtilization);
+    sb.append(", rateCeilingMBPerSec=").append(rateCeilingMBPerSec);
+    return sb.toString();
+  }
+
+  private final class ControlThread extends Thread {
+    private final long intervalMillis;
+
+    ControlThread(long intervalMillis) {
+      this.intervalMillis = intervalMillis;
+      setDaemon(true);
+      setName("Lucene Merge Control Thread");
+    }
+
+    @Override
+    public void run() {
+      while (true) {
+        try {
+          Thread.sleep(intervalMillis);
+        } catch (InterruptedException ie) {
+          // close() interrupts us
+          return;
+        }
+        synchronized (AdaptiveMergeScheduler.this) {
+          if (closing) {
+            return;
+          }
+        }
+        sample();
+      }
+    }
+  }
+
+  /** An {@link IOUtilizationProbe} reading the time devices spent doing
+   *  IO from <code>/proc/diskstats</code>.  It reports the utilization of
+   *  the busiest device, or of the given device only. */
+  public static class DiskStatsProbe implements IOUtilizationProbe {
+
+    /** Column of the milliseconds spent doing IO in <code>/proc/diskstats</code>
+     *  (after major number, minor number and device name). */
+    private static final int IO_TICKS_COLUMN = 12;
+
+    private final Path diskStats;
+    private final String device;
+    private Map<String,Long> lastIOTicks;
+    private long lastMillis;
+
+    /** Creates a probe reading the given file, which must have the format of
+     *  <code>/proc/diskstats</code>.  If {@code device} is non-null only that
+     *  device (e.g. {@code sda} or {@code nvme0n1}) is looked at. */
+    public DiskStatsProbe(Path diskStats, String device) {
+      this.diskStats = diskStats;
+      this.device = device;
+    }
+
+    /** Returns a probe over <code>/proc/diskstats</code>, or {@code null} if
+     *  that file can not be read. */
+    public static DiskStatsProbe getDefault() {
+      if (Constants.LINUX == false) {
+        return null;
+      }
+      try {
+        Path path = Paths.get("/proc/diskstats");
+        return Files.isReadable(path) ? new DiskStatsProbe(path, null) : null;
+      } catch (SecurityException e) {
+        return null;
+      }
+    }
+
+    @Override
+    public double getIOUtilization() {
+      List<String> lines;
+      try {
+        lines = Files.readAllLines(diskStats, StandardCharsets.US_ASCII);
+      } catch (IOException | SecurityException e) {
+        return Double.NaN;
+      }
+      return update(lines, System.nanoTime() / 1000000);
+    }
+
+    /** Records the given snapshot of disk stats and returns the utilization
+     *  since the previous one. */
+    synchronized double update(List<String> lines, long nowMillis) {
+      Map<String,Long> ioTicks = new HashMap<>();
+      for (String line : lines) {
+        String[] columns = line.trim().split("\\s+");
+        if (columns.length <= IO_TICKS_COLUMN) {
+          continue;
+        }
+        String name = columns[2];
+        if (device == null ? isVirtual(name) : name.equals(device) == false) {
+          continue;
+        }
+        try {
+          ioTicks.put(name, Long.parseLong(columns[IO_TICKS_COLUMN]));
+        } catch (NumberFormatException e) {
+          // not a line we understand
+        }
+      }
+
+      double utilization = Double.NaN;
+      long elapsedMillis = nowMillis - lastMillis;
+      if (lastIOTicks != null && elapsedMillis > 0) {
+        for (Map.Entry<String,Long> ent : ioTicks.entrySet()) {
+          Long last = lastIOTicks.get(ent.getKey());
+          if (last != null && ent.getValue() >= last) {
+            double deviceUtilization = Math.min(1.0, (ent.getValue() - last) / (double) elapsedMillis);
+            if (Double.isNaN(utilization) || deviceUtilization > utilization) {
+              utilization = deviceUtilization;
+            }
+          }
+        }
+      }
+      lastIOTicks = ioTicks;
+      lastMillis = nowMillis;
+      return utilization;
+    }
+
+    private static boolean isVirtual(String name) {
+      return name.startsWith("loop") || name.startsWith("ram") || name.startsWith("zram");
+    }
+  }
+}
@@ -87,6 +87,14 @@ public abstract class CodecReader extends LeafReader implements Accountable {
     checkBounds(docID);
     getFieldsReader().visitDocument(docID, visitor);
   }
+
+  @Override
+  public final void document(int[] docIDs, StoredFieldVisitor[] visitors, int count) throws IOException {
+    for (int i = 0; i < count; ++i) {
+      checkBounds(docIDs[i]);
+    }
+    getFieldsReader().visitDocuments(docIDs, visitors, count);
+  }
   
   @Override
   public final Fields getTermVectors(int docID) throws IOException {
@@ -102,10 +102,10 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
   protected int mergeThreadCount;
 
   /** Floor for IO write rate limit (we will never go any lower than this) */
-  private static final double MIN_MERGE_MB_PER_SEC = 5.0;
+  static final double MIN_MERGE_MB_PER_SEC = 5.0;
 
   /** Ceiling for IO write rate limit (we will never go any higher than this) */
-  private static final double MAX_MERGE_MB_PER_SEC = 10240.0;
+  static final double MAX_MERGE_MB_PER_SEC = 10240.0;
 
   /** Initial value for IO write rate limit when doAutoIOThrottle is true */
   private static final double START_MB_PER_SEC = 20.0;
@@ -281,8 +281,9 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
         assert context.context == IOContext.Context.MERGE: "got context=" + context.context;
         
         // Because rateLimiter is bound to a particular merge thread, this method should
-        // always be called from that context. Verify this.
-        assert mergeThread == Thread.currentThread() : "Not the same merge thread, current="
+        // always be called from that context, or from a thread running a phase of
+        // this merge on its behalf. Verify this.
+        assert merge.getMergeProgress().isMergeThread(Thread.currentThread()) : "Not the same merge thread, current="
           + Thread.currentThread() + ", expected=" + mergeThread;
 
         return new RateLimitedIndexOutput(rateLimiter, in.createOutput(name, context));
@@ -427,7 +428,7 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
     }
   }
 
-  private static String rateToString(double mbPerSec) {
+  static String rateToString(double mbPerSec) {
     if (mbPerSec == 0.0) {
       return "stopped";
     } else if (mbPerSec == Double.POSITIVE_INFINITY) {
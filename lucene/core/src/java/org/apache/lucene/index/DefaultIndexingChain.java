@@ -171,6 +171,8 @@ final class DefaultIndexingChain extends DocConsumer {
     }
 
     termsHash.flush(fieldsToFlush, state, sortMap);
+    // postings are written: hand the blocks back, so that a recycling allocator can reuse them
+    termsHash.reset();
     if (docState.infoStream.isEnabled("IW")) {
       docState.infoStream.message("IW", ((System.nanoTime()-t0)/1000000) + " msec to write postings and finish vectors");
     }
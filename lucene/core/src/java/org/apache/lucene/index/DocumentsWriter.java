@@ -23,6 +23,8 @@ import java.util.Collection;
 import java.util.Locale;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.lucene.analysis.Analyzer;
@@ -34,6 +36,7 @@ import org.apache.lucene.search.Query;
 import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.InfoStream;
 
 /**
@@ -123,6 +126,10 @@ final class DocumentsWriter implements Closeable, Accountable {
   private final IndexWriter writer;
   private final Queue<Event> events;
   private long lastSeqNo;
+  // flushes DWPTs in the background if non-null, see IndexWriterConfig#setFlushExecutor
+  private final Executor flushExecutor;
+  // non-aborting exception hit by a background flush, rethrown to the next indexing thread
+  private volatile Throwable backgroundFlushException;
   
   DocumentsWriter(IndexWriter writer, LiveIndexWriterConfig config, Directory directoryOrig, Directory directory) {
     this.directoryOrig = directoryOrig;
@@ -133,6 +140,7 @@ final class DocumentsWriter implements Closeable, Accountable {
     flushPolicy = config.getFlushPolicy();
     this.writer = writer;
     this.events = new ConcurrentLinkedQueue<>();
+    this.flushExecutor = config.getFlushExecutor();
     flushControl = new DocumentsWriterFlushControl(this, config, writer.bufferedUpdatesStream);
   }
   
@@ -373,6 +381,11 @@ final class DocumentsWriter implements Closeable, Accountable {
 
   private boolean preUpdate() throws IOException, AbortingException {
     ensureOpen();
+    final Throwable backgroundFlushException = this.backgroundFlushException;
+    if (backgroundFlushException != null) {
+      this.backgroundFlushException = null;
+      IOUtils.reThrow(backgroundFlushException);
+    }
     boolean hasEvents = false;
     if (flushControl.anyStalledThreads() || flushControl.numQueuedFlushes() > 0) {
       // Help out flushing any queued DWPTs so we can un-stall:
@@ -393,16 +406,57 @@ final class DocumentsWriter implements Closeable, Accountable {
   private boolean postUpdate(DocumentsWriterPerThread flushingDWPT, boolean hasEvents) throws IOException, AbortingException {
     hasEvents |= applyAllDeletes(deleteQueue);
     if (flushingDWPT != null) {
-      hasEvents |= doFlush(flushingDWPT);
+      hasEvents |= flushInBackgroundOrDoFlush(flushingDWPT);
     } else {
       final DocumentsWriterPerThread nextPendingFlush = flushControl.nextPendingFlush();
       if (nextPendingFlush != null) {
-        hasEvents |= doFlush(nextPendingFlush);
+        hasEvents |= flushInBackgroundOrDoFlush(nextPendingFlush);
       }
     }
 
     return hasEvents;
   }
+
+  /**
+   * Hands the given checked out DWPT over to the flush executor, so that the
+   * calling indexing thread can go on indexing, or flushes it in the calling
+   * thread if there is no flush executor or if it rejected the flush.
+   */
+  private boolean flushInBackgroundOrDoFlush(final DocumentsWriterPerThread flushingDWPT) throws IOException, AbortingException {
+    if (flushExecutor != null) {
+      try {
+        flushExecutor.execute(() -> backgroundFlush(flushingDWPT));
+        return false;
+      } catch (RejectedExecutionException e) {
+        if (infoStream.isEnabled("DW")) {
+          infoStream.message("DW", "flush executor rejected flush of " + flushingDWPT.getSegmentInfo().name + "; flush in indexing thread");
+        }
+      }
+    }
+    return doFlush(flushingDWPT);
+  }
+
+  private void backgroundFlush(DocumentsWriterPerThread flushingDWPT) {
+    try {
+      if (doFlush(flushingDWPT)) {
+        // nobody is going to look at our events otherwise:
+        writer.processEventsAfterBackgroundFlush();
+      }
+    } catch (AbortingException | VirtualMachineError tragedy) {
+      try {
+        writer.tragicEvent(tragedy, "backgroundFlush");
+      } catch (Throwable t) {
+        // the tragedy was recorded and will be reported by the writer
+      }
+    } catch (Throwable t) {
+      if (infoStream.isEnabled("DW")) {
+        infoStream.message("DW", "hit exception during background flush: " + t);
+      }
+      if (backgroundFlushException == null) {
+        backgroundFlushException = t;
+      }
+    }
+  }
   
   private void ensureInitialized(ThreadState state) throws IOException {
     if (state.dwpt == null) {
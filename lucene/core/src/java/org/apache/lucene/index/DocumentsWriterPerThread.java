@@ -34,12 +34,15 @@ import org.apache.lucene.store.FlushInfo;
 import org.apache.lucene.store.IOContext;
 import org.apache.lucene.store.TrackingDirectoryWrapper;
 import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BlockRecycler;
 import org.apache.lucene.util.ByteBlockPool.Allocator;
 import org.apache.lucene.util.ByteBlockPool.DirectTrackingAllocator;
 import org.apache.lucene.util.Counter;
 import org.apache.lucene.util.InfoStream;
 import org.apache.lucene.util.IntBlockPool;
 import org.apache.lucene.util.MutableBits;
+import org.apache.lucene.util.RecyclingByteBlockAllocator;
+import org.apache.lucene.util.RecyclingIntBlockAllocator;
 import org.apache.lucene.util.StringHelper;
 import org.apache.lucene.util.Version;
 
@@ -171,9 +174,16 @@ class DocumentsWriterPerThread {
     this.docState.similarity = indexWriterConfig.getSimilarity();
     this.pendingNumDocs = pendingNumDocs;
     bytesUsed = Counter.newCounter();
-    byteBlockAllocator = new DirectTrackingAllocator(bytesUsed);
+    final BlockRecycler blockRecycler = indexWriterConfig.getBlockRecycler();
+    if (blockRecycler == null) {
+      byteBlockAllocator = new DirectTrackingAllocator(bytesUsed);
+      intBlockAllocator = new IntBlockAllocator(bytesUsed);
+    } else {
+      // no private buffer: blocks handed back may not be zero-filled, the recycler takes care of that
+      byteBlockAllocator = new RecyclingByteBlockAllocator(BYTE_BLOCK_SIZE, 0, bytesUsed, blockRecycler);
+      intBlockAllocator = new RecyclingIntBlockAllocator(IntBlockPool.INT_BLOCK_SIZE, 0, bytesUsed, blockRecycler);
+    }
     pendingUpdates = new BufferedUpdates(segmentName);
-    intBlockAllocator = new IntBlockAllocator(bytesUsed);
     this.deleteQueue = deleteQueue;
     assert numDocsInRAM == 0 : "num docs " + numDocsInRAM;
     deleteSlice = deleteQueue.newSlice();
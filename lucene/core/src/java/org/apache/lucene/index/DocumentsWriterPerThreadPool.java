@@ -17,8 +17,8 @@
 package org.apache.lucene.index;
 
 import org.apache.lucene.util.ThreadInterruptedException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
@@ -35,6 +35,12 @@ import java.util.concurrent.locks.ReentrantLock;
  * is reusing the flushing {@link DocumentsWriterPerThread}s ThreadState with a
  * new {@link DocumentsWriterPerThread} instance.
  * </p>
+ * <p>
+ * Indexing threads claim {@link ThreadState}s without taking any pool-wide
+ * lock, and preferably get the {@link ThreadState} they used last, so that a
+ * thread keeps feeding the same {@link DocumentsWriterPerThread} and its
+ * already sized hash tables as long as it is not flushed.
+ * </p>
  */
 final class DocumentsWriterPerThreadPool {
   
@@ -62,6 +68,12 @@ final class DocumentsWriterPerThreadPool {
     // set by DocumentsWriter after each indexing op finishes
     volatile long lastSeqNo;
 
+    // true while an indexing thread holds this state, may be claimed without
+    // holding the lock:
+    private final AtomicBoolean inUse = new AtomicBoolean();
+    // the indexing thread that claimed this state last:
+    private volatile Thread lastThread;
+
     ThreadState(DocumentsWriterPerThread dpwt) {
       this.dwpt = dpwt;
     }
@@ -106,17 +118,17 @@ final class DocumentsWriterPerThreadPool {
     }
   }
 
-  private final List<ThreadState> threadStates = new ArrayList<>();
-
-  private final List<ThreadState> freeList = new ArrayList<>();
+  // copied on write under the pool's lock, so that indexing threads can scan
+  // it without locking:
+  private volatile ThreadState[] threadStates = new ThreadState[0];
 
   private boolean aborted;
 
   /**
    * Returns the active number of {@link ThreadState} instances.
    */
-  synchronized int getActiveThreadStateCount() {
-    return threadStates.size();
+  int getActiveThreadStateCount() {
+    return threadStates.length;
   }
 
   synchronized void setAbort() {
@@ -138,7 +150,7 @@ final class DocumentsWriterPerThreadPool {
    * @return a new {@link ThreadState} iff any new state is available otherwise
    *         <code>null</code>
    */
-  private synchronized ThreadState newThreadState() {
+  private synchronized ThreadState newThreadState(Thread requestingThread) {
     while (aborted) {
       try {
         wait();
@@ -147,8 +159,12 @@ final class DocumentsWriterPerThreadPool {
       }
     }
     ThreadState threadState = new ThreadState(null);
+    threadState.inUse.set(true);
+    threadState.lastThread = requestingThread;
     threadState.lock(); // lock so nobody else will get this ThreadState
-    threadStates.add(threadState);
+    final ThreadState[] newThreadStates = Arrays.copyOf(threadStates, threadStates.length + 1);
+    newThreadStates[threadStates.length] = threadState;
+    threadStates = newThreadStates;
     return threadState;
   }
 
@@ -165,37 +181,10 @@ final class DocumentsWriterPerThreadPool {
 
   /** This method is used by DocumentsWriter/FlushControl to obtain a ThreadState to do an indexing operation (add/updateDocument). */
   ThreadState getAndLock(Thread requestingThread, DocumentsWriter documentsWriter) {
-    ThreadState threadState = null;
-    synchronized (this) {
-      if (freeList.isEmpty()) {
-        // ThreadState is already locked before return by this method:
-        return newThreadState();
-      } else {
-        // Important that we are LIFO here! This way if number of concurrent indexing threads was once high, but has now reduced, we only use a
-        // limited number of thread states:
-        threadState = freeList.remove(freeList.size()-1);
-
-        if (threadState.dwpt == null) {
-          // This thread-state is not initialized, e.g. it
-          // was just flushed. See if we can instead find
-          // another free thread state that already has docs
-          // indexed. This way if incoming thread concurrency
-          // has decreased, we don't leave docs
-          // indefinitely buffered, tying up RAM.  This
-          // will instead get those thread states flushed,
-          // freeing up RAM for larger segment flushes:
-          for(int i=0;i<freeList.size();i++) {
-            ThreadState ts = freeList.get(i);
-            if (ts.dwpt != null) {
-              // Use this one instead, and swap it with
-              // the un-initialized one:
-              freeList.set(i, threadState);
-              threadState = ts;
-              break;
-            }
-          }
-        }
-      }
+    final ThreadState threadState = claim(requestingThread);
+    if (threadState == null) {
+      // all thread states are in use; ThreadState is already locked before return by this method:
+      return newThreadState(requestingThread);
     }
 
     // This could take time, e.g. if the threadState is [briefly] checked for flushing:
@@ -204,14 +193,59 @@ final class DocumentsWriterPerThreadPool {
     return threadState;
   }
 
+  /**
+   * Claims a free {@link ThreadState}, or returns <code>null</code> if all
+   * states are in use. The state that the requesting thread used last wins
+   * if it has docs indexed. Otherwise, e.g. because it was just flushed, we
+   * prefer any other free state that already has docs indexed. This way if
+   * incoming thread concurrency has decreased, we don't leave docs
+   * indefinitely buffered, tying up RAM. This will instead get those thread
+   * states flushed, freeing up RAM for larger segment flushes.
+   */
+  private ThreadState claim(Thread requestingThread) {
+    final ThreadState[] threadStates = this.threadStates;
+    ThreadState preferred = null;
+    for (ThreadState threadState : threadStates) {
+      if (threadState.lastThread == requestingThread) {
+        preferred = threadState;
+        break;
+      }
+    }
+    if (preferred != null && preferred.dwpt != null && tryClaim(preferred, requestingThread)) {
+      return preferred;
+    }
+    // Scan from the most recently created states, so that if the number of
+    // concurrent indexing threads was once high, but has now reduced, we only
+    // use a limited number of thread states:
+    for (int i = threadStates.length - 1; i >= 0; --i) {
+      final ThreadState threadState = threadStates[i];
+      if (threadState.dwpt != null && tryClaim(threadState, requestingThread)) {
+        return threadState;
+      }
+    }
+    if (preferred != null && tryClaim(preferred, requestingThread)) {
+      return preferred;
+    }
+    for (int i = threadStates.length - 1; i >= 0; --i) {
+      final ThreadState threadState = threadStates[i];
+      if (tryClaim(threadState, requestingThread)) {
+        return threadState;
+      }
+    }
+    return null;
+  }
+
+  private static boolean tryClaim(ThreadState threadState, Thread requestingThread) {
+    if (threadState.inUse.get() == false && threadState.inUse.compareAndSet(false, true)) {
+      threadState.lastThread = requestingThread;
+      return true;
+    }
+    return false;
+  }
+
   void release(ThreadState state) {
     state.unlock();
-    synchronized (this) {
-      freeList.add(state);
-      // In case any thread is waiting, wake one of them up since we just released a thread state; notify() should be sufficient but we do
-      // notifyAll defensively:
-      notifyAll();
-    }
+    state.inUse.set(false);
   }
   
   /**
@@ -223,12 +257,12 @@ final class DocumentsWriterPerThreadPool {
    * @return the <i>i</i>th active {@link ThreadState} where <i>i</i> is the
    *         given ord.
    */
-  synchronized ThreadState getThreadState(int ord) {
-    return threadStates.get(ord);
+  ThreadState getThreadState(int ord) {
+    return threadStates[ord];
   }
 
   // TODO: merge this with getActiveThreadStateCount: they are the same!
-  synchronized int getMaxThreadStates() {
-    return threadStates.size();
+  int getMaxThreadStates() {
+    return threadStates.length;
   }
 }
@@ -40,6 +40,8 @@ import org.apache.lucene.util.ThreadInterruptedException;
 final class DocumentsWriterStallControl {
   
   private volatile boolean stalled;
+  private long numStalls; // number of times indexing got stalled
+  private long stalledNanos; // total time that threads spent waiting for a stall to end
   private int numWaiting; // only with assert
   private boolean wasStalled; // only with assert
   private final Map<Thread, Boolean> waiting = new IdentityHashMap<>(); // only with assert
@@ -57,6 +59,7 @@ final class DocumentsWriterStallControl {
       this.stalled = stalled;
       if (stalled) {
         wasStalled = true;
+        numStalls++;
       }
       notifyAll();
     }
@@ -73,9 +76,11 @@ final class DocumentsWriterStallControl {
           // don't loop here, higher level logic will re-stall!
           try {
             incWaiters();
+            final long startNS = System.nanoTime();
             // Defensive, in case we have a concurrency bug that fails to .notify/All our thread:
             // just wait for up to 1 second here, and let caller re-stall if it's still needed:
             wait(1000);
+            stalledNanos += System.nanoTime() - startNS;
             decrWaiters();
           } catch (InterruptedException e) {
             throw new ThreadInterruptedException(e);
@@ -88,6 +93,21 @@ final class DocumentsWriterStallControl {
   boolean anyStalledThreads() {
     return stalled;
   }
+
+  /**
+   * Returns how many times indexing threads got stalled.
+   */
+  synchronized long getNumStalls() {
+    return numStalls;
+  }
+
+  /**
+   * Returns the total time, in nanoseconds, that indexing threads spent
+   * waiting for stalls to end, summed over all threads.
+   */
+  synchronized long getStalledNanos() {
+    return stalledNanos;
+  }
   
   private void incWaiters() {
     numWaiting++;
@@ -44,6 +44,7 @@ public final class FieldInfo {
   private IndexOptions indexOptions = IndexOptions.NONE;
   private boolean storePayloads; // whether this field stores payloads together with term positions
 
+  // guarded by this: formats of one merge may write concurrently, see IndexWriterConfig#setMergeExecutor
   private final Map<String,String> attributes;
 
   private long dvGen;
@@ -310,7 +311,7 @@ public final class FieldInfo {
   /**
    * Get a codec attribute value, or null if it does not exist
    */
-  public String getAttribute(String key) {
+  public synchronized String getAttribute(String key) {
     return attributes.get(key);
   }
   
@@ -324,7 +325,7 @@ public final class FieldInfo {
    * If a value already exists for the field, it will be replaced with 
    * the new value.
    */
-  public String putAttribute(String key, String value) {
+  public synchronized String putAttribute(String key, String value) {
     return attributes.put(key, value);
   }
   
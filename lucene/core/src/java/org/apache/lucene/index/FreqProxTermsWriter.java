@@ -99,6 +99,10 @@ final class FreqProxTermsWriter extends TermsHash {
 
     Fields fields = new FreqProxFields(allFields);
     applyDeletes(state, fields);
+    for (FreqProxTermsWriterPerField perField : allFields) {
+      SegmentFieldStats.recordTerms(state.segmentInfo, perField.fieldInfo, perField.bytesHash.size(),
+                                    fields.terms(perField.fieldInfo.name));
+    }
     if (sortMap != null) {
       fields = new SortingLeafReader.SortingFields(fields, state.fieldInfos, sortMap);
     }
@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+
+import java.io.IOException;
+
+/**
+ * A {@link PostingsEnum} that can also give an upper bound of the term
+ * frequency over ranges of documents without decoding them. Scorers use this
+ * information to skip over blocks of documents that cannot produce competitive
+ * scores.
+ * <p>
+ * Postings formats that record such information, such as the default postings
+ * format, may return instances of this class from
+ * {@link TermsEnum#postings(PostingsEnum, int)}.
+ *
+ * @lucene.experimental
+ */
+public abstract class ImpactsEnum extends PostingsEnum {
+
+  /** Sole constructor. (For invocation by subclass 
+   *  constructors, typically implicit.) */
+  protected ImpactsEnum() {
+  }
+
+  /**
+   * Shallow-advance to {@code target}: load the frequency upper bounds of the
+   * block of postings that contains {@code target} without decoding any
+   * document. This does not change the current {@link #docID()}. Targets must
+   * be passed in non-decreasing order. Returns the last document, greater than
+   * or equal to {@code target}, of that block, or {@link #NO_MORE_DOCS} if the
+   * bound is valid until the end of the postings.
+   */
+  public abstract int advanceShallow(int target) throws IOException;
+
+  /**
+   * Return an upper bound of the term frequency of the documents between
+   * the last target that was passed to {@link #advanceShallow(int)} and
+   * {@code upTo} included.
+   */
+  public abstract int getMaxFreq(int upTo) throws IOException;
+
+}
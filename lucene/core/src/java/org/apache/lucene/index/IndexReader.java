@@ -19,6 +19,7 @@ package org.apache.lucene.index;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -384,6 +385,51 @@ public abstract class IndexReader implements Closeable {
     return visitor.getDocument();
   }
 
+  /**
+   * Returns the stored fields of several documents at once, in the order of
+   * <code>docIDs</code>. Documents are retrieved in increasing order of doc
+   * id and segment by segment so that data that several documents share,
+   * such as compressed blocks of stored fields, only needs to be decoded
+   * once. This is typically useful to render a page of hits.
+   * <p>
+   * The same notes as for {@link #document(int)} apply.
+   *
+   * @throws CorruptIndexException if the index is corrupt
+   * @throws IOException if there is a low-level IO error
+   * @lucene.experimental
+   */
+  public final Document[] document(int[] docIDs) throws IOException {
+    final int numDocs = docIDs.length;
+    // sort (docID, index) pairs by doc id
+    final long[] sorted = new long[numDocs];
+    for (int i = 0; i < numDocs; ++i) {
+      final int docID = docIDs[i];
+      if (docID < 0 || docID >= maxDoc()) {
+        throw new IndexOutOfBoundsException("docID must be >= 0 and < maxDoc=" + maxDoc() + " (got docID=" + docID + ")");
+      }
+      sorted[i] = ((long) docID << 32) | i;
+    }
+    Arrays.sort(sorted);
+
+    final Document[] documents = new Document[numDocs];
+    final List<LeafReaderContext> leaves = getContext().leaves();
+    final int[] leafDocs = new int[numDocs];
+    final DocumentStoredFieldVisitor[] visitors = new DocumentStoredFieldVisitor[numDocs];
+    for (int i = 0; i < numDocs; ) {
+      final LeafReaderContext leaf = leaves.get(ReaderUtil.subIndex((int) (sorted[i] >>> 32), leaves));
+      final int leafMaxDoc = leaf.docBase + leaf.reader().maxDoc();
+      int count = 0;
+      for (; i < numDocs && (int) (sorted[i] >>> 32) < leafMaxDoc; ++i) {
+        leafDocs[count] = (int) (sorted[i] >>> 32) - leaf.docBase;
+        visitors[count] = new DocumentStoredFieldVisitor();
+        documents[(int) sorted[i]] = visitors[count].getDocument();
+        count++;
+      }
+      leaf.reader().document(leafDocs, visitors, count);
+    }
+    return documents;
+  }
+
   /** Returns true if any documents have been deleted. Implementers should
    *  consider overriding this method if {@link #maxDoc()} or {@link #numDocs()}
    *  are not constant-time operations. */
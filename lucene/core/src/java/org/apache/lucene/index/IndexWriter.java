@@ -508,6 +508,24 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable {
     return docWriter.ramBytesUsed();
   }
 
+  /** Returns how many times indexing threads were stalled because flushing
+   *  could not keep up with indexing.
+   *
+   * @see #getIndexingStallTimeNanos() */
+  public long getIndexingStallCount() {
+    ensureOpen();
+    return docWriter.flushControl.stallControl.getNumStalls();
+  }
+
+  /** Returns the total time, in nanoseconds, that indexing threads spent
+   *  blocked waiting for pending flushes to catch up.
+   *
+   * @see #getIndexingStallCount() */
+  public long getIndexingStallTimeNanos() {
+    ensureOpen();
+    return docWriter.flushControl.stallControl.getStalledNanos();
+  }
+
   /** Holds shared SegmentReader instances. IndexWriter uses
    *  SegmentReaders for 1) applying deletes, 2) doing
    *  merges, 3) handing out a real-time reader.  This pool
@@ -2815,7 +2833,7 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable {
 
       SegmentMerger merger = new SegmentMerger(Arrays.asList(readers), info, infoStream, trackingDir,
                                                globalFieldNumberMap, 
-                                               context);
+                                               context, config.getMergeExecutor(), null);
 
       if (!merger.shouldMerge()) {
         return docWriter.deleteQueue.getNextSequenceNumber();
@@ -4345,7 +4363,7 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable {
       final SegmentMerger merger = new SegmentMerger(mergeReaders,
                                                      merge.info.info, infoStream, dirWrapper,
                                                      globalFieldNumberMap, 
-                                                     context);
+                                                     context, config.getMergeExecutor(), merge.getMergeProgress());
 
       merge.checkAborted();
 
@@ -5033,6 +5051,16 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable {
   private boolean processEvents(boolean triggerMerge, boolean forcePurge) throws IOException {
     return processEvents(eventQueue, triggerMerge, forcePurge);
   }
+
+  /** Called by {@link DocumentsWriter} once a segment was flushed on the
+   *  flush executor, since no indexing thread is around to publish it. */
+  void processEventsAfterBackgroundFlush() throws IOException {
+    if (closed || closing) {
+      // close/rollback publish or discard whatever is left in the queue
+      return;
+    }
+    processEvents(true, false);
+  }
   
   private boolean processEvents(Queue<Event> queue, boolean triggerMerge, boolean forcePurge) throws IOException {
     boolean processed = false;
@@ -20,6 +20,7 @@ package org.apache.lucene.index;
 import java.io.PrintStream;
 import java.util.Arrays;
 import java.util.EnumSet;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import org.apache.lucene.analysis.Analyzer;
@@ -29,6 +30,7 @@ import org.apache.lucene.index.IndexWriter.IndexReaderWarmer;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.similarities.Similarity;
+import org.apache.lucene.util.BlockRecycler;
 import org.apache.lucene.util.InfoStream;
 import org.apache.lucene.util.PrintStreamInfoStream;
 import org.apache.lucene.util.SetOnce.AlreadySetException;
@@ -358,6 +360,73 @@ public final class IndexWriterConfig extends LiveIndexWriterConfig {
   public int getRAMPerThreadHardLimitMB() {
     return perThreadHardLimitMB;
   }
+
+  /**
+   * Expert: Sets the {@link Executor} that flushes full segments. By default
+   * this is <code>null</code> and a segment is flushed by the indexing thread
+   * that filled it, which blocks that thread until the flush completes. With
+   * an executor, indexing threads hand full segments off and keep indexing;
+   * they only block once flushes fall far enough behind that the writer
+   * stalls. Exceptions thrown while flushing in the background are rethrown
+   * by the next update.
+   *
+   * <p>Only takes effect when the {@link IndexWriter} is first created.
+   */
+  public IndexWriterConfig setFlushExecutor(Executor flushExecutor) {
+    this.flushExecutor = flushExecutor;
+    return this;
+  }
+
+  @Override
+  public Executor getFlushExecutor() {
+    return flushExecutor;
+  }
+
+  /**
+   * Expert: Sets the {@link BlockRecycler} that in-memory segments take the
+   * byte and int blocks of their postings buffers from, and hand them back
+   * to once they are flushed. By default this is <code>null</code> and every
+   * segment allocates fresh blocks, which become garbage after the flush.
+   * Recycling blocks keeps a stable set of them in the old generation, which
+   * helps with large RAM buffers. The same {@link BlockRecycler} may be
+   * shared by several {@link IndexWriter}s; its buffered blocks are not
+   * counted towards {@link #getRAMBufferSizeMB()}.
+   *
+   * <p>Only takes effect when the {@link IndexWriter} is first created.
+   */
+  public IndexWriterConfig setBlockRecycler(BlockRecycler blockRecycler) {
+    this.blockRecycler = blockRecycler;
+    return this;
+  }
+
+  @Override
+  public BlockRecycler getBlockRecycler() {
+    return blockRecycler;
+  }
+
+  /**
+   * Expert: Sets the {@link Executor} that runs the phases of a merge
+   * concurrently. By default this is <code>null</code> and a merge thread
+   * merges stored fields, postings, doc values, points, norms and term
+   * vectors one after another. With an executor, the merge thread hands all
+   * phases but one to the executor, each of them writing its own files, and
+   * waits for all of them; this speeds up large merges such as
+   * {@link IndexWriter#forceMerge(int)} on machines with idle cores. Phases
+   * write through the merge's rate limiter, so {@link MergeScheduler} IO
+   * throttling applies to the merge as a whole. Phases rejected by the
+   * executor run on the merge thread.
+   *
+   * <p>Only takes effect when the {@link IndexWriter} is first created.
+   */
+  public IndexWriterConfig setMergeExecutor(Executor mergeExecutor) {
+    this.mergeExecutor = mergeExecutor;
+    return this;
+  }
+
+  @Override
+  public Executor getMergeExecutor() {
+    return mergeExecutor;
+  }
   
   @Override
   FlushPolicy getFlushPolicy() {
@@ -305,6 +305,24 @@ public abstract class LeafReader extends IndexReader {
    *  spatial searches, or null if there are no point fields. */
   public abstract PointValues getPointValues();
 
+  /**
+   * Expert: visits the stored fields of the first <code>count</code>
+   * documents of <code>docIDs</code>, which must be in increasing order, with
+   * the visitor at the same index in <code>visitors</code>. This gives the
+   * stored fields format a chance to decode data that is shared by several
+   * documents only once.
+   * <p>
+   * The default implementation calls {@link #document(int, StoredFieldVisitor)}
+   * for each document.
+   * @see IndexReader#document(int[])
+   * @lucene.experimental
+   */
+  public void document(int[] docIDs, StoredFieldVisitor[] visitors, int count) throws IOException {
+    for (int i = 0; i < count; ++i) {
+      document(docIDs[i], visitors[i]);
+    }
+  }
+
   /**
    * Checks consistency of this reader.
    * <p>
@@ -19,6 +19,7 @@ package org.apache.lucene.index;
 
 import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.codecs.Codec;
@@ -28,6 +29,7 @@ import org.apache.lucene.index.IndexWriterConfig.OpenMode;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.similarities.Similarity;
+import org.apache.lucene.util.BlockRecycler;
 import org.apache.lucene.util.InfoStream;
 
 /**
@@ -92,6 +94,18 @@ public class LiveIndexWriterConfig {
    *  segment, after which the segment is forced to flush. */
   protected volatile int perThreadHardLimitMB;
 
+  /** {@link Executor} that flushes segments in the background, or null to
+   *  flush them in indexing threads. */
+  protected volatile Executor flushExecutor;
+
+  /** {@link BlockRecycler} that indexing buffers are taken from and handed
+   *  back to, or null to allocate fresh buffers for every segment. */
+  protected volatile BlockRecycler blockRecycler;
+
+  /** {@link Executor} that runs phases of a merge concurrently, or null to
+   *  run them one after another on the merge thread. */
+  protected volatile Executor mergeExecutor;
+
   /** True if segment flushes should use compound file format */
   protected volatile boolean useCompoundFile = IndexWriterConfig.DEFAULT_USE_COMPOUND_FILE_SYSTEM;
   
@@ -406,6 +420,38 @@ public class LiveIndexWriterConfig {
     return perThreadHardLimitMB;
   }
   
+  /**
+   * Returns the {@link Executor} that flushes segments in the background, or
+   * <code>null</code> if segments are flushed by indexing threads.
+   *
+   * @see IndexWriterConfig#setFlushExecutor(Executor)
+   */
+  public Executor getFlushExecutor() {
+    return flushExecutor;
+  }
+
+  /**
+   * Returns the {@link BlockRecycler} that in-memory segments take their
+   * byte and int blocks from, or <code>null</code> if every segment allocates
+   * its own.
+   *
+   * @see IndexWriterConfig#setBlockRecycler(BlockRecycler)
+   */
+  public BlockRecycler getBlockRecycler() {
+    return blockRecycler;
+  }
+
+  /**
+   * Returns the {@link Executor} that merges stored fields, postings, doc
+   * values, points, norms and term vectors of a merge concurrently, or
+   * <code>null</code> if they are merged one after another.
+   *
+   * @see IndexWriterConfig#setMergeExecutor(Executor)
+   */
+  public Executor getMergeExecutor() {
+    return mergeExecutor;
+  }
+
   /**
    * @see IndexWriterConfig#setFlushPolicy(FlushPolicy)
    */
@@ -490,6 +536,9 @@ public class LiveIndexWriterConfig {
     sb.append("indexerThreadPool=").append(getIndexerThreadPool()).append("\n");
     sb.append("readerPooling=").append(getReaderPooling()).append("\n");
     sb.append("perThreadHardLimitMB=").append(getRAMPerThreadHardLimitMB()).append("\n");
+    sb.append("flushExecutor=").append(getFlushExecutor()).append("\n");
+    sb.append("blockRecycler=").append(getBlockRecycler()).append("\n");
+    sb.append("mergeExecutor=").append(getMergeExecutor()).append("\n");
     sb.append("useCompoundFile=").append(getUseCompoundFile()).append("\n");
     sb.append("commitOnClose=").append(getCommitOnClose()).append("\n");
     sb.append("indexSort=").append(getIndexSort()).append("\n");
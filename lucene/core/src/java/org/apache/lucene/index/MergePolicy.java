@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
@@ -96,6 +97,12 @@ public abstract class MergePolicy {
      */
     private Thread owner;
 
+    /**
+     * Threads that run phases of the merge on behalf of {@link #owner}, see
+     * {@link IndexWriterConfig#setMergeExecutor}.
+     */
+    private final Set<Thread> helpers = ConcurrentHashMap.newKeySet();
+
     /** Creates a new merge progress info. */
     public OneMergeProgress() {
       // Place all the pause reasons in there immediately so that we can simply update values.
@@ -136,8 +143,8 @@ public abstract class MergePolicy {
      *      condition 
      */
     public void pauseNanos(long pauseNanos, PauseReason reason, BooleanSupplier condition) throws InterruptedException {
-      if (Thread.currentThread() != owner) {
-        throw new RuntimeException("Only the merge owner thread can call pauseNanos(). This thread: "
+      if (isMergeThread(Thread.currentThread()) == false) {
+        throw new RuntimeException("Only the merge owner thread or its helpers can call pauseNanos(). This thread: "
             + Thread.currentThread().getName() + ", owner thread: "
             + owner);
       }
@@ -180,6 +187,20 @@ public abstract class MergePolicy {
       assert this.owner == null;
       this.owner = owner;
     }
+
+    /** Allows the given thread to write, and be paused, on behalf of the merge thread. */
+    final void addHelperThread(Thread helper) {
+      helpers.add(helper);
+    }
+
+    final void removeHelperThread(Thread helper) {
+      helpers.remove(helper);
+    }
+
+    /** Returns true if the given thread is the merge thread or one of its helpers. */
+    final boolean isMergeThread(Thread thread) {
+      return thread == owner || helpers.contains(thread);
+    }
   }
 
   /** OneMerge provides the information necessary to perform
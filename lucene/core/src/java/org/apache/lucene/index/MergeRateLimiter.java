@@ -122,19 +122,24 @@ public class MergeRateLimiter extends RateLimiter {
     double rate = mbPerSec; // read from volatile rate once.
     double secondsToPause = (bytes/1024./1024.) / rate;
 
-    // Time we should sleep until; this is purely instantaneous
-    // rate (just adds seconds onto the last time we had paused to);
-    // maybe we should also offer decayed recent history one?
-    long targetNS = lastNS + (long) (1000000000 * secondsToPause);
-
-    long curPauseNS = targetNS - curNS;
-
-    // We don't bother with thread pausing if the pause is smaller than 2 msec.
-    if (curPauseNS <= MIN_PAUSE_NS) {
-      // Set to curNS, not targetNS, to enforce the instant rate, not
-      // the "averaged over all history" rate:
-      lastNS = curNS;
-      return -1;
+    long curPauseNS;
+    // Phases of a merge may write concurrently (see IndexWriterConfig#setMergeExecutor):
+    // only one of them may go ahead for a given lastNS, so that they share the rate.
+    synchronized (this) {
+      // Time we should sleep until; this is purely instantaneous
+      // rate (just adds seconds onto the last time we had paused to);
+      // maybe we should also offer decayed recent history one?
+      long targetNS = lastNS + (long) (1000000000 * secondsToPause);
+
+      curPauseNS = targetNS - curNS;
+
+      // We don't bother with thread pausing if the pause is smaller than 2 msec.
+      if (curPauseNS <= MIN_PAUSE_NS) {
+        // Set to curNS, not targetNS, to enforce the instant rate, not
+        // the "averaged over all history" rate:
+        lastNS = curNS;
+        return -1;
+      }
     }
 
     // Defensive: don't sleep for too long; the loop above will call us again if
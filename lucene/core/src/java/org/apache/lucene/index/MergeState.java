@@ -21,6 +21,11 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.apache.lucene.codecs.DocValuesProducer;
 import org.apache.lucene.codecs.FieldsProducer;
@@ -30,7 +35,9 @@ import org.apache.lucene.codecs.StoredFieldsReader;
 import org.apache.lucene.codecs.TermVectorsReader;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.InfoStream;
+import org.apache.lucene.util.ThreadInterruptedException;
 import org.apache.lucene.util.packed.PackedInts;
 import org.apache.lucene.util.packed.PackedLongValues;
 
@@ -84,6 +91,10 @@ public class MergeState {
   /** Indicates if the index needs to be sorted **/
   public boolean needsIndexSort;
 
+  /** {@link Executor} that formats may use to merge independent parts of
+   *  their data concurrently, see {@link #runConcurrently}, or null. */
+  public Executor mergeExecutor;
+
   /** Sole constructor. */
   MergeState(List<CodecReader> originalReaders, SegmentInfo segmentInfo, InfoStream infoStream) throws IOException {
 
@@ -146,6 +157,71 @@ public class MergeState {
     this.docMaps = buildDocMaps(readers, indexSort);
   }
 
+  /** Creates a copy of the given state for one concurrent part of a merge, so
+   *  that parts that temporarily restrict {@link #mergeFieldInfos},
+   *  {@link #fieldInfos} or {@link #fieldsProducers} (eg. per-field formats)
+   *  don't see each other's changes. Readers are shared: parts that use the
+   *  same readers must replace them with their own merge instances. */
+  public MergeState(MergeState other) {
+    this.docMaps = other.docMaps;
+    this.leafDocMaps = other.leafDocMaps;
+    this.segmentInfo = other.segmentInfo;
+    this.mergeFieldInfos = other.mergeFieldInfos;
+    this.storedFieldsReaders = other.storedFieldsReaders;
+    this.termVectorsReaders = other.termVectorsReaders;
+    this.normsProducers = other.normsProducers;
+    this.docValuesProducers = other.docValuesProducers;
+    this.fieldInfos = other.fieldInfos.clone();
+    this.liveDocs = other.liveDocs;
+    this.fieldsProducers = other.fieldsProducers.clone();
+    this.pointsReaders = other.pointsReaders;
+    this.maxDocs = other.maxDocs;
+    this.infoStream = other.infoStream;
+    this.needsIndexSort = other.needsIndexSort;
+    this.mergeExecutor = other.mergeExecutor;
+  }
+
+  /**
+   * Runs the given tasks concurrently on {@link #mergeExecutor}, or one after
+   * another if it is null, and returns once all of them are done. The calling
+   * thread runs the first task itself, as well as any task that the executor
+   * did not start yet by the time it is needed, so that tasks which run
+   * tasks themselves can't starve the executor. If tasks fail, the first
+   * exception is rethrown with the others suppressed, but only after all
+   * tasks finished, so that no files are being written anymore.
+   */
+  public void runConcurrently(List<? extends Callable<?>> tasks) throws IOException {
+    final List<FutureTask<?>> futures = new ArrayList<>();
+    for (Callable<?> task : tasks) {
+      futures.add(new FutureTask<>(task));
+    }
+    if (mergeExecutor != null) {
+      for (int i = 1; i < futures.size(); i++) {
+        try {
+          mergeExecutor.execute(futures.get(i));
+        } catch (RejectedExecutionException e) {
+          // we run it ourselves below
+        }
+      }
+    }
+    Throwable th = null;
+    for (FutureTask<?> future : futures) {
+      // no-op if the executor already started this task:
+      future.run();
+      try {
+        future.get();
+      } catch (ExecutionException | InterruptedException e) {
+        Throwable t = e instanceof ExecutionException ? e.getCause() : new ThreadInterruptedException((InterruptedException) e);
+        if (th == null) {
+          th = t;
+        } else {
+          th.addSuppressed(t);
+        }
+      }
+    }
+    IOUtils.reThrow(th);
+  }
+
   // Remap docIDs around deletions
   private DocMap[] buildDeletionDocMaps(List<CodecReader> readers) {
 
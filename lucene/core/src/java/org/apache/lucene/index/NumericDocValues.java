@@ -32,4 +32,32 @@ public abstract class NumericDocValues {
    * @return numeric value
    */
   public abstract long get(int docID);
+
+  /**
+   * Bulk version of {@link #get(int)}: fills <code>values[i]</code> with the
+   * value of <code>docIDs[i]</code> for every <code>i &lt; count</code>.
+   * Doc IDs should be in increasing order for best performance.
+   * <p>
+   * The default implementation calls {@link #get(int)} for each document,
+   * implementations should override it to decode values without
+   * per-document overhead.
+   */
+  public void get(int[] docIDs, long[] values, int count) {
+    for (int i = 0; i < count; ++i) {
+      values[i] = get(docIDs[i]);
+    }
+  }
+
+  /**
+   * Bulk version of {@link #get(int)} for a contiguous range of documents:
+   * fills <code>values[i]</code> with the value of document
+   * <code>fromDocID + i</code> for every <code>i &lt; count</code>.
+   * <p>
+   * The default implementation calls {@link #get(int)} for each document.
+   */
+  public void getRange(int fromDocID, long[] values, int count) {
+    for (int i = 0; i < count; ++i) {
+      values[i] = get(fromDocID + i);
+    }
+  }
 }
@@ -43,6 +43,8 @@ class NumericDocValuesWriter extends DocValuesWriter {
   private long bytesUsed;
   private FixedBitSet docsWithField;
   private final FieldInfo fieldInfo;
+  private long minValue = Long.MAX_VALUE;
+  private long maxValue = Long.MIN_VALUE;
 
   PackedLongValues finalValues;
 
@@ -66,6 +68,8 @@ class NumericDocValuesWriter extends DocValuesWriter {
     }
 
     pending.add(value);
+    minValue = Math.min(minValue, value);
+    maxValue = Math.max(maxValue, value);
     docsWithField = FixedBitSet.ensureCapacity(docsWithField, docID);
     docsWithField.set(docID);
     
@@ -92,6 +96,7 @@ class NumericDocValuesWriter extends DocValuesWriter {
   @Override
   public void flush(SegmentWriteState state, Sorter.DocMap sortMap, DocValuesConsumer dvConsumer) throws IOException {
     final int maxDoc = state.segmentInfo.maxDoc();
+    SegmentFieldStats.recordDocValuesRange(state.segmentInfo, fieldInfo.name, minValue, maxValue);
 
     dvConsumer.addNumericField(fieldInfo,
                                new Iterable<Number>() {
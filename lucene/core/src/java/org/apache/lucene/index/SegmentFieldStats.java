@@ -0,0 +1,404 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.StringHelper;
+
+/**
+ * Per-segment summary of the values of fields, which {@link IndexSearcher}
+ * passes to {@link Query#canMatch} in order to skip segments that can't
+ * match a query before creating scorers.
+ *
+ * <p>Most of the summary comes from data the codec already keeps: the
+ * minimum and maximum term of a field, the minimum and maximum
+ * {@link PointValues points} and the first and last value of sorted doc
+ * values.  Two things are recorded in {@link SegmentInfo#getAttributes()
+ * segment attributes} when segments are flushed or merged:</p>
+ * <ul>
+ *   <li>the minimum and maximum value of {@link DocValuesType#NUMERIC numeric}
+ *       and {@link DocValuesType#SORTED_NUMERIC sorted numeric} doc values,
+ *       unless they were updated in place, and</li>
+ *   <li>a small bloom filter over the terms of keyword fields (fields indexed
+ *       with {@link IndexOptions#DOCS} and without norms, like
+ *       {@link org.apache.lucene.document.StringField}) with up to 1024
+ *       terms in the segment.</li>
+ * </ul>
+ *
+ * <p>All methods are conservative: they only return {@code false} if
+ * no document of the segment can have a matching value, and {@code true}
+ * when nothing is known.  Recorded statistics are looked up on the
+ * {@link SegmentReader} below {@link FilterLeafReader}s, which therefore
+ * must not change the values of fields.</p>
+ *
+ * @lucene.experimental
+ */
+public final class SegmentFieldStats {
+
+  private static final String RANGE_PREFIX = "SegmentFieldStats.range.";
+  private static final String BLOOM_PREFIX = "SegmentFieldStats.bloom.";
+
+  /** Number of bits of a bloom filter; must be a power of 2. */
+  private static final int BLOOM_BITS = 8192;
+  /** Number of hash functions of a bloom filter. */
+  private static final int BLOOM_HASHES = 5;
+  /** Fields with more terms in a segment don't get a bloom filter (2% false positives at most). */
+  private static final int BLOOM_MAX_TERMS = 1024;
+
+  /** Decoded bloom filters per segment core and field, so that they are
+   *  not decoded again on every search. */
+  private static final Map<Object,Map<String,long[]>> BLOOMS = new ConcurrentHashMap<>();
+  /** Cached for fields without a bloom filter. */
+  private static final long[] NO_BLOOM = new long[0];
+
+  private final LeafReader reader;
+  private final SegmentInfo segmentInfo;
+  private final Map<String,long[]> blooms;
+
+  private SegmentFieldStats(LeafReader reader, SegmentInfo segmentInfo, Map<String,long[]> blooms) {
+    this.reader = reader;
+    this.segmentInfo = segmentInfo;
+    this.blooms = blooms;
+  }
+
+  /** Returns the statistics of the given leaf. */
+  public static SegmentFieldStats of(LeafReader reader) {
+    final LeafReader unwrapped = FilterLeafReader.unwrap(reader);
+    if (unwrapped instanceof SegmentReader == false) {
+      return new SegmentFieldStats(reader, null, null);
+    }
+    final SegmentReader segmentReader = (SegmentReader) unwrapped;
+    final Object coreKey = segmentReader.getCoreCacheKey();
+    Map<String,long[]> blooms = BLOOMS.get(coreKey);
+    if (blooms == null) {
+      final Map<String,long[]> newBlooms = new ConcurrentHashMap<>();
+      blooms = BLOOMS.putIfAbsent(coreKey, newBlooms);
+      if (blooms == null) {
+        blooms = newBlooms;
+        segmentReader.addCoreClosedListener(BLOOMS::remove);
+      }
+    }
+    return new SegmentFieldStats(reader, segmentReader.getSegmentInfo().info, blooms);
+  }
+
+  private static SegmentInfo segmentInfo(LeafReader reader) {
+    LeafReader unwrapped = FilterLeafReader.unwrap(reader);
+    if (unwrapped instanceof SegmentReader) {
+      return ((SegmentReader) unwrapped).getSegmentInfo().info;
+    }
+    return null;
+  }
+
+  /** Returns the reader these statistics are about. */
+  public LeafReader getReader() {
+    return reader;
+  }
+
+  /** Returns false if no document has {@code term} in {@code field}. */
+  public boolean mightContainTerm(String field, BytesRef term) throws IOException {
+    final Terms terms = reader.terms(field);
+    if (terms == null) {
+      return false;
+    }
+    if (blooms != null) {
+      final long[] bloom = blooms.computeIfAbsent(field, f -> {
+        final long[] decoded = decodeBloom(segmentInfo.getAttribute(BLOOM_PREFIX + f));
+        return decoded == null ? NO_BLOOM : decoded;
+      });
+      if (bloom != NO_BLOOM && bloomContains(bloom, term) == false) {
+        return false;
+      }
+    }
+    return termsMightIntersect(field, term, true, term, true);
+  }
+
+  /** Returns false if no term of {@code field} is within the given range.
+   *  Null bounds mean the range is open. */
+  public boolean termsMightIntersect(String field, BytesRef lower, boolean includeLower,
+                                     BytesRef upper, boolean includeUpper) throws IOException {
+    final Terms terms = reader.terms(field);
+    if (terms == null) {
+      return false;
+    }
+    final BytesRef min = terms.getMin();
+    final BytesRef max = terms.getMax();
+    if (min == null || max == null) {
+      return false;
+    }
+    return intersects(min, max, lower, includeLower, upper, includeUpper);
+  }
+
+  /** Returns false if no numeric or sorted numeric doc value of {@code field}
+   *  is between {@code lower} and {@code upper}, inclusive. */
+  public boolean docValuesMightIntersect(String field, long lower, long upper) {
+    final FieldInfo fieldInfo = reader.getFieldInfos().fieldInfo(field);
+    if (fieldInfo == null || fieldInfo.getDocValuesType() == DocValuesType.NONE) {
+      return false;
+    }
+    if (lower > upper) {
+      return false;
+    }
+    final long[] range = segmentInfo == null ? null : docValuesRange(segmentInfo, fieldInfo);
+    return range == null || (range[0] <= upper && range[1] >= lower);
+  }
+
+  /** Returns false if no sorted or sorted set doc value of {@code field} is
+   *  within the given range.  Null bounds mean the range is open. */
+  public boolean docValuesMightIntersect(String field, BytesRef lower, boolean includeLower,
+                                         BytesRef upper, boolean includeUpper) throws IOException {
+    final FieldInfo fieldInfo = reader.getFieldInfos().fieldInfo(field);
+    if (fieldInfo == null) {
+      return false;
+    }
+    final BytesRef min, max;
+    switch (fieldInfo.getDocValuesType()) {
+      case SORTED: {
+        final SortedDocValues values = reader.getSortedDocValues(field);
+        if (values.getValueCount() == 0) {
+          return false;
+        }
+        min = BytesRef.deepCopyOf(values.lookupOrd(0));
+        max = values.lookupOrd(values.getValueCount() - 1);
+        break;
+      }
+      case SORTED_SET: {
+        final SortedSetDocValues values = reader.getSortedSetDocValues(field);
+        if (values.getValueCount() == 0) {
+          return false;
+        }
+        min = BytesRef.deepCopyOf(values.lookupOrd(0));
+        max = values.lookupOrd(values.getValueCount() - 1);
+        break;
+      }
+      case NONE:
+        return false;
+      default:
+        return true;
+    }
+    return intersects(min, max, lower, includeLower, upper, includeUpper);
+  }
+
+  /** Returns false if no point of {@code field} is within the box defined by
+   *  the packed {@code lowerPoint} and {@code upperPoint}, inclusive. */
+  public boolean pointsMightIntersect(String field, byte[] lowerPoint, byte[] upperPoint) throws IOException {
+    final FieldInfo fieldInfo = reader.getFieldInfos().fieldInfo(field);
+    if (fieldInfo == null || fieldInfo.getPointDimensionCount() == 0) {
+      return false;
+    }
+    final PointValues values = reader.getPointValues();
+    if (values == null) {
+      return false;
+    }
+    final byte[] min = values.getMinPackedValue(field);
+    final byte[] max = values.getMaxPackedValue(field);
+    if (min == null || max == null) {
+      return false;
+    }
+    final int numDims = fieldInfo.getPointDimensionCount();
+    final int bytesPerDim = fieldInfo.getPointNumBytes();
+    if (lowerPoint.length != numDims * bytesPerDim || upperPoint.length != numDims * bytesPerDim) {
+      // let the query report the mismatch
+      return true;
+    }
+    for (int dim = 0; dim < numDims; dim++) {
+      final int offset = dim * bytesPerDim;
+      if (StringHelper.compare(bytesPerDim, lowerPoint, offset, max, offset) > 0 ||
+          StringHelper.compare(bytesPerDim, upperPoint, offset, min, offset) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean intersects(BytesRef min, BytesRef max, BytesRef lower, boolean includeLower,
+                                    BytesRef upper, boolean includeUpper) {
+    if (lower != null) {
+      final int cmp = lower.compareTo(max);
+      if (cmp > 0 || (cmp == 0 && includeLower == false)) {
+        return false;
+      }
+    }
+    if (upper != null) {
+      final int cmp = upper.compareTo(min);
+      if (cmp < 0 || (cmp == 0 && includeUpper == false)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // Recording statistics while writing segments:
+
+  /** Records the range of numeric values of a field that is being flushed. */
+  static void recordDocValuesRange(SegmentInfo segmentInfo, String field, long min, long max) {
+    assert min <= max;
+    segmentInfo.putAttribute(RANGE_PREFIX + field, min + ":" + max);
+  }
+
+  /** Records a bloom filter for the terms of a field that is being flushed,
+   *  if it is a keyword field with few enough terms. */
+  static void recordTerms(SegmentInfo segmentInfo, FieldInfo fieldInfo, int numTerms, Terms terms) throws IOException {
+    if (isKeywordField(fieldInfo) == false || numTerms > BLOOM_MAX_TERMS) {
+      return;
+    }
+    final long[] bloom = new long[BLOOM_BITS / Long.SIZE];
+    final TermsEnum termsEnum = terms.iterator();
+    for (BytesRef term = termsEnum.next(); term != null; term = termsEnum.next()) {
+      bloomAdd(bloom, term);
+    }
+    segmentInfo.putAttribute(BLOOM_PREFIX + fieldInfo.name, encodeBloom(bloom));
+  }
+
+  /** Computes the statistics of a merged segment from the ones of the merged
+   *  readers, when they are all known. */
+  static void recordMerge(SegmentInfo segmentInfo, FieldInfos mergedFieldInfos, List<CodecReader> readers) throws IOException {
+    for (FieldInfo mergedInfo : mergedFieldInfos) {
+      final String field = mergedInfo.name;
+      final DocValuesType dvType = mergedInfo.getDocValuesType();
+      if (dvType == DocValuesType.NUMERIC || dvType == DocValuesType.SORTED_NUMERIC) {
+        long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+        boolean known = true;
+        for (CodecReader reader : readers) {
+          final FieldInfo fieldInfo = reader.getFieldInfos().fieldInfo(field);
+          if (fieldInfo == null || fieldInfo.getDocValuesType() == DocValuesType.NONE) {
+            continue;
+          }
+          final SegmentInfo readerInfo = segmentInfo(reader);
+          final long[] range = readerInfo == null ? null : docValuesRange(readerInfo, fieldInfo);
+          if (range == null) {
+            known = false;
+            break;
+          }
+          min = Math.min(min, range[0]);
+          max = Math.max(max, range[1]);
+        }
+        if (known && min <= max) {
+          recordDocValuesRange(segmentInfo, field, min, max);
+        }
+      }
+
+      if (isKeywordField(mergedInfo)) {
+        final long[] bloom = new long[BLOOM_BITS / Long.SIZE];
+        boolean known = true;
+        for (CodecReader reader : readers) {
+          final FieldInfo fieldInfo = reader.getFieldInfos().fieldInfo(field);
+          if (fieldInfo == null || fieldInfo.getIndexOptions() == IndexOptions.NONE || reader.terms(field) == null) {
+            continue;
+          }
+          final SegmentInfo readerInfo = segmentInfo(reader);
+          final long[] readerBloom = readerInfo == null ? null : decodeBloom(readerInfo.getAttribute(BLOOM_PREFIX + field));
+          if (readerBloom == null) {
+            known = false;
+            break;
+          }
+          for (int i = 0; i < bloom.length; i++) {
+            bloom[i] |= readerBloom[i];
+          }
+        }
+        if (known && estimateBloomTerms(bloom) <= BLOOM_MAX_TERMS) {
+          segmentInfo.putAttribute(BLOOM_PREFIX + field, encodeBloom(bloom));
+        }
+      }
+    }
+  }
+
+  private static boolean isKeywordField(FieldInfo fieldInfo) {
+    return fieldInfo.getIndexOptions() == IndexOptions.DOCS && fieldInfo.omitsNorms();
+  }
+
+  private static long[] docValuesRange(SegmentInfo segmentInfo, FieldInfo fieldInfo) {
+    if (fieldInfo.getDocValuesGen() != -1) {
+      // values were updated after the segment was written
+      return null;
+    }
+    final String value = segmentInfo.getAttribute(RANGE_PREFIX + fieldInfo.name);
+    if (value == null) {
+      return null;
+    }
+    final int colon = value.indexOf(':');
+    return new long[] {Long.parseLong(value.substring(0, colon)), Long.parseLong(value.substring(colon + 1))};
+  }
+
+  private static void bloomAdd(long[] bloom, BytesRef term) {
+    final int h1 = StringHelper.murmurhash3_x86_32(term, 0);
+    final int h2 = StringHelper.murmurhash3_x86_32(term, h1) | 1;
+    for (int i = 0; i < BLOOM_HASHES; i++) {
+      final int bit = (h1 + i * h2) & (BLOOM_BITS - 1);
+      bloom[bit >>> 6] |= 1L << bit;
+    }
+  }
+
+  private static boolean bloomContains(long[] bloom, BytesRef term) {
+    final int h1 = StringHelper.murmurhash3_x86_32(term, 0);
+    final int h2 = StringHelper.murmurhash3_x86_32(term, h1) | 1;
+    for (int i = 0; i < BLOOM_HASHES; i++) {
+      final int bit = (h1 + i * h2) & (BLOOM_BITS - 1);
+      if ((bloom[bit >>> 6] & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Estimates how many distinct terms were added to a bloom filter from the number of set bits. */
+  private static double estimateBloomTerms(long[] bloom) {
+    int setBits = 0;
+    for (long bits : bloom) {
+      setBits += Long.bitCount(bits);
+    }
+    if (setBits == BLOOM_BITS) {
+      return Double.POSITIVE_INFINITY;
+    }
+    return -((double) BLOOM_BITS / BLOOM_HASHES) * Math.log(1 - (double) setBits / BLOOM_BITS);
+  }
+
+  private static String encodeBloom(long[] bloom) {
+    final byte[] bytes = new byte[bloom.length * Long.BYTES];
+    for (int i = 0; i < bloom.length; i++) {
+      for (int j = 0; j < Long.BYTES; j++) {
+        bytes[i * Long.BYTES + j] = (byte) (bloom[i] >>> (j * 8));
+      }
+    }
+    return Base64.getEncoder().encodeToString(bytes);
+  }
+
+  private static long[] decodeBloom(String value) {
+    if (value == null) {
+      return null;
+    }
+    final byte[] bytes = Base64.getDecoder().decode(value);
+    if (bytes.length != BLOOM_BITS / Byte.SIZE) {
+      return null;
+    }
+    final long[] bloom = new long[BLOOM_BITS / Long.SIZE];
+    for (int i = 0; i < bloom.length; i++) {
+      for (int j = 0; j < Long.BYTES; j++) {
+        bloom[i] |= (bytes[i * Long.BYTES + j] & 0xFFL) << (j * 8);
+      }
+    }
+    return bloom;
+  }
+}
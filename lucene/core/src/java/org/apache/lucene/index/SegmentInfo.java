@@ -68,6 +68,7 @@ public final class SegmentInfo {
 
   private Map<String,String> diagnostics;
   
+  // guarded by this: formats of one merge may write concurrently, see IndexWriterConfig#setMergeExecutor
   private final Map<String,String> attributes;
 
   private final Sort indexSort;
@@ -286,7 +287,7 @@ public final class SegmentInfo {
   /**
    * Get a codec attribute value, or null if it does not exist
    */
-  public String getAttribute(String key) {
+  public synchronized String getAttribute(String key) {
     return attributes.get(key);
   }
   
@@ -300,7 +301,7 @@ public final class SegmentInfo {
    * If a value already exists for the field, it will be replaced with the new
    * value.
    */
-  public String putAttribute(String key, String value) {
+  public synchronized String putAttribute(String key, String value) {
     return attributes.put(key, value);
   }
   
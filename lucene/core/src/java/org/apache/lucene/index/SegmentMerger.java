@@ -18,7 +18,10 @@ package org.apache.lucene.index;
 
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 
 import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.DocValuesConsumer;
@@ -47,18 +50,29 @@ final class SegmentMerger {
   
   final MergeState mergeState;
   private final FieldInfos.Builder fieldInfosBuilder;
+  private final List<CodecReader> readers;
 
   // note, just like in codec apis Directory 'dir' is NOT the same as segmentInfo.dir!!
   SegmentMerger(List<CodecReader> readers, SegmentInfo segmentInfo, InfoStream infoStream, Directory dir,
                 FieldInfos.FieldNumbers fieldNumbers, IOContext context) throws IOException {
+    this(readers, segmentInfo, infoStream, dir, fieldNumbers, context, null, null);
+  }
+
+  SegmentMerger(List<CodecReader> readers, SegmentInfo segmentInfo, InfoStream infoStream, Directory dir,
+                FieldInfos.FieldNumbers fieldNumbers, IOContext context,
+                Executor mergeExecutor, MergePolicy.OneMergeProgress mergeProgress) throws IOException {
     if (context.context != IOContext.Context.MERGE) {
       throw new IllegalArgumentException("IOContext.context should be MERGE; got: " + context.context);
     }
     mergeState = new MergeState(readers, segmentInfo, infoStream);
+    this.readers = readers;
     directory = dir;
     this.codec = segmentInfo.getCodec();
     this.context = context;
     this.fieldInfosBuilder = new FieldInfos.Builder(fieldNumbers);
+    if (mergeExecutor != null) {
+      mergeState.mergeExecutor = mergeProgress == null ? mergeExecutor : mergeHelperExecutor(mergeExecutor, mergeProgress);
+    }
     if (mergeState.infoStream.isEnabled("SM")) {
       if (segmentInfo.getIndexSort() != null) {
         mergeState.infoStream.message("SM", "index sort during merge: " + segmentInfo.getIndexSort());
@@ -71,6 +85,11 @@ final class SegmentMerger {
     return mergeState.segmentInfo.maxDoc() > 0;
   }
 
+  /** One independent step of a merge, writing its own files. */
+  private interface MergePhase {
+    void merge(MergeState mergeState) throws IOException;
+  }
+
   /**
    * Merges the readers into the directory passed to the constructor
    * @return The number of documents that were merged
@@ -82,99 +101,136 @@ final class SegmentMerger {
       throw new IllegalStateException("Merge would result in 0 document segment");
     }
     mergeFieldInfos();
-    long t0 = 0;
-    if (mergeState.infoStream.isEnabled("SM")) {
-      t0 = System.nanoTime();
-    }
-    int numMerged = mergeFields();
-    if (mergeState.infoStream.isEnabled("SM")) {
-      long t1 = System.nanoTime();
-      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge stored fields [" + numMerged + " docs]");
-    }
-    assert numMerged == mergeState.segmentInfo.maxDoc(): "numMerged=" + numMerged + " vs mergeState.segmentInfo.maxDoc()=" + mergeState.segmentInfo.maxDoc();
 
+    final int maxDoc = mergeState.segmentInfo.maxDoc();
     final SegmentWriteState segmentWriteState = new SegmentWriteState(mergeState.infoStream, directory, mergeState.segmentInfo,
                                                                       mergeState.mergeFieldInfos, null, context);
-    if (mergeState.infoStream.isEnabled("SM")) {
-      t0 = System.nanoTime();
+    // every phase only reads its own producers from MergeState and writes its own files:
+    final List<String> names = new ArrayList<>();
+    final List<MergePhase> phases = new ArrayList<>();
+    names.add("stored fields");
+    phases.add(state -> {
+      int numMerged = mergeFields(state);
+      assert numMerged == maxDoc: "numMerged=" + numMerged + " vs mergeState.segmentInfo.maxDoc()=" + maxDoc;
+    });
+    names.add("postings");
+    phases.add(state -> mergeTerms(segmentWriteState, state));
+    if (mergeState.mergeFieldInfos.hasDocValues()) {
+      names.add("doc values");
+      phases.add(state -> mergeDocValues(segmentWriteState, state));
     }
-    mergeTerms(segmentWriteState);
-    if (mergeState.infoStream.isEnabled("SM")) {
-      long t1 = System.nanoTime();
-      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge postings [" + numMerged + " docs]");
+    if (mergeState.mergeFieldInfos.hasPointValues()) {
+      names.add("points");
+      phases.add(state -> mergePoints(segmentWriteState, state));
+    }
+    if (mergeState.mergeFieldInfos.hasNorms()) {
+      names.add("norms");
+      phases.add(state -> mergeNorms(segmentWriteState, state));
+    }
+    if (mergeState.mergeFieldInfos.hasVectors()) {
+      names.add("vectors");
+      phases.add(state -> {
+        int numMerged = mergeVectors(state);
+        assert numMerged == maxDoc;
+      });
     }
 
+    if (mergeState.mergeExecutor == null) {
+      for (int i = 0; i < phases.size(); i++) {
+        runPhase(names.get(i), phases.get(i), mergeState);
+      }
+    } else {
+      runPhasesConcurrently(names, phases);
+    }
+    
+    // write the merged infos (after all phases: per-field formats record their attributes in there)
+    long t0 = 0;
     if (mergeState.infoStream.isEnabled("SM")) {
       t0 = System.nanoTime();
     }
-    if (mergeState.mergeFieldInfos.hasDocValues()) {
-      mergeDocValues(segmentWriteState);
-    }
+    codec.fieldInfosFormat().write(directory, mergeState.segmentInfo, "", mergeState.mergeFieldInfos, context);
     if (mergeState.infoStream.isEnabled("SM")) {
       long t1 = System.nanoTime();
-      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge doc values [" + numMerged + " docs]");
+      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to write field infos [" + maxDoc + " docs]");
     }
 
+    SegmentFieldStats.recordMerge(mergeState.segmentInfo, mergeState.mergeFieldInfos, readers);
+
+    return mergeState;
+  }
+
+  private void runPhase(String name, MergePhase phase, MergeState state) throws IOException {
+    long t0 = 0;
     if (mergeState.infoStream.isEnabled("SM")) {
       t0 = System.nanoTime();
     }
-    if (mergeState.mergeFieldInfos.hasPointValues()) {
-      mergePoints(segmentWriteState);
-    }
+    phase.merge(state);
     if (mergeState.infoStream.isEnabled("SM")) {
       long t1 = System.nanoTime();
-      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge points [" + numMerged + " docs]");
-    }
-    
-    if (mergeState.mergeFieldInfos.hasNorms()) {
-      if (mergeState.infoStream.isEnabled("SM")) {
-        t0 = System.nanoTime();
-      }
-      mergeNorms(segmentWriteState);
-      if (mergeState.infoStream.isEnabled("SM")) {
-        long t1 = System.nanoTime();
-        mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge norms [" + numMerged + " docs]");
-      }
+      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge " + name + " [" + mergeState.segmentInfo.maxDoc() + " docs]");
     }
+  }
 
-    if (mergeState.mergeFieldInfos.hasVectors()) {
-      if (mergeState.infoStream.isEnabled("SM")) {
-        t0 = System.nanoTime();
-      }
-      numMerged = mergeVectors();
-      if (mergeState.infoStream.isEnabled("SM")) {
-        long t1 = System.nanoTime();
-        mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge vectors [" + numMerged + " docs]");
-      }
-      assert numMerged == mergeState.segmentInfo.maxDoc();
-    }
-    
-    // write the merged infos
+  /**
+   * Runs the phases concurrently on the merge executor, each with its own copy
+   * of {@link MergeState}.
+   */
+  private void runPhasesConcurrently(List<String> names, List<MergePhase> phases) throws IOException {
+    long t0 = 0;
     if (mergeState.infoStream.isEnabled("SM")) {
       t0 = System.nanoTime();
     }
-    codec.fieldInfosFormat().write(directory, mergeState.segmentInfo, "", mergeState.mergeFieldInfos, context);
+    final List<Callable<Void>> tasks = new ArrayList<>();
+    for (int i = 0; i < phases.size(); i++) {
+      final String name = names.get(i);
+      final MergePhase phase = phases.get(i);
+      final MergeState state = new MergeState(mergeState);
+      tasks.add(() -> {
+        runPhase(name, phase, state);
+        return null;
+      });
+    }
+    mergeState.runConcurrently(tasks);
     if (mergeState.infoStream.isEnabled("SM")) {
       long t1 = System.nanoTime();
-      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to write field infos [" + numMerged + " docs]");
+      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge " + phases.size() + " phases concurrently [" + mergeState.segmentInfo.maxDoc() + " docs]");
     }
+  }
 
-    return mergeState;
+  /**
+   * Wraps the given executor so that the threads it runs tasks on may write,
+   * and be paused by the rate limiter, on behalf of the merge thread.
+   */
+  private static Executor mergeHelperExecutor(Executor executor, MergePolicy.OneMergeProgress mergeProgress) {
+    return command -> executor.execute(() -> {
+      final Thread thread = Thread.currentThread();
+      final boolean register = mergeProgress.isMergeThread(thread) == false;
+      if (register) {
+        mergeProgress.addHelperThread(thread);
+      }
+      try {
+        command.run();
+      } finally {
+        if (register) {
+          mergeProgress.removeHelperThread(thread);
+        }
+      }
+    });
   }
 
-  private void mergeDocValues(SegmentWriteState segmentWriteState) throws IOException {
+  private void mergeDocValues(SegmentWriteState segmentWriteState, MergeState mergeState) throws IOException {
     try (DocValuesConsumer consumer = codec.docValuesFormat().fieldsConsumer(segmentWriteState)) {
       consumer.merge(mergeState);
     }
   }
 
-  private void mergePoints(SegmentWriteState segmentWriteState) throws IOException {
+  private void mergePoints(SegmentWriteState segmentWriteState, MergeState mergeState) throws IOException {
     try (PointsWriter writer = codec.pointsFormat().fieldsWriter(segmentWriteState)) {
       writer.merge(mergeState);
     }
   }
 
-  private void mergeNorms(SegmentWriteState segmentWriteState) throws IOException {
+  private void mergeNorms(SegmentWriteState segmentWriteState, MergeState mergeState) throws IOException {
     try (NormsConsumer consumer = codec.normsFormat().normsConsumer(segmentWriteState)) {
       consumer.merge(mergeState);
     }
@@ -195,7 +251,7 @@ final class SegmentMerger {
    * @throws CorruptIndexException if the index is corrupt
    * @throws IOException if there is a low-level IO error
    */
-  private int mergeFields() throws IOException {
+  private int mergeFields(MergeState mergeState) throws IOException {
     try (StoredFieldsWriter fieldsWriter = codec.storedFieldsFormat().fieldsWriter(directory, mergeState.segmentInfo, context)) {
       return fieldsWriter.merge(mergeState);
     }
@@ -205,13 +261,13 @@ final class SegmentMerger {
    * Merge the TermVectors from each of the segments into the new one.
    * @throws IOException if there is a low-level IO error
    */
-  private int mergeVectors() throws IOException {
+  private int mergeVectors(MergeState mergeState) throws IOException {
     try (TermVectorsWriter termVectorsWriter = codec.termVectorsFormat().vectorsWriter(directory, mergeState.segmentInfo, context)) {
       return termVectorsWriter.merge(mergeState);
     }
   }
 
-  private void mergeTerms(SegmentWriteState segmentWriteState) throws IOException {
+  private void mergeTerms(SegmentWriteState segmentWriteState, MergeState mergeState) throws IOException {
     try (FieldsConsumer consumer = codec.postingsFormat().fieldsConsumer(segmentWriteState)) {
       consumer.merge(mergeState);
     }
@@ -45,6 +45,34 @@ public abstract class SortedDocValues extends BinaryDocValues {
    */
   public abstract int getOrd(int docID);
 
+  /**
+   * Bulk version of {@link #getOrd(int)}: fills <code>ords[i]</code> with the
+   * ordinal of <code>docIDs[i]</code>, or -1 if it has no value, for every
+   * <code>i &lt; count</code>. Doc IDs should be in increasing order for best
+   * performance.
+   * <p>
+   * The default implementation calls {@link #getOrd(int)} for each document.
+   */
+  public void getOrds(int[] docIDs, int[] ords, int count) {
+    for (int i = 0; i < count; ++i) {
+      ords[i] = getOrd(docIDs[i]);
+    }
+  }
+
+  /**
+   * Bulk version of {@link #getOrd(int)} for a contiguous range of documents:
+   * fills <code>ords[i]</code> with the ordinal of document
+   * <code>fromDocID + i</code>, or -1 if it has no value, for every
+   * <code>i &lt; count</code>.
+   * <p>
+   * The default implementation calls {@link #getOrd(int)} for each document.
+   */
+  public void getOrdRange(int fromDocID, int[] ords, int count) {
+    for (int i = 0; i < count; ++i) {
+      ords[i] = getOrd(fromDocID + i);
+    }
+  }
+
   /** Retrieves the value for the specified ordinal. The returned
    * {@link BytesRef} may be re-used across calls to {@link #lookupOrd(int)}
    * so make sure to {@link BytesRef#deepCopyOf(BytesRef) copy it} if you want
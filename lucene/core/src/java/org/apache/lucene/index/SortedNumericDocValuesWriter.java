@@ -43,6 +43,8 @@ class SortedNumericDocValuesWriter extends DocValuesWriter {
   private long currentValues[] = new long[8];
   private int currentUpto = 0;
   private int maxCount = 0;
+  private long minValue = Long.MAX_VALUE;
+  private long maxValue = Long.MIN_VALUE;
 
   PackedLongValues finalValues;
   PackedLongValues finalValueCounts;
@@ -69,6 +71,8 @@ class SortedNumericDocValuesWriter extends DocValuesWriter {
     }
 
     addOneValue(value);
+    minValue = Math.min(minValue, value);
+    maxValue = Math.max(maxValue, value);
     updateBytesUsed();
   }
   
@@ -147,6 +151,7 @@ class SortedNumericDocValuesWriter extends DocValuesWriter {
   @Override
   public void flush(SegmentWriteState state, Sorter.DocMap sortMap, DocValuesConsumer dvConsumer) throws IOException {
     final int maxDoc = state.segmentInfo.maxDoc();
+    SegmentFieldStats.recordDocValuesRange(state.segmentInfo, fieldInfo.name, minValue, maxValue);
 
     if (sortMap != null) {
       valueStartPtrs = new int[maxDoc];
@@ -0,0 +1,481 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.codecs.PointsReader;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.StringHelper;
+
+/**
+ * Merges segments of an append-mostly index only with segments that are
+ * adjacent in time.
+ *
+ * <p>The time of a document is the value of a {@link LongPoint} field, e.g.
+ * the last modification date the demo indexes under {@code "modified"}.  This
+ * policy reads the minimum and maximum point of every segment once, orders
+ * segments by time, and then picks merges like a log merge policy over that
+ * order: {@link #setSegmentsPerTier segmentsPerTier} consecutive segments of
+ * the same size tier are merged together.  Since merges never combine
+ * segments whose time ranges are separated by another segment, segments
+ * keep narrow, mostly disjoint time ranges, which lets range queries on the
+ * field skip whole segments.  Segments that reached half the
+ * {@link #setMaxMergedSegmentMB maximum segment size}, or whose documents
+ * are all older than {@link #setMaxMergeAge maxMergeAge} relative to the
+ * newest document of the index, are never merged again except by
+ * {@link IndexWriter#forceMerge} or to reclaim deletes, so that old
+ * segments stay unchanged and cache-friendly.</p>
+ *
+ * <p>Segments without any value for the field sort after all others.</p>
+ *
+ * @lucene.experimental
+ */
+public class TimeTieredMergePolicy extends MergePolicy {
+
+  /** Default noCFSRatio.  If a merge's size is {@code >= 10%} of
+   *  the index, then we disable compound file for it.
+   *  @see MergePolicy#setNoCFSRatio */
+  public static final double DEFAULT_NO_CFS_RATIO = 0.1;
+
+  /** Time range of a segment, in the units of the indexed {@link LongPoint}s. */
+  public static final class TimeRange {
+    /** Smallest value of the field in the segment. */
+    public final long min;
+    /** Largest value of the field in the segment. */
+    public final long max;
+
+    TimeRange(long min, long max) {
+      this.min = min;
+      this.max = max;
+    }
+
+    @Override
+    public String toString() {
+      return "[" + min + " TO " + max + "]";
+    }
+  }
+
+  private final String field;
+  private int segsPerTier = 10;
+  private long maxMergedSegmentBytes = 5*1024*1024*1024L;
+  private long floorSegmentBytes = 2*1024*1024L;
+  private long maxMergeAge = Long.MAX_VALUE;
+  private double forceMergeDeletesPctAllowed = 10.0;
+
+  // Segments are immutable, so their time range is computed only once; keyed by segment id.
+  // Ids of segments that are not part of the index anymore are dropped on every find*Merges call.
+  private final Map<String,TimeRange> timeRanges = new ConcurrentHashMap<>();
+  private static final TimeRange NO_VALUES = new TimeRange(Long.MAX_VALUE, Long.MIN_VALUE);
+
+  /** Creates a policy that orders segments by the 1-dimensional
+   *  {@link LongPoint} {@code field}. */
+  public TimeTieredMergePolicy(String field) {
+    super(DEFAULT_NO_CFS_RATIO, MergePolicy.DEFAULT_MAX_CFS_SEGMENT_SIZE);
+    if (field == null) {
+      throw new IllegalArgumentException("field must not be null");
+    }
+    this.field = field;
+  }
+
+  /** Returns the field segments are ordered by. */
+  public String getField() {
+    return field;
+  }
+
+  /** Sets how many adjacent segments of the same size tier are merged at
+   *  once, which is also how many such segments the index may have before
+   *  they are merged.  Default is 10. */
+  public TimeTieredMergePolicy setSegmentsPerTier(int v) {
+    if (v < 2) {
+      throw new IllegalArgumentException("segmentsPerTier must be >= 2 (got " + v + ")");
+    }
+    segsPerTier = v;
+    return this;
+  }
+
+  /** Returns the current segmentsPerTier setting.
+   *
+   * @see #setSegmentsPerTier */
+  public int getSegmentsPerTier() {
+    return segsPerTier;
+  }
+
+  /** Maximum sized segment to produce during normal merging.
+   *  Segments larger than half of this are not merged anymore.
+   *  Default is 5 GB. */
+  public TimeTieredMergePolicy setMaxMergedSegmentMB(double v) {
+    if (v < 0.0) {
+      throw new IllegalArgumentException("maxMergedSegmentMB must be >=0 (got " + v + ")");
+    }
+    v *= 1024 * 1024;
+    maxMergedSegmentBytes = v > Long.MAX_VALUE ? Long.MAX_VALUE : (long) v;
+    return this;
+  }
+
+  /** Returns the current maxMergedSegmentMB setting.
+   *
+   * @see #setMaxMergedSegmentMB */
+  public double getMaxMergedSegmentMB() {
+    return maxMergedSegmentBytes/1024/1024.;
+  }
+
+  /** Segments smaller than this are "rounded up" to this
+   *  size, ie treated as equal (floor) size for merge
+   *  selection.  Default is 2 MB. */
+  public TimeTieredMergePolicy setFloorSegmentMB(double v) {
+    if (v <= 0.0) {
+      throw new IllegalArgumentException("floorSegmentMB must be > 0.0 (got " + v + ")");
+    }
+    v *= 1024 * 1024;
+    floorSegmentBytes = v > Long.MAX_VALUE ? Long.MAX_VALUE : (long) v;
+    return this;
+  }
+
+  /** Returns the current floorSegmentMB.
+   *
+   *  @see #setFloorSegmentMB */
+  public double getFloorSegmentMB() {
+    return floorSegmentBytes/(1024*1024.);
+  }
+
+  /** Segments whose newest document is more than this older than the
+   *  newest document of the index are not merged anymore, in the units
+   *  of the field.  Default is {@code Long.MAX_VALUE}, ie. no limit. */
+  public TimeTieredMergePolicy setMaxMergeAge(long v) {
+    if (v < 0) {
+      throw new IllegalArgumentException("maxMergeAge must be >= 0 (got " + v + ")");
+    }
+    maxMergeAge = v;
+    return this;
+  }
+
+  /** Returns the current maxMergeAge setting.
+   *
+   * @see #setMaxMergeAge */
+  public long getMaxMergeAge() {
+    return maxMergeAge;
+  }
+
+  /** When forceMergeDeletes is called, we only merge away a
+   *  segment if its delete percentage is over this
+   *  threshold.  Default is 10%. */
+  public TimeTieredMergePolicy setForceMergeDeletesPctAllowed(double v) {
+    if (v < 0.0 || v > 100.0) {
+      throw new IllegalArgumentException("forceMergeDeletesPctAllowed must be between 0.0 and 100.0 inclusive (got " + v + ")");
+    }
+    forceMergeDeletesPctAllowed = v;
+    return this;
+  }
+
+  /** Returns the current forceMergeDeletesPctAllowed setting.
+   *
+   * @see #setForceMergeDeletesPctAllowed */
+  public double getForceMergeDeletesPctAllowed() {
+    return forceMergeDeletesPctAllowed;
+  }
+
+  /** Returns the time range of the given segment, or {@code null} if it has
+   *  no value for the field.  This reads the minimum and maximum value from
+   *  the segment's points the first time it is called for a segment. */
+  public TimeRange getTimeRange(SegmentCommitInfo info) throws IOException {
+    final String id = StringHelper.idToString(info.info.getId());
+    TimeRange range = timeRanges.get(id);
+    if (range == null) {
+      range = readTimeRange(info);
+      timeRanges.put(id, range);
+    }
+    return range == NO_VALUES ? null : range;
+  }
+
+  private TimeRange readTimeRange(SegmentCommitInfo info) throws IOException {
+    final FieldInfos fieldInfos = IndexWriter.readFieldInfos(info);
+    final FieldInfo fieldInfo = fieldInfos.fieldInfo(field);
+    if (fieldInfo == null || fieldInfo.getPointDimensionCount() == 0) {
+      return NO_VALUES;
+    }
+    if (fieldInfo.getPointDimensionCount() != 1 || fieldInfo.getPointNumBytes() != Long.BYTES) {
+      throw new IllegalArgumentException("field \"" + field + "\" was indexed with numDims=" + fieldInfo.getPointDimensionCount() +
+                                         " and numBytes=" + fieldInfo.getPointNumBytes() + ", but should be a LongPoint");
+    }
+    final Codec codec = info.info.getCodec();
+    Directory cfs = null;
+    PointsReader reader = null;
+    try {
+      Directory dir = info.info.dir;
+      if (info.info.getUseCompoundFile()) {
+        cfs = dir = codec.compoundFormat().getCompoundReader(dir, info.info, IOContext.READ);
+      }
+      reader = codec.pointsFormat().fieldsReader(new SegmentReadState(dir, info.info, fieldInfos, IOContext.READ));
+      final byte[] min = reader.getMinPackedValue(field);
+      final byte[] max = reader.getMaxPackedValue(field);
+      if (min == null) {
+        return NO_VALUES;
+      }
+      return new TimeRange(LongPoint.decodeDimension(min, 0), LongPoint.decodeDimension(max, 0));
+    } finally {
+      IOUtils.close(reader, cfs);
+    }
+  }
+
+  /** A segment along with what we need to know to select merges. */
+  private final class SegmentTime {
+    final SegmentCommitInfo info;
+    final TimeRange range;
+    final long sizeBytes;
+
+    SegmentTime(SegmentCommitInfo info, IndexWriter writer) throws IOException {
+      this.info = info;
+      TimeRange range = getTimeRange(info);
+      this.range = range == null ? NO_VALUES : range;
+      this.sizeBytes = size(info, writer);
+    }
+  }
+
+  private static final Comparator<SegmentTime> BY_TIME = new Comparator<SegmentTime>() {
+    @Override
+    public int compare(SegmentTime a, SegmentTime b) {
+      int cmp = Long.compare(a.range.min, b.range.min);
+      if (cmp == 0) {
+        cmp = Long.compare(a.range.max, b.range.max);
+      }
+      return cmp;
+    }
+  };
+
+  /** Forgets the time ranges of segments that are not part of the index
+   *  anymore, e.g. because they were merged away. */
+  private void pruneTimeRanges(SegmentInfos infos) {
+    final Set<String> ids = new HashSet<>();
+    for (SegmentCommitInfo info : infos) {
+      ids.add(StringHelper.idToString(info.info.getId()));
+    }
+    timeRanges.keySet().retainAll(ids);
+  }
+
+  /** Returns the number of segments whose time range is cached, for testing. */
+  int getCachedTimeRangeCount() {
+    return timeRanges.size();
+  }
+
+  /** Returns the given segments ordered by time. */
+  private List<SegmentTime> sortByTime(SegmentInfos infos, IndexWriter writer) throws IOException {
+    final List<SegmentTime> segments = new ArrayList<>();
+    for (SegmentCommitInfo info : infos) {
+      segments.add(new SegmentTime(info, writer));
+    }
+    Collections.sort(segments, BY_TIME);
+    return segments;
+  }
+
+  private int tier(long sizeBytes) {
+    return (int) (Math.log(Math.max(sizeBytes, floorSegmentBytes)) / Math.log(segsPerTier));
+  }
+
+  @Override
+  public MergeSpecification findMerges(MergeTrigger mergeTrigger, SegmentInfos infos, IndexWriter writer) throws IOException {
+    pruneTimeRanges(infos);
+    if (infos.size() == 0) {
+      return null;
+    }
+    final List<SegmentTime> segments = sortByTime(infos, writer);
+    final Collection<SegmentCommitInfo> merging = writer.getMergingSegments();
+
+    long newest = Long.MIN_VALUE;
+    for (SegmentTime segment : segments) {
+      if (segment.range != NO_VALUES) {
+        newest = Math.max(newest, segment.range.max);
+      }
+    }
+
+    if (verbose(writer)) {
+      StringBuilder sb = new StringBuilder("findMerges: " + segments.size() + " segments");
+      for (SegmentTime segment : segments) {
+        sb.append("\n  seg=").append(writer.segString(segment.info));
+        sb.append(" range=").append(segment.range == NO_VALUES ? "none" : segment.range.toString());
+        sb.append(" size=").append(String.format(Locale.ROOT, "%.3f", segment.sizeBytes/1024/1024.)).append(" MB");
+      }
+      message(sb.toString(), writer);
+    }
+
+    MergeSpecification spec = null;
+    final List<SegmentCommitInfo> run = new ArrayList<>();
+    long runBytes = 0;
+    int runTier = -1;
+    for (SegmentTime segment : segments) {
+      final boolean eligible = merging.contains(segment.info) == false
+          && segment.sizeBytes <= maxMergedSegmentBytes / 2
+          // newest >= max, so the unsigned difference can't overflow:
+          && (segment.range == NO_VALUES || Long.compareUnsigned(newest - segment.range.max, maxMergeAge) <= 0);
+      final int tier = tier(segment.sizeBytes);
+      if (eligible == false || tier != runTier || runBytes + segment.sizeBytes > maxMergedSegmentBytes) {
+        if (eligible && tier == runTier && run.size() >= 2) {
+          // the run can't grow anymore without producing a too large segment
+          spec = add(spec, run, writer);
+        }
+        run.clear();
+        runBytes = 0;
+        if (eligible == false) {
+          runTier = -1;
+          continue;
+        }
+        runTier = tier;
+      }
+      run.add(segment.info);
+      runBytes += segment.sizeBytes;
+      if (run.size() == segsPerTier) {
+        spec = add(spec, run, writer);
+        run.clear();
+        runBytes = 0;
+      }
+    }
+
+    return spec;
+  }
+
+  private MergeSpecification add(MergeSpecification spec, List<SegmentCommitInfo> segments, IndexWriter writer) {
+    if (spec == null) {
+      spec = new MergeSpecification();
+    }
+    final OneMerge merge = new OneMerge(new ArrayList<>(segments));
+    if (verbose(writer)) {
+      message("  add merge=" + writer.segString(merge.segments), writer);
+    }
+    spec.add(merge);
+    return spec;
+  }
+
+  @Override
+  public MergeSpecification findForcedMerges(SegmentInfos infos, int maxSegmentCount,
+      Map<SegmentCommitInfo,Boolean> segmentsToMerge, IndexWriter writer) throws IOException {
+    if (verbose(writer)) {
+      message("findForcedMerges maxSegmentCount=" + maxSegmentCount + " infos=" + writer.segString(infos) + " segmentsToMerge=" + segmentsToMerge, writer);
+    }
+    pruneTimeRanges(infos);
+
+    final List<SegmentTime> segments = new ArrayList<>();
+    final Collection<SegmentCommitInfo> merging = writer.getMergingSegments();
+    long totalBytes = 0;
+    for (SegmentTime segment : sortByTime(infos, writer)) {
+      if (segmentsToMerge.get(segment.info) != null) {
+        if (merging.contains(segment.info)) {
+          // wait for the running merge, which will cascade into a new forced merge:
+          return null;
+        }
+        segments.add(segment);
+        totalBytes += segment.sizeBytes;
+      }
+    }
+
+    final int numSegments = segments.size();
+    if (numSegments == 0 || (numSegments <= maxSegmentCount &&
+        (numSegments != 1 || isMerged(infos, segments.get(0).info, writer)))) {
+      if (verbose(writer)) {
+        message("already merged", writer);
+      }
+      return null;
+    }
+
+    // Cut the time ordered segments in maxSegmentCount groups of similar size:
+    MergeSpecification spec = null;
+    final int numGroups = Math.min(maxSegmentCount, numSegments);
+    int start = 0;
+    long accBytes = 0;
+    for (int group = 0; group < numGroups; group++) {
+      int end;
+      if (group == numGroups - 1) {
+        end = numSegments;
+      } else {
+        final int maxEnd = numSegments - (numGroups - group - 1);
+        final double targetBytes = (double) totalBytes * (group + 1) / numGroups;
+        end = start + 1;
+        accBytes += segments.get(start).sizeBytes;
+        while (end < maxEnd && accBytes + segments.get(end).sizeBytes <= targetBytes) {
+          accBytes += segments.get(end).sizeBytes;
+          end++;
+        }
+      }
+      if (end - start > 1 || (numSegments == 1 && end - start == 1)) {
+        final List<SegmentCommitInfo> toMerge = new ArrayList<>();
+        for (int i = start; i < end; i++) {
+          toMerge.add(segments.get(i).info);
+        }
+        spec = add(spec, toMerge, writer);
+      }
+      if (group == numGroups - 1) {
+        break;
+      }
+      start = end;
+    }
+    return spec;
+  }
+
+  @Override
+  public MergeSpecification findForcedDeletesMerges(SegmentInfos infos, IndexWriter writer) throws IOException {
+    if (verbose(writer)) {
+      message("findForcedDeletesMerges infos=" + writer.segString(infos) + " forceMergeDeletesPctAllowed=" + forceMergeDeletesPctAllowed, writer);
+    }
+    pruneTimeRanges(infos);
+    // Rewrite each segment on its own so that time ranges stay the same:
+    MergeSpecification spec = null;
+    final Collection<SegmentCommitInfo> merging = writer.getMergingSegments();
+    for (SegmentCommitInfo info : infos) {
+      double pctDeletes = 100.*((double) writer.numDeletedDocs(info))/info.info.maxDoc();
+      if (pctDeletes > forceMergeDeletesPctAllowed && !merging.contains(info)) {
+        spec = add(spec, Collections.singletonList(info), writer);
+      }
+    }
+    return spec;
+  }
+
+  private boolean verbose(IndexWriter writer) {
+    return writer != null && writer.infoStream.isEnabled("TTMP");
+  }
+
+  private void message(String message, IndexWriter writer) {
+    writer.infoStream.message("TTMP", message);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("[" + getClass().getSimpleName() + ": ");
+    sb.append("field=").append(field).append(", ");
+    sb.append("segmentsPerTier=").append(segsPerTier).append(", ");
+    sb.append("maxMergedSegmentMB=").append(maxMergedSegmentBytes/1024/1024.).append(", ");
+    sb.append("floorSegmentMB=").append(floorSegmentBytes/1024/1024.).append(", ");
+    sb.append("maxMergeAge=").append(maxMergeAge).append(", ");
+    sb.append("forceMergeDeletesPctAllowed=").append(forceMergeDeletesPctAllowed).append(", ");
+    sb.append("maxCFSSegmentSizeMB=").append(getMaxCFSSegmentSizeMB()).append(", ");
+    sb.append("noCFSRatio=").append(noCFSRatio);
+    return sb.toString();
+  }
+}
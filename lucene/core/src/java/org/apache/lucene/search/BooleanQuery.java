@@ -31,6 +31,7 @@ import java.util.Objects;
 import java.util.Set;
 
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.SegmentFieldStats;
 import org.apache.lucene.search.BooleanClause.Occur;
 import org.apache.lucene.search.similarities.Similarity;
 
@@ -216,6 +217,31 @@ public class BooleanQuery extends Query implements Iterable<BooleanClause> {
     return newQuery.build();
   }
 
+  @Override
+  public boolean canMatch(SegmentFieldStats stats) throws IOException {
+    boolean hasRequired = false;
+    for (BooleanClause clause : clauses) {
+      if (clause.isRequired()) {
+        hasRequired = true;
+        if (clause.getQuery().canMatch(stats) == false) {
+          return false;
+        }
+      }
+    }
+    // pure disjunctions need at least one matching SHOULD clause
+    final int minShouldMatch = hasRequired ? minimumNumberShouldMatch : Math.max(1, minimumNumberShouldMatch);
+    int matchingShould = 0;
+    for (BooleanClause clause : clauses) {
+      if (matchingShould >= minShouldMatch) {
+        break;
+      }
+      if (clause.getOccur() == Occur.SHOULD && clause.getQuery().canMatch(stats)) {
+        matchingShould++;
+      }
+    }
+    return matchingShould >= minShouldMatch;
+  }
+
   @Override
   public Weight createWeight(IndexSearcher searcher, boolean needsScores) throws IOException {
     BooleanQuery query = this;
@@ -376,6 +376,31 @@ final class BooleanWeight extends Weight {
     }
   }
 
+  @Override
+  public BulkScorer topScoresBulkScorer(LeafReaderContext context) throws IOException {
+    // WANDScorer only deals with pure disjunctions
+    if (needsScores == false
+        || query.getMinimumNumberShouldMatch() > 1
+        || query.getClauses(Occur.SHOULD).size() != query.clauses().size()) {
+      return bulkScorer(context);
+    }
+
+    List<Scorer> optional = new ArrayList<>();
+    for (Weight w : weights) {
+      Scorer scorer = w.scorer(context);
+      if (scorer != null) {
+        optional.add(scorer);
+      }
+    }
+    if (optional.isEmpty()) {
+      return null;
+    } else if (optional.size() == 1) {
+      // nothing to prune against, the regular bulk scorer is faster
+      return bulkScorer(context);
+    }
+    return new DefaultBulkScorer(new WANDScorer(this, optional, disableCoord ? null : coords));
+  }
+
   @Override
   public Scorer scorer(LeafReaderContext context) throws IOException {
     ScorerSupplier scorerSupplier = scorerSupplier(context);
@@ -23,6 +23,7 @@ import java.util.Set;
 
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SegmentFieldStats;
 import org.apache.lucene.index.Term;
 
 /**
@@ -112,6 +113,11 @@ public final class BoostQuery extends Query {
     return builder.toString();
   }
 
+  @Override
+  public boolean canMatch(SegmentFieldStats stats) throws IOException {
+    return query.canMatch(stats);
+  }
+
   @Override
   public Weight createWeight(IndexSearcher searcher, boolean needsScores) throws IOException {
     final Weight weight = query.createWeight(searcher, needsScores);
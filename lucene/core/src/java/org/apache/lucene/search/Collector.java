@@ -79,4 +79,20 @@ public interface Collector {
    * @return {@code true} if scores are needed.
    */
   boolean needsScores();
+
+  /**
+   * Indicates if this collector needs to see all matching documents, for
+   * instance to count them. Collectors that return {@code false} only need
+   * the top-scoring hits, and allow queries to skip over documents whose
+   * score is less than the value passed to
+   * {@link Scorer#setMinCompetitiveScore(float)}.
+   * <p>
+   * The default implementation returns {@code true}.
+   *
+   * @return {@code true} if all matches need to be collected.
+   * @lucene.experimental
+   */
+  default boolean needsTotalHits() {
+    return true;
+  }
 }
@@ -0,0 +1,642 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.Accountables;
+
+/**
+ * A {@link QueryCache} that is designed for highly concurrent search: lookups
+ * never take a lock, and evictions follow an approximate LRU order.
+ * <p>
+ * Like {@link LRUQueryCache}, this cache holds at most a given number of queries and
+ * bytes, only caches on leaves that match a predicate, and asks the
+ * {@link QueryCachingPolicy} whether a query should be cached on a miss, with the
+ * same RAM accounting. The differences are:
+ * <ul>
+ *   <li>queries and per-segment caches are stored in {@link ConcurrentHashMap}s,
+ *   which are internally sharded, so that lookups and insertions do not contend on
+ *   a single lock,</li>
+ *   <li>instead of moving a query to the head of a linked list on every lookup,
+ *   cached queries record the value of a logical clock when they are used, and
+ *   lookups only tick the clock for queries that have not been used in the last
+ *   {@code maxSize/16} ticks: queries that are used a lot concurrently hence do
+ *   not keep writing to shared memory,</li>
+ *   <li>only evictions, {@link #clearQuery}, {@link #clearCoreCacheKey} and
+ *   {@link #clear} are serialized by a lock; evictions do not sort the cache but
+ *   remove the query with the oldest clock value among the next 8 queries of a
+ *   cursor that cycles over the cache.</li>
+ * </ul>
+ * <p>
+ * This makes the eviction order only approximately LRU, and the cache may
+ * transiently hold a few more entries than its limits while concurrent insertions
+ * are waiting for the eviction lock.
+ * <pre class="prettyprint">
+ *   final QueryCache queryCache = new ConcurrentQueryCache(maxNumberOfCachedQueries, maxRamBytesUsed);
+ *   indexSearcher.setQueryCache(queryCache);
+ * </pre>
+ *
+ * @see LRUQueryCache
+ * @lucene.experimental
+ */
+public class ConcurrentQueryCache implements QueryCache, Accountable {
+
+  // number of cached queries that are compared to pick the one to evict
+  private static final int EVICTION_SAMPLE_SIZE = 8;
+
+  private final int maxSize;
+  private final long maxRamBytesUsed;
+  private final Predicate<LeafReaderContext> leavesToCache;
+  // maps queries that are contained in the cache to their entry, whose identity
+  // is used as a key in the per-leaf caches
+  private final Map<Query, QueryEntry> uniqueQueries;
+  // per-leaf caches may only hold entries that are in uniqueQueries, or that
+  // are being removed from all leaf caches
+  private final Map<Object, LeafCache> cache;
+  // serializes removals, lookups and insertions do not need it
+  private final ReentrantLock evictionLock;
+  // cycles over uniqueQueries to pick eviction candidates, guarded by evictionLock
+  private Iterator<QueryEntry> evictionCursor;
+  // ticks every time a query is added to the cache or a stale query is used
+  private final AtomicLong clock;
+  // queries that have been used in the last touchWindow ticks are not re-stamped
+  private final long touchWindow;
+
+  private final AtomicLong ramBytesUsed;
+  private final LongAdder hitCount;
+  private final LongAdder missCount;
+  private final LongAdder cacheCount;
+  private final AtomicLong cacheSize;
+
+  /**
+   * Expert: Create a new instance that will cache at most <code>maxSize</code>
+   * queries with at most <code>maxRamBytesUsed</code> bytes of memory, only on
+   * leaves that satisfy {@code leavesToCache}.
+   */
+  public ConcurrentQueryCache(int maxSize, long maxRamBytesUsed,
+      Predicate<LeafReaderContext> leavesToCache) {
+    this.maxSize = maxSize;
+    this.maxRamBytesUsed = maxRamBytesUsed;
+    this.leavesToCache = leavesToCache;
+    uniqueQueries = new ConcurrentHashMap<>();
+    cache = new ConcurrentHashMap<>();
+    evictionLock = new ReentrantLock();
+    clock = new AtomicLong();
+    touchWindow = Math.max(1, maxSize / 16);
+    ramBytesUsed = new AtomicLong();
+    hitCount = new LongAdder();
+    missCount = new LongAdder();
+    cacheCount = new LongAdder();
+    cacheSize = new AtomicLong();
+  }
+
+  /**
+   * Create a new instance that will cache at most <code>maxSize</code> queries
+   * with at most <code>maxRamBytesUsed</code> bytes of memory, on the same
+   * leaves as {@link LRUQueryCache#LRUQueryCache(int, long)}.
+   */
+  public ConcurrentQueryCache(int maxSize, long maxRamBytesUsed) {
+    this(maxSize, maxRamBytesUsed, new LRUQueryCache.MinSegmentSizePredicate(10000, .03f));
+  }
+
+  /** Whether evictions are required. */
+  boolean requiresEviction() {
+    final int size = uniqueQueries.size();
+    if (size == 0) {
+      return false;
+    } else {
+      return size > maxSize || ramBytesUsed() > maxRamBytesUsed;
+    }
+  }
+
+  DocIdSet get(Query key, LeafReaderContext context) {
+    assert key instanceof BoostQuery == false;
+    assert key instanceof ConstantScoreQuery == false;
+    final LeafCache leafCache = cache.get(context.reader().getCoreCacheKey());
+    if (leafCache == null) {
+      missCount.increment();
+      return null;
+    }
+    final QueryEntry entry = uniqueQueries.get(key);
+    if (entry == null) {
+      missCount.increment();
+      return null;
+    }
+    if (clock.get() - entry.lastUsed >= touchWindow) {
+      entry.lastUsed = clock.incrementAndGet();
+    }
+    final DocIdSet cached = leafCache.sets.get(entry);
+    if (cached == null) {
+      missCount.increment();
+    } else {
+      hitCount.increment();
+    }
+    return cached;
+  }
+
+  void putIfAbsent(Query query, LeafReaderContext context, DocIdSet set) {
+    assert query instanceof BoostQuery == false;
+    assert query instanceof ConstantScoreQuery == false;
+    QueryEntry entry = uniqueQueries.get(query);
+    if (entry == null) {
+      final QueryEntry newEntry = new QueryEntry(query, clock.incrementAndGet(),
+          LRUQueryCache.LINKED_HASHTABLE_RAM_BYTES_PER_ENTRY + ramBytesUsed(query));
+      entry = uniqueQueries.putIfAbsent(query, newEntry);
+      if (entry == null) {
+        entry = newEntry;
+        ramBytesUsed.addAndGet(entry.ramBytesUsed);
+      }
+    }
+
+    final Object key = context.reader().getCoreCacheKey();
+    LeafCache leafCache = cache.get(key);
+    if (leafCache == null) {
+      final LeafCache newLeafCache = new LeafCache(key);
+      leafCache = cache.putIfAbsent(key, newLeafCache);
+      if (leafCache == null) {
+        leafCache = newLeafCache;
+        ramBytesUsed.addAndGet(LRUQueryCache.HASHTABLE_RAM_BYTES_PER_ENTRY);
+        // we just created a new leaf cache, need to register a close listener
+        context.reader().addCoreClosedListener(this::clearCoreCacheKey);
+      }
+    }
+
+    if (leafCache.putIfAbsent(entry, set)) {
+      // the entry or the leaf cache may have been removed concurrently, after the
+      // remover went over this leaf cache: undo the insertion
+      if (entry.evicted || leafCache.closed) {
+        leafCache.remove(entry, set);
+      }
+    }
+
+    if (requiresEviction()) {
+      evictIfNecessary();
+    }
+  }
+
+  void evictIfNecessary() {
+    evictionLock.lock();
+    try {
+      if (requiresEviction() == false) {
+        return;
+      }
+      while (requiresEviction()) {
+        final QueryEntry entry = nextEvictionCandidate();
+        if (entry == null) {
+          break;
+        }
+        if (uniqueQueries.remove(entry.query, entry) == false) {
+          if (uniqueQueries.containsValue(entry)) {
+            // the hash of the query changed since it has been put into the cache
+            throw new ConcurrentModificationException("Removal from the cache failed! This " +
+                "is probably due to a query which has been modified after having been put into " +
+                " the cache or a badly implemented clone(). Query class: [" + entry.query.getClass() +
+                "], query: [" + entry.query + "]");
+          }
+          continue;
+        }
+        onEviction(entry);
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * Return the least recently used entry among the next
+   * {@link #EVICTION_SAMPLE_SIZE} entries of the eviction cursor, which cycles
+   * over the cache, or {@code null} if the cache is empty.
+   */
+  private QueryEntry nextEvictionCandidate() {
+    assert evictionLock.isHeldByCurrentThread();
+    QueryEntry candidate = null;
+    // keep going past the sample size if the cursor only returned stale entries
+    for (int i = 0; i < EVICTION_SAMPLE_SIZE || candidate == null; ++i) {
+      if (evictionCursor == null || evictionCursor.hasNext() == false) {
+        evictionCursor = uniqueQueries.values().iterator();
+        if (evictionCursor.hasNext() == false) {
+          break;
+        }
+      }
+      final QueryEntry entry = evictionCursor.next();
+      // the cursor is weakly consistent and may return entries that have been removed since
+      if (entry.evicted == false && (candidate == null || entry.lastUsed < candidate.lastUsed)) {
+        candidate = entry;
+      }
+    }
+    return candidate;
+  }
+
+  private void onEviction(QueryEntry entry) {
+    assert evictionLock.isHeldByCurrentThread();
+    entry.evicted = true;
+    ramBytesUsed.addAndGet(-entry.ramBytesUsed);
+    for (LeafCache leafCache : cache.values()) {
+      leafCache.remove(entry);
+    }
+  }
+
+  /**
+   * Remove all cache entries for the given core cache key.
+   */
+  public void clearCoreCacheKey(Object coreKey) {
+    evictionLock.lock();
+    try {
+      final LeafCache leafCache = cache.remove(coreKey);
+      if (leafCache != null) {
+        leafCache.closed = true;
+        ramBytesUsed.addAndGet(-LRUQueryCache.HASHTABLE_RAM_BYTES_PER_ENTRY);
+        for (QueryEntry entry : leafCache.sets.keySet()) {
+          leafCache.remove(entry);
+        }
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * Remove all cache entries for the given query.
+   */
+  public void clearQuery(Query query) {
+    evictionLock.lock();
+    try {
+      final QueryEntry entry = uniqueQueries.remove(query);
+      if (entry != null) {
+        onEviction(entry);
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * Clear the content of this cache.
+   */
+  public void clear() {
+    evictionLock.lock();
+    try {
+      for (QueryEntry entry : new ArrayList<>(uniqueQueries.values())) {
+        if (uniqueQueries.remove(entry.query, entry)) {
+          onEviction(entry);
+        }
+      }
+      for (Object coreKey : new ArrayList<>(cache.keySet())) {
+        clearCoreCacheKey(coreKey);
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  // pkg-private for testing
+  void assertConsistent() {
+    evictionLock.lock();
+    try {
+      if (requiresEviction()) {
+        throw new AssertionError("requires evictions: size=" + uniqueQueries.size()
+            + ", maxSize=" + maxSize + ", ramBytesUsed=" + ramBytesUsed() + ", maxRamBytesUsed=" + maxRamBytesUsed);
+      }
+      long recomputedRamBytesUsed = LRUQueryCache.HASHTABLE_RAM_BYTES_PER_ENTRY * cache.size();
+      for (QueryEntry entry : uniqueQueries.values()) {
+        recomputedRamBytesUsed += entry.ramBytesUsed;
+      }
+      long recomputedCacheSize = 0;
+      for (LeafCache leafCache : cache.values()) {
+        for (Map.Entry<QueryEntry, DocIdSet> e : leafCache.sets.entrySet()) {
+          if (uniqueQueries.get(e.getKey().query) != e.getKey()) {
+            throw new AssertionError("One leaf cache contains a query that is not in the top-level cache: " + e.getKey().query);
+          }
+          recomputedRamBytesUsed += LRUQueryCache.HASHTABLE_RAM_BYTES_PER_ENTRY + e.getValue().ramBytesUsed();
+          recomputedCacheSize += 1;
+        }
+      }
+      if (recomputedRamBytesUsed != ramBytesUsed()) {
+        throw new AssertionError("ramBytesUsed mismatch : " + ramBytesUsed() + " != " + recomputedRamBytesUsed);
+      }
+      if (recomputedCacheSize != getCacheSize()) {
+        throw new AssertionError("cacheSize mismatch : " + getCacheSize() + " != " + recomputedCacheSize);
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  // pkg-private for testing
+  // return the list of cached queries, least recently used first
+  List<Query> cachedQueries() {
+    final List<QueryEntry> entries = new ArrayList<>(uniqueQueries.values());
+    Collections.sort(entries, (a, b) -> Long.compare(a.lastUsed, b.lastUsed));
+    final List<Query> queries = new ArrayList<>(entries.size());
+    for (QueryEntry entry : entries) {
+      queries.add(entry.query);
+    }
+    return queries;
+  }
+
+  @Override
+  public Weight doCache(Weight weight, QueryCachingPolicy policy) {
+    while (weight instanceof CachingWrapperWeight) {
+      weight = ((CachingWrapperWeight) weight).in;
+    }
+
+    return new CachingWrapperWeight(weight, policy);
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    return ramBytesUsed.get();
+  }
+
+  @Override
+  public Collection<Accountable> getChildResources() {
+    return Accountables.namedAccountables("segment", cache);
+  }
+
+  /**
+   * Return the number of bytes used by the given query. The default
+   * implementation returns {@link Accountable#ramBytesUsed()} if the query
+   * implements {@link Accountable} and <code>192</code> otherwise.
+   */
+  protected long ramBytesUsed(Query query) {
+    if (query instanceof Accountable) {
+      return ((Accountable) query).ramBytesUsed();
+    }
+    return LRUQueryCache.QUERY_DEFAULT_RAM_BYTES_USED;
+  }
+
+  /**
+   * Default cache implementation: uses {@link org.apache.lucene.util.RoaringDocIdSet} for sets that
+   * have a density &lt; 1% and a {@link org.apache.lucene.util.BitDocIdSet} over a
+   * {@link org.apache.lucene.util.FixedBitSet} otherwise, like {@link LRUQueryCache}.
+   */
+  protected DocIdSet cacheImpl(BulkScorer scorer, int maxDoc) throws IOException {
+    if (scorer.cost() * 100 >= maxDoc) {
+      return LRUQueryCache.cacheIntoBitSet(scorer, maxDoc);
+    } else {
+      return LRUQueryCache.cacheIntoRoaringDocIdSet(scorer, maxDoc);
+    }
+  }
+
+  /**
+   * Return the total number of times that a {@link Query} has been looked up
+   * in this {@link QueryCache}, once per segment.
+   * @see #getHitCount()
+   * @see #getMissCount()
+   */
+  public final long getTotalCount() {
+    return getHitCount() + getMissCount();
+  }
+
+  /**
+   * Over the {@link #getTotalCount() total} number of times that a query has
+   * been looked up, return how many times a cached {@link DocIdSet} has been
+   * found and returned.
+   */
+  public final long getHitCount() {
+    return hitCount.sum();
+  }
+
+  /**
+   * Over the {@link #getTotalCount() total} number of times that a query has
+   * been looked up, return how many times this query was not contained in the
+   * cache.
+   */
+  public final long getMissCount() {
+    return missCount.sum();
+  }
+
+  /**
+   * Return the total number of {@link DocIdSet}s which are currently stored
+   * in the cache.
+   */
+  public final long getCacheSize() {
+    return cacheSize.get();
+  }
+
+  /**
+   * Return the total number of cache entries that have been generated and put
+   * in the cache.
+   */
+  public final long getCacheCount() {
+    return cacheCount.sum();
+  }
+
+  /**
+   * Return the number of cache entries that have been removed from the cache
+   * either in order to stay under the maximum configured size/ram usage, or
+   * because a segment has been closed.
+   */
+  public final long getEvictionCount() {
+    return getCacheCount() - getCacheSize();
+  }
+
+  // a cached query; entries are compared by identity in the leaf caches
+  private static final class QueryEntry {
+
+    final Query query;
+    final long ramBytesUsed;
+    // value of the clock the last time this query was looked up
+    volatile long lastUsed;
+    // set under the eviction lock before the entry gets removed from leaf caches
+    volatile boolean evicted;
+
+    QueryEntry(Query query, long lastUsed, long ramBytesUsed) {
+      this.query = query;
+      this.lastUsed = lastUsed;
+      this.ramBytesUsed = ramBytesUsed;
+    }
+  }
+
+  private class LeafCache implements Accountable {
+
+    private final Object key;
+    private final Map<QueryEntry, DocIdSet> sets;
+    private final AtomicLong ramBytesUsed;
+    // set under the eviction lock once this leaf cache has been removed
+    volatile boolean closed;
+
+    LeafCache(Object key) {
+      this.key = key;
+      sets = new ConcurrentHashMap<>();
+      ramBytesUsed = new AtomicLong();
+    }
+
+    boolean putIfAbsent(QueryEntry entry, DocIdSet set) {
+      if (sets.putIfAbsent(entry, set) == null) {
+        final long bytes = LRUQueryCache.HASHTABLE_RAM_BYTES_PER_ENTRY + set.ramBytesUsed();
+        ramBytesUsed.addAndGet(bytes);
+        ConcurrentQueryCache.this.ramBytesUsed.addAndGet(bytes);
+        cacheSize.incrementAndGet();
+        cacheCount.increment();
+        return true;
+      }
+      return false;
+    }
+
+    void remove(QueryEntry entry) {
+      final DocIdSet removed = sets.get(entry);
+      if (removed != null) {
+        remove(entry, removed);
+      }
+    }
+
+    void remove(QueryEntry entry, DocIdSet set) {
+      if (sets.remove(entry, set)) {
+        final long bytes = LRUQueryCache.HASHTABLE_RAM_BYTES_PER_ENTRY + set.ramBytesUsed();
+        ramBytesUsed.addAndGet(-bytes);
+        ConcurrentQueryCache.this.ramBytesUsed.addAndGet(-bytes);
+        cacheSize.decrementAndGet();
+      }
+    }
+
+    @Override
+    public long ramBytesUsed() {
+      return ramBytesUsed.get();
+    }
+
+    @Override
+    public String toString() {
+      return "LeafCache(" + key + ")";
+    }
+  }
+
+  private class CachingWrapperWeight extends ConstantScoreWeight {
+
+    private final Weight in;
+    private final QueryCachingPolicy policy;
+    // we use an AtomicBoolean because Weight.scorer may be called from multiple
+    // threads when IndexSearcher is created with threads
+    private final AtomicBoolean used;
+
+    CachingWrapperWeight(Weight in, QueryCachingPolicy policy) {
+      super(in.getQuery());
+      this.in = in;
+      this.policy = policy;
+      used = new AtomicBoolean(false);
+    }
+
+    @Override
+    public void extractTerms(Set<Term> terms) {
+      in.extractTerms(terms);
+    }
+
+    private boolean cacheEntryHasReasonableWorstCaseSize(int maxDoc) {
+      // The worst-case (dense) is a bit set which needs one bit per document
+      final long worstCaseRamUsage = maxDoc / 8;
+      // only cache if there is room for 5 entries of that size, see LRUQueryCache
+      return worstCaseRamUsage * 5 < maxRamBytesUsed;
+    }
+
+    /** Check whether this segment is eligible for caching, regardless of the query. */
+    private boolean shouldCache(LeafReaderContext context) throws IOException {
+      return cacheEntryHasReasonableWorstCaseSize(ReaderUtil.getTopLevelContext(context).reader().maxDoc())
+          && leavesToCache.test(context);
+    }
+
+    /** Returns the cached set, caching it first if the policy agrees, or null to not use the cache. */
+    private DocIdSet getOrCache(LeafReaderContext context) throws IOException {
+      if (used.compareAndSet(false, true)) {
+        policy.onUse(getQuery());
+      }
+      if (shouldCache(context) == false) {
+        return null;
+      }
+      DocIdSet docIdSet = get(in.getQuery(), context);
+      if (docIdSet == null && policy.shouldCache(in.getQuery())) {
+        final BulkScorer scorer = in.bulkScorer(context);
+        docIdSet = scorer == null ? DocIdSet.EMPTY : cacheImpl(scorer, context.reader().maxDoc());
+        putIfAbsent(in.getQuery(), context, docIdSet);
+      }
+      return docIdSet;
+    }
+
+    @Override
+    public ScorerSupplier scorerSupplier(LeafReaderContext context) throws IOException {
+      final DocIdSet docIdSet = getOrCache(context);
+      if (docIdSet == null) {
+        return in.scorerSupplier(context);
+      }
+      if (docIdSet == DocIdSet.EMPTY) {
+        return null;
+      }
+      final DocIdSetIterator disi = docIdSet.iterator();
+      if (disi == null) {
+        return null;
+      }
+
+      return new ScorerSupplier() {
+        @Override
+        public Scorer get(boolean randomAccess) throws IOException {
+          return new ConstantScoreScorer(CachingWrapperWeight.this, 0f, disi);
+        }
+        
+        @Override
+        public long cost() {
+          return disi.cost();
+        }
+      };
+    }
+
+    @Override
+    public Scorer scorer(LeafReaderContext context) throws IOException {
+      ScorerSupplier scorerSupplier = scorerSupplier(context);
+      if (scorerSupplier == null) {
+        return null;
+      }
+      return scorerSupplier.get(false);
+    }
+
+    @Override
+    public BulkScorer bulkScorer(LeafReaderContext context) throws IOException {
+      final DocIdSet docIdSet = getOrCache(context);
+      if (docIdSet == null) {
+        return in.bulkScorer(context);
+      }
+      if (docIdSet == DocIdSet.EMPTY) {
+        return null;
+      }
+      final DocIdSetIterator disi = docIdSet.iterator();
+      if (disi == null) {
+        return null;
+      }
+
+      return new DefaultBulkScorer(new ConstantScoreScorer(this, 0f, disi));
+    }
+
+  }
+}
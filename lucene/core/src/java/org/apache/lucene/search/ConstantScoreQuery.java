@@ -18,12 +18,15 @@ package org.apache.lucene.search;
 
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Objects;
 
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SegmentFieldStats;
+import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.Bits;
 
 /**
@@ -100,6 +103,29 @@ public final class ConstantScoreQuery extends Query {
             }
           });
         }
+
+        final BatchMode inBatchMode = collector.batchMode();
+        float[] scores;
+
+        @Override
+        public BatchMode batchMode() {
+          // the wrapped scorer may not be able to score: only ask for docs
+          // and use our own scores
+          return inBatchMode == BatchMode.NONE ? BatchMode.NONE : BatchMode.DOCS;
+        }
+
+        @Override
+        public void collect(int[] docs, float[] ignored, int count) throws IOException {
+          if (inBatchMode == BatchMode.DOCS_AND_SCORES) {
+            if (scores == null || scores.length < count) {
+              scores = new float[ArrayUtil.oversize(count, Float.BYTES)];
+              Arrays.fill(scores, theScore);
+            }
+            in.collect(docs, scores, count);
+          } else {
+            in.collect(docs, null, count);
+          }
+        }
       };
     }
 
@@ -109,6 +135,11 @@ public final class ConstantScoreQuery extends Query {
     }
   }
 
+  @Override
+  public boolean canMatch(SegmentFieldStats stats) throws IOException {
+    return query.canMatch(stats);
+  }
+
   @Override
   public Weight createWeight(IndexSearcher searcher, boolean needsScores) throws IOException {
     final Weight innerWeight = searcher.createWeight(query, false);
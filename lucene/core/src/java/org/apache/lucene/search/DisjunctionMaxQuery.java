@@ -28,6 +28,7 @@ import java.util.Set;
 
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.SegmentFieldStats;
 import org.apache.lucene.index.Term;
 
 /**
@@ -244,6 +245,16 @@ public final class DisjunctionMaxQuery extends Query implements Iterable<Query>
    * @param other another object
    * @return true iff o is a DisjunctionMaxQuery with the same boost and the same subqueries, in the same order, as us
    */
+  @Override
+  public boolean canMatch(SegmentFieldStats stats) throws IOException {
+    for (Query disjunct : disjuncts) {
+      if (disjunct.canMatch(stats)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   @Override
   public boolean equals(Object other) {
     return sameClassAs(other) &&
@@ -23,6 +23,7 @@ import org.apache.lucene.document.LongPoint;
 import org.apache.lucene.document.SortedNumericDocValuesField;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SegmentFieldStats;
 import org.apache.lucene.index.Term;
 
 /**
@@ -109,6 +110,12 @@ public final class IndexOrDocValuesQuery extends Query {
     return this;
   }
 
+  @Override
+  public boolean canMatch(SegmentFieldStats stats) throws IOException {
+    // both queries match the same documents, so either one is enough to rule out the segment
+    return indexQuery.canMatch(stats) && dvQuery.canMatch(stats);
+  }
+
   @Override
   public Weight createWeight(IndexSearcher searcher, boolean needsScores) throws IOException {
     final Weight indexWeight = indexQuery.createWeight(searcher, needsScores);
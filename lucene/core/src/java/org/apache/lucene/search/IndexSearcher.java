@@ -39,6 +39,7 @@ import org.apache.lucene.index.IndexWriter; // javadocs
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.MultiFields;
 import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.SegmentFieldStats;
 import org.apache.lucene.index.StoredFieldVisitor;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.index.TermContext;
@@ -304,6 +305,10 @@ public class IndexSearcher {
    * Expert: Creates an array of leaf slices each holding a subset of the given leaves.
    * Each {@link LeafSlice} is executed in a single thread. By default there
    * will be one {@link LeafSlice} per leaf ({@link org.apache.lucene.index.LeafReaderContext}).
+   * Override this method and return {@link #slices(List, int, int)} to group small
+   * leaves and to split large leaves into doc ID ranges that are searched concurrently;
+   * the collectors of the {@link CollectorManager}s must then accept seeing only a
+   * range of the documents of a leaf.
    */
   protected LeafSlice[] slices(List<LeafReaderContext> leaves) {
     LeafSlice[] slices = new LeafSlice[leaves.size()];
@@ -312,6 +317,55 @@ public class IndexSearcher {
     }
     return slices;
   }
+
+  /**
+   * Expert: Creates slices of at most {@code maxDocsPerSlice} documents and
+   * {@code maxSegmentsPerSlice} leaves. Consecutive leaves are grouped together,
+   * and a leaf that has more than {@code maxDocsPerSlice} documents gets split into
+   * equally sized doc ID ranges, each range being its own slice. Slices are returned
+   * in doc ID order, so that merging per-slice top hits breaks ties the same way as
+   * a sequential search does.
+   * @lucene.experimental
+   */
+  public static LeafSlice[] slices(List<LeafReaderContext> leaves, int maxDocsPerSlice, int maxSegmentsPerSlice) {
+    if (maxDocsPerSlice < 1) {
+      throw new IllegalArgumentException("maxDocsPerSlice must be at least 1, got " + maxDocsPerSlice);
+    }
+    if (maxSegmentsPerSlice < 1) {
+      throw new IllegalArgumentException("maxSegmentsPerSlice must be at least 1, got " + maxSegmentsPerSlice);
+    }
+    final List<LeafSlice> slices = new ArrayList<>();
+    final List<LeafReaderContext> group = new ArrayList<>();
+    long groupDocs = 0;
+    for (LeafReaderContext leaf : leaves) {
+      final int maxDoc = leaf.reader().maxDoc();
+      if (maxDoc > maxDocsPerSlice) {
+        if (group.isEmpty() == false) {
+          slices.add(new LeafSlice(group.toArray(new LeafReaderContext[group.size()])));
+          group.clear();
+          groupDocs = 0;
+        }
+        final int numRanges = (int) ((maxDoc + (long) maxDocsPerSlice - 1) / maxDocsPerSlice);
+        for (int i = 0; i < numRanges; ++i) {
+          final int minDoc = (int) ((long) maxDoc * i / numRanges);
+          final int maxDocExclusive = (int) ((long) maxDoc * (i + 1) / numRanges);
+          slices.add(new LeafSlice(leaf, minDoc, maxDocExclusive));
+        }
+        continue;
+      }
+      if (group.isEmpty() == false && (groupDocs + maxDoc > maxDocsPerSlice || group.size() >= maxSegmentsPerSlice)) {
+        slices.add(new LeafSlice(group.toArray(new LeafReaderContext[group.size()])));
+        group.clear();
+        groupDocs = 0;
+      }
+      group.add(leaf);
+      groupDocs += maxDoc;
+    }
+    if (group.isEmpty() == false) {
+      slices.add(new LeafSlice(group.toArray(new LeafReaderContext[group.size()])));
+    }
+    return slices.toArray(new LeafSlice[slices.size()]);
+  }
   
   /** Return the {@link IndexReader} this searches. */
   public IndexReader getIndexReader() {
@@ -342,6 +396,14 @@ public class IndexSearcher {
     return reader.document(docID, fieldsToLoad);
   }
 
+  /** 
+   * Sugar for <code>.getIndexReader().document(docIDs)</code>
+   * @see IndexReader#document(int[]) 
+   */
+  public Document[] doc(int[] docIDs) throws IOException {
+    return reader.document(docIDs);
+  }
+
   /** Expert: Set the Similarity implementation used by this IndexSearcher.
    *
    */
@@ -598,25 +660,30 @@ public class IndexSearcher {
         collectors.add(collector);
         needsScores |= collector.needsScores();
       }
+      if (leafSlices.length == 0) {
+        // no leaves: nothing to search
+        return collectorManager.reduce(collectors);
+      }
 
       final Weight weight = createNormalizedWeight(query, needsScores);
-      final List<Future<C>> topDocsFutures = new ArrayList<>(leafSlices.length);
-      for (int i = 0; i < leafSlices.length; ++i) {
-        final LeafReaderContext[] leaves = leafSlices[i].leaves;
+      final List<Future<C>> topDocsFutures = new ArrayList<>(leafSlices.length - 1);
+      for (int i = 0; i < leafSlices.length - 1; ++i) {
+        final LeafSlice slice = leafSlices[i];
         final C collector = collectors.get(i);
         topDocsFutures.add(executor.submit(new Callable<C>() {
           @Override
           public C call() throws Exception {
-            search(Arrays.asList(leaves), weight, collector);
+            search(slice, weight, collector);
             return collector;
           }
         }));
       }
+      // the calling thread would otherwise just wait: let it search the last slice
+      search(leafSlices[leafSlices.length - 1], weight, collectors.get(leafSlices.length - 1));
 
-      final List<C> collectedCollectors = new ArrayList<>();
       for (Future<C> future : topDocsFutures) {
         try {
-          collectedCollectors.add(future.get());
+          future.get();
         } catch (InterruptedException e) {
           throw new ThreadInterruptedException(e);
         } catch (ExecutionException e) {
@@ -628,6 +695,19 @@ public class IndexSearcher {
     }
   }
 
+  /**
+   * Searches a single slice: leaves that are not split are delegated to
+   * {@link #search(List, Weight, Collector)}, doc ID ranges of a split leaf are
+   * searched with {@link #searchLeaf}.
+   */
+  private void search(LeafSlice slice, Weight weight, Collector collector) throws IOException {
+    if (slice.isRange() == false) {
+      search(Arrays.asList(slice.leaves), weight, collector);
+    } else {
+      searchLeaf(slice.leaves[0], slice.minDoc, slice.maxDoc, weight, collector);
+    }
+  }
+
   /**
    * Lower-level search API.
    * 
@@ -654,26 +734,50 @@ public class IndexSearcher {
     // threaded...?  the Collector could be sync'd?
     // always use single thread:
     for (LeafReaderContext ctx : leaves) { // search each subreader
-      final LeafCollector leafCollector;
+      searchLeaf(ctx, 0, DocIdSetIterator.NO_MORE_DOCS, weight, collector);
+    }
+  }
+
+  /** Searches docs {@code minDoc} (inclusive) to {@code maxDoc} (exclusive)
+   *  of a single leaf, unless its field statistics rule out any match. */
+  private void searchLeaf(LeafReaderContext ctx, int minDoc, int maxDoc, Weight weight, Collector collector) throws IOException {
+    if (weight.getQuery().canMatch(SegmentFieldStats.of(ctx.reader())) == false) {
+      // the segment's field statistics rule out any match
+      return;
+    }
+    final LeafCollector leafCollector;
+    try {
+      leafCollector = collector.getLeafCollector(ctx);
+    } catch (CollectionTerminatedException e) {
+      // there is no doc of interest in this reader context
+      // continue with the following leaf
+      return;
+    }
+    BulkScorer scorer = bulkScorer(weight, ctx, collector);
+    if (scorer != null) {
       try {
-        leafCollector = collector.getLeafCollector(ctx);
-      } catch (CollectionTerminatedException e) {
-        // there is no doc of interest in this reader context
-        // continue with the following leaf
-        continue;
-      }
-      BulkScorer scorer = weight.bulkScorer(ctx);
-      if (scorer != null) {
-        try {
+        if (minDoc == 0 && maxDoc == DocIdSetIterator.NO_MORE_DOCS) {
           scorer.score(leafCollector, ctx.reader().getLiveDocs());
-        } catch (CollectionTerminatedException e) {
-          // collection was terminated prematurely
-          // continue with the following leaf
+        } else {
+          scorer.score(leafCollector, ctx.reader().getLiveDocs(), minDoc, maxDoc);
         }
+      } catch (CollectionTerminatedException e) {
+        // collection was terminated prematurely
+        // continue with the following leaf
       }
     }
   }
 
+  /** Collectors that do not need the total hit count allow the
+   *  {@link BulkScorer} to skip non-competitive hits. */
+  private static BulkScorer bulkScorer(Weight weight, LeafReaderContext ctx, Collector collector) throws IOException {
+    if (collector.needsTotalHits()) {
+      return weight.bulkScorer(ctx);
+    } else {
+      return weight.topScoresBulkScorer(ctx);
+    }
+  }
+
   /** Expert: called to re-write queries into primitive queries.
    * @throws BooleanQuery.TooManyClauses If a query would exceed 
    *         {@link BooleanQuery#getMaxClauseCount()} clauses.
@@ -772,9 +876,32 @@ public class IndexSearcher {
    */
   public static class LeafSlice {
     final LeafReaderContext[] leaves;
+    // doc ID range of leaves[0] that this slice searches, only used when the leaf is split
+    final int minDoc, maxDoc;
     
     public LeafSlice(LeafReaderContext... leaves) {
       this.leaves = leaves;
+      this.minDoc = 0;
+      this.maxDoc = DocIdSetIterator.NO_MORE_DOCS;
+    }
+
+    /**
+     * Creates a slice that only searches documents {@code minDoc} (inclusive) to
+     * {@code maxDoc} (exclusive) of the given leaf.
+     */
+    public LeafSlice(LeafReaderContext leaf, int minDoc, int maxDoc) {
+      if (minDoc < 0 || minDoc > maxDoc || maxDoc > leaf.reader().maxDoc()) {
+        throw new IllegalArgumentException("invalid doc ID range [" + minDoc + ", " + maxDoc
+            + ") for a leaf with maxDoc=" + leaf.reader().maxDoc());
+      }
+      this.leaves = new LeafReaderContext[] { leaf };
+      this.minDoc = minDoc;
+      this.maxDoc = maxDoc;
+    }
+
+    /** Returns true if this slice only searches a doc ID range of a single leaf. */
+    boolean isRange() {
+      return maxDoc != DocIdSetIterator.NO_MORE_DOCS;
     }
   }
 
@@ -93,4 +93,47 @@ public interface LeafCollector {
    */
   void collect(int doc) throws IOException;
 
+  /**
+   * Tells {@link BulkScorer}s whether this collector would rather receive hits
+   * in batches through {@link #collect(int[], float[], int)} than one at a
+   * time through {@link #collect(int)}. The default is {@link BatchMode#NONE}.
+   * <p>
+   * This is only a hint: bulk scorers that do not support batches keep calling
+   * {@link #collect(int)}, so collectors that opt in must support both ways.
+   */
+  default BatchMode batchMode() {
+    return BatchMode.NONE;
+  }
+
+  /**
+   * Called with a batch of {@code count} matching documents, in increasing
+   * order of unbased document number, by {@link BulkScorer}s that honor
+   * {@link #batchMode()}. {@code scores} holds the score of each document if
+   * {@link #batchMode()} is {@link BatchMode#DOCS_AND_SCORES}, and is
+   * {@code null} otherwise. The {@link Scorer} passed to
+   * {@link #setScorer(Scorer)} is already positioned past the batch and must
+   * not be used to get scores.
+   * <p>
+   * The arrays are reused for the next batch and must not be kept. The
+   * default implementation calls {@link #collect(int)} for every document.
+   */
+  default void collect(int[] docs, float[] scores, int count) throws IOException {
+    for (int i = 0; i < count; ++i) {
+      collect(docs[i]);
+    }
+  }
+
+  /**
+   * How a {@link LeafCollector} wants to receive hits.
+   * @see LeafCollector#batchMode()
+   */
+  enum BatchMode {
+    /** One document at a time, through {@link LeafCollector#collect(int)}. */
+    NONE,
+    /** Batches of documents without scores, through {@link LeafCollector#collect(int[], float[], int)}. */
+    DOCS,
+    /** Batches of documents along with their scores, through {@link LeafCollector#collect(int[], float[], int)}. */
+    DOCS_AND_SCORES
+  }
+
 }
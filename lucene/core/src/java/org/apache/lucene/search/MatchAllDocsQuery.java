@@ -18,6 +18,7 @@ package org.apache.lucene.search;
 
 
 import java.io.IOException;
+import java.util.Arrays;
 
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.util.Bits;
@@ -50,6 +51,29 @@ public final class MatchAllDocsQuery extends Query {
             FakeScorer scorer = new FakeScorer();
             scorer.score = score;
             collector.setScorer(scorer);
+            final LeafCollector.BatchMode batchMode = collector.batchMode();
+            if (batchMode != LeafCollector.BatchMode.NONE) {
+              final int[] docs = new int[DefaultBulkScorer.BATCH_SIZE];
+              float[] scores = null;
+              if (batchMode == LeafCollector.BatchMode.DOCS_AND_SCORES) {
+                scores = new float[docs.length];
+                Arrays.fill(scores, score);
+              }
+              int count = 0;
+              for (int doc = min; doc < max; ++doc) {
+                if (acceptDocs == null || acceptDocs.get(doc)) {
+                  docs[count++] = doc;
+                  if (count == docs.length) {
+                    collector.collect(docs, scores, count);
+                    count = 0;
+                  }
+                }
+              }
+              if (count > 0) {
+                collector.collect(docs, scores, count);
+              }
+              return max == maxDoc ? DocIdSetIterator.NO_MORE_DOCS : max;
+            }
             for (int doc = min; doc < max; ++doc) {
               scorer.doc = doc;
               if (acceptDocs == null || acceptDocs.get(doc)) {
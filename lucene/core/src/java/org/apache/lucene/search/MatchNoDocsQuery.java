@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.util.Set;
 
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SegmentFieldStats;
 import org.apache.lucene.index.Term;
 
 /**
@@ -41,6 +42,11 @@ public class MatchNoDocsQuery extends Query {
     this.reason = reason;
   }
   
+  @Override
+  public boolean canMatch(SegmentFieldStats stats) throws IOException {
+    return false;
+  }
+
   @Override
   public Weight createWeight(IndexSearcher searcher, boolean needsScores) throws IOException {
     return new Weight(this) {
@@ -24,6 +24,7 @@ import java.util.Objects;
 
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.SegmentFieldStats;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.index.TermContext;
 import org.apache.lucene.index.TermState;
@@ -107,6 +108,11 @@ final class MultiTermQueryConstantScoreWrapper<Q extends MultiTermQuery> extends
   /** Returns the field name for this query */
   public final String getField() { return query.getField(); }
 
+  @Override
+  public boolean canMatch(SegmentFieldStats stats) throws IOException {
+    return query.canMatch(stats);
+  }
+
   @Override
   public Weight createWeight(IndexSearcher searcher, boolean needsScores) throws IOException {
     return new ConstantScoreWeight(this) {
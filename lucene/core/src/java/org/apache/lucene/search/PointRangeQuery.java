@@ -27,6 +27,7 @@ import org.apache.lucene.document.IntPoint;    // javadocs
 import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SegmentFieldStats;
 import org.apache.lucene.util.BitSetIterator;
 import org.apache.lucene.util.DocIdSetBuilder;
 import org.apache.lucene.util.FixedBitSet;
@@ -348,6 +349,11 @@ public abstract class PointRangeQuery extends Query {
     return upperPoint.clone();
   }
 
+  @Override
+  public boolean canMatch(SegmentFieldStats stats) throws IOException {
+    return stats.pointsMightIntersect(field, lowerPoint, upperPoint);
+  }
+
   @Override
   public final int hashCode() {
     int hash = classHash();
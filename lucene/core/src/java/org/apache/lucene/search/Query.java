@@ -20,6 +20,7 @@ package org.apache.lucene.search;
 import java.io.IOException;
 
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.SegmentFieldStats;
 
 /** The abstract base class for queries.
     <p>Instantiable subclasses are:
@@ -74,6 +75,17 @@ public abstract class Query {
     return this;
   }
 
+  /**
+   * Expert: returns {@code false} if the statistics of a segment prove that
+   * this query can't match any of its documents, in which case
+   * {@link IndexSearcher} skips the segment without creating a scorer.
+   * This is called on rewritten queries and must be cheap compared to
+   * creating a scorer. The default implementation returns {@code true}.
+   */
+  public boolean canMatch(SegmentFieldStats stats) throws IOException {
+    return true;
+  }
+
   /**
    * Override and implement query instance equivalence properly in a subclass. 
    * This is required so that {@link QueryCache} works properly.
@@ -128,6 +128,46 @@ public abstract class Scorer {
    */
   public abstract DocIdSetIterator iterator();
 
+  /**
+   * Optional method: Tell the scorer that its iterator may safely ignore all
+   * documents whose score is less than the given {@code minScore}. This is
+   * only called by collectors that do not need all matches, see
+   * {@link Collector#needsTotalHits()}, and values are non-decreasing.
+   * The default implementation does nothing.
+   *
+   * @lucene.experimental
+   */
+  public void setMinCompetitiveScore(float minScore) throws IOException {
+    // no-op by default
+  }
+
+  /**
+   * Optional method: Advance the score upper bounds to {@code target}
+   * without moving the {@link #iterator()}, and return the last document,
+   * greater than or equal to {@code target}, up to which the information
+   * that {@link #getMaxScore(int)} relies on is valid. Targets must be
+   * non-decreasing. The default implementation returns
+   * {@link DocIdSetIterator#NO_MORE_DOCS}.
+   *
+   * @lucene.experimental
+   */
+  public int advanceShallow(int target) throws IOException {
+    return DocIdSetIterator.NO_MORE_DOCS;
+  }
+
+  /**
+   * Optional method: Return an upper bound of the score of the documents
+   * between the last target that was passed to {@link #advanceShallow(int)}
+   * and {@code upTo} included. The default implementation returns
+   * {@link Float#POSITIVE_INFINITY}, which means that no document may be
+   * skipped.
+   *
+   * @lucene.experimental
+   */
+  public float getMaxScore(int upTo) throws IOException {
+    return Float.POSITIVE_INFINITY;
+  }
+
   /**
    * Optional method: Return a {@link TwoPhaseIterator} view of this
    * {@link Scorer}. A return value of {@code null} indicates that
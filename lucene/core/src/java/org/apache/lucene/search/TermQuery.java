@@ -26,6 +26,7 @@ import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.PostingsEnum;
 import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.SegmentFieldStats;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.index.TermContext;
 import org.apache.lucene.index.TermState;
@@ -221,6 +222,11 @@ public class TermQuery extends Query {
     return buffer.toString();
   }
 
+  @Override
+  public boolean canMatch(SegmentFieldStats stats) throws IOException {
+    return stats.mightContainTerm(term.field(), term.bytes());
+  }
+
   /** Returns true iff <code>o</code> is equal to this. */
   @Override
   public boolean equals(Object other) {
@@ -17,6 +17,9 @@
 package org.apache.lucene.search;
 
 
+import java.io.IOException;
+
+import org.apache.lucene.index.SegmentFieldStats;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.automaton.Automata;
@@ -134,6 +137,11 @@ public class TermRangeQuery extends AutomatonQuery {
     return result;
   }
 
+  @Override
+  public boolean canMatch(SegmentFieldStats stats) throws IOException {
+    return stats.termsMightIntersect(field, lowerTerm, includeLower, upperTerm, includeUpper);
+  }
+
   @Override
   public boolean equals(Object obj) {
     if (this == obj)
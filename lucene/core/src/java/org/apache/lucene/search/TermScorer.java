@@ -19,6 +19,7 @@ package org.apache.lucene.search;
 
 import java.io.IOException;
 
+import org.apache.lucene.index.ImpactsEnum;
 import org.apache.lucene.index.PostingsEnum;
 import org.apache.lucene.search.similarities.Similarity;
 
@@ -26,6 +27,7 @@ import org.apache.lucene.search.similarities.Similarity;
  */
 final class TermScorer extends Scorer {
   private final PostingsEnum postingsEnum;
+  private final ImpactsEnum impactsEnum; // null if the postings have no impacts
   private final Similarity.SimScorer docScorer;
 
   /**
@@ -43,6 +45,7 @@ final class TermScorer extends Scorer {
     super(weight);
     this.docScorer = docScorer;
     this.postingsEnum = td;
+    this.impactsEnum = td instanceof ImpactsEnum ? (ImpactsEnum) td : null;
   }
 
   @Override
@@ -66,6 +69,22 @@ final class TermScorer extends Scorer {
     return docScorer.score(postingsEnum.docID(), postingsEnum.freq());
   }
 
+  @Override
+  public int advanceShallow(int target) throws IOException {
+    if (impactsEnum == null) {
+      return DocIdSetIterator.NO_MORE_DOCS;
+    }
+    return impactsEnum.advanceShallow(target);
+  }
+
+  @Override
+  public float getMaxScore(int upTo) throws IOException {
+    if (impactsEnum == null) {
+      return docScorer.maxScore(Integer.MAX_VALUE);
+    }
+    return docScorer.maxScore(impactsEnum.getMaxFreq(upTo));
+  }
+
   /** Returns a string representation of this <code>TermScorer</code>. */
   @Override
   public String toString() { return "scorer(" + weight + ")[" + super.toString() + "]"; }
@@ -157,6 +157,25 @@ public class TimeLimitingCollector implements Collector {
         //System.out.println(this+"  collecting: "+(docBase + doc)+"  "+(time-t0));
         in.collect(doc);
       }
+
+      @Override
+      public BatchMode batchMode() {
+        return in.batchMode();
+      }
+
+      @Override
+      public void collect(int[] docs, float[] scores, int count) throws IOException {
+        // the clock is only checked once per batch
+        final long time = clock.get();
+        if (time - timeout > 0L) {
+          if (greedy) {
+            in.collect(docs, scores, count);
+            throw new TimeExceededException( timeout-t0, time-t0, docBase + docs[count - 1] );
+          }
+          throw new TimeExceededException( timeout-t0, time-t0, docBase + docs[0] );
+        }
+        in.collect(docs, scores, count);
+      }
       
     };
   }
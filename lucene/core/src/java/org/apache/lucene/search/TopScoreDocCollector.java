@@ -49,8 +49,8 @@ public abstract class TopScoreDocCollector extends TopDocsCollector<ScoreDoc> {
 
   private static class SimpleTopScoreDocCollector extends TopScoreDocCollector {
 
-    SimpleTopScoreDocCollector(int numHits) {
-      super(numHits);
+    SimpleTopScoreDocCollector(int numHits, boolean trackTotalHits, boolean batchHits) {
+      super(numHits, trackTotalHits, batchHits);
     }
 
     @Override
@@ -59,6 +59,12 @@ public abstract class TopScoreDocCollector extends TopDocsCollector<ScoreDoc> {
       final int docBase = context.docBase;
       return new ScorerLeafCollector() {
 
+        @Override
+        public void setScorer(Scorer scorer) throws IOException {
+          super.setScorer(scorer);
+          updateMinCompetitiveScore(scorer);
+        }
+
         @Override
         public void collect(int doc) throws IOException {
           float score = scorer.score();
@@ -77,6 +83,29 @@ public abstract class TopScoreDocCollector extends TopDocsCollector<ScoreDoc> {
           pqTop.doc = doc + docBase;
           pqTop.score = score;
           pqTop = pq.updateTop();
+          updateMinCompetitiveScore(scorer);
+        }
+
+        @Override
+        public BatchMode batchMode() {
+          return batchHits ? BatchMode.DOCS_AND_SCORES : BatchMode.NONE;
+        }
+
+        @Override
+        public void collect(int[] docs, float[] scores, int count) throws IOException {
+          totalHits += count;
+          for (int i = 0; i < count; ++i) {
+            final float score = scores[i];
+            assert score != Float.NEGATIVE_INFINITY;
+            assert !Float.isNaN(score);
+            if (score <= pqTop.score) {
+              continue;
+            }
+            pqTop.doc = docs[i] + docBase;
+            pqTop.score = score;
+            pqTop = pq.updateTop();
+          }
+          updateMinCompetitiveScore(scorer);
         }
 
       };
@@ -89,8 +118,8 @@ public abstract class TopScoreDocCollector extends TopDocsCollector<ScoreDoc> {
     private final ScoreDoc after;
     private int collectedHits;
 
-    PagingTopScoreDocCollector(int numHits, ScoreDoc after) {
-      super(numHits);
+    PagingTopScoreDocCollector(int numHits, ScoreDoc after, boolean trackTotalHits, boolean batchHits) {
+      super(numHits, trackTotalHits, batchHits);
       this.after = after;
       this.collectedHits = 0;
     }
@@ -110,6 +139,12 @@ public abstract class TopScoreDocCollector extends TopDocsCollector<ScoreDoc> {
       final int docBase = context.docBase;
       final int afterDoc = after.doc - context.docBase;
       return new ScorerLeafCollector() {
+        @Override
+        public void setScorer(Scorer scorer) throws IOException {
+          super.setScorer(scorer);
+          updateMinCompetitiveScore(scorer);
+        }
+
         @Override
         public void collect(int doc) throws IOException {
           float score = scorer.score();
@@ -135,6 +170,34 @@ public abstract class TopScoreDocCollector extends TopDocsCollector<ScoreDoc> {
           pqTop.doc = doc + docBase;
           pqTop.score = score;
           pqTop = pq.updateTop();
+          updateMinCompetitiveScore(scorer);
+        }
+
+        @Override
+        public BatchMode batchMode() {
+          return batchHits ? BatchMode.DOCS_AND_SCORES : BatchMode.NONE;
+        }
+
+        @Override
+        public void collect(int[] docs, float[] scores, int count) throws IOException {
+          totalHits += count;
+          for (int i = 0; i < count; ++i) {
+            final int doc = docs[i];
+            final float score = scores[i];
+            assert score != Float.NEGATIVE_INFINITY;
+            assert !Float.isNaN(score);
+            if (score > after.score || (score == after.score && doc <= afterDoc)) {
+              continue;
+            }
+            if (score <= pqTop.score) {
+              continue;
+            }
+            collectedHits++;
+            pqTop.doc = doc + docBase;
+            pqTop.score = score;
+            pqTop = pq.updateTop();
+          }
+          updateMinCompetitiveScore(scorer);
         }
       };
     }
@@ -165,28 +228,77 @@ public abstract class TopScoreDocCollector extends TopDocsCollector<ScoreDoc> {
    * objects.
    */
   public static TopScoreDocCollector create(int numHits, ScoreDoc after) {
+    return create(numHits, after, true);
+  }
+
+  /**
+   * Creates a new {@link TopScoreDocCollector} given the number of hits to
+   * collect, the bottom of the previous page, and whether the total hit count
+   * needs to be computed.
+   *
+   * <p>When {@code trackTotalHits} is {@code false}, queries are allowed to
+   * skip over documents that cannot make it to the top hits, which can make
+   * top-k disjunctions much faster. The top hits are the same, but
+   * {@link TopDocs#totalHits} is then only a lower bound of the number of
+   * matches.
+   *
+   * <p><b>NOTE</b>: The instances returned by this method
+   * pre-allocate a full array of length
+   * <code>numHits</code>, and fill the array with sentinel
+   * objects.
+   * @lucene.experimental
+   */
+  public static TopScoreDocCollector create(int numHits, ScoreDoc after, boolean trackTotalHits) {
+    return create(numHits, after, trackTotalHits, false);
+  }
+
+  /**
+   * Same as {@link #create(int, ScoreDoc, boolean)}, but lets the collector
+   * accept batches of hits (see {@link LeafCollector#batchMode()}) if
+   * {@code batchHits} is {@code true}. Batching is off by default: it has not
+   * been measured to be faster, and batches can not be combined with
+   * skipping non-competitive documents, so {@code batchHits} requires
+   * {@code trackTotalHits}.
+   */
+  static TopScoreDocCollector create(int numHits, ScoreDoc after, boolean trackTotalHits, boolean batchHits) {
 
     if (numHits <= 0) {
       throw new IllegalArgumentException("numHits must be > 0; please use TotalHitCountCollector if you just need the total hit count");
     }
+    if (batchHits && trackTotalHits == false) {
+      throw new IllegalArgumentException("batchHits requires trackTotalHits");
+    }
 
     if (after == null) {
-      return new SimpleTopScoreDocCollector(numHits);
+      return new SimpleTopScoreDocCollector(numHits, trackTotalHits, batchHits);
     } else {
-      return new PagingTopScoreDocCollector(numHits, after);
+      return new PagingTopScoreDocCollector(numHits, after, trackTotalHits, batchHits);
     }
   }
 
+  final boolean trackTotalHits;
+  final boolean batchHits;
   ScoreDoc pqTop;
 
   // prevents instantiation
-  TopScoreDocCollector(int numHits) {
+  TopScoreDocCollector(int numHits, boolean trackTotalHits, boolean batchHits) {
     super(new HitQueue(numHits, true));
+    this.trackTotalHits = trackTotalHits;
+    this.batchHits = batchHits;
     // HitQueue implements getSentinelObject to return a ScoreDoc, so we know
     // that at this point top() is already initialized.
     pqTop = pq.top();
   }
 
+  /** Once the queue is full, documents that do not score better than its
+   *  bottom cannot compete: let the scorer skip them if total hits are not
+   *  needed. */
+  void updateMinCompetitiveScore(Scorer scorer) throws IOException {
+    if (trackTotalHits == false && pqTop.score != Float.NEGATIVE_INFINITY) {
+      scorer.setMinCompetitiveScore(pqTop.score);
+    }
+  }
+
   @Override
   protected TopDocs newTopDocs(ScoreDoc[] results, int start) {
     if (results == null) {
@@ -208,6 +320,11 @@ public abstract class TopScoreDocCollector extends TopDocsCollector<ScoreDoc> {
     return new TopDocs(totalHits, results, maxScore);
   }
 
+  @Override
+  public boolean needsTotalHits() {
+    return trackTotalHits;
+  }
+
   @Override
   public boolean needsScores() {
     return true;
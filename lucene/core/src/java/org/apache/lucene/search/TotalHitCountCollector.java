@@ -34,6 +34,16 @@ public class TotalHitCountCollector extends SimpleCollector {
     totalHits++;
   }
 
+  @Override
+  public BatchMode batchMode() {
+    return BatchMode.DOCS;
+  }
+
+  @Override
+  public void collect(int[] docs, float[] scores, int count) {
+    totalHits += count;
+  }
+
   @Override
   public boolean needsScores() {
     return false;
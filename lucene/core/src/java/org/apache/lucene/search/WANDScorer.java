@@ -0,0 +1,286 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.lucene.util.InPlaceMergeSorter;
+
+/**
+ * A {@link Scorer} for pure disjunctions that skips non-competitive documents
+ * using block-max scores. Documents are considered in windows whose bounds are
+ * given by the blocks of the sub scorers (see {@link Scorer#advanceShallow(int)}).
+ * Within a window, sub scorers are sorted by their maximum score (see
+ * {@link Scorer#getMaxScore(int)}), and the ones whose maximum scores sum up to
+ * less than the minimum competitive score (see {@link #setMinCompetitiveScore(float)})
+ * are non-essential: they are only advanced to candidates that are produced
+ * by the other, essential, sub scorers. Windows that have no essential sub
+ * scorers are skipped without decoding any postings.
+ * Scores are the sum of the scores of the matching sub scorers, multiplied by
+ * the coordination factor of the number of matching sub scorers if coordination
+ * factors are given. Since this factor is not known until all sub scorers have
+ * been advanced, score upper bounds are multiplied by the largest factor of any
+ * number of matches that is still possible.
+ */
+final class WANDScorer extends Scorer {
+
+  private final Scorer[] scorers;
+  private final DocIdSetIterator[] iterators;
+  private final long cost;
+  // coord factors by number of matching sub scorers, or null
+  private final float[] coords;
+  // maxCoords[i] is the max coord factor for at most i matching sub scorers
+  private final float[] maxCoords;
+
+  // max scores of the sub scorers in the current window, 0 for scorers
+  // that have no matches in it
+  private final float[] maxScores;
+  // indexes of the sub scorers, by increasing max score in the current window
+  private final int[] order;
+  // prefixMaxScores[i] is the sum of the max scores of order[0..i)
+  private final double[] prefixMaxScores;
+  // order[0..firstEssential) are the non-essential sub scorers
+  private int firstEssential;
+
+  private float minCompetitiveScore = Float.NEGATIVE_INFINITY;
+  private int doc = -1;
+  // last doc of the current window
+  private int upTo = -1;
+
+  /**
+   * Sole constructor.
+   * @param weight The weight to be used.
+   * @param scorers The sub scorers, whose scores are summed up
+   * @param coords Coordination factors by number of matching sub scorers, or
+   *               {@code null} to not apply any
+   */
+  WANDScorer(Weight weight, List<Scorer> scorers, float[] coords) {
+    super(weight);
+    this.scorers = scorers.toArray(new Scorer[0]);
+    this.iterators = new DocIdSetIterator[this.scorers.length];
+    long cost = 0;
+    for (int i = 0; i < iterators.length; ++i) {
+      iterators[i] = this.scorers[i].iterator();
+      cost += iterators[i].cost();
+    }
+    this.cost = cost;
+    this.maxScores = new float[this.scorers.length];
+    this.order = new int[this.scorers.length];
+    for (int i = 0; i < order.length; ++i) {
+      order[i] = i;
+    }
+    this.prefixMaxScores = new double[this.scorers.length + 1];
+    this.coords = coords;
+    this.maxCoords = new float[this.scorers.length + 1];
+    for (int i = 1; i < maxCoords.length; ++i) {
+      maxCoords[i] = Math.max(maxCoords[i - 1], coords == null ? 1f : coords[i]);
+    }
+  }
+
+  @Override
+  public void setMinCompetitiveScore(float minScore) {
+    assert minScore >= minCompetitiveScore;
+    minCompetitiveScore = minScore;
+    if (upTo != -1) {
+      updateEssentials();
+    }
+  }
+
+  @Override
+  public int docID() {
+    return doc;
+  }
+
+  @Override
+  public float score() throws IOException {
+    double score = 0;
+    int freq = 0;
+    for (int i = 0; i < scorers.length; ++i) {
+      if (iterators[i].docID() == doc) {
+        score += scorers[i].score();
+        freq++;
+      }
+    }
+    return coords == null ? (float) score : (float) score * coords[freq];
+  }
+
+  @Override
+  public int freq() throws IOException {
+    int freq = 0;
+    for (DocIdSetIterator iterator : iterators) {
+      if (iterator.docID() == doc) {
+        freq++;
+      }
+    }
+    return freq;
+  }
+
+  @Override
+  public Collection<ChildScorer> getChildren() throws IOException {
+    List<ChildScorer> children = new ArrayList<>();
+    for (int i = 0; i < scorers.length; ++i) {
+      if (iterators[i].docID() == doc) {
+        children.add(new ChildScorer(scorers[i], "SHOULD"));
+      }
+    }
+    return children;
+  }
+
+  @Override
+  public DocIdSetIterator iterator() {
+    return new DocIdSetIterator() {
+
+      @Override
+      public int docID() {
+        return doc;
+      }
+
+      @Override
+      public int nextDoc() throws IOException {
+        return advance(doc + 1);
+      }
+
+      @Override
+      public int advance(int target) throws IOException {
+        return doc = doNext(target);
+      }
+
+      @Override
+      public long cost() {
+        return cost;
+      }
+    };
+  }
+
+  /** Whether documents that match at most {@code maxMatches} sub scorers and
+   *  whose sum of sub scores is at most {@code maxScore} may be skipped. */
+  private boolean canSkip(double maxScore, int maxMatches) {
+    // actual scores are also summed as doubles, cast to a float and then
+    // multiplied by the coord factor, so comparing floats is safe
+    return (float) maxScore * maxCoords[maxMatches] < minCompetitiveScore;
+  }
+
+  /** Load the max scores of the window that starts at {@code target}. */
+  private void moveToNextWindow(int target) throws IOException {
+    upTo = DocIdSetIterator.NO_MORE_DOCS;
+    for (int i = 0; i < scorers.length; ++i) {
+      final int docID = iterators[i].docID();
+      if (docID != DocIdSetIterator.NO_MORE_DOCS) {
+        // keep targets non-decreasing for each scorer
+        upTo = Math.min(upTo, scorers[i].advanceShallow(Math.max(target, docID)));
+      }
+    }
+    assert upTo >= target;
+    for (int i = 0; i < scorers.length; ++i) {
+      if (iterators[i].docID() <= upTo) {
+        maxScores[i] = scorers[i].getMaxScore(upTo);
+      } else {
+        maxScores[i] = 0;
+      }
+    }
+    new InPlaceMergeSorter() {
+      @Override
+      protected int compare(int i, int j) {
+        return Float.compare(maxScores[order[i]], maxScores[order[j]]);
+      }
+
+      @Override
+      protected void swap(int i, int j) {
+        final int tmp = order[i];
+        order[i] = order[j];
+        order[j] = tmp;
+      }
+    }.sort(0, order.length);
+    for (int i = 0; i < order.length; ++i) {
+      prefixMaxScores[i + 1] = prefixMaxScores[i] + maxScores[order[i]];
+    }
+    firstEssential = 0;
+    updateEssentials();
+  }
+
+  /** Move sub scorers whose max scores cannot produce a competitive hit on
+   *  their own to the non-essential set. */
+  private void updateEssentials() {
+    while (firstEssential < order.length && canSkip(prefixMaxScores[firstEssential + 1], firstEssential + 1)) {
+      firstEssential++;
+    }
+  }
+
+  private int doNext(int target) throws IOException {
+    while (true) {
+      if (target == DocIdSetIterator.NO_MORE_DOCS) {
+        return DocIdSetIterator.NO_MORE_DOCS;
+      }
+      if (target > upTo) {
+        moveToNextWindow(target);
+      }
+
+      // only essential sub scorers may produce competitive candidates
+      int candidate = DocIdSetIterator.NO_MORE_DOCS;
+      for (int k = firstEssential; k < order.length; ++k) {
+        final DocIdSetIterator iterator = iterators[order[k]];
+        int docID = iterator.docID();
+        if (docID < target) {
+          docID = iterator.advance(target);
+        }
+        candidate = Math.min(candidate, docID);
+      }
+      if (candidate > upTo) {
+        // no competitive matches in this window, this also skips windows
+        // that have no essential sub scorers without decoding postings
+        target = upTo == DocIdSetIterator.NO_MORE_DOCS ? upTo : upTo + 1;
+        continue;
+      }
+
+      double maxScore = 0;
+      int matches = 0;
+      for (int k = firstEssential; k < order.length; ++k) {
+        if (iterators[order[k]].docID() == candidate) {
+          maxScore += maxScores[order[k]];
+          matches++;
+        }
+      }
+      // check non-essential sub scorers, from the highest max score
+      boolean competitive = true;
+      for (int k = firstEssential; k > 0; --k) {
+        if (canSkip(maxScore + prefixMaxScores[k], matches + k)) {
+          competitive = false;
+          break;
+        }
+        final DocIdSetIterator iterator = iterators[order[k - 1]];
+        int docID = iterator.docID();
+        if (docID < candidate) {
+          docID = iterator.advance(candidate);
+        }
+        if (docID == candidate) {
+          maxScore += maxScores[order[k - 1]];
+          matches++;
+        }
+      }
+      if (competitive == false || canSkip(maxScore, matches)) {
+        target = candidate + 1;
+        continue;
+      }
+
+      return candidate;
+    }
+  }
+}
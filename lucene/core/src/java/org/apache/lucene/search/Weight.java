@@ -168,12 +168,28 @@ public abstract class Weight {
     return new DefaultBulkScorer(scorer);
   }
 
+  /**
+   * Optional method, to return a {@link BulkScorer} for collectors that
+   * only need the top-scoring hits, see {@link Collector#needsTotalHits()}.
+   * The returned {@link BulkScorer} may skip over documents that cannot be
+   * competitive according to {@link Scorer#setMinCompetitiveScore(float)},
+   * so collectors might not see all matching documents.
+   * The default implementation returns {@link #bulkScorer(LeafReaderContext)}.
+   *
+   * @lucene.experimental
+   */
+  public BulkScorer topScoresBulkScorer(LeafReaderContext context) throws IOException {
+    return bulkScorer(context);
+  }
+
   /** Just wraps a Scorer and performs top scoring using it.
    *  @lucene.internal */
   protected static class DefaultBulkScorer extends BulkScorer {
     private final Scorer scorer;
     private final DocIdSetIterator iterator;
     private final TwoPhaseIterator twoPhase;
+    private int[] docBuffer;
+    private float[] scoreBuffer;
 
     /** Sole constructor. */
     public DefaultBulkScorer(Scorer scorer) {
@@ -193,7 +209,25 @@ public abstract class Weight {
     @Override
     public int score(LeafCollector collector, Bits acceptDocs, int min, int max) throws IOException {
       collector.setScorer(scorer);
-      if (scorer.docID() == -1 && min == 0 && max == DocIdSetIterator.NO_MORE_DOCS) {
+      final LeafCollector.BatchMode batchMode = collector.batchMode();
+      if (batchMode != LeafCollector.BatchMode.NONE) {
+        if (docBuffer == null) {
+          docBuffer = new int[BATCH_SIZE];
+        }
+        if (batchMode == LeafCollector.BatchMode.DOCS_AND_SCORES && scoreBuffer == null) {
+          scoreBuffer = new float[BATCH_SIZE];
+        }
+        int doc = scorer.docID();
+        if (doc < min) {
+          if (twoPhase == null) {
+            doc = iterator.advance(min);
+          } else {
+            doc = twoPhase.approximation().advance(min);
+          }
+        }
+        return scoreBatches(collector, scorer, iterator, twoPhase, acceptDocs, doc, max,
+            docBuffer, batchMode == LeafCollector.BatchMode.DOCS_AND_SCORES ? scoreBuffer : null);
+      } else if (scorer.docID() == -1 && min == 0 && max == DocIdSetIterator.NO_MORE_DOCS) {
         scoreAll(collector, iterator, twoPhase, acceptDocs);
         return DocIdSetIterator.NO_MORE_DOCS;
       } else {
@@ -209,6 +243,52 @@ public abstract class Weight {
       }
     }
 
+    /** Number of hits that are buffered before being passed to a collector
+     *  that accepts batches. */
+    static final int BATCH_SIZE = 128;
+
+    /** Bulk-scores a range of hits and passes them to the collector in
+     *  batches of up to {@code docBuffer.length} documents. Scores are only
+     *  computed if {@code scoreBuffer} is not null. */
+    static int scoreBatches(LeafCollector collector, Scorer scorer, DocIdSetIterator iterator, TwoPhaseIterator twoPhase,
+        Bits acceptDocs, int currentDoc, int end, int[] docBuffer, float[] scoreBuffer) throws IOException {
+      int count = 0;
+      if (twoPhase == null) {
+        while (currentDoc < end) {
+          if (acceptDocs == null || acceptDocs.get(currentDoc)) {
+            docBuffer[count] = currentDoc;
+            if (scoreBuffer != null) {
+              scoreBuffer[count] = scorer.score();
+            }
+            if (++count == docBuffer.length) {
+              collector.collect(docBuffer, scoreBuffer, count);
+              count = 0;
+            }
+          }
+          currentDoc = iterator.nextDoc();
+        }
+      } else {
+        final DocIdSetIterator approximation = twoPhase.approximation();
+        while (currentDoc < end) {
+          if ((acceptDocs == null || acceptDocs.get(currentDoc)) && twoPhase.matches()) {
+            docBuffer[count] = currentDoc;
+            if (scoreBuffer != null) {
+              scoreBuffer[count] = scorer.score();
+            }
+            if (++count == docBuffer.length) {
+              collector.collect(docBuffer, scoreBuffer, count);
+              count = 0;
+            }
+          }
+          currentDoc = approximation.nextDoc();
+        }
+      }
+      if (count > 0) {
+        collector.collect(docBuffer, scoreBuffer, count);
+      }
+      return currentDoc;
+    }
+
     /** Specialized method to bulk-score a range of hits; we
      *  separate this from {@link #scoreAll} to help out
      *  hotspot.
@@ -243,6 +243,18 @@ public class BM25Similarity extends Similarity {
       float norm = norms == null ? k1 : cache[(byte)norms.get(doc) & 0xFF];
       return weightValue * freq / (freq + norm);
     }
+
+    @Override
+    public float maxScore(float maxFreq) {
+      if (weightValue < 0) {
+        return Float.POSITIVE_INFINITY;
+      }
+      // the score increases with freq and decreases with the norm
+      final float minNorm = norms == null ? k1 : stats.minCache;
+      final double maxScore = (double) weightValue * maxFreq / (maxFreq + minNorm);
+      // leave room for the rounding errors of score()
+      return (float) (maxScore * (1 + 1e-6));
+    }
     
     @Override
     public Explanation explain(int doc, Explanation freq) {
@@ -274,12 +286,19 @@ public class BM25Similarity extends Similarity {
     private final String field;
     /** precomputed norm[256] with k1 * ((1 - b) + b * dl / avgdl) */
     private final float cache[];
+    /** smallest value of the cache, which gives the highest scores */
+    private final float minCache;
 
     BM25Stats(String field, Explanation idf, float avgdl, float cache[]) {
       this.field = field;
       this.idf = idf;
       this.avgdl = avgdl;
       this.cache = cache;
+      float minCache = Float.POSITIVE_INFINITY;
+      for (float norm : cache) {
+        minCache = Math.min(minCache, norm);
+      }
+      this.minCache = minCache;
       normalize(1f, 1f);
     }
 
@@ -197,6 +197,18 @@ public abstract class Similarity {
      */
     public abstract float score(int doc, float freq);
 
+    /**
+     * Return an upper bound of the score that {@link #score(int, float)}
+     * may return for any document and any frequency that is less than or
+     * equal to {@code maxFreq}. This is used to skip over documents that
+     * cannot produce competitive scores. The default implementation returns
+     * {@link Float#POSITIVE_INFINITY}, which disables such skipping.
+     * @lucene.experimental
+     */
+    public float maxScore(float maxFreq) {
+      return Float.POSITIVE_INFINITY;
+    }
+
     /** Computes the amount of a sloppy phrase match, based on an edit distance. */
     public abstract float computeSlopFactor(int distance);
     
@@ -558,6 +558,22 @@ public abstract class TFIDFSimilarity extends Similarity {
    */
   public abstract float tf(float freq);
 
+  /**
+   * Returns an upper bound of <code>tf(freq) * norm</code> for any frequency
+   * that is less than or equal to <code>maxFreq</code>, where <code>norm</code>
+   * is either a {@link #decodeNormValue(long) decoded norm} of the field or 1
+   * if the field omits norms. This is used to skip over documents that cannot
+   * produce competitive scores. The default implementation returns
+   * {@link Float#POSITIVE_INFINITY}, which disables such skipping.
+   *
+   * @param maxFreq the maximum frequency of a term within a document
+   * @return an upper bound of the product of tf and the field's norm
+   * @lucene.experimental
+   */
+  public float maxTfNorm(float maxFreq) {
+    return Float.POSITIVE_INFINITY;
+  }
+
   /**
    * Computes a score factor for a simple term and returns an explanation
    * for that score factor.
@@ -712,6 +728,16 @@ public abstract class TFIDFSimilarity extends Similarity {
       
       return norms == null ? raw : raw * decodeNormValue(norms.get(doc));  // normalize for field
     }
+
+    @Override
+    public float maxScore(float maxFreq) {
+      if (weightValue < 0) {
+        return Float.POSITIVE_INFINITY;
+      }
+      final double maxScore = (double) maxTfNorm(maxFreq) * weightValue;
+      // leave room for the rounding errors of score()
+      return (float) (maxScore * (1 + 1e-6));
+    }
     
     @Override
     public float computeSlopFactor(int distance) {
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util;
+
+
+import java.util.Arrays;
+
+/**
+ * A thread-safe store of zero-filled byte and int blocks that
+ * {@link RecyclingByteBlockAllocator} and {@link RecyclingIntBlockAllocator}
+ * fall back to when their own buffers are empty, and hand blocks to when
+ * their own buffers are full.
+ * <p>
+ * Sharing one {@link BlockRecycler} between many short-lived allocators, eg.
+ * the ones of all in-memory segments of an {@code IndexWriter}, means that
+ * the blocks of a flushed segment are reused by the next one instead of
+ * becoming garbage. Since such blocks usually live long enough to be
+ * promoted, this keeps a stable set of blocks in the old generation instead
+ * of repeatedly filling it with dead ones.
+ * <p>
+ * Blocks are zero-filled when they are handed in, so that they can be used
+ * with slices right away. The total size of the buffered blocks never
+ * exceeds the configured maximum; blocks beyond that are left to the garbage
+ * collector.
+ * @lucene.internal
+ */
+public final class BlockRecycler {
+  private final int byteBlockSize;
+  private final int intBlockSize;
+  private final long maxBytes;
+  private byte[][] byteBlocks = new byte[16][];
+  private int numByteBlocks;
+  private int[][] intBlocks = new int[16][];
+  private int numIntBlocks;
+  private long bytesBuffered;
+
+  /**
+   * Creates a new {@link BlockRecycler}
+   *
+   * @param byteBlockSize
+   *          the size of recycled byte blocks, in bytes
+   * @param intBlockSize
+   *          the size of recycled int blocks, in ints
+   * @param maxBytes
+   *          maximum number of bytes of blocks to buffer
+   */
+  public BlockRecycler(int byteBlockSize, int intBlockSize, long maxBytes) {
+    if (maxBytes < 0) {
+      throw new IllegalArgumentException("maxBytes must be >= 0 but was: " + maxBytes);
+    }
+    this.byteBlockSize = byteBlockSize;
+    this.intBlockSize = intBlockSize;
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Creates a new {@link BlockRecycler} for blocks of
+   * {@link ByteBlockPool#BYTE_BLOCK_SIZE} bytes and
+   * {@link IntBlockPool#INT_BLOCK_SIZE} ints.
+   *
+   * @param maxBytes
+   *          maximum number of bytes of blocks to buffer
+   */
+  public BlockRecycler(long maxBytes) {
+    this(ByteBlockPool.BYTE_BLOCK_SIZE, IntBlockPool.INT_BLOCK_SIZE, maxBytes);
+  }
+
+  /**
+   * Returns a zero-filled byte block, or <code>null</code> if no byte block
+   * is buffered.
+   */
+  public synchronized byte[] takeByteBlock() {
+    if (numByteBlocks == 0) {
+      return null;
+    }
+    final byte[] b = byteBlocks[--numByteBlocks];
+    byteBlocks[numByteBlocks] = null;
+    bytesBuffered -= byteBlockSize;
+    return b;
+  }
+
+  /**
+   * Returns a zero-filled int block, or <code>null</code> if no int block
+   * is buffered.
+   */
+  public synchronized int[] takeIntBlock() {
+    if (numIntBlocks == 0) {
+      return null;
+    }
+    final int[] b = intBlocks[--numIntBlocks];
+    intBlocks[numIntBlocks] = null;
+    bytesBuffered -= (long) intBlockSize * Integer.BYTES;
+    return b;
+  }
+
+  /**
+   * Buffers the given byte block for reuse, unless this would exceed the
+   * maximum number of buffered bytes.
+   *
+   * @return <code>true</code> if the block was buffered
+   */
+  public boolean offer(byte[] block) {
+    if (block.length != byteBlockSize || hasRoomFor(byteBlockSize) == false) {
+      return false;
+    }
+    Arrays.fill(block, (byte) 0);
+    synchronized (this) {
+      if (bytesBuffered + byteBlockSize > maxBytes) {
+        return false;
+      }
+      byteBlocks = ArrayUtil.grow(byteBlocks, numByteBlocks + 1);
+      byteBlocks[numByteBlocks++] = block;
+      bytesBuffered += byteBlockSize;
+      return true;
+    }
+  }
+
+  /**
+   * Buffers the given int block for reuse, unless this would exceed the
+   * maximum number of buffered bytes.
+   *
+   * @return <code>true</code> if the block was buffered
+   */
+  public boolean offer(int[] block) {
+    final long blockBytes = (long) intBlockSize * Integer.BYTES;
+    if (block.length != intBlockSize || hasRoomFor(blockBytes) == false) {
+      return false;
+    }
+    Arrays.fill(block, 0);
+    synchronized (this) {
+      if (bytesBuffered + blockBytes > maxBytes) {
+        return false;
+      }
+      intBlocks = ArrayUtil.grow(intBlocks, numIntBlocks + 1);
+      intBlocks[numIntBlocks++] = block;
+      bytesBuffered += blockBytes;
+      return true;
+    }
+  }
+
+  // cheap pre-check so that we don't zero-fill blocks we then drop anyway
+  private synchronized boolean hasRoomFor(long bytes) {
+    return bytesBuffered + bytes <= maxBytes;
+  }
+
+  /**
+   * @return the number of bytes of blocks currently buffered
+   */
+  public synchronized long bytesBuffered() {
+    return bytesBuffered;
+  }
+
+  /**
+   * @return the size of recycled byte blocks, in bytes
+   */
+  public int byteBlockSize() {
+    return byteBlockSize;
+  }
+
+  /**
+   * @return the size of recycled int blocks, in ints
+   */
+  public int intBlockSize() {
+    return intBlockSize;
+  }
+
+  /**
+   * @return the maximum number of bytes of blocks to buffer
+   */
+  public long maxBytes() {
+    return maxBytes;
+  }
+
+  @Override
+  public String toString() {
+    return "BlockRecycler(maxBytes=" + maxBytes + ", bytesBuffered=" + bytesBuffered() + ")";
+  }
+}
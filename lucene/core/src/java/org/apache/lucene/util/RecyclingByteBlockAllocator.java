@@ -33,6 +33,7 @@ public final class RecyclingByteBlockAllocator extends ByteBlockPool.Allocator {
   private final int maxBufferedBlocks;
   private int freeBlocks = 0;
   private final Counter bytesUsed;
+  private final BlockRecycler recycler;
   public static final int DEFAULT_BUFFERED_BLOCKS = 64;
 
   /**
@@ -47,10 +48,33 @@ public final class RecyclingByteBlockAllocator extends ByteBlockPool.Allocator {
    */
   public RecyclingByteBlockAllocator(int blockSize, int maxBufferedBlocks,
       Counter bytesUsed) {
+    this(blockSize, maxBufferedBlocks, bytesUsed, null);
+  }
+
+  /**
+   * Creates a new {@link RecyclingByteBlockAllocator} that takes blocks from the
+   * given {@link BlockRecycler} before it allocates new ones, and hands
+   * blocks that exceed its own buffer to it.
+   * 
+   * @param blockSize
+   *          the block size in bytes
+   * @param maxBufferedBlocks
+   *          maximum number of buffered byte block
+   * @param bytesUsed
+   *          {@link Counter} reference counting internally allocated bytes
+   * @param recycler
+   *          shared {@link BlockRecycler}, or <code>null</code>
+   */
+  public RecyclingByteBlockAllocator(int blockSize, int maxBufferedBlocks,
+      Counter bytesUsed, BlockRecycler recycler) {
     super(blockSize);
+    if (recycler != null && recycler.byteBlockSize() != blockSize) {
+      throw new IllegalArgumentException("recycler block size " + recycler.byteBlockSize() + " doesn't match block size " + blockSize);
+    }
     freeByteBlocks = new byte[maxBufferedBlocks][];
     this.maxBufferedBlocks = maxBufferedBlocks;
     this.bytesUsed = bytesUsed;
+    this.recycler = recycler;
   }
 
   /**
@@ -79,6 +103,12 @@ public final class RecyclingByteBlockAllocator extends ByteBlockPool.Allocator {
   public byte[] getByteBlock() {
     if (freeBlocks == 0) {
       bytesUsed.addAndGet(blockSize);
+      if (recycler != null) {
+        final byte[] b = recycler.takeByteBlock();
+        if (b != null) {
+          return b;
+        }
+      }
       return new byte[blockSize];
     }
     final byte[] b = freeByteBlocks[--freeBlocks];
@@ -102,6 +132,9 @@ public final class RecyclingByteBlockAllocator extends ByteBlockPool.Allocator {
       blocks[i] = null;
     }
     for (int i = stop; i < end; i++) {
+      if (recycler != null) {
+        recycler.offer(blocks[i]);
+      }
       blocks[i] = null;
     }
     bytesUsed.addAndGet(-(end - stop) * blockSize);
@@ -148,6 +181,9 @@ public final class RecyclingByteBlockAllocator extends ByteBlockPool.Allocator {
       count = num;
     }
     while (freeBlocks > stop) {
+      if (recycler != null) {
+        recycler.offer(freeByteBlocks[freeBlocks - 1]);
+      }
       freeByteBlocks[--freeBlocks] = null;
     }
     bytesUsed.addAndGet(-count*blockSize);
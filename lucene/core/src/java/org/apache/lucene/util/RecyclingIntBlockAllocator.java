@@ -33,6 +33,7 @@ public final class RecyclingIntBlockAllocator extends Allocator {
   private final int maxBufferedBlocks;
   private int freeBlocks = 0;
   private final Counter bytesUsed;
+  private final BlockRecycler recycler;
   public static final int DEFAULT_BUFFERED_BLOCKS = 64;
 
   /**
@@ -47,10 +48,33 @@ public final class RecyclingIntBlockAllocator extends Allocator {
    */
   public RecyclingIntBlockAllocator(int blockSize, int maxBufferedBlocks,
       Counter bytesUsed) {
+    this(blockSize, maxBufferedBlocks, bytesUsed, null);
+  }
+
+  /**
+   * Creates a new {@link RecyclingIntBlockAllocator} that takes blocks from the
+   * given {@link BlockRecycler} before it allocates new ones, and hands
+   * blocks that exceed its own buffer to it.
+   * 
+   * @param blockSize
+   *          the block size
+   * @param maxBufferedBlocks
+   *          maximum number of buffered int block
+   * @param bytesUsed
+   *          {@link Counter} reference counting internally allocated bytes
+   * @param recycler
+   *          shared {@link BlockRecycler}, or <code>null</code>
+   */
+  public RecyclingIntBlockAllocator(int blockSize, int maxBufferedBlocks,
+      Counter bytesUsed, BlockRecycler recycler) {
     super(blockSize);
+    if (recycler != null && recycler.intBlockSize() != blockSize) {
+      throw new IllegalArgumentException("recycler block size " + recycler.intBlockSize() + " doesn't match block size " + blockSize);
+    }
     freeByteBlocks = new int[maxBufferedBlocks][];
     this.maxBufferedBlocks = maxBufferedBlocks;
     this.bytesUsed = bytesUsed;
+    this.recycler = recycler;
   }
 
   /**
@@ -79,6 +103,12 @@ public final class RecyclingIntBlockAllocator extends Allocator {
   public int[] getIntBlock() {
     if (freeBlocks == 0) {
       bytesUsed.addAndGet(blockSize*Integer.BYTES);
+      if (recycler != null) {
+        final int[] b = recycler.takeIntBlock();
+        if (b != null) {
+          return b;
+        }
+      }
       return new int[blockSize];
     }
     final int[] b = freeByteBlocks[--freeBlocks];
@@ -102,6 +132,9 @@ public final class RecyclingIntBlockAllocator extends Allocator {
       blocks[i] = null;
     }
     for (int i = stop; i < end; i++) {
+      if (recycler != null) {
+        recycler.offer(blocks[i]);
+      }
       blocks[i] = null;
     }
     bytesUsed.addAndGet(-(end - stop) * (blockSize * Integer.BYTES));
@@ -148,6 +181,9 @@ public final class RecyclingIntBlockAllocator extends Allocator {
       count = num;
     }
     while (freeBlocks > stop) {
+      if (recycler != null) {
+        recycler.offer(freeByteBlocks[freeBlocks - 1]);
+      }
       freeByteBlocks[--freeBlocks] = null;
     }
     bytesUsed.addAndGet(-count*blockSize*Integer.BYTES);
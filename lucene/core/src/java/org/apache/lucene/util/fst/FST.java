@@ -34,6 +34,7 @@ import org.apache.lucene.codecs.CodecUtil;
 import org.apache.lucene.store.ByteArrayDataOutput;
 import org.apache.lucene.store.DataInput;
 import org.apache.lucene.store.DataOutput;
+import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.store.InputStreamDataInput;
 import org.apache.lucene.store.OutputStreamDataOutput;
 import org.apache.lucene.store.RAMOutputStream;
@@ -164,6 +165,10 @@ public final class FST<T> implements Accountable {
   /** Used at read time when the FST fits into a single byte[]. */
   final byte[] bytesArray;
 
+  /** Used at read time instead of {@link #bytes} and {@link #bytesArray}
+   *  when the FST was loaded off-heap: the FST bytes are read in place. */
+  private final IndexInput offHeapBytes;
+
   private long startNode = -1;
 
   public final Outputs<T> outputs;
@@ -289,6 +294,7 @@ public final class FST<T> implements Accountable {
     this.outputs = outputs;
     version = VERSION_CURRENT;
     bytesArray = null;
+    offHeapBytes = null;
     bytes = new BytesStore(bytesPageBits);
     // pad: ensure no node gets address 0 which is reserved to mean
     // the stop state w/ no arcs
@@ -316,6 +322,18 @@ public final class FST<T> implements Accountable {
   /** Load a previously saved FST; maxBlockBits allows you to
    *  control the size of the byte[] pages used to hold the FST bytes. */
   public FST(DataInput in, Outputs<T> outputs, int maxBlockBits) throws IOException {
+    this(in, outputs, maxBlockBits, false);
+  }
+
+  /** Load a previously saved FST; if {@code offHeap} is true, the FST bytes
+   *  are not copied to the heap but read from a slice of {@code in} every
+   *  time the FST is walked, so {@code in} must not be closed while the FST
+   *  is in use. This is mostly useful with memory-mapped inputs. */
+  public FST(IndexInput in, Outputs<T> outputs, boolean offHeap) throws IOException {
+    this(in, outputs, DEFAULT_MAX_BLOCK_BITS, offHeap);
+  }
+
+  private FST(DataInput in, Outputs<T> outputs, int maxBlockBits, boolean offHeap) throws IOException {
     this.outputs = outputs;
 
     if (maxBlockBits < 1 || maxBlockBits > 30) {
@@ -377,15 +395,24 @@ public final class FST<T> implements Accountable {
     }
 
     long numBytes = in.readVLong();
-    if (numBytes > 1 << maxBlockBits) {
+    if (offHeap) {
+      final IndexInput indexIn = (IndexInput) in;
+      final long startFP = indexIn.getFilePointer();
+      offHeapBytes = indexIn.slice("fst", startFP, numBytes);
+      indexIn.seek(startFP + numBytes);
+      bytes = null;
+      bytesArray = null;
+    } else if (numBytes > 1 << maxBlockBits) {
       // FST is big: we need multiple pages
       bytes = new BytesStore(in, numBytes, 1<<maxBlockBits);
       bytesArray = null;
+      offHeapBytes = null;
     } else {
       // FST fits into a single block: use ByteArrayBytesStoreReader for less overhead
       bytes = null;
       bytesArray = new byte[(int) numBytes];
       in.readBytes(bytesArray, 0, bytesArray.length);
+      offHeapBytes = null;
     }
     
     cacheRootArcs();
@@ -421,7 +448,7 @@ public final class FST<T> implements Accountable {
     long size = BASE_RAM_BYTES_USED;
     if (bytesArray != null) {
       size += bytesArray.length;
-    } else {
+    } else if (bytes != null) {
       size += bytes.ramBytesUsed();
     }
     if (packed) {
@@ -504,7 +531,8 @@ public final class FST<T> implements Accountable {
       int cacheRAM = (int) ramBytesUsed(arcs);
 
       // Don't cache if there are only a few arcs or if the cache would use > 20% RAM of the FST itself:
-      if (count >= FIXED_ARRAY_NUM_ARCS_SHALLOW && cacheRAM < ramBytesUsed()/5) {
+      final long fstBytes = ramBytesUsed() + (offHeapBytes == null ? 0 : offHeapBytes.length());
+      if (count >= FIXED_ARRAY_NUM_ARCS_SHALLOW && cacheRAM < fstBytes/5) {
         cachedRootArcs = arcs;
         cachedArcsBytesUsed = cacheRAM;
       }
@@ -585,6 +613,11 @@ public final class FST<T> implements Accountable {
       long numBytes = bytes.getPosition();
       out.writeVLong(numBytes);
       bytes.writeTo(out);
+    } else if (offHeapBytes != null) {
+      out.writeVLong(offHeapBytes.length());
+      final IndexInput clone = offHeapBytes.clone();
+      clone.seek(0);
+      out.copyBytes(clone, offHeapBytes.length());
     } else {
       assert bytesArray != null;
       out.writeVLong(bytesArray.length);
@@ -1340,6 +1373,9 @@ public final class FST<T> implements Accountable {
   /** Returns a {@link BytesReader} for this FST, positioned at
    *  position 0. */
   public BytesReader getBytesReader() {
+    if (offHeapBytes != null) {
+      return new OffHeapBytesReader(offHeapBytes.clone(), packed == false);
+    }
     if (packed) {
       if (bytesArray != null) {
         return new ForwardBytesReader(bytesArray);
@@ -1482,6 +1518,7 @@ public final class FST<T> implements Accountable {
     packed = true;
     this.inputType = inputType;
     bytesArray = null;
+    offHeapBytes = null;
     bytes = new BytesStore(bytesPageBits);
     this.outputs = outputs;
   }
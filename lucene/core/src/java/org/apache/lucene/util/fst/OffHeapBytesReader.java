@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util.fst;
+
+
+import java.io.IOException;
+
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.RandomAccessInput;
+
+/** Reads the bytes of an FST that was loaded off-heap, in place from an
+ *  {@link IndexInput}. Inputs that implement {@link RandomAccessInput}, such
+ *  as memory-mapped ones, are read without seeking. */
+final class OffHeapBytesReader extends FST.BytesReader {
+  private final IndexInput in;
+  private final RandomAccessInput randomAccessIn;
+  private final boolean reversed;
+  private long pos;
+
+  OffHeapBytesReader(IndexInput in, boolean reversed) {
+    this.in = in;
+    this.randomAccessIn = in instanceof RandomAccessInput ? (RandomAccessInput) in : null;
+    this.reversed = reversed;
+  }
+
+  @Override
+  public byte readByte() throws IOException {
+    final byte b;
+    if (randomAccessIn != null) {
+      b = randomAccessIn.readByte(pos);
+    } else {
+      in.seek(pos);
+      b = in.readByte();
+    }
+    if (reversed) {
+      pos--;
+    } else {
+      pos++;
+    }
+    return b;
+  }
+
+  @Override
+  public void readBytes(byte[] b, int offset, int len) throws IOException {
+    if (reversed) {
+      for(int i=0;i<len;i++) {
+        b[offset+i] = readByte();
+      }
+    } else {
+      in.seek(pos);
+      in.readBytes(b, offset, len);
+      pos += len;
+    }
+  }
+
+  @Override
+  public void skipBytes(long count) {
+    if (reversed) {
+      pos -= count;
+    } else {
+      pos += count;
+    }
+  }
+
+  @Override
+  public long getPosition() {
+    return pos;
+  }
+
+  @Override
+  public void setPosition(long pos) {
+    this.pos = pos;
+  }
+
+  @Override
+  public boolean reversed() {
+    return reversed;
+  }
+}
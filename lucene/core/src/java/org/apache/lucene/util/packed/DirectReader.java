@@ -70,6 +70,38 @@ public class DirectReader {
     }
   }
   
+  /**
+   * Decodes {@code count} consecutive values for a {@code bitsPerValue} that
+   * divides 64, reading a whole big-endian long for every {@code 64/bitsPerValue}
+   * values instead of reading and shifting value by value. Values before the
+   * first and after the last such long are read through {@code reader}.
+   */
+  static void getRange(LongValues reader, RandomAccessInput in, long offset, int bitsPerValue,
+                       int fromDocID, long[] values, int count) {
+    assert 64 % bitsPerValue == 0;
+    final int valuesPerLong = 64 / bitsPerValue;
+    final long mask = (1L << bitsPerValue) - 1;
+    final long toIndex = (long) fromDocID + count;
+    long index = fromDocID;
+    int upto = 0;
+    while (index < toIndex && index % valuesPerLong != 0) {
+      values[upto++] = reader.get(index++);
+    }
+    try {
+      for (; toIndex - index >= valuesPerLong; index += valuesPerLong) {
+        final long word = in.readLong(offset + index / valuesPerLong * Long.BYTES);
+        for (int shift = 64 - bitsPerValue; shift >= 0; shift -= bitsPerValue) {
+          values[upto++] = (word >>> shift) & mask;
+        }
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    while (index < toIndex) {
+      values[upto++] = reader.get(index++);
+    }
+  }
+
   static final class DirectPackedReader1 extends LongValues {
     final RandomAccessInput in;
     final long offset;
@@ -87,7 +119,12 @@ public class DirectReader {
       } catch (IOException e) {
         throw new RuntimeException(e);
       }
-    }    
+    }
+
+    @Override
+    public void getRange(int fromDocID, long[] values, int count) {
+      DirectReader.getRange(this, in, offset, 1, fromDocID, values, count);
+    }
   }
   
   static final class DirectPackedReader2 extends LongValues {
@@ -107,7 +144,12 @@ public class DirectReader {
       } catch (IOException e) {
         throw new RuntimeException(e);
       }
-    }    
+    }
+
+    @Override
+    public void getRange(int fromDocID, long[] values, int count) {
+      DirectReader.getRange(this, in, offset, 2, fromDocID, values, count);
+    }
   }
   
   static final class DirectPackedReader4 extends LongValues {
@@ -127,7 +169,12 @@ public class DirectReader {
       } catch (IOException e) {
         throw new RuntimeException(e);
       }
-    }    
+    }
+
+    @Override
+    public void getRange(int fromDocID, long[] values, int count) {
+      DirectReader.getRange(this, in, offset, 4, fromDocID, values, count);
+    }
   }
     
   static final class DirectPackedReader8 extends LongValues {
@@ -146,7 +193,12 @@ public class DirectReader {
       } catch (IOException e) {
         throw new RuntimeException(e);
       }
-    }    
+    }
+
+    @Override
+    public void getRange(int fromDocID, long[] values, int count) {
+      DirectReader.getRange(this, in, offset, 8, fromDocID, values, count);
+    }
   }
   
   static final class DirectPackedReader12 extends LongValues {
@@ -187,6 +239,11 @@ public class DirectReader {
         throw new RuntimeException(e);
       }
     }
+
+    @Override
+    public void getRange(int fromDocID, long[] values, int count) {
+      DirectReader.getRange(this, in, offset, 16, fromDocID, values, count);
+    }
   }
   
   static final class DirectPackedReader20 extends LongValues {
@@ -268,7 +325,12 @@ public class DirectReader {
       } catch (IOException e) {
         throw new RuntimeException(e);
       }
-    }    
+    }
+
+    @Override
+    public void getRange(int fromDocID, long[] values, int count) {
+      DirectReader.getRange(this, in, offset, 32, fromDocID, values, count);
+    }
   }
   
   static final class DirectPackedReader40 extends LongValues {
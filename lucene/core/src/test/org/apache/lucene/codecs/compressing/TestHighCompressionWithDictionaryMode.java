@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.compressing;
+
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.TestUtil;
+
+public class TestHighCompressionWithDictionaryMode extends AbstractTestCompressionMode {
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    mode = CompressionMode.HIGH_COMPRESSION_WITH_DICTIONARY;
+  }
+
+  // documents that share a lot of content, like paths and titles of crawled pages
+  private static byte[] randomDocs(int numDocs, int[] endOffsets) {
+    final StringBuilder docs = new StringBuilder();
+    for (int i = 0; i < numDocs; ++i) {
+      docs.append("/var/www/docs/").append(TestUtil.randomSimpleString(random(), 1, 10))
+          .append("/index.html <title>Apache Lucene - ").append(random().nextInt(1000)).append("</title>");
+      endOffsets[i] = docs.length();
+    }
+    return docs.toString().getBytes(StandardCharsets.ISO_8859_1);
+  }
+
+  public void testTrainDictionary() throws IOException {
+    final DictionaryCompressionMode mode = (DictionaryCompressionMode) this.mode;
+    final int numDocs = TestUtil.nextInt(random(), 100, 1000);
+    final int[] endOffsets = new int[numDocs];
+    final byte[] docs = randomDocs(numDocs, endOffsets);
+
+    final BytesRef dictionary = mode.trainDictionary(docs, endOffsets, numDocs);
+    assertTrue(dictionary.length > 0);
+    assertTrue(dictionary.length <= 8 * 1024);
+    assertTrue(dictionary.length <= endOffsets[numDocs - 1] / 8);
+
+    // compress every document on its own, as small chunks would
+    int withDictionary = 0, withoutDictionary = 0;
+    final Compressor compressor = mode.newCompressor(dictionary);
+    final Decompressor decompressor = mode.newDecompressor(dictionary);
+    for (int i = 0, start = 0; i < numDocs; start = endOffsets[i++]) {
+      final int len = endOffsets[i] - start;
+      final byte[] compressed = compress(compressor, docs, start, len);
+      assertArrayEquals(Arrays.copyOfRange(docs, start, endOffsets[i]), decompress(decompressor.clone(), compressed, len));
+      withDictionary += compressed.length;
+      withoutDictionary += compress(docs, start, len).length;
+    }
+    compressor.close();
+    assertTrue(withDictionary + " >= " + withoutDictionary, withDictionary < withoutDictionary);
+  }
+
+  public void testTrainDictionaryOnUnrelatedDocs() throws IOException {
+    final DictionaryCompressionMode mode = (DictionaryCompressionMode) this.mode;
+    // nothing is shared by two documents
+    final byte[] docs = new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16 };
+    assertEquals(0, mode.trainDictionary(docs, new int[] { 8, 16 }, 2).length);
+    // a single document
+    assertEquals(0, mode.trainDictionary(docs, new int[] { 16 }, 1).length);
+    // a dictionary is still valid when it is empty
+    final byte[] compressed = compress(mode.newCompressor(new BytesRef()), docs, 0, docs.length);
+    assertArrayEquals(docs, decompress(mode.newDecompressor(new BytesRef()), compressed, docs.length));
+  }
+
+}
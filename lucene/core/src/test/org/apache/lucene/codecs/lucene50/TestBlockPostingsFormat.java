@@ -19,6 +19,9 @@ package org.apache.lucene.codecs.lucene50;
 
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.codecs.PostingsFormat;
+import org.apache.lucene.codecs.asserting.AssertingCodec;
+import org.apache.lucene.codecs.blocktree.BlockTreeTermsReader;
 import org.apache.lucene.codecs.blocktree.FieldReader;
 import org.apache.lucene.codecs.blocktree.Stats;
 import org.apache.lucene.document.Document;
@@ -27,7 +30,10 @@ import org.apache.lucene.index.BasePostingsFormatTestCase;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.TestUtil;
 
 /**
@@ -65,6 +71,55 @@ public class TestBlockPostingsFormat extends BasePostingsFormatTestCase {
     d.close();
   }
 
+  public void testOffHeapTermsIndex() throws Exception {
+    final PostingsFormat onHeapFormat = new Lucene50PostingsFormat();
+    final PostingsFormat offHeapFormat = new Lucene50PostingsFormat(BlockTreeTermsReader.FSTLoadMode.OFF_HEAP);
+    Directory d = newDirectory();
+    IndexWriterConfig iwc = new IndexWriterConfig(new MockAnalyzer(random()));
+    iwc.setCodec(new AssertingCodec() {
+      @Override
+      public PostingsFormat getPostingsFormatForField(String field) {
+        return "offheap".equals(field) ? offHeapFormat : onHeapFormat;
+      }
+    });
+    IndexWriter w = new IndexWriter(d, iwc);
+    final int numDocs = atLeast(1000);
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      doc.add(newStringField("onheap", "term" + i, Field.Store.NO));
+      doc.add(newStringField("offheap", "term" + i, Field.Store.NO));
+      w.addDocument(doc);
+    }
+    w.forceMerge(1);
+    w.close();
+
+    // the reader loads the format by name, so it gets the mode from the segment
+    DirectoryReader r = DirectoryReader.open(d);
+
+    LeafReader leaf = r.leaves().get(0).reader();
+    FieldReader onHeap = (FieldReader) leaf.fields().terms("onheap");
+    FieldReader offHeap = (FieldReader) leaf.fields().terms("offheap");
+    // both fields have the same terms index, but only one of them is on the heap
+    assertTrue(offHeap.ramBytesUsed() < onHeap.ramBytesUsed());
+
+    TermsEnum onHeapTerms = onHeap.iterator();
+    TermsEnum offHeapTerms = offHeap.iterator();
+    for (int i = 0; i < numDocs; i++) {
+      BytesRef term = new BytesRef("term" + i);
+      assertTrue(offHeapTerms.seekExact(term));
+      assertEquals(TermsEnum.SeekStatus.FOUND, offHeapTerms.seekCeil(term));
+    }
+    for (int i = 0; i < 100; i++) {
+      BytesRef term = new BytesRef(TestUtil.randomSimpleString(random()));
+      assertEquals(onHeapTerms.seekExact(term), offHeapTerms.seekExact(term));
+      assertEquals(onHeapTerms.seekCeil(term), offHeapTerms.seekCeil(term));
+    }
+    // the terms index file must stay open until the reader is closed
+    TestUtil.checkReader(r);
+    r.close();
+    d.close();
+  }
+
   private void shouldFail(int minItemsInBlock, int maxItemsInBlock) {
     expectThrows(IllegalArgumentException.class, () -> {
       new Lucene50PostingsFormat(minItemsInBlock, maxItemsInBlock);
@@ -19,7 +19,9 @@ package org.apache.lucene.codecs.lucene50;
 
 import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.BLOCK_SIZE;
 import static org.apache.lucene.codecs.lucene50.ForUtil.MAX_DATA_SIZE;
+import static org.apache.lucene.codecs.lucene50.ForUtil.MAX_DENSE_SIZE;
 import static org.apache.lucene.codecs.lucene50.ForUtil.MAX_ENCODED_SIZE;
+import static org.apache.lucene.codecs.lucene50.ForUtil.MAX_PACKED_SIZE;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -39,6 +41,9 @@ public class TestForUtil extends LuceneTestCase {
   public void testEncodeDecode() throws IOException {
     final int iterations = RandomNumbers.randomIntBetween(random(), 1, 1000);
     final float acceptableOverheadRatio = random().nextFloat();
+    // every version of the format must round-trip
+    final int version = RandomNumbers.randomIntBetween(random(),
+        Lucene50PostingsFormat.VERSION_START, Lucene50PostingsFormat.VERSION_CURRENT);
     final int[] values = new int[(iterations - 1) * BLOCK_SIZE + ForUtil.MAX_DATA_SIZE];
     for (int i = 0; i < iterations; ++i) {
       final int bpv = random().nextInt(32);
@@ -61,7 +66,7 @@ public class TestForUtil extends LuceneTestCase {
     {
       // encode
       IndexOutput out = d.createOutput("test.bin", IOContext.DEFAULT);
-      final ForUtil forUtil = new ForUtil(acceptableOverheadRatio, out);
+      final ForUtil forUtil = new ForUtil(acceptableOverheadRatio, out, version);
       
       for (int i = 0; i < iterations; ++i) {
         forUtil.writeBlock(
@@ -75,14 +80,14 @@ public class TestForUtil extends LuceneTestCase {
     {
       // decode
       IndexInput in = d.openInput("test.bin", IOContext.READONCE);
-      final ForUtil forUtil = new ForUtil(in);
+      final ForUtil forUtil = new ForUtil(in, version);
       for (int i = 0; i < iterations; ++i) {
         if (random().nextBoolean()) {
           forUtil.skipBlock(in);
           continue;
         }
         final int[] restored = new int[MAX_DATA_SIZE];
-        forUtil.readBlock(in, new byte[MAX_ENCODED_SIZE], restored);
+        forUtil.readBlock(in, new byte[MAX_ENCODED_SIZE], new int[MAX_PACKED_SIZE], restored);
         assertArrayEquals(Arrays.copyOfRange(values, i * BLOCK_SIZE, (i + 1) * BLOCK_SIZE),
             Arrays.copyOf(restored, BLOCK_SIZE));
       }
@@ -93,4 +98,105 @@ public class TestForUtil extends LuceneTestCase {
     d.close();
   }
 
+  public void testEncodeDecodeAllBitsPerValue() throws IOException {
+    final int[] values = new int[BLOCK_SIZE];
+    final byte[] encoded = new byte[MAX_ENCODED_SIZE];
+    final int[] packed = new int[MAX_PACKED_SIZE];
+    final int[] restored = new int[MAX_DATA_SIZE];
+    final Directory d = new RAMDirectory();
+    // values are non-negative ints, so blocks never need more than 31 bits per value
+    for (int bpv = 1; bpv <= 31; ++bpv) {
+      final long maxValue = PackedInts.maxValue(bpv);
+      for (int j = 0; j < BLOCK_SIZE; ++j) {
+        // make sure that the block needs bpv bits and that values use the highest bits of their lanes
+        values[j] = j == 0 || random().nextInt(4) == 0 ? (int) maxValue : RandomNumbers.randomIntBetween(random(), 0, (int) maxValue);
+      }
+      final int[] expected = values.clone();
+
+      try (IndexOutput out = d.createOutput("test" + bpv + ".bin", IOContext.DEFAULT)) {
+        new ForUtil(PackedInts.COMPACT, out, Lucene50PostingsFormat.VERSION_CURRENT).writeBlock(values, encoded, out);
+      }
+      assertArrayEquals(expected, values);
+
+      try (IndexInput in = d.openInput("test" + bpv + ".bin", IOContext.READONCE)) {
+        final ForUtil forUtil = new ForUtil(in, Lucene50PostingsFormat.VERSION_CURRENT);
+        forUtil.readBlock(in, encoded, packed, restored);
+        assertArrayEquals(expected, Arrays.copyOf(restored, BLOCK_SIZE));
+        assertEquals(in.length(), in.getFilePointer());
+      }
+    }
+    d.close();
+  }
+
+  public void testDocBlocks() throws IOException {
+    final int iterations = RandomNumbers.randomIntBetween(random(), 1, 100);
+    final int[][] blocks = new int[iterations][];
+    for (int i = 0; i < iterations; ++i) {
+      // mix dense blocks, which are written as bit sets, and sparse ones
+      final int maxDelta = random().nextBoolean() ? RandomNumbers.randomIntBetween(random(), 1, 4) : RandomNumbers.randomIntBetween(random(), 1, 1 << 20);
+      blocks[i] = new int[BLOCK_SIZE];
+      for (int j = 0; j < BLOCK_SIZE; ++j) {
+        blocks[i][j] = RandomNumbers.randomIntBetween(random(), i == 0 && j == 0 ? 0 : 1, maxDelta);
+      }
+    }
+
+    final Directory d = new RAMDirectory();
+    final byte[] encoded = new byte[MAX_ENCODED_SIZE];
+    try (IndexOutput out = d.createOutput("test.bin", IOContext.DEFAULT)) {
+      final ForUtil forUtil = new ForUtil(random().nextFloat(), out, Lucene50PostingsFormat.VERSION_CURRENT);
+      for (int[] block : blocks) {
+        forUtil.writeDocBlock(block, encoded, out);
+      }
+    }
+
+    try (IndexInput in = d.openInput("test.bin", IOContext.READONCE)) {
+      final ForUtil forUtil = new ForUtil(in, Lucene50PostingsFormat.VERSION_CURRENT);
+      final int[] packed = new int[MAX_PACKED_SIZE];
+      final int[] restored = new int[MAX_DATA_SIZE];
+      final long[] denseBits = new long[MAX_DENSE_SIZE];
+      for (int[] block : blocks) {
+        if (random().nextBoolean()) {
+          forUtil.readDocBlock(in, encoded, packed, restored);
+          assertArrayEquals(block, Arrays.copyOf(restored, BLOCK_SIZE));
+        } else {
+          final int numLongs = forUtil.readDocBlock(in, encoded, packed, restored, denseBits);
+          if (numLongs == 0) {
+            assertArrayEquals(block, Arrays.copyOf(restored, BLOCK_SIZE));
+          } else {
+            int bit = 0;
+            for (int delta : block) {
+              bit += delta;
+              assertTrue((denseBits[bit >>> 6] & (1L << bit)) != 0);
+            }
+            assertEquals(bit >>> 6, numLongs - 1);
+            int cardinality = 0;
+            for (int i = 0; i < numLongs; ++i) {
+              cardinality += Long.bitCount(denseBits[i]);
+            }
+            assertEquals(BLOCK_SIZE, cardinality);
+          }
+        }
+      }
+      assertEquals(in.length(), in.getFilePointer());
+    }
+    d.close();
+  }
+
+  public void testPrefixSum() {
+    final int[] buffer = new int[BLOCK_SIZE];
+    final int count = RandomNumbers.randomIntBetween(random(), 1, BLOCK_SIZE);
+    final int base = random().nextInt(1000);
+    for (int i = 0; i < count; ++i) {
+      buffer[i] = random().nextInt(100);
+    }
+    final int[] expected = new int[count];
+    int sum = base;
+    for (int i = 0; i < count; ++i) {
+      sum += buffer[i];
+      expected[i] = sum;
+    }
+    ForUtil.prefixSum(buffer, count, base);
+    assertArrayEquals(expected, Arrays.copyOf(buffer, count));
+  }
+
 }
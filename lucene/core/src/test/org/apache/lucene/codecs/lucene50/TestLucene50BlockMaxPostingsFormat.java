@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.lucene50;
+
+
+import org.apache.lucene.analysis.MockAnalyzer;
+import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.BasePostingsFormatTestCase;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.ImpactsEnum;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.TestUtil;
+
+/**
+ * Tests Lucene50BlockMaxPostingsFormat
+ */
+public class TestLucene50BlockMaxPostingsFormat extends BasePostingsFormatTestCase {
+  private final Codec codec = TestUtil.alwaysPostingsFormat(new Lucene50BlockMaxPostingsFormat());
+
+  @Override
+  protected Codec getCodec() {
+    return codec;
+  }
+
+  /** Advance past the last doc of a dense last block, which has no skip entry. */
+  public void testAdvancePastDenseLastBlock() throws Exception {
+    Directory d = newDirectory();
+    IndexWriter w = new IndexWriter(d, newIndexWriterConfig(new MockAnalyzer(random())).setCodec(codec));
+    // 128 docs out of 192: a single full block, which is stored as a bit set
+    for (int i = 0; i < 192; i++) {
+      Document doc = new Document();
+      if (i % 3 != 0) {
+        doc.add(newStringField("field", "value", Field.Store.NO));
+      }
+      w.addDocument(doc);
+    }
+    w.forceMerge(1);
+    DirectoryReader r = DirectoryReader.open(w);
+    w.close();
+    LeafReader leaf = r.leaves().get(0).reader();
+
+    TermsEnum termsEnum = leaf.terms("field").iterator();
+    assertTrue(termsEnum.seekExact(new BytesRef("value")));
+    PostingsEnum postings = termsEnum.postings(null, PostingsEnum.NONE);
+    assertEquals(10, postings.advance(10));
+    assertEquals(DocIdSetIterator.NO_MORE_DOCS, postings.advance(250));
+
+    // without a previous call to advance
+    postings = termsEnum.postings(postings, PostingsEnum.NONE);
+    assertEquals(DocIdSetIterator.NO_MORE_DOCS, postings.advance(192));
+
+    // the last docs of the block are still found
+    postings = termsEnum.postings(postings, PostingsEnum.NONE);
+    assertEquals(1, postings.nextDoc());
+    assertEquals(190, postings.advance(189));
+    assertEquals(191, postings.advance(191));
+    assertEquals(DocIdSetIterator.NO_MORE_DOCS, postings.nextDoc());
+
+    r.close();
+    d.close();
+  }
+
+  /** Make sure that the max freqs stored in skip data are upper bounds of the actual freqs. */
+  public void testImpacts() throws Exception {
+    Directory d = newDirectory();
+    IndexWriterConfig iwc = newIndexWriterConfig(new MockAnalyzer(random()));
+    iwc.setCodec(codec);
+    IndexWriter w = new IndexWriter(d, iwc);
+    final int numDocs = atLeast(2000);
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      StringBuilder sb = new StringBuilder();
+      final int freq = random().nextInt(10) == 0 ? TestUtil.nextInt(random(), 1, 50) : TestUtil.nextInt(random(), 1, 3);
+      for (int j = 0; j < freq; j++) {
+        sb.append("foo ");
+      }
+      doc.add(newTextField("field", sb.toString(), Field.Store.NO));
+      w.addDocument(doc);
+    }
+    w.forceMerge(1);
+
+    DirectoryReader r = DirectoryReader.open(w);
+    LeafReader leaf = r.leaves().get(0).reader();
+    TermsEnum te = leaf.terms("field").iterator();
+    assertTrue(te.seekExact(new BytesRef("foo")));
+    PostingsEnum postings = te.postings(null, PostingsEnum.FREQS);
+    assertTrue(postings instanceof ImpactsEnum);
+    ImpactsEnum impacts = (ImpactsEnum) postings;
+    PostingsEnum check = te.postings(null, PostingsEnum.FREQS);
+    int target = 0;
+    while (target != DocIdSetIterator.NO_MORE_DOCS) {
+      final int blockEnd = impacts.advanceShallow(target);
+      assertTrue(blockEnd >= target);
+      final int upTo = random().nextBoolean() ? blockEnd : Math.min(blockEnd, target + random().nextInt(1000));
+      final int maxFreq = impacts.getMaxFreq(upTo);
+      int doc = check.docID() < target ? check.advance(target) : check.docID();
+      while (doc <= upTo && doc != DocIdSetIterator.NO_MORE_DOCS) {
+        assertTrue(check.freq() <= maxFreq);
+        doc = check.nextDoc();
+      }
+      if (random().nextInt(4) == 0 && upTo < DocIdSetIterator.NO_MORE_DOCS - 1 && impacts.docID() <= upTo) {
+        // advancing the iterator must not interfere with shallow advancing
+        impacts.advance(upTo + 1);
+      }
+      target = upTo == DocIdSetIterator.NO_MORE_DOCS ? upTo : upTo + 1;
+    }
+    r.close();
+    w.close();
+    d.close();
+  }
+}
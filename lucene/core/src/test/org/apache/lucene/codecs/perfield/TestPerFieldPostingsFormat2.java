@@ -23,11 +23,16 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.FieldsConsumer;
 import org.apache.lucene.codecs.FieldsProducer;
+import org.apache.lucene.codecs.FilterCodec;
 import org.apache.lucene.codecs.PostingsFormat;
 import org.apache.lucene.codecs.asserting.AssertingCodec;
 import org.apache.lucene.codecs.blockterms.LuceneVarGapFixedInterval;
@@ -57,6 +62,7 @@ import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.NamedThreadFactory;
 import org.apache.lucene.util.TestUtil;
 import org.junit.Test;
 
@@ -337,6 +343,71 @@ public class TestPerFieldPostingsFormat2 extends LuceneTestCase {
     dir.close(); // checkindex
   }
 
+  public void testConcurrentMergeOfPartitions() throws Exception {
+    final int numFields = TestUtil.nextInt(random(), 2, 8);
+    final Codec defaultCodec = TestUtil.getDefaultCodec();
+    final PostingsFormat postingsFormat = TestUtil.getDefaultPostingsFormat();
+    final PostingsFormat perFieldPostingsFormat = new PerFieldPostingsFormat() {
+      @Override
+      public PostingsFormat getPostingsFormatForField(String field) {
+        return postingsFormat;
+      }
+
+      @Override
+      protected int getMergePartitionCount(int numFields, long numPostings) {
+        // one partition per field, no matter how small
+        return numFields;
+      }
+    };
+    Codec codec = new FilterCodec(defaultCodec.getName(), defaultCodec) {
+      @Override
+      public PostingsFormat postingsFormat() {
+        return perFieldPostingsFormat;
+      }
+    };
+
+    ExecutorService mergeExecutor = Executors.newFixedThreadPool(TestUtil.nextInt(random(), 1, 4), new NamedThreadFactory("TestConcurrentMergeOfPartitions"));
+    Directory dir = newDirectory();
+    IndexWriterConfig iwc = newIndexWriterConfig(new MockAnalyzer(random()));
+    iwc.setCodec(codec);
+    iwc.setMergeExecutor(mergeExecutor);
+    iwc.setMaxBufferedDocs(TestUtil.nextInt(random(), 10, 50));
+    IndexWriter w = new IndexWriter(dir, iwc);
+    final int numDocs = atLeast(200);
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      for (int j = 0; j < numFields; j++) {
+        doc.add(newStringField("f" + j, Integer.toString(i % (j + 2)), Field.Store.NO));
+      }
+      w.addDocument(doc);
+    }
+    w.forceMerge(1);
+    w.close();
+
+    try (DirectoryReader r = DirectoryReader.open(dir)) {
+      assertEquals(1, r.leaves().size());
+      Set<String> suffixes = new HashSet<>();
+      for (FieldInfo fi : r.leaves().get(0).reader().getFieldInfos()) {
+        suffixes.add(fi.getAttribute(PerFieldPostingsFormat.PER_FIELD_SUFFIX_KEY));
+      }
+      // every field was merged to its own files
+      assertEquals(numFields, suffixes.size());
+      IndexSearcher searcher = newSearcher(r);
+      for (int j = 0; j < numFields; j++) {
+        int expected = 0;
+        for (int i = 0; i < numDocs; i++) {
+          if (i % (j + 2) == 1) {
+            expected++;
+          }
+        }
+        assertEquals(expected, searcher.count(new TermQuery(new Term("f" + j, "1"))));
+      }
+    }
+    mergeExecutor.shutdown();
+    assertTrue(mergeExecutor.awaitTermination(1, TimeUnit.MINUTES));
+    dir.close();
+  }
+
   @SuppressWarnings("deprecation")
   public void testMergeCalledOnTwoFormats() throws IOException {
     MergeRecordingPostingsFormatWrapper pf1 = new MergeRecordingPostingsFormatWrapper(TestUtil.getDefaultPostingsFormat());
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.lucene.analysis.MockAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.LuceneTestCase;
+
+public class TestAdaptiveMergeScheduler extends LuceneTestCase {
+
+  public void testInvalidArguments() {
+    expectThrows(IllegalArgumentException.class, () -> {
+      new AdaptiveMergeScheduler(null, 10);
+    });
+    expectThrows(IllegalArgumentException.class, () -> {
+      new AdaptiveMergeScheduler(() -> 1, 0);
+    });
+    AdaptiveMergeScheduler ams = new AdaptiveMergeScheduler(() -> 1, 10);
+    expectThrows(IllegalArgumentException.class, () -> {
+      ams.setMaxIOUtilization(1.5);
+    });
+    expectThrows(IllegalArgumentException.class, () -> {
+      ams.setControlIntervalMillis(0);
+    });
+  }
+
+  public void testBackOffAndRecover() throws Exception {
+    Directory dir = newDirectory();
+    AdaptiveMergeScheduler ams = new AdaptiveMergeScheduler(() -> Double.NaN, 10);
+    ams.setIOUtilizationProbe(null);
+    ams.setMaxMergesAndThreads(6, 3);
+    // we drive adjustments ourselves:
+    ams.setControlIntervalMillis(Long.MAX_VALUE);
+    IndexWriter w = new IndexWriter(dir, newIndexWriterConfig(new MockAnalyzer(random()))
+                                           .setMergePolicy(NoMergePolicy.INSTANCE)
+                                           .setMergeScheduler(ams));
+    w.addDocument(new Document());
+    w.maybeMerge();
+
+    double rate = ams.getIORateLimitMBPerSec();
+    ams.adjust(50, Double.NaN);
+    assertEquals(2, ams.getMaxThreadCount());
+    assertEquals(rate / 2, ams.getRateCeilingMBPerSec(), 0.0);
+    assertEquals(rate / 2, ams.getIORateLimitMBPerSec(), 0.0);
+
+    // backs off down to a single thread and the minimum rate:
+    for (int i = 0; i < 10; i++) {
+      ams.adjust(50, Double.NaN);
+    }
+    assertEquals(1, ams.getMaxThreadCount());
+    assertEquals(ConcurrentMergeScheduler.MIN_MERGE_MB_PER_SEC, ams.getRateCeilingMBPerSec(), 0.0);
+    assertEquals(6, ams.getMaxMergeCount());
+
+    // close to the target: hold
+    ams.adjust(9, Double.NaN);
+    assertEquals(ConcurrentMergeScheduler.MIN_MERGE_MB_PER_SEC, ams.getRateCeilingMBPerSec(), 0.0);
+
+    // headroom, no backlog: the ceiling is slowly raised
+    ams.adjust(1, Double.NaN);
+    assertTrue(ams.getRateCeilingMBPerSec() > ConcurrentMergeScheduler.MIN_MERGE_MB_PER_SEC);
+    assertEquals(1, ams.getMaxThreadCount());
+
+    // saturated devices also make us back off
+    ams.adjust(1, 0.95);
+    assertEquals(ConcurrentMergeScheduler.MIN_MERGE_MB_PER_SEC, ams.getRateCeilingMBPerSec(), 0.0);
+
+    // the ceiling is lifted when closing
+    w.close();
+    assertEquals(Double.POSITIVE_INFINITY, ams.getRateCeilingMBPerSec(), 0.0);
+    assertEquals(3, ams.getMaxThreadCount());
+    dir.close();
+  }
+
+  public void testIndexingWithChangingLatency() throws Exception {
+    Directory dir = newDirectory();
+    AdaptiveMergeScheduler ams = new AdaptiveMergeScheduler(() -> random().nextInt(20), 10);
+    ams.setControlIntervalMillis(1);
+    IndexWriter w = new IndexWriter(dir, newIndexWriterConfig(new MockAnalyzer(random()))
+                                           .setMaxBufferedDocs(2)
+                                           .setMergePolicy(newLogMergePolicy(2))
+                                           .setMergeScheduler(ams));
+    int numDocs = atLeast(200);
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      doc.add(newTextField("content", "a b c " + i, Field.Store.NO));
+      w.addDocument(doc);
+    }
+    w.close();
+    DirectoryReader r = DirectoryReader.open(dir);
+    assertEquals(numDocs, r.numDocs());
+    r.close();
+    dir.close();
+  }
+
+  public void testDiskStatsProbe() {
+    AdaptiveMergeScheduler.DiskStatsProbe probe = new AdaptiveMergeScheduler.DiskStatsProbe(null, null);
+    List<String> before = Arrays.asList(
+        "   7       0 loop0 0 0 0 0 0 0 0 0 0 0 0",
+        "   8       0 sda 100 0 800 50 200 0 1600 80 0 1000 130",
+        " 259       0 nvme0n1 100 0 800 50 200 0 1600 80 0 3000 130");
+    List<String> after = Arrays.asList(
+        "   7       0 loop0 0 0 0 0 0 0 0 0 0 900 0",
+        "   8       0 sda 150 0 1200 70 200 0 1600 80 0 1500 150",
+        " 259       0 nvme0n1 100 0 800 50 200 0 1600 80 0 3100 130");
+    assertTrue(Double.isNaN(probe.update(before, 10000)));
+    // the busiest device wins, loop devices are ignored:
+    assertEquals(0.5, probe.update(after, 11000), 0.0);
+
+    AdaptiveMergeScheduler.DiskStatsProbe nvmeProbe = new AdaptiveMergeScheduler.DiskStatsProbe(null, "nvme0n1");
+    nvmeProbe.update(before, 10000);
+    assertEquals(0.1, nvmeProbe.update(after, 11000), 0.0);
+  }
+}
@@ -18,17 +18,24 @@ package org.apache.lucene.index;
 
 import java.io.IOException;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.IndexWriterConfig.OpenMode;
 import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.NamedThreadFactory;
+import org.apache.lucene.util.TestUtil;
 
 public class TestIndexWriterMerging extends LuceneTestCase {
 
@@ -457,4 +464,48 @@ public class TestIndexWriterMerging extends LuceneTestCase {
 
     directory.close();
   }
+
+  public void testMergeExecutor() throws Exception {
+    Directory dir = newDirectory();
+    ExecutorService mergeExecutor = Executors.newFixedThreadPool(TestUtil.nextInt(random(), 1, 4), new NamedThreadFactory("TestMergeExecutor"));
+    IndexWriterConfig iwc = newIndexWriterConfig(new MockAnalyzer(random()));
+    iwc.setMaxBufferedDocs(TestUtil.nextInt(random(), 10, 50));
+    iwc.setMergePolicy(newLogMergePolicy());
+    iwc.setMergeScheduler(new ConcurrentMergeScheduler());
+    iwc.setMergeExecutor(mergeExecutor);
+    IndexWriter w = new IndexWriter(dir, iwc);
+    FieldType vectorsType = new FieldType(TextField.TYPE_STORED);
+    vectorsType.setStoreTermVectors(true);
+    final int numDocs = atLeast(500);
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      doc.add(newStringField("id", Integer.toString(i), Field.Store.YES));
+      doc.add(new Field("body", "value " + (i % 17) + " and " + (i % 3), vectorsType));
+      doc.add(new NumericDocValuesField("dv", i));
+      doc.add(new IntPoint("point", i));
+      w.addDocument(doc);
+      if (random().nextInt(20) == 0) {
+        w.deleteDocuments(new Term("id", Integer.toString(random().nextInt(i + 1))));
+      }
+    }
+    w.forceMerge(1);
+    final int numLiveDocs = w.numDocs();
+    w.close();
+
+    try (DirectoryReader r = DirectoryReader.open(dir)) {
+      assertEquals(1, r.leaves().size());
+      assertEquals(numLiveDocs, r.numDocs());
+      LeafReader leaf = r.leaves().get(0).reader();
+      NumericDocValues dv = leaf.getNumericDocValues("dv");
+      for (int i = 0; i < leaf.maxDoc(); i++) {
+        Document doc = leaf.document(i);
+        assertEquals(Integer.parseInt(doc.get("id")), dv.get(i));
+        assertNotNull(leaf.getTermVectors(i).terms("body"));
+      }
+      assertEquals(leaf.maxDoc(), leaf.getPointValues().getDocCount("point"));
+    }
+    mergeExecutor.shutdown();
+    assertTrue(mergeExecutor.awaitTermination(1, TimeUnit.MINUTES));
+    dir.close();
+  }
 }
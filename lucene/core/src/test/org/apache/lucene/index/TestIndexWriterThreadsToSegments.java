@@ -24,6 +24,9 @@ import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.lucene.analysis.MockAnalyzer;
@@ -37,6 +40,7 @@ import org.apache.lucene.store.IOContext;
 import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.NamedThreadFactory;
 import org.apache.lucene.util.StringHelper;
 import org.apache.lucene.util.TestUtil;
 
@@ -351,6 +355,55 @@ public class TestIndexWriterThreadsToSegments extends LuceneTestCase {
     dir.close();
   }
   
+  public void testFlushExecutor() throws Exception {
+    Directory dir = newDirectory();
+    ExecutorService flushExecutor = Executors.newFixedThreadPool(TestUtil.nextInt(random(), 1, 3), new NamedThreadFactory("TestFlushExecutor"));
+    IndexWriterConfig iwc = new IndexWriterConfig(new MockAnalyzer(random()));
+    iwc.setMaxBufferedDocs(TestUtil.nextInt(random(), 2, 50));
+    iwc.setFlushExecutor(flushExecutor);
+    final IndexWriter w = new IndexWriter(dir, iwc);
+    final int numDocsPerThread = atLeast(200);
+    Thread[] threads = new Thread[TestUtil.nextInt(random(), 2, 6)];
+    final CountDownLatch startingGun = new CountDownLatch(1);
+    for(int i=0;i<threads.length;i++) {
+      final int threadID = i;
+      threads[i] = new Thread() {
+          @Override
+          public void run() {
+            try {
+              startingGun.await();
+              for(int j=0;j<numDocsPerThread;j++) {
+                Document doc = new Document();
+                doc.add(newStringField("id", threadID + "_" + j, Field.Store.NO));
+                doc.add(newTextField("field", "threadID" + threadID, Field.Store.NO));
+                w.addDocument(doc);
+              }
+            } catch (Exception e) {
+              throw new RuntimeException(e);
+            }
+          }
+        };
+      threads[i].start();
+    }
+    startingGun.countDown();
+    for(Thread t : threads) {
+      t.join();
+    }
+    assertTrue(w.getIndexingStallCount() >= 0);
+    assertTrue(w.getIndexingStallTimeNanos() >= 0);
+    w.commit();
+    try (DirectoryReader r = DirectoryReader.open(dir)) {
+      assertEquals(threads.length * numDocsPerThread, r.numDocs());
+      for(int i=0;i<threads.length;i++) {
+        assertEquals(numDocsPerThread, r.docFreq(new Term("field", "threadID" + i)));
+      }
+    }
+    w.close();
+    flushExecutor.shutdown();
+    assertTrue(flushExecutor.awaitTermination(1, TimeUnit.MINUTES));
+    dir.close();
+  }
+
   // TODO: remove this hack and fix this test to be better?
   // the whole thing relies on default codec too...
   byte[] readSegmentInfoID(Directory dir, String file) throws IOException {
@@ -0,0 +1,279 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.lucene.analysis.MockAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.Explanation;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TermRangeQuery;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.NamedThreadFactory;
+import org.apache.lucene.util.TestUtil;
+
+public class TestSegmentFieldStats extends LuceneTestCase {
+
+  private static Document newDoc(String host, long time) {
+    Document doc = new Document();
+    doc.add(new StringField("host", host, Field.Store.NO));
+    doc.add(new NumericDocValuesField("time", time));
+    doc.add(new SortedNumericDocValuesField("times", time));
+    doc.add(new SortedNumericDocValuesField("times", time + 1));
+    return doc;
+  }
+
+  /** Indexes one segment per host, with times from host*100 to host*100+9. */
+  private static IndexWriter indexSegments(Directory dir, int numSegments) throws IOException {
+    IndexWriter w = new IndexWriter(dir, newIndexWriterConfig(new MockAnalyzer(random()))
+                                           .setMergePolicy(NoMergePolicy.INSTANCE));
+    for (int host = 0; host < numSegments; host++) {
+      for (int i = 0; i < 10; i++) {
+        w.addDocument(newDoc("host" + host, host * 100 + i));
+      }
+      w.commit();
+    }
+    return w;
+  }
+
+  public void testFlushedStats() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriter w = indexSegments(dir, 2);
+    DirectoryReader reader = DirectoryReader.open(w);
+    assertEquals(2, reader.leaves().size());
+    for (LeafReaderContext ctx : reader.leaves()) {
+      SegmentFieldStats stats = SegmentFieldStats.of(ctx.reader());
+      String host = ctx.reader().terms("host").iterator().next().utf8ToString();
+      long base = Long.parseLong(host.substring(4)) * 100;
+      assertTrue(stats.mightContainTerm("host", new BytesRef(host)));
+      assertFalse(stats.mightContainTerm("host", new BytesRef("other")));
+      assertFalse(stats.mightContainTerm("missing", new BytesRef(host)));
+      assertTrue(stats.docValuesMightIntersect("time", base + 9, base + 50));
+      assertFalse(stats.docValuesMightIntersect("time", base + 10, base + 50));
+      assertTrue(stats.docValuesMightIntersect("times", base + 10, base + 50));
+      assertFalse(stats.docValuesMightIntersect("times", base + 11, base + 50));
+      assertFalse(stats.docValuesMightIntersect("time", base - 10, base - 1));
+      assertFalse(stats.termsMightIntersect("host", new BytesRef(host), false, null, false));
+      assertTrue(stats.termsMightIntersect("host", new BytesRef(host), true, null, false));
+    }
+    reader.close();
+    w.close();
+    dir.close();
+  }
+
+  public void testMergedStats() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriter w = indexSegments(dir, 3);
+    w.getConfig().setMergePolicy(newLogMergePolicy());
+    w.forceMerge(1);
+    DirectoryReader reader = DirectoryReader.open(w);
+    assertEquals(1, reader.leaves().size());
+    SegmentFieldStats stats = SegmentFieldStats.of(reader.leaves().get(0).reader());
+    for (int host = 0; host < 3; host++) {
+      assertTrue(stats.mightContainTerm("host", new BytesRef("host" + host)));
+    }
+    assertFalse(stats.docValuesMightIntersect("time", -10, -1));
+    assertTrue(stats.docValuesMightIntersect("time", 209, 209));
+    assertFalse(stats.docValuesMightIntersect("time", 210, 300));
+    assertFalse(stats.docValuesMightIntersect("times", 211, 300));
+    reader.close();
+    w.close();
+    dir.close();
+  }
+
+  public void testUpdatedDocValues() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriter w = indexSegments(dir, 2);
+    w.updateNumericDocValue(new Term("host", "host0"), "time", 1000);
+    DirectoryReader reader = DirectoryReader.open(w);
+    IndexSearcher searcher = newSearcher(reader);
+    assertEquals(10, searcher.count(NumericDocValuesField.newRangeQuery("time", 1000, 1000)));
+    reader.close();
+
+    w.getConfig().setMergePolicy(newLogMergePolicy());
+    w.forceMerge(1);
+    reader = DirectoryReader.open(w);
+    searcher = newSearcher(reader);
+    assertEquals(10, searcher.count(NumericDocValuesField.newRangeQuery("time", 1000, 1000)));
+    reader.close();
+    w.close();
+    dir.close();
+  }
+
+  /** A query that can't match any segment and fails if a scorer is created. */
+  private static class NoMatchQuery extends Query {
+
+    @Override
+    public boolean canMatch(SegmentFieldStats stats) {
+      return false;
+    }
+
+    @Override
+    public Weight createWeight(IndexSearcher searcher, boolean needsScores) throws IOException {
+      return new Weight(this) {
+        @Override
+        public void extractTerms(Set<Term> terms) {
+        }
+
+        @Override
+        public Explanation explain(LeafReaderContext context, int doc) throws IOException {
+          throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public float getValueForNormalization() throws IOException {
+          return 1;
+        }
+
+        @Override
+        public void normalize(float norm, float boost) {
+        }
+
+        @Override
+        public Scorer scorer(LeafReaderContext context) throws IOException {
+          throw new AssertionError("segment should have been skipped");
+        }
+      };
+    }
+
+    @Override
+    public String toString(String field) {
+      return "NoMatchQuery";
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return sameClassAs(other);
+    }
+
+    @Override
+    public int hashCode() {
+      return classHash();
+    }
+  }
+
+  public void testSearcherSkipsSegments() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriter w = indexSegments(dir, 2);
+    DirectoryReader reader = DirectoryReader.open(w);
+    IndexSearcher searcher = new IndexSearcher(reader);
+    searcher.setQueryCache(null);
+    assertEquals(0, searcher.count(new NoMatchQuery()));
+    assertEquals(0, searcher.search(new NoMatchQuery(), 10).totalHits);
+    BooleanQuery.Builder builder = new BooleanQuery.Builder();
+    builder.add(new MatchAllDocsQuery(), Occur.MUST);
+    builder.add(new NoMatchQuery(), Occur.FILTER);
+    assertEquals(0, searcher.count(builder.build()));
+    reader.close();
+    w.close();
+    dir.close();
+  }
+
+  public void testSlicedSearcherSkipsSegments() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriter w = indexSegments(dir, 2);
+    DirectoryReader reader = DirectoryReader.open(w);
+    ExecutorService executor = Executors.newFixedThreadPool(2, new NamedThreadFactory("TestSegmentFieldStats"));
+    try {
+      // split every segment into doc ID ranges so that the range path gets exercised
+      IndexSearcher searcher = new IndexSearcher(reader, executor) {
+        @Override
+        protected LeafSlice[] slices(List<LeafReaderContext> leaves) {
+          return slices(leaves, 3, 1);
+        }
+      };
+      searcher.setQueryCache(null);
+      assertEquals(0, searcher.search(new NoMatchQuery(), 10).totalHits);
+      assertEquals(10, searcher.search(new TermQuery(new Term("host", "host1")), 10).totalHits);
+    } finally {
+      executor.shutdown();
+    }
+    reader.close();
+    w.close();
+    dir.close();
+  }
+
+  public void testRandomQueries() throws Exception {
+    Directory dir = newDirectory();
+    RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    int numDocs = atLeast(500);
+    for (int i = 0; i < numDocs; i++) {
+      w.addDocument(newDoc("host" + random().nextInt(20), random().nextInt(1000)));
+      if (random().nextInt(50) == 0) {
+        w.commit();
+      }
+    }
+    if (random().nextBoolean()) {
+      w.updateNumericDocValue(new Term("host", "host" + random().nextInt(20)), "time", (long) random().nextInt(2000));
+    }
+    IndexReader reader = w.getReader();
+    IndexSearcher searcher = newSearcher(reader);
+    for (int iter = 0; iter < 50; iter++) {
+      long lower = random().nextInt(2000);
+      long upper = lower + random().nextInt(200);
+      String host = "host" + random().nextInt(25);
+      Query[] queries = new Query[] {
+          NumericDocValuesField.newRangeQuery("time", lower, upper),
+          SortedNumericDocValuesField.newRangeQuery("times", lower, upper),
+          new TermQuery(new Term("host", host)),
+          TermRangeQuery.newStringRange("host", host, "host" + TestUtil.nextInt(random(), 0, 25), random().nextBoolean(), random().nextBoolean())
+      };
+      for (Query query : queries) {
+        assertEquals(query.toString(), countWithoutSkipping(searcher, query), searcher.count(query));
+      }
+    }
+    reader.close();
+    w.close();
+    dir.close();
+  }
+
+  private static int countWithoutSkipping(IndexSearcher searcher, Query query) throws IOException {
+    Weight weight = searcher.createNormalizedWeight(query, false);
+    int count = 0;
+    for (LeafReaderContext ctx : searcher.getIndexReader().leaves()) {
+      Scorer scorer = weight.scorer(ctx);
+      if (scorer != null) {
+        for (int doc = scorer.iterator().nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = scorer.iterator().nextDoc()) {
+          if (ctx.reader().getLiveDocs() == null || ctx.reader().getLiveDocs().get(doc)) {
+            count++;
+          }
+        }
+      }
+    }
+    return count;
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.analysis.MockAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.TestUtil;
+
+public class TestTimeTieredMergePolicy extends BaseMergePolicyTestCase {
+
+  @Override
+  public MergePolicy mergePolicy() {
+    return new TimeTieredMergePolicy("modified").setSegmentsPerTier(TestUtil.nextInt(random(), 2, 20));
+  }
+
+  private static Document newTimeDoc(long time) {
+    Document doc = new Document();
+    doc.add(new LongPoint("modified", time));
+    doc.add(new StringField("id", Long.toString(time), Field.Store.NO));
+    return doc;
+  }
+
+  private static List<long[]> leafRanges(DirectoryReader reader) throws Exception {
+    List<long[]> ranges = new ArrayList<>();
+    for (LeafReaderContext ctx : reader.leaves()) {
+      PointValues values = ctx.reader().getPointValues();
+      ranges.add(new long[] {LongPoint.decodeDimension(values.getMinPackedValue("modified"), 0),
+                             LongPoint.decodeDimension(values.getMaxPackedValue("modified"), 0)});
+    }
+    ranges.sort((a, b) -> Long.compare(a[0], b[0]));
+    return ranges;
+  }
+
+  public void testMergesOnlyAdjacentRanges() throws Exception {
+    Directory dir = newDirectory();
+    TimeTieredMergePolicy mp = new TimeTieredMergePolicy("modified").setSegmentsPerTier(3);
+    IndexWriter w = new IndexWriter(dir, newIndexWriterConfig(new MockAnalyzer(random()))
+                                           .setMaxBufferedDocs(TestUtil.nextInt(random(), 2, 10))
+                                           .setMergePolicy(mp));
+    int numDocs = atLeast(500);
+    for (int i = 0; i < numDocs; i++) {
+      w.addDocument(newTimeDoc(i));
+    }
+    w.close();
+
+    DirectoryReader reader = DirectoryReader.open(dir);
+    assertEquals(numDocs, reader.numDocs());
+    assertTrue(reader.leaves().size() < numDocs / 2);
+    // documents were indexed in time order, so segments must not overlap in time:
+    List<long[]> ranges = leafRanges(reader);
+    for (int i = 1; i < ranges.size(); i++) {
+      assertTrue(ranges.get(i - 1)[1] < ranges.get(i)[0]);
+    }
+    reader.close();
+    dir.close();
+  }
+
+  public void testMaxMergeAge() throws Exception {
+    Directory dir = newDirectory();
+    TimeTieredMergePolicy mp = new TimeTieredMergePolicy("modified").setSegmentsPerTier(3).setMaxMergeAge(100);
+    IndexWriter w = new IndexWriter(dir, newIndexWriterConfig(new MockAnalyzer(random()))
+                                           .setMergeScheduler(new SerialMergeScheduler())
+                                           .setMergePolicy(mp));
+    for (long time : new long[] {0, 1, 1000, 1001, 1002}) {
+      w.addDocument(newTimeDoc(time));
+      w.commit();
+    }
+    DirectoryReader reader = DirectoryReader.open(w);
+    // the two old segments were left alone, the recent ones were merged:
+    List<long[]> ranges = leafRanges(reader);
+    assertEquals(3, ranges.size());
+    assertArrayEquals(new long[] {0, 0}, ranges.get(0));
+    assertArrayEquals(new long[] {1, 1}, ranges.get(1));
+    assertArrayEquals(new long[] {1000, 1002}, ranges.get(2));
+    for (SegmentCommitInfo info : w.segmentInfos) {
+      assertNotNull(mp.getTimeRange(info));
+    }
+    reader.close();
+    w.close();
+    dir.close();
+  }
+
+  public void testForceMerge() throws Exception {
+    Directory dir = newDirectory();
+    TimeTieredMergePolicy mp = new TimeTieredMergePolicy("modified").setSegmentsPerTier(100).setForceMergeDeletesPctAllowed(0);
+    IndexWriter w = new IndexWriter(dir, newIndexWriterConfig(new MockAnalyzer(random()))
+                                           .setMaxBufferedDocs(10)
+                                           .setMergePolicy(mp));
+    int numDocs = atLeast(200);
+    for (int i = 0; i < numDocs; i++) {
+      if (random().nextInt(10) == 0) {
+        // documents without a time sort last
+        w.addDocument(new Document());
+      } else {
+        w.addDocument(newTimeDoc(i));
+      }
+    }
+    int maxNumSegments = TestUtil.nextInt(random(), 1, 5);
+    w.forceMerge(maxNumSegments);
+    assertTrue(w.getSegmentCount() <= maxNumSegments);
+
+    w.deleteDocuments(LongPoint.newRangeQuery("modified", 0, numDocs / 2));
+    w.forceMergeDeletes();
+    w.close();
+
+    DirectoryReader reader = DirectoryReader.open(dir);
+    assertFalse(reader.hasDeletions());
+    assertTrue(reader.numDocs() < numDocs);
+    reader.close();
+    dir.close();
+  }
+
+  public void testForgetsMergedSegments() throws Exception {
+    Directory dir = newDirectory();
+    TimeTieredMergePolicy mp = new TimeTieredMergePolicy("modified").setSegmentsPerTier(100);
+    IndexWriter w = new IndexWriter(dir, newIndexWriterConfig(new MockAnalyzer(random()))
+                                           .setMaxBufferedDocs(2)
+                                           .setMergeScheduler(new SerialMergeScheduler())
+                                           .setMergePolicy(mp));
+    for (int i = 0; i < 50; i++) {
+      w.addDocument(newTimeDoc(i));
+    }
+    w.commit();
+    assertTrue(w.getSegmentCount() > 1);
+    assertEquals(w.getSegmentCount(), mp.getCachedTimeRangeCount());
+    w.forceMerge(1);
+    // only the time range of the merged segment is left
+    assertEquals(1, w.getSegmentCount());
+    assertEquals(1, mp.getCachedTimeRangeCount());
+    w.addDocument(newTimeDoc(50));
+    w.commit();
+    assertEquals(2, mp.getCachedTimeRangeCount());
+    w.close();
+    dir.close();
+  }
+
+  public void testNotALongPoint() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriter w = new IndexWriter(dir, newIndexWriterConfig(new MockAnalyzer(random()))
+                                           .setMergePolicy(NoMergePolicy.INSTANCE));
+    Document doc = new Document();
+    doc.add(new LongPoint("modified", 1, 2));
+    w.addDocument(doc);
+    w.commit();
+    TimeTieredMergePolicy mp = new TimeTieredMergePolicy("modified");
+    expectThrows(IllegalArgumentException.class, () -> {
+      mp.getTimeRange(w.segmentInfos.info(0));
+    });
+    w.close();
+    dir.close();
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+
+import java.io.IOException;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.RandomIndexWriter;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.spans.SpanTermQuery;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+
+public class TestBatchCollection extends LuceneTestCase {
+
+  /** Hides batch support of the wrapped collector so that it gets hits one at a time. */
+  private static Collector noBatches(Collector in) {
+    return new FilterCollector(in) {
+      @Override
+      public LeafCollector getLeafCollector(LeafReaderContext context) throws IOException {
+        return new FilterLeafCollector(super.getLeafCollector(context)) {};
+      }
+    };
+  }
+
+  public void testSameHits() throws Exception {
+    Directory dir = newDirectory();
+    RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    final int numDocs = atLeast(1000);
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      StringBuilder sb = new StringBuilder();
+      for (int j = TestUtil.nextInt(random(), 1, 5); j > 0; --j) {
+        sb.append(random().nextBoolean() ? "a " : "b ");
+      }
+      doc.add(new TextField("body", sb.toString(), Field.Store.NO));
+      doc.add(new StringField("id", Integer.toString(i), Field.Store.NO));
+      w.addDocument(doc);
+    }
+    for (int i = random().nextInt(numDocs / 10); i > 0; --i) {
+      w.deleteDocuments(new Term("id", Integer.toString(random().nextInt(numDocs))));
+    }
+    IndexReader reader = w.getReader();
+    w.close();
+    IndexSearcher searcher = newSearcher(reader);
+
+    BooleanQuery.Builder both = new BooleanQuery.Builder();
+    both.add(new TermQuery(new Term("body", "a")), BooleanClause.Occur.MUST);
+    both.add(new TermQuery(new Term("body", "b")), BooleanClause.Occur.MUST);
+    Query[] queries = new Query[] {
+        new MatchAllDocsQuery(),
+        new TermQuery(new Term("body", "a")),
+        new ConstantScoreQuery(new TermQuery(new Term("body", "b"))),
+        // span scorers cannot score when scores are not needed
+        new ConstantScoreQuery(new SpanTermQuery(new Term("body", "a"))),
+        new PhraseQuery("body", "a", "b"),
+        both.build()
+    };
+    for (Query query : queries) {
+      TotalHitCountCollector count1 = new TotalHitCountCollector();
+      TotalHitCountCollector count2 = new TotalHitCountCollector();
+      searcher.search(query, count1);
+      searcher.search(query, noBatches(count2));
+      assertEquals(count2.getTotalHits(), count1.getTotalHits());
+
+      final int numHits = TestUtil.nextInt(random(), 1, 100);
+      TopScoreDocCollector top1 = TopScoreDocCollector.create(numHits, null, true, true);
+      TopScoreDocCollector top2 = TopScoreDocCollector.create(numHits);
+      searcher.search(query, top1);
+      searcher.search(query, noBatches(top2));
+      TopDocs topDocs = top2.topDocs();
+      CheckHits.checkEqual(query, topDocs.scoreDocs, top1.topDocs().scoreDocs);
+      assertEquals(count1.getTotalHits(), topDocs.totalHits);
+
+      if (topDocs.scoreDocs.length > 0) {
+        ScoreDoc after = topDocs.scoreDocs[topDocs.scoreDocs.length - 1];
+        TopScoreDocCollector page1 = TopScoreDocCollector.create(numHits, after, true, true);
+        TopScoreDocCollector page2 = TopScoreDocCollector.create(numHits, after);
+        searcher.search(query, page1);
+        searcher.search(query, noBatches(page2));
+        CheckHits.checkEqual(query, page2.topDocs().scoreDocs, page1.topDocs().scoreDocs);
+      }
+    }
+
+    reader.close();
+    dir.close();
+  }
+
+  public void testTopScoreDocCollectorBatchesOnlyOnRequest() throws IOException {
+    Directory dir = newDirectory();
+    RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    w.addDocument(new Document());
+    IndexReader reader = w.getReader();
+    w.close();
+    LeafReaderContext context = reader.leaves().get(0);
+    ScoreDoc after = new ScoreDoc(0, 1f);
+
+    assertEquals(LeafCollector.BatchMode.NONE, TopScoreDocCollector.create(10).getLeafCollector(context).batchMode());
+    assertEquals(LeafCollector.BatchMode.NONE, TopScoreDocCollector.create(10, after).getLeafCollector(context).batchMode());
+    // hits must be collected one at a time to skip non-competitive documents
+    assertEquals(LeafCollector.BatchMode.NONE, TopScoreDocCollector.create(10, null, false).getLeafCollector(context).batchMode());
+    assertEquals(LeafCollector.BatchMode.NONE, TopScoreDocCollector.create(10, after, false).getLeafCollector(context).batchMode());
+    assertEquals(LeafCollector.BatchMode.DOCS_AND_SCORES, TopScoreDocCollector.create(10, null, true, true).getLeafCollector(context).batchMode());
+    assertEquals(LeafCollector.BatchMode.DOCS_AND_SCORES, TopScoreDocCollector.create(10, after, true, true).getLeafCollector(context).batchMode());
+    expectThrows(IllegalArgumentException.class, () -> {
+      TopScoreDocCollector.create(10, null, false, true);
+    });
+
+    reader.close();
+    dir.close();
+  }
+
+  public void testDefaultCollectsOneByOne() throws IOException {
+    final int[] collected = new int[3];
+    LeafCollector collector = new LeafCollector() {
+      int upto;
+
+      @Override
+      public void setScorer(Scorer scorer) {}
+
+      @Override
+      public void collect(int doc) {
+        collected[upto++] = doc;
+      }
+    };
+    assertEquals(LeafCollector.BatchMode.NONE, collector.batchMode());
+    collector.collect(new int[] {2, 5, 8, 13}, null, 3);
+    assertArrayEquals(new int[] {2, 5, 8}, collected);
+  }
+}
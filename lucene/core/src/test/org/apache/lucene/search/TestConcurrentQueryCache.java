@@ -0,0 +1,389 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.carrotsearch.randomizedtesting.generators.RandomPicks;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.RandomIndexWriter;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+
+public class TestConcurrentQueryCache extends LuceneTestCase {
+
+  private static final QueryCachingPolicy NEVER_CACHE = new QueryCachingPolicy() {
+
+    @Override
+    public void onUse(Query query) {}
+
+    @Override
+    public boolean shouldCache(Query query) throws IOException {
+      return false;
+    }
+
+  };
+
+  private static final List<String> COLORS = Arrays.asList("blue", "red", "yellow", "green");
+
+  public void testConcurrency() throws Throwable {
+    final ConcurrentQueryCache queryCache = new ConcurrentQueryCache(1 + random().nextInt(20), 1 + random().nextInt(10000), context -> random().nextBoolean());
+    Directory dir = newDirectory();
+    final RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    final SearcherFactory searcherFactory = new SearcherFactory() {
+      @Override
+      public IndexSearcher newSearcher(IndexReader reader, IndexReader previous) throws IOException {
+        IndexSearcher searcher = new IndexSearcher(reader);
+        searcher.setQueryCachingPolicy(QueryCachingPolicy.ALWAYS_CACHE);
+        searcher.setQueryCache(queryCache);
+        return searcher;
+      }
+    };
+    final SearcherManager mgr = new SearcherManager(w.w, random().nextBoolean(), false, searcherFactory);
+    final AtomicBoolean indexing = new AtomicBoolean(true);
+    final AtomicReference<Throwable> error = new AtomicReference<>();
+    final int numDocs = atLeast(10000);
+    Thread[] threads = new Thread[4];
+    threads[0] = new Thread() {
+      public void run() {
+        Document doc = new Document();
+        StringField f = new StringField("color", "", Store.NO);
+        doc.add(f);
+        for (int i = 0; indexing.get() && i < numDocs; ++i) {
+          f.setStringValue(RandomPicks.randomFrom(random(), COLORS.subList(0, 3)));
+          try {
+            w.addDocument(doc);
+            if ((i & 63) == 0) {
+              mgr.maybeRefresh();
+              if (rarely()) {
+                queryCache.clear();
+              }
+              if (rarely()) {
+                queryCache.clearQuery(new TermQuery(new Term("color", RandomPicks.randomFrom(random(), COLORS))));
+              }
+            }
+          } catch (Throwable t) {
+            error.compareAndSet(null, t);
+            break;
+          }
+        }
+        indexing.set(false);
+      }
+    };
+    for (int i = 1; i < threads.length; ++i) {
+      threads[i] = new Thread() {
+        @Override
+        public void run() {
+          while (indexing.get()) {
+            try {
+              final IndexSearcher searcher = mgr.acquire();
+              try {
+                final Query q = new TermQuery(new Term("color", RandomPicks.randomFrom(random(), COLORS)));
+                TotalHitCountCollector collector = new TotalHitCountCollector();
+                searcher.search(q, collector); // will use the cache
+                final int totalHits1 = collector.getTotalHits();
+                final int totalHits2 = searcher.search(q, 1).totalHits; // will not use the cache because of scores
+                assertEquals(totalHits2, totalHits1);
+              } finally {
+                mgr.release(searcher);
+              }
+            } catch (Throwable t) {
+              error.compareAndSet(null, t);
+            }
+          }
+        }
+      };
+    }
+
+    for (Thread thread : threads) {
+      thread.start();
+    }
+
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    if (error.get() != null) {
+      throw error.get();
+    }
+    queryCache.assertConsistent();
+    mgr.close();
+    w.close();
+    dir.close();
+    queryCache.assertConsistent();
+  }
+
+  public void testLRUEviction() throws Exception {
+    Directory dir = newDirectory();
+    final RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+
+    Document doc = new Document();
+    StringField f = new StringField("color", "blue", Store.NO);
+    doc.add(f);
+    w.addDocument(doc);
+    f.setStringValue("red");
+    w.addDocument(doc);
+    f.setStringValue("green");
+    w.addDocument(doc);
+    final DirectoryReader reader = w.getReader();
+    final IndexSearcher searcher = newSearcher(reader);
+    final ConcurrentQueryCache queryCache = new ConcurrentQueryCache(2, 100000, context -> true);
+
+    final Query blue = new TermQuery(new Term("color", "blue"));
+    final Query red = new TermQuery(new Term("color", "red"));
+    final Query green = new TermQuery(new Term("color", "green"));
+
+    assertEquals(Collections.emptyList(), queryCache.cachedQueries());
+
+    searcher.setQueryCache(queryCache);
+    // the filter is not cached on any segment: no changes
+    searcher.setQueryCachingPolicy(NEVER_CACHE);
+    searcher.search(new ConstantScoreQuery(green), 1);
+    assertEquals(Collections.emptyList(), queryCache.cachedQueries());
+
+    // with a small maxSize, lookups are recorded exactly
+    searcher.setQueryCachingPolicy(QueryCachingPolicy.ALWAYS_CACHE);
+    searcher.search(new ConstantScoreQuery(red), 1);
+    assertEquals(Collections.singletonList(red), queryCache.cachedQueries());
+
+    searcher.search(new ConstantScoreQuery(green), 1);
+    assertEquals(Arrays.asList(red, green), queryCache.cachedQueries());
+
+    searcher.search(new ConstantScoreQuery(red), 1);
+    assertEquals(Arrays.asList(green, red), queryCache.cachedQueries());
+
+    searcher.search(new ConstantScoreQuery(blue), 1);
+    assertEquals(Arrays.asList(red, blue), queryCache.cachedQueries());
+
+    searcher.search(new ConstantScoreQuery(blue), 1);
+    assertEquals(Arrays.asList(red, blue), queryCache.cachedQueries());
+
+    searcher.search(new ConstantScoreQuery(green), 1);
+    assertEquals(Arrays.asList(blue, green), queryCache.cachedQueries());
+
+    searcher.setQueryCachingPolicy(NEVER_CACHE);
+    searcher.search(new ConstantScoreQuery(red), 1);
+    assertEquals(Arrays.asList(blue, green), queryCache.cachedQueries());
+    queryCache.assertConsistent();
+
+    reader.close();
+    w.close();
+    dir.close();
+  }
+
+  public void testApproximateLRUEviction() throws Exception {
+    Directory dir = newDirectory();
+    final RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    final int numQueries = atLeast(1000);
+    Document doc = new Document();
+    for (int i = 0; i < numQueries; ++i) {
+      doc.add(new StringField("id", Integer.toString(i), Store.NO));
+    }
+    w.addDocument(doc);
+    final DirectoryReader reader = w.getReader();
+    final IndexSearcher searcher = newSearcher(reader);
+    // more queries than eviction samples
+    final int maxSize = TestUtil.nextInt(random(), 20, 100);
+    final ConcurrentQueryCache queryCache = new ConcurrentQueryCache(maxSize, Long.MAX_VALUE, context -> true);
+    searcher.setQueryCache(queryCache);
+    searcher.setQueryCachingPolicy(QueryCachingPolicy.ALWAYS_CACHE);
+
+    for (int i = 0; i < numQueries; ++i) {
+      final Query query = new TermQuery(new Term("id", Integer.toString(i)));
+      searcher.search(new ConstantScoreQuery(query), 1);
+      final List<Query> cachedQueries = queryCache.cachedQueries();
+      assertEquals(Math.min(i + 1, maxSize), cachedQueries.size());
+      // the query that has just been added is the most recently used one, so it
+      // can never be the least recently used one among the sampled queries
+      assertEquals(query, cachedQueries.get(cachedQueries.size() - 1));
+    }
+    queryCache.assertConsistent();
+
+    reader.close();
+    w.close();
+    dir.close();
+  }
+
+  public void testClearQuery() throws IOException {
+    Directory dir = newDirectory();
+    final RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+
+    Document doc = new Document();
+    StringField f = new StringField("color", "", Store.NO);
+    doc.add(f);
+    final int numDocs = atLeast(10);
+    for (int i = 0; i < numDocs; ++i) {
+      f.setStringValue(random().nextBoolean() ? "red" : "blue");
+      w.addDocument(doc);
+    }
+    final DirectoryReader reader = w.getReader();
+    final IndexSearcher searcher = newSearcher(reader);
+
+    final Query query1 = new TermQuery(new Term("color", "blue"));
+    // different instance yet equal
+    final Query query2 = new TermQuery(new Term("color", "blue"));
+
+    final ConcurrentQueryCache queryCache = new ConcurrentQueryCache(Integer.MAX_VALUE, Long.MAX_VALUE, context -> true);
+    searcher.setQueryCache(queryCache);
+    searcher.setQueryCachingPolicy(QueryCachingPolicy.ALWAYS_CACHE);
+
+    searcher.search(new BoostQuery(new ConstantScoreQuery(query1), random().nextFloat()), 1);
+    assertEquals(1, queryCache.cachedQueries().size());
+    assertTrue(queryCache.ramBytesUsed() > 0);
+
+    queryCache.clearQuery(query2);
+
+    assertTrue(queryCache.cachedQueries().isEmpty());
+    assertEquals(0, queryCache.getCacheSize());
+    queryCache.assertConsistent();
+
+    reader.close();
+    w.close();
+    dir.close();
+  }
+
+  public void testStats() throws IOException {
+    final ConcurrentQueryCache queryCache = new ConcurrentQueryCache(1, 10000000, context -> true);
+
+    Directory dir = newDirectory();
+    final RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+
+    Document doc = new Document();
+    StringField f = new StringField("color", "", Store.NO);
+    doc.add(f);
+    for (int i = 0; i < 10; ++i) {
+      f.setStringValue(RandomPicks.randomFrom(random(), COLORS));
+      w.addDocument(doc);
+      if (random().nextBoolean()) {
+        w.getReader().close();
+      }
+    }
+
+    final DirectoryReader reader = w.getReader();
+    final int segmentCount = reader.leaves().size();
+    final IndexSearcher searcher = new IndexSearcher(reader);
+    final Query query = new TermQuery(new Term("color", "red"));
+    final Query query2 = new TermQuery(new Term("color", "blue"));
+
+    searcher.setQueryCache(queryCache);
+    // first pass, lookups without caching that all miss
+    searcher.setQueryCachingPolicy(NEVER_CACHE);
+    for (int i = 0; i < 10; ++i) {
+      searcher.search(new ConstantScoreQuery(query), 1);
+    }
+    assertEquals(10 * segmentCount, queryCache.getTotalCount());
+    assertEquals(0, queryCache.getHitCount());
+    assertEquals(0, queryCache.getCacheCount());
+    assertEquals(0, queryCache.getCacheSize());
+
+    // second pass, lookups + caching, only the first one is a miss
+    searcher.setQueryCachingPolicy(QueryCachingPolicy.ALWAYS_CACHE);
+    for (int i = 0; i < 10; ++i) {
+      searcher.search(new ConstantScoreQuery(query), 1);
+    }
+    assertEquals(20 * segmentCount, queryCache.getTotalCount());
+    assertEquals(9 * segmentCount, queryCache.getHitCount());
+    assertEquals(11 * segmentCount, queryCache.getMissCount());
+    assertEquals(1 * segmentCount, queryCache.getCacheCount());
+    assertEquals(0, queryCache.getEvictionCount());
+    assertEquals(1 * segmentCount, queryCache.getCacheSize());
+
+    // a different filter triggers evictions since the size is 1
+    for (int i = 0; i < 10; ++i) {
+      searcher.search(new ConstantScoreQuery(query2), 1);
+    }
+    assertEquals(30 * segmentCount, queryCache.getTotalCount());
+    assertEquals(18 * segmentCount, queryCache.getHitCount());
+    assertEquals(12 * segmentCount, queryCache.getMissCount());
+    assertEquals(2 * segmentCount, queryCache.getCacheCount());
+    assertEquals(1 * segmentCount, queryCache.getEvictionCount());
+    assertEquals(1 * segmentCount, queryCache.getCacheSize());
+    queryCache.assertConsistent();
+
+    // now close, causing evictions due to the closing of segment cores
+    reader.close();
+    w.close();
+    assertEquals(2 * segmentCount, queryCache.getEvictionCount());
+    assertEquals(0, queryCache.getCacheSize());
+    queryCache.assertConsistent();
+
+    dir.close();
+  }
+
+  public void testSameCountsAsUncached() throws IOException {
+    Directory dir = newDirectory();
+    final RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    Document doc = new Document();
+    StringField f = new StringField("color", "", Store.NO);
+    doc.add(f);
+    w.addDocument(doc);
+    IndexReader reader = w.getReader();
+
+    final int maxSize = TestUtil.nextInt(random(), 1, 100);
+    final long maxRamBytesUsed = TestUtil.nextLong(random(), 1, 100000);
+    final ConcurrentQueryCache queryCache = new ConcurrentQueryCache(maxSize, maxRamBytesUsed, context -> random().nextBoolean());
+    IndexSearcher uncachedSearcher = null;
+    IndexSearcher cachedSearcher = null;
+
+    final int iters = atLeast(1000);
+    for (int i = 0; i < iters; ++i) {
+      if (i == 0 || random().nextInt(100) == 1) {
+        reader.close();
+        f.setStringValue(RandomPicks.randomFrom(random(), COLORS));
+        w.addDocument(doc);
+        if (random().nextBoolean()) {
+          w.deleteDocuments(new Term("color", RandomPicks.randomFrom(random(), COLORS)));
+        }
+        reader = w.getReader();
+        uncachedSearcher = newSearcher(reader);
+        uncachedSearcher.setQueryCache(null);
+        cachedSearcher = newSearcher(reader);
+        cachedSearcher.setQueryCache(queryCache);
+        cachedSearcher.setQueryCachingPolicy(QueryCachingPolicy.ALWAYS_CACHE);
+      }
+      final BooleanQuery.Builder builder = new BooleanQuery.Builder();
+      for (int j = TestUtil.nextInt(random(), 1, 3); j > 0; --j) {
+        builder.add(new TermQuery(new Term("color", RandomPicks.randomFrom(random(), COLORS))),
+            random().nextBoolean() ? Occur.SHOULD : Occur.FILTER);
+      }
+      final Query q = builder.build();
+      assertEquals(uncachedSearcher.count(q), cachedSearcher.count(q));
+      if (rarely()) {
+        queryCache.assertConsistent();
+      }
+    }
+    queryCache.assertConsistent();
+    w.close();
+    reader.close();
+    dir.close();
+    queryCache.assertConsistent();
+  }
+}
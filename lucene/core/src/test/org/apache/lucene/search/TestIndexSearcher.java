@@ -19,6 +19,7 @@ package org.apache.lucene.search;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -30,6 +31,7 @@ import org.apache.lucene.document.Field.Store;
 import org.apache.lucene.document.SortedDocValuesField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.MultiReader;
 import org.apache.lucene.index.RandomIndexWriter;
 import org.apache.lucene.index.Term;
@@ -118,6 +120,92 @@ public class TestIndexSearcher extends LuceneTestCase {
     TestUtil.shutdownExecutorService(service);
   }
 
+  public void testSlices() throws Exception {
+    final int maxDocsPerSlice = TestUtil.nextInt(random(), 1, 50);
+    final int maxSegmentsPerSlice = TestUtil.nextInt(random(), 1, 5);
+    IndexSearcher.LeafSlice[] slices = IndexSearcher.slices(reader.leaves(), maxDocsPerSlice, maxSegmentsPerSlice);
+    // slices cover every document exactly once, in doc ID order
+    int nextDoc = 0;
+    for (IndexSearcher.LeafSlice slice : slices) {
+      assertTrue(slice.leaves.length > 0);
+      assertTrue(slice.leaves.length <= maxSegmentsPerSlice);
+      if (slice.isRange()) {
+        assertEquals(1, slice.leaves.length);
+        assertTrue(slice.leaves[0].reader().maxDoc() > maxDocsPerSlice);
+        assertEquals(nextDoc, slice.leaves[0].docBase + slice.minDoc);
+        assertTrue(slice.maxDoc - slice.minDoc <= maxDocsPerSlice);
+        nextDoc = slice.leaves[0].docBase + slice.maxDoc;
+      } else {
+        int sliceDocs = 0;
+        for (LeafReaderContext leaf : slice.leaves) {
+          assertEquals(nextDoc, leaf.docBase);
+          nextDoc += leaf.reader().maxDoc();
+          sliceDocs += leaf.reader().maxDoc();
+        }
+        assertTrue(sliceDocs <= maxDocsPerSlice);
+      }
+    }
+    assertEquals(reader.maxDoc(), nextDoc);
+
+    expectThrows(IllegalArgumentException.class, () -> {
+      IndexSearcher.slices(reader.leaves(), 0, 1);
+    });
+    expectThrows(IllegalArgumentException.class, () -> {
+      new IndexSearcher.LeafSlice(reader.leaves().get(0), 0, reader.leaves().get(0).reader().maxDoc() + 1);
+    });
+  }
+
+  public void testSplitLeavesSameHits() throws Exception {
+    ExecutorService service = new ThreadPoolExecutor(4, 4, 0L, TimeUnit.MILLISECONDS,
+                                   new LinkedBlockingQueue<Runnable>(),
+                                   new NamedThreadFactory("TestIndexSearcher"));
+    final int maxDocsPerSlice = TestUtil.nextInt(random(), 1, 30);
+    final int maxSegmentsPerSlice = TestUtil.nextInt(random(), 1, 5);
+    IndexSearcher sequential = new IndexSearcher(reader);
+    IndexSearcher concurrent = new IndexSearcher(reader, service) {
+      @Override
+      protected LeafSlice[] slices(List<LeafReaderContext> leaves) {
+        return slices(leaves, maxDocsPerSlice, maxSegmentsPerSlice);
+      }
+    };
+    Query[] queries = new Query[] {
+        new MatchAllDocsQuery(),
+        new TermQuery(new Term("field2", "true")),
+        new BooleanQuery.Builder()
+          .add(new TermQuery(new Term("field", "7")), Occur.SHOULD)
+          .add(new TermQuery(new Term("field2", "false")), Occur.SHOULD)
+          .build()
+    };
+    Sort sort = new Sort(new SortField("field2", SortField.Type.STRING));
+    for (Query query : queries) {
+      int n = TestUtil.nextInt(random(), 1, 120);
+      assertSameHits(sequential.search(query, n), concurrent.search(query, n));
+      assertSameHits(sequential.search(query, n, sort), concurrent.search(query, n, sort));
+      assertEquals(sequential.count(query), concurrent.count(query));
+    }
+
+    TestUtil.shutdownExecutorService(service);
+  }
+
+  private static void assertSameHits(TopDocs expected, TopDocs actual) {
+    assertEquals(expected.totalHits, actual.totalHits);
+    assertEquals(expected.scoreDocs.length, actual.scoreDocs.length);
+    for (int i = 0; i < expected.scoreDocs.length; i++) {
+      assertEquals(expected.scoreDocs[i].doc, actual.scoreDocs[i].doc);
+      assertEquals(expected.scoreDocs[i].score, actual.scoreDocs[i].score, 0f);
+    }
+  }
+
+  public void testSearchEmptyReaderWithExecutor() throws Exception {
+    ExecutorService service = new ThreadPoolExecutor(4, 4, 0L, TimeUnit.MILLISECONDS,
+                                   new LinkedBlockingQueue<Runnable>(),
+                                   new NamedThreadFactory("TestIndexSearcher"));
+    IndexSearcher searcher = new IndexSearcher(new MultiReader(), service);
+    assertEquals(0, searcher.search(new MatchAllDocsQuery(), 10).totalHits);
+    assertEquals(0, searcher.search(new MatchAllDocsQuery(), 10, new Sort(new SortField("field2", SortField.Type.STRING))).totalHits);
+    TestUtil.shutdownExecutorService(service);
+  }
+
   @Test
   public void testSearchAfterPassedMaxDoc() throws Exception {
     // LUCENE-5128: ensure we get a meaningful message if searchAfter exceeds maxDoc
@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+
+import java.io.IOException;
+
+import org.apache.lucene.analysis.MockAnalyzer;
+import org.apache.lucene.codecs.lucene50.Lucene50BlockMaxPostingsFormat;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.RandomIndexWriter;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.similarities.BM25Similarity;
+import org.apache.lucene.search.similarities.ClassicSimilarity;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+
+public class TestWANDScorer extends LuceneTestCase {
+
+  private static final String[] TERMS = { "a", "b", "c", "d", "e", "f" };
+  // probability for a doc to contain each term, so that terms have very different idfs
+  private static final double[] PROBS = { 0.9, 0.5, 0.2, 0.05, 0.01, 0.002 };
+
+  private Directory dir;
+  private IndexReader reader;
+  private IndexSearcher searcher;
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    dir = newDirectory();
+    IndexWriterConfig iwc = newIndexWriterConfig(new MockAnalyzer(random()));
+    if (random().nextBoolean()) {
+      // make sure that postings have block max freqs, which is what allows to skip hits
+      iwc.setCodec(TestUtil.alwaysPostingsFormat(new Lucene50BlockMaxPostingsFormat()));
+    }
+    RandomIndexWriter w = new RandomIndexWriter(random(), dir, iwc);
+    final int numDocs = atLeast(3000);
+    for (int i = 0; i < numDocs; ++i) {
+      Document doc = new Document();
+      StringBuilder sb = new StringBuilder();
+      for (int t = 0; t < TERMS.length; ++t) {
+        if (random().nextDouble() < PROBS[t]) {
+          final int freq = random().nextInt(10) == 0 ? TestUtil.nextInt(random(), 1, 20) : TestUtil.nextInt(random(), 1, 2);
+          for (int j = 0; j < freq; ++j) {
+            sb.append(TERMS[t]).append(' ');
+          }
+        }
+      }
+      final int numFillers = random().nextInt(20);
+      for (int j = 0; j < numFillers; ++j) {
+        sb.append('z').append(random().nextInt(100)).append(' ');
+      }
+      doc.add(newTextField("body", sb.toString(), Store.NO));
+      doc.add(new StringField("id", Integer.toString(i), Store.NO));
+      w.addDocument(doc);
+      if (random().nextInt(20) == 0) {
+        w.deleteDocuments(new Term("id", Integer.toString(random().nextInt(i + 1))));
+      }
+    }
+    reader = w.getReader();
+    w.close();
+    searcher = newSearcher(reader);
+    searcher.setSimilarity(new BM25Similarity());
+  }
+
+  @Override
+  public void tearDown() throws Exception {
+    reader.close();
+    dir.close();
+    reader = null;
+    dir = null;
+    searcher = null;
+    super.tearDown();
+  }
+
+  private static Query randomDisjunction() {
+    BooleanQuery.Builder builder = new BooleanQuery.Builder();
+    final int numClauses = TestUtil.nextInt(random(), 2, TERMS.length);
+    for (int i = 0; i < numClauses; ++i) {
+      Query q = new TermQuery(new Term("body", TERMS[random().nextInt(TERMS.length)]));
+      if (random().nextInt(5) == 0) {
+        q = new BoostQuery(q, TestUtil.nextInt(random(), 1, 5));
+      }
+      builder.add(q, Occur.SHOULD);
+    }
+    if (random().nextBoolean()) {
+      builder.setMinimumNumberShouldMatch(1);
+    }
+    return builder.build();
+  }
+
+  private void assertSameTopHits(Query query, int numHits, ScoreDoc after) throws IOException {
+    TopScoreDocCollector exact = TopScoreDocCollector.create(numHits, after);
+    searcher.search(query, exact);
+    TopScoreDocCollector pruned = TopScoreDocCollector.create(numHits, after, false);
+    assertFalse(pruned.needsTotalHits());
+    searcher.search(query, pruned);
+
+    TopDocs expected = exact.topDocs();
+    TopDocs actual = pruned.topDocs();
+    assertTrue(actual.totalHits <= expected.totalHits);
+    assertEquals(query.toString(), expected.scoreDocs.length, actual.scoreDocs.length);
+    for (int i = 0; i < expected.scoreDocs.length; ++i) {
+      assertEquals(query.toString(), expected.scoreDocs[i].doc, actual.scoreDocs[i].doc);
+      assertEquals(query.toString(), expected.scoreDocs[i].score, actual.scoreDocs[i].score, 0f);
+    }
+  }
+
+  public void testSameTopHits() throws IOException {
+    for (int iter = 0; iter < 50; ++iter) {
+      assertSameTopHits(randomDisjunction(), TestUtil.nextInt(random(), 1, 100), null);
+    }
+  }
+
+  public void testSameTopHitsWithCoord() throws IOException {
+    // ClassicSimilarity multiplies scores by coord(overlap, maxOverlap)
+    searcher.setSimilarity(new ClassicSimilarity() {
+      @Override
+      public float maxTfNorm(float maxFreq) {
+        // documents are indexed without boosts, so norms are at most 1
+        return tf(maxFreq);
+      }
+    });
+    for (int iter = 0; iter < 50; ++iter) {
+      assertSameTopHits(randomDisjunction(), TestUtil.nextInt(random(), 1, 100), null);
+    }
+  }
+
+  public void testSameTopHitsWithPaging() throws IOException {
+    for (int iter = 0; iter < 20; ++iter) {
+      Query query = randomDisjunction();
+      TopDocs firstPage = searcher.search(query, TestUtil.nextInt(random(), 1, 20));
+      if (firstPage.scoreDocs.length == 0) {
+        continue;
+      }
+      ScoreDoc after = firstPage.scoreDocs[firstPage.scoreDocs.length - 1];
+      assertSameTopHits(query, TestUtil.nextInt(random(), 1, 20), after);
+    }
+  }
+
+  public void testSkipsNonCompetitiveHits() throws IOException {
+    // a frequent term with a low idf and a rare term with a high idf: once
+    // the queue is full of docs that contain the rare term, docs that only
+    // contain the frequent term cannot compete anymore
+    Query query = new BooleanQuery.Builder()
+        .add(new TermQuery(new Term("body", "a")), Occur.SHOULD)
+        .add(new TermQuery(new Term("body", "d")), Occur.SHOULD)
+        .build();
+    TopScoreDocCollector exact = TopScoreDocCollector.create(1);
+    searcher.search(query, exact);
+    TopScoreDocCollector pruned = TopScoreDocCollector.create(1, null, false);
+    searcher.search(query, pruned);
+    assertEquals(exact.topDocs().scoreDocs[0].doc, pruned.topDocs().scoreDocs[0].doc);
+    assertTrue(pruned.getTotalHits() <= exact.getTotalHits());
+  }
+
+  public void testTracksTotalHitsByDefault() throws IOException {
+    Query query = randomDisjunction();
+    TopScoreDocCollector collector = TopScoreDocCollector.create(10);
+    assertTrue(collector.needsTotalHits());
+    searcher.search(query, collector);
+    TotalHitCountCollector count = new TotalHitCountCollector();
+    searcher.search(query, count);
+    assertEquals(count.getTotalHits(), collector.getTotalHits());
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Testcase for {@link BlockRecycler}
+ */
+public class TestBlockRecycler extends LuceneTestCase {
+
+  public void testTakeAndOffer() {
+    final int numBlocks = TestUtil.nextInt(random(), 1, 20);
+    BlockRecycler recycler = new BlockRecycler(16, 8, numBlocks * 16L);
+    assertNull(recycler.takeByteBlock());
+    assertNull(recycler.takeIntBlock());
+
+    List<byte[]> blocks = new ArrayList<>();
+    for (int i = 0; i < numBlocks; i++) {
+      byte[] block = new byte[16];
+      Arrays.fill(block, (byte) (i + 1));
+      assertTrue(recycler.offer(block));
+      blocks.add(block);
+      assertEquals((i + 1) * 16L, recycler.bytesBuffered());
+    }
+    // full
+    assertFalse(recycler.offer(new byte[16]));
+    assertFalse(recycler.offer(new int[8]));
+    assertEquals(numBlocks * 16L, recycler.bytesBuffered());
+
+    for (int i = 0; i < numBlocks; i++) {
+      byte[] block = recycler.takeByteBlock();
+      assertTrue(blocks.contains(block));
+      for (byte b : block) {
+        assertEquals(0, b);
+      }
+    }
+    assertNull(recycler.takeByteBlock());
+    assertEquals(0, recycler.bytesBuffered());
+
+    int[] intBlock = new int[8];
+    Arrays.fill(intBlock, 42);
+    assertTrue(recycler.offer(intBlock));
+    assertEquals(32, recycler.bytesBuffered());
+    assertSame(intBlock, recycler.takeIntBlock());
+    for (int i : intBlock) {
+      assertEquals(0, i);
+    }
+  }
+
+  public void testWrongBlockSize() {
+    BlockRecycler recycler = new BlockRecycler(16, 8, 1024);
+    assertFalse(recycler.offer(new byte[15]));
+    assertFalse(recycler.offer(new int[16]));
+    assertEquals(0, recycler.bytesBuffered());
+    expectThrows(IllegalArgumentException.class, () -> {
+      new RecyclingByteBlockAllocator(32, 0, Counter.newCounter(), recycler);
+    });
+    expectThrows(IllegalArgumentException.class, () -> {
+      new RecyclingIntBlockAllocator(16, 0, Counter.newCounter(), recycler);
+    });
+  }
+
+  public void testSharedBetweenAllocators() {
+    BlockRecycler recycler = new BlockRecycler(ByteBlockPool.BYTE_BLOCK_SIZE, IntBlockPool.INT_BLOCK_SIZE, Long.MAX_VALUE);
+    Counter bytesUsed1 = Counter.newCounter();
+    RecyclingByteBlockAllocator allocator1 = new RecyclingByteBlockAllocator(ByteBlockPool.BYTE_BLOCK_SIZE, 0, bytesUsed1, recycler);
+    ByteBlockPool pool = new ByteBlockPool(allocator1);
+    pool.nextBuffer();
+    int numBuffers = TestUtil.nextInt(random(), 1, 10);
+    for (int i = 0; i < numBuffers; i++) {
+      Arrays.fill(pool.buffer, (byte) 1);
+      pool.nextBuffer();
+    }
+    final byte[] last = pool.buffer;
+    assertEquals((numBuffers + 1L) * ByteBlockPool.BYTE_BLOCK_SIZE, bytesUsed1.get());
+    pool.reset(false, false);
+    assertEquals(0, bytesUsed1.get());
+    assertEquals((numBuffers + 1L) * ByteBlockPool.BYTE_BLOCK_SIZE, recycler.bytesBuffered());
+
+    // a second allocator gets the recycled, zero-filled blocks
+    Counter bytesUsed2 = Counter.newCounter();
+    RecyclingByteBlockAllocator allocator2 = new RecyclingByteBlockAllocator(ByteBlockPool.BYTE_BLOCK_SIZE, 0, bytesUsed2, recycler);
+    byte[] block = allocator2.getByteBlock();
+    assertSame(last, block);
+    for (byte b : block) {
+      assertEquals(0, b);
+    }
+    assertEquals(ByteBlockPool.BYTE_BLOCK_SIZE, bytesUsed2.get());
+    assertEquals((long) numBuffers * ByteBlockPool.BYTE_BLOCK_SIZE, recycler.bytesBuffered());
+  }
+}
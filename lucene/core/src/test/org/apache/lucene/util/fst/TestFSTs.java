@@ -1207,6 +1207,57 @@ public class TestFSTs extends LuceneTestCase {
     dir.close();
   }
 
+  public void testOffHeap() throws Exception {
+    final PositiveIntOutputs outputs = PositiveIntOutputs.getSingleton();
+    final Builder<Long> builder = new Builder<>(FST.INPUT_TYPE.BYTE1, outputs);
+    final Set<BytesRef> terms = new TreeSet<>();
+    for (int i = atLeast(1000); i > 0; --i) {
+      terms.add(new BytesRef(TestUtil.randomSimpleString(random(), 1, 20)));
+    }
+    final IntsRefBuilder scratch = new IntsRefBuilder();
+    long ord = 0;
+    for (BytesRef term : terms) {
+      builder.add(Util.toIntsRef(term, scratch), ord++);
+    }
+    final FST<Long> fst = builder.finish();
+
+    Directory dir = newDirectory();
+    IndexOutput out = dir.createOutput("fst", IOContext.DEFAULT);
+    out.writeInt(42); // the FST does not need to start the file
+    fst.save(out);
+    out.writeInt(43);
+    out.close();
+
+    IndexInput in = dir.openInput("fst", IOContext.DEFAULT);
+    assertEquals(42, in.readInt());
+    final FST<Long> offHeap = new FST<>(in, outputs, true);
+    assertEquals(43, in.readInt());
+    assertTrue(offHeap.ramBytesUsed() < fst.ramBytesUsed());
+    ord = 0;
+    for (BytesRef term : terms) {
+      assertEquals(Long.valueOf(ord++), Util.get(offHeap, term));
+    }
+    for (int i = 0; i < 100; i++) {
+      BytesRef term = new BytesRef(TestUtil.randomSimpleString(random(), 1, 20));
+      assertEquals(Util.get(fst, term), Util.get(offHeap, term));
+    }
+
+    // saving copies the bytes from the input
+    out = dir.createOutput("fst2", IOContext.DEFAULT);
+    offHeap.save(out);
+    out.close();
+    IndexInput in2 = dir.openInput("fst2", IOContext.DEFAULT);
+    final FST<Long> onHeap = new FST<>(in2, outputs);
+    in2.close();
+    ord = 0;
+    for (BytesRef term : terms) {
+      assertEquals(Long.valueOf(ord++), Util.get(onHeap, term));
+    }
+
+    in.close();
+    dir.close();
+  }
+
   private void checkStopNodes(FST<Long> fst, PositiveIntOutputs outputs) throws Exception {
     final Long nothing = outputs.getNoOutput();
     FST.Arc<Long> startArc = fst.getFirstArc(new FST.Arc<Long>());
@@ -17,6 +17,7 @@
 package org.apache.lucene.util.packed;
 
 
+import java.util.Arrays;
 import java.util.Random;
 
 import org.apache.lucene.index.NumericDocValues;
@@ -114,6 +115,26 @@ public class TestDirectPacked extends LuceneTestCase {
       for (int j = 0; j < original.length; j++) {
         assertEquals("bpv=" + bpv, original[j], reader.get(j));
       }
+      if (original.length > 0) {
+        // bulk
+        int docs[] = new int[TestUtil.nextInt(random, 1, 2 * original.length)];
+        for (int j = 0; j < docs.length; j++) {
+          docs[j] = random.nextInt(original.length);
+        }
+        Arrays.sort(docs);
+        long values[] = new long[docs.length];
+        reader.get(docs, values, docs.length);
+        for (int j = 0; j < docs.length; j++) {
+          assertEquals("bpv=" + bpv, original[docs[j]], values[j]);
+        }
+        int from = random.nextInt(original.length);
+        int count = TestUtil.nextInt(random, 0, original.length - from);
+        values = new long[count];
+        reader.getRange(from, values, count);
+        for (int j = 0; j < count; j++) {
+          assertEquals("bpv=" + bpv, original[from + j], values[j]);
+        }
+      }
       input.close();
     }
   }
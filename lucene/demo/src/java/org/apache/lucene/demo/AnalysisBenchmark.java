@@ -0,0 +1,129 @@
+/*
+Project 1: Part 2 (Tokenization), analysis throughput
+
+- compares the CMPT456Analyzer filter chain with the fused CMPT456StemFilter
+- checks that both produce the same tokens, then reports tokens/sec for each
+
+ */
+
+package org.apache.lucene.demo;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.benchmark.byTask.feeds.DocData;
+import org.xml.sax.SAXException;
+
+
+/** Measures analysis throughput of the two CMPT456Analyzer variants on parsed HTML files. */
+public class AnalysisBenchmark {
+
+  private AnalysisBenchmark() {}
+
+  /** Runs the benchmark. */
+  public static void main(String[] args) throws Exception {
+    String usage = "java org.apache.lucene.demo.AnalysisBenchmark -docs DOCS_PATH [-iterations N] [-maxDocs N]\n\n"
+                 + "Parses the HTML files in DOCS_PATH and analyzes their title and body with the\n"
+                 + "CMPT456Analyzer filter chain and with the fused filter, reporting tokens/sec for each.";
+    String docsPath = null;
+    int iterations = 5;
+    int maxDocs = Integer.MAX_VALUE;
+    for (int i = 0; i < args.length; i++) {
+      if ("-docs".equals(args[i])) {
+        docsPath = args[i+1];
+        i++;
+      } else if ("-iterations".equals(args[i])) {
+        iterations = Integer.parseInt(args[i+1]);
+        i++;
+      } else if ("-maxDocs".equals(args[i])) {
+        maxDocs = Integer.parseInt(args[i+1]);
+        i++;
+      }
+    }
+    if (docsPath == null) {
+      System.err.println("Usage: " + usage);
+      System.exit(1);
+    }
+
+    List<String> texts = loadTexts(Paths.get(docsPath), maxDocs);
+    System.out.println("Loaded " + texts.size() + " texts");
+
+    Analyzer chain = new CMPT456Analyzer(CMPT456Analyzer.STOP_WORDS_SET, false);
+    Analyzer fused = new CMPT456Analyzer(CMPT456Analyzer.STOP_WORDS_SET, true);
+
+    // both must produce the same tokens and positions; this also warms up both
+    long chainHash = analyze(chain, texts, true);
+    long fusedHash = analyze(fused, texts, true);
+    if (chainHash != fusedHash) {
+      throw new IllegalStateException("fused filter produced different tokens than the filter chain");
+    }
+
+    for (int iter = 0; iter < iterations; iter++) {
+      report("chain", chain, texts);
+      report("fused", fused, texts);
+    }
+    chain.close();
+    fused.close();
+  }
+
+  private static void report(String name, Analyzer analyzer, List<String> texts) throws IOException {
+    long start = System.nanoTime();
+    long tokens = analyze(analyzer, texts, false);
+    long elapsed = System.nanoTime() - start;
+    System.out.println(String.format(Locale.ROOT, "%s: %d tokens in %.1f ms, %.0f tokens/sec",
+        name, tokens, elapsed / 1e6, tokens / (elapsed / 1e9)));
+  }
+
+  /** Returns the number of tokens, or a hash of terms and position increments if {@code hash} is set. */
+  private static long analyze(Analyzer analyzer, List<String> texts, boolean hash) throws IOException {
+    long result = 0;
+    for (String text : texts) {
+      try (TokenStream stream = analyzer.tokenStream("contents", text)) {
+        CharTermAttribute termAtt = stream.addAttribute(CharTermAttribute.class);
+        PositionIncrementAttribute posIncAtt = stream.addAttribute(PositionIncrementAttribute.class);
+        stream.reset();
+        while (stream.incrementToken()) {
+          if (hash) {
+            result = 31 * result + termAtt.toString().hashCode();
+            result = 31 * result + posIncAtt.getPositionIncrement();
+          } else {
+            result++;
+          }
+        }
+        stream.end();
+      }
+    }
+    return result;
+  }
+
+  private static List<String> loadTexts(Path docDir, final int maxDocs) throws IOException {
+    final List<String> texts = new ArrayList<>();
+    final HtmlDocumentBuilder builder = new HtmlDocumentBuilder();
+    Files.walkFileTree(docDir, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+        try {
+          DocData docData = builder.parse(file, attrs.lastModifiedTime().toMillis());
+          texts.add(docData.getTitle());
+          texts.add(docData.getBody());
+        } catch (IOException | SAXException ignore) {
+          // don't analyze files that can't be read.
+        }
+        return texts.size() / 2 >= maxDocs ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+      }
+    });
+    return texts;
+  }
+}
@@ -11,17 +11,13 @@ Sydney Miyashiro
 
 package org.apache.lucene.demo;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
-import java.net.URI;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.List;
 import java.util.Arrays;
-import java.util.Collections;
 
 import org.apache.lucene.analysis.CharArraySet;
 import org.apache.lucene.analysis.LowerCaseFilter;
@@ -32,6 +28,7 @@ import org.apache.lucene.analysis.StopwordAnalyzerBase;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.WordlistLoader;
 import org.apache.lucene.analysis.en.PorterStemFilter;
+import org.apache.lucene.util.IOUtils;
 
 
 
@@ -42,34 +39,46 @@ import org.apache.lucene.analysis.en.PorterStemFilter;
  */
 public final class CMPT456Analyzer extends StopwordAnalyzerBase {
 
+  /** System property naming a stopword file to load instead of ./stopwords.txt */
+  public static final String STOPWORDS_PROPERTY = "cmpt456.stopwords";
+
+  /** Classpath resource (relative to this class) used when the stopword file cannot be read */
+  public static final String STOPWORDS_RESOURCE = "stopwords.txt";
+
   /** An customized set containing some common English words that are not usually useful
   for searching.*/
   public static final CharArraySet ENGLISH_STOP_WORDS_SET;
   
   static {
-    List<String> lines = Collections.emptyList(); 
+    CharArraySet stopSet = null;
+    // read all words from the configured file, or stopwords.txt in the working directory
+    Path stopwordsPath = Paths.get(System.getProperty(STOPWORDS_PROPERTY, "stopwords.txt"));
     try { 
-      // read all words from stopwords.txt 
-      Path stopwordsPath = Paths.get("stopwords.txt");
+      stopSet = loadStopwordSet(stopwordsPath);
       System.out.println("Retrieved the path: " + stopwordsPath.toString());
-
-      lines = Files.readAllLines(stopwordsPath, StandardCharsets.UTF_8); 
-
     } catch (IOException e) { 
-      // Unable to read file, so use old stopwords list
-      System.out.println("Unable to read stopwords.txt");
-
-      lines = Arrays.asList(
-        "a", "an", "and", "are", "as", "at", "be", "but", "by",
-        "for", "if", "in", "into", "is", "it",
-        "no", "not", "of", "on", "or", "such",
-        "that", "the", "their", "then", "there", "these",
-        "they", "this", "to", "was", "will", "with"
-      );
+      // Unable to read file, so use the copy bundled with this class, if any
+      InputStream bundled = CMPT456Analyzer.class.getResourceAsStream(STOPWORDS_RESOURCE);
+      if (bundled != null) {
+        try (Reader reader = IOUtils.getDecodingReader(bundled, StandardCharsets.UTF_8)) {
+          stopSet = WordlistLoader.getWordSet(reader, "#", new CharArraySet(16, false));
+        } catch (IOException e2) {
+          stopSet = null;
+        }
+      }
+      if (stopSet == null) {
+        // no bundled copy either, so use old stopwords list
+        System.out.println("Unable to read stopwords.txt");
+        stopSet = new CharArraySet(Arrays.asList(
+          "a", "an", "and", "are", "as", "at", "be", "but", "by",
+          "for", "if", "in", "into", "is", "it",
+          "no", "not", "of", "on", "or", "such",
+          "that", "the", "their", "then", "there", "these",
+          "they", "this", "to", "was", "will", "with"
+        ), false);
+      }
     }
 
-    final List<String> stopWords = lines;
-    final CharArraySet stopSet = new CharArraySet(stopWords, false);
     ENGLISH_STOP_WORDS_SET = CharArraySet.unmodifiableSet(stopSet); 
   
   }
@@ -79,6 +88,8 @@ public final class CMPT456Analyzer extends StopwordAnalyzerBase {
 
   private int maxTokenLength = DEFAULT_MAX_TOKEN_LENGTH;
 
+  private final boolean fused;
+
   /** An unmodifiable set containing some common English words that are usually not
   useful for searching. */
   public static final CharArraySet STOP_WORDS_SET = ENGLISH_STOP_WORDS_SET;
@@ -86,7 +97,17 @@ public final class CMPT456Analyzer extends StopwordAnalyzerBase {
   /** Builds an analyzer with the given stop words.
    * @param stopWords stop words */
   public CMPT456Analyzer(CharArraySet stopWords) {
+    this(stopWords, false);
+  }
+
+  /** Builds an analyzer with the given stop words.
+   * @param stopWords stop words
+   * @param fused if true, lowercasing, stopword removal and stemming are done
+   *        by a single {@link CMPT456StemFilter} instead of a chain of filters.
+   *        Both produce the same tokens. */
+  public CMPT456Analyzer(CharArraySet stopWords, boolean fused) {
     super(stopWords);
+    this.fused = fused;
   }
 
   /** Builds an analyzer with the default stop words ({@link #STOP_WORDS_SET}).
@@ -107,6 +128,11 @@ public final class CMPT456Analyzer extends StopwordAnalyzerBase {
     maxTokenLength = length;
   }
     
+  /** Returns true if this analyzer uses the fused {@link CMPT456StemFilter} */
+  public boolean isFused() {
+    return fused;
+  }
+
   /** Returns the current maximum token length
    * 
    *  @see #setMaxTokenLength */
@@ -119,10 +145,16 @@ public final class CMPT456Analyzer extends StopwordAnalyzerBase {
   protected TokenStreamComponents createComponents(final String fieldName) {
     final StandardTokenizer src = new StandardTokenizer();
     src.setMaxTokenLength(maxTokenLength);
-    TokenStream tok = new StandardFilter(src);
-    tok = new LowerCaseFilter(tok);
-    tok = new StopFilter(tok, stopwords);
-    tok = new PorterStemFilter(tok);
+    TokenStream tok;
+    if (fused) {
+      // StandardFilter is a no-op, the rest is done in one pass over the term buffer
+      tok = new CMPT456StemFilter(src, stopwords);
+    } else {
+      tok = new StandardFilter(src);
+      tok = new LowerCaseFilter(tok);
+      tok = new StopFilter(tok, stopwords);
+      tok = new PorterStemFilter(tok);
+    }
     return new TokenStreamComponents(src, tok) {
       @Override
       protected void setReader(final Reader reader) {
@@ -0,0 +1,255 @@
+/*
+Project 1: Part 3 (Similarity Calculations TF/IDF), scoring fast path
+
+- scores exactly like CMPT456Similarity, sqrt(1 + freq) * idf^2 * norm
+- tf of small integer frequencies comes from a precomputed table
+- idf is computed once per (docFreq, docCount) and cached
+- own final SimScorer, so the per-posting loop does not go through
+  the tf()/decodeNormValue() virtual calls of TFIDFSimilarity
+
+ */
+
+package org.apache.lucene.demo;
+
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.lucene.index.FieldInvertState;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.search.CollectionStatistics;
+import org.apache.lucene.search.Explanation;
+import org.apache.lucene.search.TermStatistics;
+import org.apache.lucene.search.similarities.Similarity;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.SmallFloat;
+
+
+/**
+ * Drop-in replacement for {@link CMPT456Similarity} at search time that
+ * produces the same scores with less work per scored posting.
+ * <p>
+ * Norms are computed by {@link CMPT456Similarity}, so indexes written with
+ * either similarity can be searched with either.
+ */
+public final class CMPT456FastSimilarity extends Similarity {
+
+  /** Frequencies below this value are scored through {@link #TF_TABLE}. */
+  static final int TF_TABLE_SIZE = 256;
+
+  /** sqrt(1 + freq) for integer freq in [0, TF_TABLE_SIZE) */
+  private static final float[] TF_TABLE = new float[TF_TABLE_SIZE];
+
+  /** decoded norms, same as ClassicSimilarity */
+  private static final float[] NORM_TABLE = new float[256];
+
+  static {
+    for (int i = 0; i < TF_TABLE_SIZE; i++) {
+      TF_TABLE[i] = (float) Math.sqrt(1.0 + i);
+    }
+    for (int i = 0; i < 256; i++) {
+      NORM_TABLE[i] = SmallFloat.byte315ToFloat((byte) i);
+    }
+  }
+
+  /** Maximum number of cached idf values before the cache is cleared. */
+  private static final int MAX_CACHED_IDFS = 1 << 16;
+
+  // index-time norms, coord and queryNorm are delegated, only scoring is specialized
+  private final CMPT456Similarity delegate = new CMPT456Similarity();
+
+  // keyed by docCount << 32 | docFreq: a term's idf only changes when a new
+  // searcher sees different statistics, which gives a different key
+  private final ConcurrentHashMap<Long,Float> idfCache = new ConcurrentHashMap<>();
+
+  public CMPT456FastSimilarity() {}
+
+  /** Implemented as sqrt(1 + freq), from a table for small integer frequencies. */
+  static float tf(float freq) {
+    final int f = (int) freq;
+    if (f == freq && f >= 0 && f < TF_TABLE_SIZE) {
+      return TF_TABLE[f];
+    }
+    return (float) Math.sqrt(1.0 + freq);
+  }
+
+  /** Implemented as log((docCount+2)/(docFreq+2)) + 1, cached per (docFreq, docCount). */
+  float idf(long docFreq, long docCount) {
+    if (docFreq > Integer.MAX_VALUE || docCount > Integer.MAX_VALUE) {
+      return delegate.idf(docFreq, docCount);
+    }
+    final Long key = (docCount << 32) | docFreq;
+    Float idf = idfCache.get(key);
+    if (idf == null) {
+      if (idfCache.size() >= MAX_CACHED_IDFS) {
+        idfCache.clear();
+      }
+      idf = delegate.idf(docFreq, docCount);
+      idfCache.put(key, idf);
+    }
+    return idf;
+  }
+
+  @Override
+  public float coord(int overlap, int maxOverlap) {
+    return delegate.coord(overlap, maxOverlap);
+  }
+
+  @Override
+  public float queryNorm(float valueForNormalization) {
+    return delegate.queryNorm(valueForNormalization);
+  }
+
+  @Override
+  public long computeNorm(FieldInvertState state) {
+    return delegate.computeNorm(state);
+  }
+
+  @Override
+  public SimWeight computeWeight(CollectionStatistics collectionStats, TermStatistics... termStats) {
+    final long docCount = collectionStats.docCount() == -1 ? collectionStats.maxDoc() : collectionStats.docCount();
+    final Explanation idf;
+    if (termStats.length == 1) {
+      idf = idfExplain(termStats[0].docFreq(), docCount);
+    } else {
+      // phrases: sum of the idfs of the terms
+      double sum = 0d;
+      List<Explanation> subs = new ArrayList<>();
+      for (TermStatistics stat : termStats) {
+        Explanation sub = idfExplain(stat.docFreq(), docCount);
+        subs.add(sub);
+        sum += sub.getValue();
+      }
+      idf = Explanation.match((float) sum, "idf(), sum of:", subs);
+    }
+    return new IDFStats(collectionStats.field(), idf);
+  }
+
+  /** Same explanation as ClassicSimilarity.idfExplain, which CMPT456Similarity inherits. */
+  private Explanation idfExplain(long docFreq, long docCount) {
+    return Explanation.match(idf(docFreq, docCount), "idf, computed as log((docCount+1)/(docFreq+1)) + 1 from:",
+        Explanation.match(docFreq, "docFreq"),
+        Explanation.match(docCount, "docCount"));
+  }
+
+  @Override
+  public SimScorer simScorer(SimWeight weight, LeafReaderContext context) throws IOException {
+    final IDFStats stats = (IDFStats) weight;
+    return new FastTFIDFScorer(stats, context.reader().getNormValues(stats.field));
+  }
+
+  /** Scores tf * weight * norm with table lookups only, for integer frequencies below the table size. */
+  private static final class FastTFIDFScorer extends SimScorer {
+    private final IDFStats stats;
+    private final float weightValue;
+    private final NumericDocValues norms;
+    // TF_TABLE premultiplied by the query weight
+    private final float[] weightedTf = new float[TF_TABLE_SIZE];
+
+    FastTFIDFScorer(IDFStats stats, NumericDocValues norms) {
+      this.stats = stats;
+      this.weightValue = stats.value;
+      this.norms = norms;
+      for (int i = 0; i < TF_TABLE_SIZE; i++) {
+        weightedTf[i] = TF_TABLE[i] * weightValue;
+      }
+    }
+
+    @Override
+    public float score(int doc, float freq) {
+      final int f = (int) freq;
+      final float raw;
+      if (f == freq && f < TF_TABLE_SIZE) {
+        raw = weightedTf[f];
+      } else {
+        raw = (float) Math.sqrt(1.0 + freq) * weightValue;
+      }
+      return norms == null ? raw : raw * NORM_TABLE[(int) (norms.get(doc) & 0xFF)];
+    }
+
+    @Override
+    public float maxScore(float maxFreq) {
+      if (weightValue < 0) {
+        return Float.POSITIVE_INFINITY;
+      }
+      // same bound as CMPT456Similarity.maxTfNorm: norms of unboosted documents are at most 1
+      return tf(maxFreq) * weightValue;
+    }
+
+    @Override
+    public float computeSlopFactor(int distance) {
+      return 1.0f / (distance + 1);
+    }
+
+    @Override
+    public float computePayloadFactor(int doc, int start, int end, BytesRef payload) {
+      return 1;
+    }
+
+    @Override
+    public Explanation explain(int doc, Explanation freq) {
+      Explanation tfExpl = Explanation.match(tf(freq.getValue()), "tf(freq=" + freq.getValue() + "), with freq of:", freq);
+      Explanation normExpl = Explanation.match(
+          norms != null ? NORM_TABLE[(int) (norms.get(doc) & 0xFF)] : 1.0f,
+          "fieldNorm(doc=" + doc + ")");
+      Explanation fieldExpl = Explanation.match(
+          tfExpl.getValue() * stats.idf.getValue() * normExpl.getValue(),
+          "fieldWeight in " + doc + ", product of:",
+          tfExpl, stats.idf, normExpl);
+      // same structure as TFIDFSimilarity: the boost is only listed if it is not 1
+      List<Explanation> querySubs = new ArrayList<>();
+      Explanation boostExpl = Explanation.match(stats.boost, "boost");
+      if (stats.boost != 1.0f) {
+        querySubs.add(boostExpl);
+      }
+      querySubs.add(stats.idf);
+      Explanation queryNormExpl = Explanation.match(stats.queryNorm, "queryNorm");
+      querySubs.add(queryNormExpl);
+      Explanation queryExpl = Explanation.match(
+          boostExpl.getValue() * stats.idf.getValue() * queryNormExpl.getValue(),
+          "queryWeight, product of:", querySubs);
+      if (queryExpl.getValue() == 1f) {
+        return fieldExpl;
+      }
+      return Explanation.match(queryExpl.getValue() * fieldExpl.getValue(),
+          "score(doc=" + doc + ",freq=" + freq.getValue() + "), product of:", queryExpl, fieldExpl);
+    }
+  }
+
+  /** Same query-side weight as TFIDFSimilarity: idf^2 * boost * queryNorm. */
+  private static final class IDFStats extends SimWeight {
+    private final String field;
+    private final Explanation idf;
+    private float queryNorm;
+    private float boost;
+    private float queryWeight;
+    private float value;
+
+    IDFStats(String field, Explanation idf) {
+      this.field = field;
+      this.idf = idf;
+      normalize(1f, 1f);
+    }
+
+    @Override
+    public float getValueForNormalization() {
+      return queryWeight * queryWeight;  // sum of squared weights
+    }
+
+    @Override
+    public void normalize(float queryNorm, float boost) {
+      this.boost = boost;
+      this.queryNorm = queryNorm;
+      queryWeight = queryNorm * boost * idf.getValue();
+      value = queryWeight * idf.getValue();         // idf for document
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "CMPT456FastSimilarity";
+  }
+}
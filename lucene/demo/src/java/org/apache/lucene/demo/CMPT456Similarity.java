@@ -22,6 +22,16 @@ public class CMPT456Similarity extends ClassicSimilarity {
     return (float)Math.sqrt(1.0 + freq);
   }
 
+  /**
+   * Implemented as <code>tf(maxFreq)</code>: tf increases with freq, and length
+   * norms are at most 1 as long as documents are indexed without boosts, which
+   * is the case for the demo indexers.
+   */
+  @Override
+  public float maxTfNorm(float maxFreq) {
+    return tf(maxFreq);
+  }
+
   /** Implemented as log((docCount+2)/(docFreq+2)) + 1. */
   @Override
   public float idf(long docFreq, long docCount) {
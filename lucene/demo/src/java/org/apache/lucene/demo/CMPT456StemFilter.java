@@ -0,0 +1,119 @@
+/*
+Project 1: Part 2 (Tokenization), fused filter
+
+- lowercases, removes stopwords and applies the Porter stemmer in one pass
+  over the term buffer, instead of one filter per step
+- remembers the stems of frequent tokens so they are not stemmed again
+
+ */
+
+package org.apache.lucene.demo;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.lucene.analysis.CharArrayMap;
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.CharacterUtils;
+import org.apache.lucene.analysis.FilteringTokenFilter;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.StopFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.en.PorterStemFilter;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.KeywordAttribute;
+
+
+/**
+ * Equivalent of {@link LowerCaseFilter}, {@link StopFilter} and
+ * {@link PorterStemFilter} chained in that order, working on the
+ * {@link CharTermAttribute} buffer once per token.
+ * <p>
+ * Stems are memoized in a per-instance cache of up to {@code maxCachedStems}
+ * tokens; as the first tokens seen are mostly the frequent ones, the cache
+ * is filled once and not evicted. Like {@link PorterStemFilter}, tokens
+ * marked with {@link KeywordAttribute} are not stemmed.
+ */
+public final class CMPT456StemFilter extends FilteringTokenFilter {
+
+  /** Default maximum number of cached stems. */
+  public static final int DEFAULT_MAX_CACHED_STEMS = 4096;
+
+  /** Tokens longer than this are never cached. */
+  private static final int MAX_CACHED_TOKEN_LENGTH = 32;
+
+  private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+  private final KeywordAttribute keywordAtt = addAttribute(KeywordAttribute.class);
+
+  private final CharArraySet stopWords;
+  private final PorterStemmer stemmer = new PorterStemmer();
+  private final CharArrayMap<char[]> stemCache;
+  private final int maxCachedStems;
+
+  /** Creates a filter with the default stem cache size.
+   * @param in input token stream
+   * @param stopWords lowercase stop words to remove */
+  public CMPT456StemFilter(TokenStream in, CharArraySet stopWords) {
+    this(in, stopWords, DEFAULT_MAX_CACHED_STEMS);
+  }
+
+  /** Creates a filter.
+   * @param in input token stream
+   * @param stopWords lowercase stop words to remove
+   * @param maxCachedStems maximum number of memoized stems, 0 to disable the cache */
+  public CMPT456StemFilter(TokenStream in, CharArraySet stopWords, int maxCachedStems) {
+    super(in);
+    if (maxCachedStems < 0) {
+      throw new IllegalArgumentException("maxCachedStems must be >= 0, got " + maxCachedStems);
+    }
+    this.stopWords = stopWords;
+    this.maxCachedStems = maxCachedStems;
+    this.stemCache = new CharArrayMap<>(Math.min(maxCachedStems, 1024), false);
+  }
+
+  @Override
+  protected boolean accept() throws IOException {
+    final char[] buffer = termAtt.buffer();
+    final int length = termAtt.length();
+
+    // lowercase in place, ASCII without a code point lookup
+    for (int i = 0; i < length; i++) {
+      final char c = buffer[i];
+      if (c >= 0x80) {
+        CharacterUtils.toLowerCase(buffer, 0, length);
+        break;
+      } else if (c >= 'A' && c <= 'Z') {
+        buffer[i] = (char) (c + ('a' - 'A'));
+      }
+    }
+
+    if (stopWords.contains(buffer, 0, length)) {
+      return false;
+    }
+
+    if (keywordAtt.isKeyword()) {
+      return true;
+    }
+
+    final char[] cached = stemCache.get(buffer, 0, length);
+    if (cached != null) {
+      termAtt.copyBuffer(cached, 0, cached.length);
+      return true;
+    }
+
+    final char[] stem;
+    if (stemmer.stem(buffer, 0, length)) {
+      stem = stemmer.getResultBuffer();
+      final int stemLength = stemmer.getResultLength();
+      if (length <= MAX_CACHED_TOKEN_LENGTH && stemCache.size() < maxCachedStems) {
+        stemCache.put(Arrays.copyOf(buffer, length), Arrays.copyOf(stem, stemLength));
+      }
+      termAtt.copyBuffer(stem, 0, stemLength);
+    } else if (length <= MAX_CACHED_TOKEN_LENGTH && stemCache.size() < maxCachedStems) {
+      // unchanged by the stemmer
+      final char[] token = Arrays.copyOf(buffer, length);
+      stemCache.put(token, token);
+    }
+    return true;
+  }
+}
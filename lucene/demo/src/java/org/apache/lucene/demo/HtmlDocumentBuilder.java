@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.demo;
+
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+
+import org.apache.lucene.benchmark.byTask.feeds.DemoHTMLParser;
+import org.apache.lucene.benchmark.byTask.feeds.DocData;
+import org.apache.lucene.benchmark.byTask.feeds.TrecContentSource;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+/**
+ * Parses HTML files and turns them into the documents indexed by
+ * {@link HtmlIndexFiles} and {@link TFIDFHtmlIndexFiles}: "path", "modified",
+ * "title" and "contents" (title and body) fields.
+ * <p>
+ * The parser, the {@link DocData}, the {@link Document} and its fields are
+ * reused from one file to the next, and the parsed title and body Strings
+ * are handed to the {@link TextField}s as-is, so the analyzer reads them
+ * through its own reusable reader instead of going through intermediate
+ * byte arrays and readers.
+ * <p>
+ * <b>NOTE</b>: instances are not thread-safe, use one per indexing thread.
+ * The document returned by {@link #document} is only valid until the next
+ * call.
+ */
+final class HtmlDocumentBuilder {
+
+  private final DemoHTMLParser htmlParser = new DemoHTMLParser();
+  private final TrecContentSource trecSrc = new TrecContentSource();
+  private final DocData docData = new DocData();
+
+  private final Document doc = new Document();
+  private final Field pathField = new StringField("path", "", Field.Store.YES);
+  private final LongPoint modifiedField = new LongPoint("modified", 0L);
+  private final Field titleField = new TextField("title", "", Field.Store.NO);
+  private final Field contentsTitleField = new TextField("contents", "", Field.Store.NO);
+  private final Field contentsBodyField = new TextField("contents", "", Field.Store.NO);
+
+  HtmlDocumentBuilder() {
+    doc.add(pathField);
+    doc.add(modifiedField);
+    doc.add(titleField);
+    // title and text body both go to "contents" for searching later
+    doc.add(contentsTitleField);
+    doc.add(contentsBodyField);
+  }
+
+  /** Parses the given file into this builder's reused {@link DocData}. */
+  DocData parse(Path file, long lastModified) throws IOException, SAXException {
+    try (InputStream stream = Files.newInputStream(file)) {
+      return parse(docData, file.toString(), lastModified, new InputSource(stream));
+    }
+  }
+
+  /** Parses the given source into {@code target}, reusing this builder's parser. */
+  DocData parse(DocData target, String name, long lastModified, InputSource source) throws IOException, SAXException {
+    return htmlParser.parse(target, name, new Date(lastModified), source, trecSrc);
+  }
+
+  /** Fills the reused document with the given file's fields. */
+  Document document(Path file, long lastModified, DocData parsed) {
+    pathField.setStringValue(file.toString());
+    modifiedField.setLongValue(lastModified);
+    titleField.setStringValue(parsed.getTitle());
+    contentsTitleField.setStringValue(parsed.getTitle());
+    contentsBodyField.setStringValue(parsed.getBody());
+    return doc;
+  }
+}
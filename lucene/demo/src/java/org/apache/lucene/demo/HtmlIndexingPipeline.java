@@ -0,0 +1,402 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.demo;
+
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.lucene.benchmark.byTask.feeds.DocData;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig.OpenMode;
+import org.apache.lucene.index.Term;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+/**
+ * Multi-threaded variant of {@link TFIDFHtmlIndexFiles#indexDocs}.
+ * <p>
+ * Documents flow through three bounded stages:
+ * <ol>
+ *   <li>one thread walks the document tree and reads each file into memory,</li>
+ *   <li>a pool of parser threads turns the raw HTML into {@link DocData},</li>
+ *   <li>a pool of indexing threads adds the parsed documents to the
+ *       {@link IndexWriter}, so that each of them fills its own
+ *       in-memory segment.</li>
+ * </ol>
+ * The queues between stages are bounded, so a slow stage blocks the stage
+ * feeding it instead of letting unindexed documents pile up on the heap.
+ * Documents that fail to parse or to index are counted and skipped; any
+ * other failure stops the pipeline, and producers then give up on a stage
+ * that may no longer be consuming rather than blocking forever.
+ * Progress is reported periodically in docs/sec and MB/sec, and heap
+ * allocation per document at the end.
+ */
+final class HtmlIndexingPipeline {
+
+  /** Raw file contents read by the walker thread. */
+  private static final class RawDoc {
+    final Path path;
+    final long lastModified;
+    final byte[] bytes;
+
+    RawDoc(Path path, long lastModified, byte[] bytes) {
+      this.path = path;
+      this.lastModified = lastModified;
+      this.bytes = bytes;
+    }
+  }
+
+  /** Parsed document handed to the indexing threads. */
+  private static final class ParsedDoc {
+    final Path path;
+    final long lastModified;
+    final DocData docData;
+    final int numBytes;
+
+    ParsedDoc(Path path, long lastModified, DocData docData, int numBytes) {
+      this.path = path;
+      this.lastModified = lastModified;
+      this.docData = docData;
+      this.numBytes = numBytes;
+    }
+  }
+
+  // end-of-input markers, compared by identity; a consumer that takes one
+  // puts it back for the other consumers of the same queue
+  private static final RawDoc NO_MORE_RAW = new RawDoc(null, 0L, null);
+  private static final ParsedDoc NO_MORE_PARSED = new ParsedDoc(null, 0L, null, 0);
+
+  /** How long producers wait on a full queue before checking for a failure. */
+  private static final long OFFER_TIMEOUT_MS = 100;
+
+  private final IndexWriter writer;
+  private final int parseThreads;
+  private final int indexThreads;
+  private final long reportIntervalMS;
+  private final PrintStream out;
+
+  private final BlockingQueue<RawDoc> rawQueue;
+  private final BlockingQueue<ParsedDoc> parsedQueue;
+  private final AtomicInteger activeParsers = new AtomicInteger();
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+  private final AtomicLong docsRead = new AtomicLong();
+  private final AtomicLong docsIndexed = new AtomicLong();
+  private final AtomicLong bytesIndexed = new AtomicLong();
+  private final AtomicLong docsFailed = new AtomicLong();
+  private final AtomicLong bytesAllocated = new AtomicLong();
+
+  /**
+   * Creates a new pipeline.
+   * @param writer writer all indexing threads add to
+   * @param parseThreads number of threads parsing HTML
+   * @param indexThreads number of threads calling {@link IndexWriter#addDocument}
+   * @param queueSize capacity of each of the two hand-off queues
+   * @param reportIntervalMS how often to print progress, or {@code 0} to disable
+   * @param out where progress and the final summary are printed
+   */
+  HtmlIndexingPipeline(IndexWriter writer, int parseThreads, int indexThreads,
+                       int queueSize, long reportIntervalMS, PrintStream out) {
+    if (parseThreads <= 0 || indexThreads <= 0) {
+      throw new IllegalArgumentException("thread counts must be > 0 (got parseThreads="
+          + parseThreads + ", indexThreads=" + indexThreads + ")");
+    }
+    if (queueSize <= 0) {
+      throw new IllegalArgumentException("queueSize must be > 0 (got " + queueSize + ")");
+    }
+    this.writer = writer;
+    this.parseThreads = parseThreads;
+    this.indexThreads = indexThreads;
+    this.reportIntervalMS = reportIntervalMS;
+    this.out = out;
+    this.rawQueue = new ArrayBlockingQueue<>(queueSize);
+    this.parsedQueue = new ArrayBlockingQueue<>(queueSize);
+  }
+
+  /** Indexes all files under {@code docDir} and blocks until done. */
+  void run(final Path docDir) throws IOException, InterruptedException {
+    final List<Thread> threads = new ArrayList<>();
+
+    threads.add(new Thread("html-walker") {
+      @Override
+      public void run() {
+        try {
+          walk(docDir);
+        } catch (Throwable t) {
+          fail(t);
+        } finally {
+          finish(rawQueue, NO_MORE_RAW);
+        }
+      }
+    });
+
+    activeParsers.set(parseThreads);
+    for (int i = 0; i < parseThreads; i++) {
+      threads.add(new Thread("html-parser-" + i) {
+        @Override
+        public void run() {
+          try {
+            parseLoop();
+          } catch (Throwable t) {
+            fail(t);
+          } finally {
+            if (activeParsers.decrementAndGet() == 0) {
+              finish(parsedQueue, NO_MORE_PARSED);
+            }
+          }
+        }
+      });
+    }
+
+    for (int i = 0; i < indexThreads; i++) {
+      threads.add(new Thread("html-indexer-" + i) {
+        @Override
+        public void run() {
+          try {
+            indexLoop();
+          } catch (Throwable t) {
+            fail(t);
+          }
+        }
+      });
+    }
+
+    final long startNS = System.nanoTime();
+    for (Thread t : threads) {
+      t.start();
+    }
+
+    long lastReportNS = startNS;
+    long lastDocs = 0, lastBytes = 0;
+    for (Thread t : threads) {
+      while (t.isAlive()) {
+        t.join(reportIntervalMS > 0 ? reportIntervalMS : 0);
+        final long nowNS = System.nanoTime();
+        if (reportIntervalMS > 0 && nowNS - lastReportNS >= TimeUnit.MILLISECONDS.toNanos(reportIntervalMS)) {
+          final long docs = docsIndexed.get();
+          final long bytes = bytesIndexed.get();
+          report("progress", docs - lastDocs, bytes - lastBytes, nowNS - lastReportNS, docs);
+          lastReportNS = nowNS;
+          lastDocs = docs;
+          lastBytes = bytes;
+        }
+      }
+    }
+
+    report("total", docsIndexed.get(), bytesIndexed.get(), System.nanoTime() - startNS, docsIndexed.get());
+    if (ThreadAllocations.isSupported() && docsIndexed.get() > 0) {
+      out.println("parse and index threads allocated " + (bytesAllocated.get() / docsIndexed.get() / 1024)
+          + " KB per document");
+    }
+    if (docsFailed.get() > 0) {
+      out.println(docsFailed.get() + " of " + docsRead.get() + " documents could not be parsed or indexed");
+    }
+
+    final Throwable t = failure.get();
+    if (t != null) {
+      if (t instanceof IOException) {
+        throw (IOException) t;
+      } else if (t instanceof InterruptedException) {
+        throw (InterruptedException) t;
+      } else if (t instanceof RuntimeException) {
+        throw (RuntimeException) t;
+      } else if (t instanceof Error) {
+        throw (Error) t;
+      }
+      throw new RuntimeException(t);
+    }
+  }
+
+  private void walk(Path path) throws IOException {
+    if (Files.isDirectory(path)) {
+      Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+          if (failure.get() != null) {
+            return FileVisitResult.TERMINATE;
+          }
+          read(file, attrs.lastModifiedTime().toMillis());
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    } else {
+      read(path, Files.getLastModifiedTime(path).toMillis());
+    }
+  }
+
+  private void read(Path file, long lastModified) throws IOException {
+    docsRead.incrementAndGet();
+    final byte[] bytes;
+    try {
+      bytes = Files.readAllBytes(file);
+    } catch (IOException ignore) {
+      // don't index files that can't be read.
+      docsFailed.incrementAndGet();
+      return;
+    }
+    try {
+      // blocks while the parsers are behind
+      handOff(rawQueue, new RawDoc(file, lastModified, bytes));
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      throw new IOException("interrupted while queueing " + file, ie);
+    }
+  }
+
+  private void parseLoop() throws InterruptedException {
+    final HtmlDocumentBuilder builder = new HtmlDocumentBuilder();
+    final long allocatedBefore = ThreadAllocations.currentThreadAllocatedBytes();
+    while (true) {
+      final RawDoc raw = rawQueue.take();
+      if (raw == NO_MORE_RAW) {
+        rawQueue.offer(NO_MORE_RAW);
+        recordAllocations(allocatedBefore);
+        return;
+      }
+      if (failure.get() != null) {
+        // keep draining so the walker never blocks on a full queue
+        continue;
+      }
+      final DocData docData;
+      try {
+        final InputSource source = new InputSource(new ByteArrayInputStream(raw.bytes));
+        // a fresh DocData per document, as it is handed over to another thread
+        docData = builder.parse(new DocData(), raw.path.toString(), raw.lastModified, source);
+      } catch (IOException | SAXException | RuntimeException e) {
+        // don't index documents that can't be parsed
+        docsFailed.incrementAndGet();
+        continue;
+      }
+      // blocks while the indexers are behind
+      handOff(parsedQueue, new ParsedDoc(raw.path, raw.lastModified, docData, raw.bytes.length));
+    }
+  }
+
+  private void indexLoop() throws InterruptedException {
+    final boolean create = writer.getConfig().getOpenMode() == OpenMode.CREATE;
+    // document and fields are reused for every document this thread indexes
+    final HtmlDocumentBuilder builder = new HtmlDocumentBuilder();
+    final long allocatedBefore = ThreadAllocations.currentThreadAllocatedBytes();
+    while (true) {
+      final ParsedDoc parsed = parsedQueue.take();
+      if (parsed == NO_MORE_PARSED) {
+        parsedQueue.offer(NO_MORE_PARSED);
+        recordAllocations(allocatedBefore);
+        return;
+      }
+      if (failure.get() != null) {
+        // keep draining so the parsers never block on a full queue
+        continue;
+      }
+      try {
+        final Document doc = builder.document(parsed.path, parsed.lastModified, parsed.docData);
+        if (create) {
+          writer.addDocument(doc);
+        } else {
+          writer.updateDocument(new Term("path", parsed.path.toString()), doc);
+        }
+      } catch (RuntimeException e) {
+        if (writer.isOpen()) {
+          // only this document was rejected, the writer is still usable
+          docsFailed.incrementAndGet();
+        } else {
+          // the writer got closed: stop the whole pipeline
+          fail(e);
+        }
+        continue;
+      } catch (Throwable t) {
+        // the writer is most likely closed by a tragic event: stop the whole pipeline
+        fail(t);
+        continue;
+      }
+      docsIndexed.incrementAndGet();
+      bytesIndexed.addAndGet(parsed.numBytes);
+    }
+  }
+
+  private void recordAllocations(long allocatedBefore) {
+    if (ThreadAllocations.isSupported()) {
+      bytesAllocated.addAndGet(ThreadAllocations.currentThreadAllocatedBytes() - allocatedBefore);
+    }
+  }
+
+  private void fail(Throwable t) {
+    failure.compareAndSet(null, t);
+  }
+
+  private void report(String label, long docs, long bytes, long elapsedNS, long totalDocs) {
+    final double sec = Math.max(elapsedNS, 1L) / 1e9;
+    out.println(String.format(Locale.ROOT, "%s: %d docs indexed; %.1f docs/sec; %.2f MB/sec",
+        label, totalDocs, docs / sec, bytes / 1024. / 1024. / sec));
+  }
+
+  /**
+   * Blocks until the next stage accepts {@code element}. Returns false, dropping
+   * the element, if the pipeline failed in the meantime: the next stage might
+   * not be consuming anymore.
+   */
+  private <T> boolean handOff(BlockingQueue<T> queue, T element) throws InterruptedException {
+    while (queue.offer(element, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS) == false) {
+      if (failure.get() != null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Puts the end-of-input {@code marker}, which must be the last element ever
+   * added to {@code queue} by its producers. If the pipeline failed, pending
+   * elements are dropped to make room, as the next stage might not be
+   * consuming anymore.
+   */
+  private <T> void finish(BlockingQueue<T> queue, T marker) {
+    boolean interrupted = false;
+    while (true) {
+      try {
+        if (queue.offer(marker, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+          break;
+        }
+        if (failure.get() != null) {
+          queue.clear();
+        }
+      } catch (InterruptedException ie) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
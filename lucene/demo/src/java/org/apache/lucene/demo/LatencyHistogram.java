@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.demo;
+
+
+/**
+ * Log-linear histogram of latencies in nanoseconds.
+ * <p>
+ * Values are grouped by their highest set bit, and each power of two is
+ * split into {@code 2^SUB_BUCKET_BITS} linear sub-buckets, so every recorded
+ * value is kept with a relative error below {@code 1 / 2^SUB_BUCKET_BITS}
+ * (under 1%) in constant space, whatever the number of recorded values.
+ * <p>
+ * <b>NOTE</b>: not thread-safe; record into one histogram per thread and
+ * {@link #add} them together.
+ */
+final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 7;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  // values below SUB_BUCKET_COUNT are recorded exactly, one bucket each
+  private static final int NUM_BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+  private final long[] counts = new long[NUM_BUCKETS];
+  private long totalCount;
+  private long sum;
+  private long min = Long.MAX_VALUE;
+  private long max = Long.MIN_VALUE;
+
+  /** Records one value, which must be &gt;= 0. */
+  void record(long value) {
+    if (value < 0) {
+      throw new IllegalArgumentException("value must be >= 0, got " + value);
+    }
+    counts[bucketIndex(value)]++;
+    totalCount++;
+    sum += value;
+    min = Math.min(min, value);
+    max = Math.max(max, value);
+  }
+
+  /** Adds all values recorded by {@code other} to this histogram. */
+  void add(LatencyHistogram other) {
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+      counts[i] += other.counts[i];
+    }
+    totalCount += other.totalCount;
+    sum += other.sum;
+    min = Math.min(min, other.min);
+    max = Math.max(max, other.max);
+  }
+
+  /** Number of recorded values. */
+  long count() {
+    return totalCount;
+  }
+
+  /** Smallest recorded value, or 0 if empty. */
+  long min() {
+    return totalCount == 0 ? 0 : min;
+  }
+
+  /** Largest recorded value, or 0 if empty. */
+  long max() {
+    return totalCount == 0 ? 0 : max;
+  }
+
+  /** Arithmetic mean of the recorded values, or 0 if empty. */
+  double mean() {
+    return totalCount == 0 ? 0 : (double) sum / totalCount;
+  }
+
+  /**
+   * Returns the value below which the given fraction of recorded values fall,
+   * eg. {@code 0.99} for the 99th percentile. The result is the upper bound of
+   * the matching bucket, capped at {@link #max()}.
+   */
+  long percentile(double fraction) {
+    if (fraction < 0 || fraction > 1) {
+      throw new IllegalArgumentException("fraction must be in [0, 1], got " + fraction);
+    }
+    if (totalCount == 0) {
+      return 0;
+    }
+    final long rank = Math.max(1, (long) Math.ceil(fraction * totalCount));
+    long seen = 0;
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(bucketUpperBound(i), max);
+      }
+    }
+    return max;
+  }
+
+  static int bucketIndex(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+    final int highBit = 63 - Long.numberOfLeadingZeros(value);
+    final int shift = highBit - SUB_BUCKET_BITS;
+    // sub-bucket within [2^highBit, 2^(highBit+1)), using the SUB_BUCKET_BITS bits below the high bit
+    final int subBucket = (int) (value >>> shift) & (SUB_BUCKET_COUNT - 1);
+    return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+  }
+
+  static long bucketUpperBound(int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    final int shift = index / SUB_BUCKET_COUNT - 1;
+    final long subBucket = index % SUB_BUCKET_COUNT;
+    final long lower = (SUB_BUCKET_COUNT | subBucket) << shift;
+    return lower + (1L << shift) - 1;
+  }
+}
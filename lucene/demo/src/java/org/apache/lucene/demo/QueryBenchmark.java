@@ -0,0 +1,235 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.demo;
+
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.util.NamedThreadFactory;
+
+/**
+ * Batch query benchmark used by {@link TFIDFSearchFiles} in {@code -batch} mode.
+ * <p>
+ * All queries of a query file are parsed up front, then run {@code iterations}
+ * times by a pool of threads sharing one {@link IndexSearcher}. Each query is
+ * timed individually into a per-thread {@link LatencyHistogram}; a number of
+ * warm-up passes over the queries are run first and not recorded. The summary
+ * (QPS and latency percentiles) is printed and can be appended to a CSV or
+ * JSON-lines file to compare runs with different similarities or analyzers.
+ */
+final class QueryBenchmark {
+
+  private final IndexSearcher searcher;
+  private final List<Query> queries;
+  private final int threads;
+  private final int topN;
+
+  /**
+   * @param searcher shared searcher, already configured with the similarity under test
+   * @param queries parsed queries, run in order by each iteration
+   * @param threads number of concurrent searching threads
+   * @param topN number of hits collected per query
+   */
+  QueryBenchmark(IndexSearcher searcher, List<Query> queries, int threads, int topN) {
+    if (queries.isEmpty()) {
+      throw new IllegalArgumentException("no queries to run");
+    }
+    if (threads <= 0) {
+      throw new IllegalArgumentException("threads must be > 0, got " + threads);
+    }
+    if (topN <= 0) {
+      throw new IllegalArgumentException("topN must be > 0, got " + topN);
+    }
+    this.searcher = searcher;
+    this.queries = queries;
+    this.threads = threads;
+    this.topN = topN;
+  }
+
+  /** Parses one query per non-empty line of the given file. */
+  static List<Query> parseQueries(BufferedReader in, QueryParser parser) throws IOException, ParseException {
+    final List<Query> queries = new ArrayList<>();
+    String line;
+    while ((line = in.readLine()) != null) {
+      line = line.trim();
+      if (line.length() > 0) {
+        queries.add(parser.parse(line));
+      }
+    }
+    return queries;
+  }
+
+  /** Result of a benchmark run; latencies are in nanoseconds. */
+  static final class Result {
+    final int threads;
+    final int numQueries;
+    final int iterations;
+    final long elapsedNS;
+    final long totalHits;
+    final LatencyHistogram latencies;
+
+    Result(int threads, int numQueries, int iterations, long elapsedNS, long totalHits, LatencyHistogram latencies) {
+      this.threads = threads;
+      this.numQueries = numQueries;
+      this.iterations = iterations;
+      this.elapsedNS = elapsedNS;
+      this.totalHits = totalHits;
+      this.latencies = latencies;
+    }
+
+    double qps() {
+      return latencies.count() / (Math.max(elapsedNS, 1L) / 1e9);
+    }
+  }
+
+  /** Runs {@code warmupIterations} unrecorded, then {@code iterations} recorded passes over all queries. */
+  Result run(int warmupIterations, int iterations) throws IOException, InterruptedException {
+    final ExecutorService executor = Executors.newFixedThreadPool(threads, new NamedThreadFactory("query-benchmark"));
+    try {
+      if (warmupIterations > 0) {
+        runPasses(executor, warmupIterations, null);
+      }
+      final LatencyHistogram latencies = new LatencyHistogram();
+      final long startNS = System.nanoTime();
+      final long totalHits = runPasses(executor, iterations, latencies);
+      final long elapsedNS = System.nanoTime() - startNS;
+      return new Result(threads, queries.size(), iterations, elapsedNS, totalHits, latencies);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /** Runs the queries {@code iterations} times across all threads, recording into {@code merged} if not null. */
+  private long runPasses(ExecutorService executor, int iterations, final LatencyHistogram merged)
+      throws IOException, InterruptedException {
+    final long total = (long) iterations * queries.size();
+    final AtomicLong next = new AtomicLong();
+    final List<Future<LatencyHistogram>> futures = new ArrayList<>();
+    final AtomicLong totalHits = new AtomicLong();
+    for (int i = 0; i < threads; i++) {
+      futures.add(executor.submit(new Callable<LatencyHistogram>() {
+        @Override
+        public LatencyHistogram call() throws IOException {
+          final LatencyHistogram histogram = new LatencyHistogram();
+          long hits = 0;
+          long upto;
+          while ((upto = next.getAndIncrement()) < total) {
+            final Query query = queries.get((int) (upto % queries.size()));
+            final long t0 = System.nanoTime();
+            hits += searcher.search(query, topN).totalHits;
+            histogram.record(System.nanoTime() - t0);
+          }
+          totalHits.addAndGet(hits);
+          return histogram;
+        }
+      }));
+    }
+    for (Future<LatencyHistogram> future : futures) {
+      final LatencyHistogram histogram;
+      try {
+        histogram = future.get();
+      } catch (ExecutionException e) {
+        final Throwable cause = e.getCause();
+        if (cause instanceof IOException) {
+          throw (IOException) cause;
+        } else if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw new RuntimeException(cause);
+      }
+      if (merged != null) {
+        merged.add(histogram);
+      }
+    }
+    return totalHits.get();
+  }
+
+  /** Prints a human readable summary of the result. */
+  static void print(Result result, String label, PrintStream out) {
+    final LatencyHistogram h = result.latencies;
+    out.println(String.format(Locale.ROOT,
+        "%s: %d queries x %d iterations on %d threads in %.2f sec: %.1f QPS",
+        label, result.numQueries, result.iterations, result.threads, result.elapsedNS / 1e9, result.qps()));
+    out.println(String.format(Locale.ROOT,
+        "latency (ms): mean=%.3f p50=%.3f p90=%.3f p99=%.3f p999=%.3f max=%.3f",
+        h.mean() / 1e6, ms(h.percentile(0.50)), ms(h.percentile(0.90)),
+        ms(h.percentile(0.99)), ms(h.percentile(0.999)), ms(h.max())));
+  }
+
+  private static final String CSV_HEADER =
+      "label,threads,queries,iterations,totalHits,elapsedSec,qps,meanMs,p50Ms,p90Ms,p99Ms,p999Ms,maxMs";
+
+  /**
+   * Appends the result to {@code file}: one JSON object per line if the file
+   * name ends with {@code .json}, otherwise one CSV row, writing the CSV header
+   * first if the file is new.
+   */
+  static void append(Result result, String label, Path file) throws IOException {
+    final boolean json = file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".json");
+    final boolean exists = Files.exists(file);
+    final LatencyHistogram h = result.latencies;
+    try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+      if (json) {
+        w.write(String.format(Locale.ROOT,
+            "{\"label\":\"%s\",\"threads\":%d,\"queries\":%d,\"iterations\":%d,\"totalHits\":%d,"
+            + "\"elapsedSec\":%.3f,\"qps\":%.2f,\"meanMs\":%.3f,\"p50Ms\":%.3f,\"p90Ms\":%.3f,"
+            + "\"p99Ms\":%.3f,\"p999Ms\":%.3f,\"maxMs\":%.3f}\n",
+            label.replace("\\", "\\\\").replace("\"", "\\\""), result.threads, result.numQueries,
+            result.iterations, result.totalHits, result.elapsedNS / 1e9, result.qps(), h.mean() / 1e6,
+            ms(h.percentile(0.50)), ms(h.percentile(0.90)), ms(h.percentile(0.99)),
+            ms(h.percentile(0.999)), ms(h.max())));
+      } else {
+        if (exists == false) {
+          w.write(CSV_HEADER);
+          w.write('\n');
+        }
+        w.write(String.format(Locale.ROOT, "%s,%d,%d,%d,%d,%.3f,%.2f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f\n",
+            label.replace(",", ";"), result.threads, result.numQueries, result.iterations, result.totalHits,
+            result.elapsedNS / 1e9, result.qps(), h.mean() / 1e6,
+            ms(h.percentile(0.50)), ms(h.percentile(0.90)), ms(h.percentile(0.99)),
+            ms(h.percentile(0.999)), ms(h.max())));
+      }
+    }
+  }
+
+  private static double ms(long nanos) {
+    return nanos / 1e6;
+  }
+}
@@ -21,13 +21,14 @@ import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 
+import java.util.Set;
+
 import org.apache.lucene.analysis.Analyzer;
-import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.store.FSDirectory;
-import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.queryparser.classic.ParseException;
 
 
@@ -39,12 +40,33 @@ public class SimpleMetrics {
   public static void main(String[] args) {
 
     String indexPath = "index";
+    int cacheSize = 10000;
+    for (int i = 0; i < args.length; i++) {
+      if ("-index".equals(args[i])) {
+        indexPath = args[i+1];
+        i++;
+      } else if ("-cache".equals(args[i])) {
+        cacheSize = Integer.parseInt(args[i+1]);
+        i++;
+      }
+    }
     BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
 
     // create a query parser with the custom-CMPT456 Analyzer
     Analyzer analyzer = new CMPT456Analyzer();
     QueryParser parser = new QueryParser("contents", analyzer);
 
+    // open the index once, it is refreshed before each query if it changed
+    SearcherManager manager = null;
+    TermStatsService service = null;
+    try {
+      manager = new SearcherManager(FSDirectory.open(Paths.get(indexPath)), null);
+      service = new TermStatsService(manager, cacheSize);
+    } catch (IOException e) {
+      System.out.println(e.toString());
+      return;
+    }
+
     while (true) {
       // prompt the user to enter query
       System.out.println("Enter query: ");
@@ -87,29 +109,18 @@ public class SimpleMetrics {
       System.out.println("Original Input: " + line + ", After Parsing: " + query.toString("contents"));
       System.out.println();
 
-      // open index reader, retrieve metrics for query terms
+      // retrieve metrics for query terms from the shared reader
       try {
-        IndexReader reader = DirectoryReader.open(FSDirectory.open(Paths.get(indexPath)));
-
-        // split query into query terms to support multi-term queries
-        String[] queryTerms = query.toString("contents").split(" ");
+        service.maybeRefresh();
 
-        // calculate metrics separately for each term in the query 
-        for (int i = 0; i < queryTerms.length; i++) {
+        // query terms as the parsed query sees them, to support multi-term queries
+        Set<Term> queryTerms = TermStatsService.extractTerms(query);
 
-          // create instances of the term within the contents field
-          Term termInContents = new Term("contents", queryTerms[i]);
-
-          // Document Frequency
-          // returns the number of documents containing the term
-          // assume that if term occurs in title, it would also occur in contents
-          int docFreqContents = reader.docFreq(termInContents);
-
-          // Term Frequency
-          // returns the total number of occurrences of the term across all documents
-          long termFreqContents = reader.totalTermFreq(termInContents);
-
-          System.out.println("Term: " + queryTerms[i] + ", DocFreq: " + docFreqContents + ", TermFreq: " + termFreqContents);
+        // Document Frequency: the number of documents containing the term
+        // Term Frequency: the total number of occurrences of the term across all documents
+        // assume that if term occurs in title, it would also occur in contents
+        for (TermStatsService.TermStats stats : service.stats(queryTerms)) {
+          System.out.println("Term: " + stats.term.text() + ", DocFreq: " + stats.docFreq + ", TermFreq: " + stats.totalTermFreq);
         }
 
         System.out.println();
@@ -119,5 +130,12 @@ public class SimpleMetrics {
       }
       
     }
+
+    System.out.println(service.lookups() + " term lookups, " + service.cacheHits() + " served from cache");
+    try {
+      manager.close();
+    } catch (IOException e) {
+      System.out.println(e.toString());
+    }
   }
-}
\ No newline at end of file
+}
@@ -10,11 +10,7 @@ Sydney Miyashiro
 package org.apache.lucene.demo;
 
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -22,21 +18,12 @@ import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Date;
-import java.io.ByteArrayInputStream;
-import java.io.FileInputStream;
-import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import java.io.IOException;
 
 import org.apache.lucene.analysis.Analyzer;
-import org.apache.lucene.benchmark.byTask.feeds.DemoHTMLParser;
 import org.apache.lucene.benchmark.byTask.feeds.DocData;
-import org.apache.lucene.benchmark.byTask.feeds.TrecContentSource;
-import org.apache.lucene.document.LongPoint;
 import org.apache.lucene.document.Document;
-import org.apache.lucene.document.Field;
-import org.apache.lucene.document.StringField;
-import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig.OpenMode;
 import org.apache.lucene.index.IndexWriterConfig;
@@ -59,12 +46,18 @@ public class TFIDFHtmlIndexFiles {
   /** Index all text files under a directory. */
   public static void main(String[] args) {
     String usage = "java org.apache.lucene.demo.TFIDFHtmlIndexFiles"
-                 + " [-index INDEX_PATH] [-docs DOCS_PATH] [-update]\n\n"
+                 + " [-index INDEX_PATH] [-docs DOCS_PATH] [-update]"
+                 + " [-threads N] [-parseThreads N] [-reportEvery SECONDS]\n\n"
                  + "This indexes the documents in DOCS_PATH, creating a Lucene index"
-                 + "in INDEX_PATH that can be searched with SearchFiles";
+                 + "in INDEX_PATH that can be searched with SearchFiles.\n"
+                 + "With -threads, N threads add documents concurrently, fed by"
+                 + " -parseThreads HTML parsing threads (default N)";
     String indexPath = "index";
     String docsPath = null;
     boolean create = true;
+    int threads = 0;
+    int parseThreads = 0;
+    int reportEverySec = 10;
     for(int i=0;i<args.length;i++) {
       if ("-index".equals(args[i])) {
         indexPath = args[i+1];
@@ -74,6 +67,15 @@ public class TFIDFHtmlIndexFiles {
         i++;
       } else if ("-update".equals(args[i])) {
         create = false;
+      } else if ("-threads".equals(args[i])) {
+        threads = Integer.parseInt(args[i+1]);
+        i++;
+      } else if ("-parseThreads".equals(args[i])) {
+        parseThreads = Integer.parseInt(args[i+1]);
+        i++;
+      } else if ("-reportEvery".equals(args[i])) {
+        reportEverySec = Integer.parseInt(args[i+1]);
+        i++;
       }
     }
 
@@ -112,7 +114,20 @@ public class TFIDFHtmlIndexFiles {
       }
 
       IndexWriter writer = new IndexWriter(dir, iwc);
-      indexDocs(writer, docDir);
+      if (threads > 0) {
+        // bounded walk -> parse -> index pipeline, one in-memory segment per indexing thread
+        int numParsers = parseThreads > 0 ? parseThreads : threads;
+        HtmlIndexingPipeline pipeline = new HtmlIndexingPipeline(writer, numParsers, threads,
+            4 * (numParsers + threads), reportEverySec * 1000L, System.out);
+        try {
+          pipeline.run(docDir);
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          throw new IOException("interrupted while indexing", ie);
+        }
+      } else {
+        indexDocs(writer, docDir);
+      }
       writer.close();
 
       Date end = new Date();
@@ -140,55 +155,39 @@ public class TFIDFHtmlIndexFiles {
    * @throws IOException If there is a low-level I/O error
    */
   static void indexDocs(final IndexWriter writer, Path path) throws IOException {
+    // parser, document and fields are reused for every file
+    final HtmlDocumentBuilder builder = new HtmlDocumentBuilder();
+    final long[] numDocs = new long[1];
+    final long allocatedBefore = ThreadAllocations.currentThreadAllocatedBytes();
     if (Files.isDirectory(path)) {
       Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
         @Override
         public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-          try {
-            indexDoc(writer, file, attrs.lastModifiedTime().toMillis());
-          } catch (IOException ignore) {
-            // don't index files that can't be read.
+          if (indexDoc(writer, builder, file, attrs.lastModifiedTime().toMillis())) {
+            numDocs[0]++;
           }
           return FileVisitResult.CONTINUE;
         }
       });
     } else {
-      indexDoc(writer, path, Files.getLastModifiedTime(path).toMillis());
+      if (indexDoc(writer, builder, path, Files.getLastModifiedTime(path).toMillis())) {
+        numDocs[0]++;
+      }
+    }
+    if (ThreadAllocations.isSupported() && numDocs[0] > 0) {
+      long allocated = ThreadAllocations.currentThreadAllocatedBytes() - allocatedBefore;
+      System.out.println(numDocs[0] + " documents, " + (allocated / numDocs[0] / 1024) + " KB allocated per document");
     }
   }
 
-  /** Indexes a single document */
-  static void indexDoc(IndexWriter writer, Path file, long lastModified) throws IOException {
+  /** Indexes a single document, returns false if it could not be read or indexed */
+  static boolean indexDoc(IndexWriter writer, HtmlDocumentBuilder builder, Path file, long lastModified) {
     try {
-      // initialize HTML parser
-      DemoHTMLParser htmlParser = new DemoHTMLParser();
-
-      // set arguments for html parsing function
-      Date date = new Date(lastModified);
-      InputStream targetStream = new FileInputStream(file.toString());
-      InputSource inputSource = new InputSource(targetStream);
-
       // call HTML parser from DemoHTMLParser()
-      DocData docData = htmlParser.parse(new DocData(), file.toString(), date, inputSource, new TrecContentSource());
-      
-      // make a new, empty document
-      Document doc = new Document();
-
-      // add path and date to document 
-      Field pathField = new StringField("path", file.toString(), Field.Store.YES);
-      doc.add(pathField);
-      doc.add(new LongPoint("modified", lastModified));
-
-      // index title and text content from html document
-      InputStream title = new ByteArrayInputStream(docData.getTitle().getBytes(StandardCharsets.UTF_8));
-      InputStream body = new ByteArrayInputStream(docData.getBody().getBytes(StandardCharsets.UTF_8));
-
-      // add title to "title" field
-      doc.add(new TextField("title", new BufferedReader(new InputStreamReader(title))));
+      DocData docData = builder.parse(file, lastModified);
 
-      // add title and text body to "contents" for searching later
-      doc.add(new TextField("contents", new BufferedReader(new InputStreamReader(title))));
-      doc.add(new TextField("contents", new BufferedReader(new InputStreamReader(body))));
+      // path, date, title and text content from html document
+      Document doc = builder.document(file, lastModified, docData);
 
       if (writer.getConfig().getOpenMode() == OpenMode.CREATE) {
         // New index, so we just add the document (no old document can be there):
@@ -201,11 +200,13 @@ public class TFIDFHtmlIndexFiles {
         System.out.println("updating " + file);
         writer.updateDocument(new Term("path", file.toString()), doc);
       }
+      return true;
     
     } catch (IOException e) {
         System.out.println(e.toString());
     } catch (SAXException e) {
         System.out.println(e.toString());
     }
+    return false;
   }
 }
\ No newline at end of file
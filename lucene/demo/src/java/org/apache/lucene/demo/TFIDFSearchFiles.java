@@ -18,6 +18,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Date;
+import java.util.List;
 
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.document.Document;
@@ -40,7 +41,11 @@ public class TFIDFSearchFiles {
   /** Simple command-line based search demo. */
   public static void main(String[] args) throws Exception {
     String usage =
-      "Usage:\tjava org.apache.lucene.demo.SearchFiles [-index dir] [-field f] [-repeat n] [-queries file] [-query string] [-raw] [-paging hitsPerPage]\n\nSee http://lucene.apache.org/core/4_1_0/demo/ for details.";
+      "Usage:\tjava org.apache.lucene.demo.SearchFiles [-index dir] [-field f] [-repeat n] [-queries file] [-query string] [-raw] [-paging hitsPerPage]\n"
+      + "\tjava org.apache.lucene.demo.TFIDFSearchFiles -batch -queries file [-index dir] [-field f] [-threads n] [-warmup n] [-iterations n] [-topN n] [-results file.csv|file.json] [-label name] [-similarity classic|fast]\n\n"
+      + "-batch runs every query of the query file across a thread pool and reports QPS and latency percentiles.\n"
+      + "-similarity fast scores with CMPT456FastSimilarity, which gives the same scores as CMPT456Similarity.\n\n"
+      + "See http://lucene.apache.org/core/4_1_0/demo/ for details.";
     if (args.length > 0 && ("-h".equals(args[0]) || "-help".equals(args[0]))) {
       System.out.println(usage);
       System.exit(0);
@@ -53,6 +58,14 @@ public class TFIDFSearchFiles {
     boolean raw = false;
     String queryString = null;
     int hitsPerPage = 10;
+    boolean batch = false;
+    int threads = 1;
+    int warmup = 1;
+    int iterations = 5;
+    int topN = 10;
+    String results = null;
+    String label = null;
+    boolean fastSimilarity = false;
     
     for(int i = 0;i < args.length;i++) {
       if ("-index".equals(args[i])) {
@@ -79,8 +92,37 @@ public class TFIDFSearchFiles {
           System.exit(1);
         }
         i++;
+      } else if ("-batch".equals(args[i])) {
+        batch = true;
+      } else if ("-threads".equals(args[i])) {
+        threads = Integer.parseInt(args[i+1]);
+        i++;
+      } else if ("-warmup".equals(args[i])) {
+        warmup = Integer.parseInt(args[i+1]);
+        i++;
+      } else if ("-iterations".equals(args[i])) {
+        iterations = Integer.parseInt(args[i+1]);
+        i++;
+      } else if ("-topN".equals(args[i])) {
+        topN = Integer.parseInt(args[i+1]);
+        i++;
+      } else if ("-results".equals(args[i])) {
+        results = args[i+1];
+        i++;
+      } else if ("-label".equals(args[i])) {
+        label = args[i+1];
+        i++;
+      } else if ("-similarity".equals(args[i])) {
+        fastSimilarity = "fast".equals(args[i+1]);
+        i++;
       }
     }
+
+    if (batch && queries == null) {
+      System.err.println("-batch requires -queries");
+      System.err.println(usage);
+      System.exit(1);
+    }
     
     IndexReader reader = DirectoryReader.open(FSDirectory.open(Paths.get(index)));
     IndexSearcher searcher = new IndexSearcher(reader);
@@ -91,7 +133,8 @@ public class TFIDFSearchFiles {
     Analyzer analyzer = new CMPT456Analyzer();
 
     // Use CMPT456Similarity custom functions
-    Similarity customSimilarity = new CMPT456Similarity();
+    // (or the table-driven CMPT456FastSimilarity, which scores the same)
+    Similarity customSimilarity = fastSimilarity ? new CMPT456FastSimilarity() : new CMPT456Similarity();
     searcher.setSimilarity(customSimilarity);
 
     BufferedReader in = null;
@@ -101,6 +144,24 @@ public class TFIDFSearchFiles {
       in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
     }
     QueryParser parser = new QueryParser(field, analyzer);
+
+    if (batch) {
+      // one shared searcher, all queries parsed up front, warm-up passes not recorded
+      List<Query> queryList = QueryBenchmark.parseQueries(in, parser);
+      in.close();
+      if (label == null) {
+        label = customSimilarity + "/" + analyzer.getClass().getSimpleName();
+      }
+      QueryBenchmark benchmark = new QueryBenchmark(searcher, queryList, threads, topN);
+      QueryBenchmark.Result result = benchmark.run(warmup, iterations);
+      QueryBenchmark.print(result, label, System.out);
+      if (results != null) {
+        QueryBenchmark.append(result, label, Paths.get(results));
+      }
+      reader.close();
+      return;
+    }
+
     while (true) {
       if (queries == null && queryString == null) {                        // prompt the user
         System.out.println("Enter query: ");
@@ -174,6 +235,17 @@ public class TFIDFSearchFiles {
       }
       
       end = Math.min(hits.length, start + hitsPerPage);
+
+      // load the whole page at once so that hits that share a compressed
+      // block of stored fields only decompress it once
+      Document[] docs = null;
+      if (!raw) {
+        int[] docIDs = new int[Math.max(0, end - start)];
+        for (int i = start; i < end; i++) {
+          docIDs[i - start] = hits[i].doc;
+        }
+        docs = searcher.doc(docIDs);
+      }
       
       for (int i = start; i < end; i++) {
         if (raw) {                              // output raw format
@@ -181,7 +253,7 @@ public class TFIDFSearchFiles {
           continue;
         }
 
-        Document doc = searcher.doc(hits[i].doc);
+        Document doc = docs[i - start];
         String path = doc.get("path");
         if (path != null) {
           // Output results along with score
@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.demo;
+
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.MultiReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SearcherManager;
+
+/**
+ * Answers document frequency and total term frequency lookups for
+ * {@link SimpleMetrics} against one long-lived, refreshable reader.
+ * <p>
+ * Terms are looked up in batches: they are sorted and every segment is
+ * visited once per field, seeking a single {@link TermsEnum} forward through
+ * the batch. Statistics of recently requested terms are kept in a bounded
+ * LRU cache, which is dropped whenever {@link #maybeRefresh()} opens a new
+ * reader.
+ * <p>
+ * This class is thread-safe.
+ */
+final class TermStatsService {
+
+  /** Statistics of one term, summed over all segments. */
+  static final class TermStats {
+    final Term term;
+    /** Number of documents containing the term, including deleted ones. */
+    final int docFreq;
+    /** Number of occurrences of the term, or -1 if a segment does not record frequencies. */
+    final long totalTermFreq;
+
+    TermStats(Term term, int docFreq, long totalTermFreq) {
+      this.term = term;
+      this.docFreq = docFreq;
+      this.totalTermFreq = totalTermFreq;
+    }
+  }
+
+  private final SearcherManager manager;
+  private final Map<Term,TermStats> cache;
+  private IndexReader cachedReader;
+
+  private long lookups;
+  private long cacheHits;
+
+  /**
+   * @param manager manager of the searcher to read statistics from
+   * @param cacheSize maximum number of terms whose statistics are cached
+   */
+  TermStatsService(SearcherManager manager, final int cacheSize) {
+    if (cacheSize < 0) {
+      throw new IllegalArgumentException("cacheSize must be >= 0, got " + cacheSize);
+    }
+    this.manager = manager;
+    this.cache = new LinkedHashMap<Term,TermStats>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Term,TermStats> eldest) {
+        return size() > cacheSize;
+      }
+    };
+  }
+
+  /** Returns the distinct terms the given query matches on, in sorted order. */
+  static Set<Term> extractTerms(Query query) throws IOException {
+    final Set<Term> terms = new TreeSet<>();
+    // the weight is created against an empty reader: extractTerms only needs the
+    // query structure, and this avoids seeking every term once more to build
+    // the TermContexts that a real reader would compute for scoring
+    final IndexSearcher extractor = new IndexSearcher(new MultiReader());
+    extractor.createNormalizedWeight(query, false).extractTerms(terms);
+    return terms;
+  }
+
+  /** Picks up index changes, returns true if a new reader was opened. */
+  boolean maybeRefresh() throws IOException {
+    return manager.maybeRefresh();
+  }
+
+  /** Returns statistics for the given terms, in the iteration order of {@code terms}. */
+  List<TermStats> stats(Collection<Term> terms) throws IOException {
+    final IndexSearcher searcher = manager.acquire();
+    try {
+      final IndexReader reader = searcher.getIndexReader();
+      final Map<Term,TermStats> found = new HashMap<>();
+      final TreeSet<Term> missing = new TreeSet<>();
+      synchronized (cache) {
+        if (cachedReader != reader) {
+          // statistics of the previous reader are stale
+          cache.clear();
+          cachedReader = reader;
+        }
+        for (Term term : terms) {
+          lookups++;
+          final TermStats cached = cache.get(term);
+          if (cached != null) {
+            cacheHits++;
+            found.put(term, cached);
+          } else {
+            missing.add(term);
+          }
+        }
+      }
+
+      if (missing.isEmpty() == false) {
+        final List<TermStats> computed = lookup(reader, missing);
+        synchronized (cache) {
+          for (TermStats stats : computed) {
+            found.put(stats.term, stats);
+            if (cachedReader == reader) {
+              cache.put(stats.term, stats);
+            }
+          }
+        }
+      }
+
+      final List<TermStats> result = new ArrayList<>(terms.size());
+      for (Term term : terms) {
+        result.add(found.get(term));
+      }
+      return result;
+    } finally {
+      manager.release(searcher);
+    }
+  }
+
+  /** Seeks every segment once per field through the sorted terms. */
+  private static List<TermStats> lookup(IndexReader reader, TreeSet<Term> sortedTerms) throws IOException {
+    final Term[] terms = sortedTerms.toArray(new Term[sortedTerms.size()]);
+    final int[] docFreqs = new int[terms.length];
+    final long[] totalTermFreqs = new long[terms.length];
+
+    for (LeafReaderContext leaf : reader.leaves()) {
+      // Term sorts by field first, so each field is a contiguous run
+      int fieldStart = 0;
+      while (fieldStart < terms.length) {
+        final String field = terms[fieldStart].field();
+        int fieldEnd = fieldStart + 1;
+        while (fieldEnd < terms.length && terms[fieldEnd].field().equals(field)) {
+          fieldEnd++;
+        }
+        final Terms fieldTerms = leaf.reader().terms(field);
+        if (fieldTerms != null) {
+          final TermsEnum termsEnum = fieldTerms.iterator();
+          for (int i = fieldStart; i < fieldEnd; i++) {
+            if (termsEnum.seekExact(terms[i].bytes())) {
+              docFreqs[i] += termsEnum.docFreq();
+              final long ttf = termsEnum.totalTermFreq();
+              if (ttf == -1 || totalTermFreqs[i] == -1) {
+                totalTermFreqs[i] = -1;
+              } else {
+                totalTermFreqs[i] += ttf;
+              }
+            }
+          }
+        }
+        fieldStart = fieldEnd;
+      }
+    }
+
+    final List<TermStats> stats = new ArrayList<>(terms.length);
+    for (int i = 0; i < terms.length; i++) {
+      stats.add(new TermStats(terms[i], docFreqs[i], totalTermFreqs[i]));
+    }
+    return stats;
+  }
+
+  /** Number of term lookups served so far. */
+  long lookups() {
+    synchronized (cache) {
+      return lookups;
+    }
+  }
+
+  /** Number of term lookups served from the cache so far. */
+  long cacheHits() {
+    synchronized (cache) {
+      return cacheHits;
+    }
+  }
+}
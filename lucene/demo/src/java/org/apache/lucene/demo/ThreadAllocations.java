@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.demo;
+
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+
+/**
+ * Reads the number of bytes allocated on the heap by the current thread, if
+ * the JVM exposes it (HotSpot does, through
+ * {@code com.sun.management.ThreadMXBean#getThreadAllocatedBytes}).
+ * <p>
+ * Used by the HTML indexers to report allocation per indexed document.
+ */
+final class ThreadAllocations {
+
+  private static final String THREAD_BEAN_CLASS = "com.sun.management.ThreadMXBean";
+
+  private static final ThreadMXBean THREAD_BEAN;
+  private static final Method GET_ALLOCATED_BYTES;
+
+  static {
+    ThreadMXBean bean = null;
+    Method method = null;
+    try {
+      final Class<?> beanClazz = Class.forName(THREAD_BEAN_CLASS);
+      bean = ManagementFactory.getThreadMXBean();
+      if (beanClazz.isInstance(bean)) {
+        method = beanClazz.getMethod("getThreadAllocatedBytes", long.class);
+        // probe once, this may be disabled or unsupported:
+        if (((Long) method.invoke(bean, Thread.currentThread().getId())) < 0) {
+          method = null;
+        }
+      } else {
+        method = null;
+      }
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      method = null;
+    }
+    THREAD_BEAN = bean;
+    GET_ALLOCATED_BYTES = method;
+  }
+
+  private ThreadAllocations() {}
+
+  /** Returns true if {@link #currentThreadAllocatedBytes()} returns meaningful values. */
+  static boolean isSupported() {
+    return GET_ALLOCATED_BYTES != null;
+  }
+
+  /** Returns the total number of bytes allocated by the current thread so far, or -1 if unsupported. */
+  static long currentThreadAllocatedBytes() {
+    if (GET_ALLOCATED_BYTES == null) {
+      return -1L;
+    }
+    try {
+      return (Long) GET_ALLOCATED_BYTES.invoke(THREAD_BEAN, Thread.currentThread().getId());
+    } catch (ReflectiveOperationException e) {
+      return -1L;
+    }
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.demo;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.lucene.analysis.MockAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.RandomIndexWriter;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+
+public class TestCMPT456FastSimilarity extends LuceneTestCase {
+
+  public void testTf() {
+    CMPT456Similarity sim = new CMPT456Similarity();
+    for (int freq = 0; freq < 2 * CMPT456FastSimilarity.TF_TABLE_SIZE; freq++) {
+      assertEquals(sim.tf(freq), CMPT456FastSimilarity.tf(freq), 0f);
+    }
+    // sloppy phrase frequencies are not integers
+    for (int i = 0; i < 100; i++) {
+      float freq = random().nextFloat() * 2 * CMPT456FastSimilarity.TF_TABLE_SIZE;
+      assertEquals(sim.tf(freq), CMPT456FastSimilarity.tf(freq), 0f);
+    }
+  }
+
+  public void testIdf() {
+    CMPT456Similarity sim = new CMPT456Similarity();
+    CMPT456FastSimilarity fastSim = new CMPT456FastSimilarity();
+    for (int i = 0; i < 100; i++) {
+      long docCount = TestUtil.nextLong(random(), 1, Integer.MAX_VALUE);
+      long docFreq = TestUtil.nextLong(random(), 1, docCount);
+      // twice, so that the second lookup hits the cache
+      assertEquals(sim.idf(docFreq, docCount), fastSim.idf(docFreq, docCount), 0f);
+      assertEquals(sim.idf(docFreq, docCount), fastSim.idf(docFreq, docCount), 0f);
+    }
+    assertEquals(sim.idf(3, 1L << 40), fastSim.idf(3, 1L << 40), 0f);
+  }
+
+  public void testSameScoresAndExplanations() throws Exception {
+    Directory dir = newDirectory();
+    RandomIndexWriter w = new RandomIndexWriter(random(), dir,
+        newIndexWriterConfig(new MockAnalyzer(random())).setSimilarity(new CMPT456Similarity()));
+    int numDocs = atLeast(50);
+    for (int i = 0; i < numDocs; i++) {
+      List<String> tokens = new ArrayList<>();
+      // term frequencies below and above the size of the tf table
+      int freq;
+      switch (random().nextInt(3)) {
+        case 0:
+          freq = TestUtil.nextInt(random(), 1, 10);
+          break;
+        case 1:
+          freq = TestUtil.nextInt(random(), CMPT456FastSimilarity.TF_TABLE_SIZE - 2, CMPT456FastSimilarity.TF_TABLE_SIZE + 2);
+          break;
+        default:
+          freq = TestUtil.nextInt(random(), 1, 3 * CMPT456FastSimilarity.TF_TABLE_SIZE);
+          break;
+      }
+      for (int j = 0; j < freq; j++) {
+        tokens.add("xx");
+      }
+      // vary field lengths, so that norms vary
+      for (int j = random().nextInt(50); j > 0; j--) {
+        tokens.add("yy");
+      }
+      Collections.shuffle(tokens, random());
+      // exact and sloppy phrase matches
+      for (int j = random().nextInt(5); j > 0; j--) {
+        tokens.add("xx");
+        tokens.add("zz");
+      }
+      for (int j = random().nextInt(5); j > 0; j--) {
+        tokens.add("zz");
+        tokens.add("yy");
+        tokens.add("xx");
+      }
+      Document doc = new Document();
+      doc.add(new TextField("body", String.join(" ", tokens), Field.Store.NO));
+      w.addDocument(doc);
+    }
+    IndexReader reader = w.getReader();
+    w.close();
+
+    IndexSearcher searcher = new IndexSearcher(reader);
+    searcher.setSimilarity(new CMPT456Similarity());
+    IndexSearcher fastSearcher = new IndexSearcher(reader);
+    fastSearcher.setSimilarity(new CMPT456FastSimilarity());
+
+    List<Query> queries = new ArrayList<>();
+    queries.add(new TermQuery(new Term("body", "xx")));
+    queries.add(new TermQuery(new Term("body", "zz")));
+    queries.add(new BoostQuery(new TermQuery(new Term("body", "xx")), 3f));
+    queries.add(new PhraseQuery("body", "xx", "zz"));
+    queries.add(new PhraseQuery(2, "body", "xx", "zz"));
+    BooleanQuery.Builder builder = new BooleanQuery.Builder();
+    builder.add(new TermQuery(new Term("body", "xx")), Occur.SHOULD);
+    builder.add(new BoostQuery(new TermQuery(new Term("body", "yy")), 0.5f), Occur.SHOULD);
+    builder.add(new PhraseQuery(1, "body", "zz", "xx"), Occur.SHOULD);
+    queries.add(builder.build());
+
+    for (Query query : queries) {
+      TopDocs expected = searcher.search(query, numDocs);
+      TopDocs actual = fastSearcher.search(query, numDocs);
+      assertEquals(query.toString(), expected.totalHits, actual.totalHits);
+      for (int i = 0; i < expected.scoreDocs.length; i++) {
+        int doc = expected.scoreDocs[i].doc;
+        assertEquals(query.toString(), doc, actual.scoreDocs[i].doc);
+        assertEquals(query.toString(), expected.scoreDocs[i].score, actual.scoreDocs[i].score, 0f);
+        String expectedExpl = searcher.explain(query, doc).toString();
+        String actualExpl = fastSearcher.explain(query, doc).toString()
+            .replace("[CMPT456FastSimilarity]", "[CMPT456Similarity]");
+        assertEquals(query.toString(), expectedExpl, actualExpl);
+      }
+    }
+    reader.close();
+    dir.close();
+  }
+}
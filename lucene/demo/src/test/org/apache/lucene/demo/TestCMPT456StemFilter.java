@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.demo;
+
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.BaseTokenStreamTestCase;
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.MockTokenizer;
+import org.apache.lucene.analysis.StopFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.en.PorterStemFilter;
+import org.apache.lucene.analysis.miscellaneous.SetKeywordMarkerFilter;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.util.TestUtil;
+
+public class TestCMPT456StemFilter extends BaseTokenStreamTestCase {
+
+  private static final CharArraySet STOP_WORDS = new CharArraySet(Arrays.asList("the", "of", "and", "a"), false);
+
+  private static final String[] WORDS = {
+      "The", "running", "RUNS", "runner", "of", "horses", "Horse", "and", "generalization",
+      "caresses", "ponies", "a", "relational", "hopefully", "Émile", "ÜBER", "x", "connections"
+  };
+
+  private static Analyzer fused(final int maxCachedStems) {
+    return new Analyzer() {
+      @Override
+      protected TokenStreamComponents createComponents(String fieldName) {
+        Tokenizer tokenizer = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+        return new TokenStreamComponents(tokenizer, new CMPT456StemFilter(tokenizer, STOP_WORDS, maxCachedStems));
+      }
+    };
+  }
+
+  /** The chain of filters that {@link CMPT456StemFilter} replaces. */
+  private static Analyzer chained() {
+    return new Analyzer() {
+      @Override
+      protected TokenStreamComponents createComponents(String fieldName) {
+        Tokenizer tokenizer = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+        TokenStream stream = new LowerCaseFilter(tokenizer);
+        stream = new StopFilter(stream, STOP_WORDS);
+        return new TokenStreamComponents(tokenizer, new PorterStemFilter(stream));
+      }
+    };
+  }
+
+  public void testLowerCasesRemovesStopWordsAndStems() throws IOException {
+    Analyzer a = fused(CMPT456StemFilter.DEFAULT_MAX_CACHED_STEMS);
+    assertAnalyzesTo(a, "The Running of the HORSES",
+        new String[] {"run", "hors"},
+        new int[] {2, 3});
+    // a second pass is served by the stem cache
+    assertAnalyzesTo(a, "The Running of the HORSES",
+        new String[] {"run", "hors"},
+        new int[] {2, 3});
+    a.close();
+  }
+
+  public void testKeywordsAreNotStemmed() throws IOException {
+    final CharArraySet keywords = new CharArraySet(Arrays.asList("running"), false);
+    Analyzer a = new Analyzer() {
+      @Override
+      protected TokenStreamComponents createComponents(String fieldName) {
+        Tokenizer tokenizer = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+        TokenStream stream = new SetKeywordMarkerFilter(tokenizer, keywords);
+        return new TokenStreamComponents(tokenizer, new CMPT456StemFilter(stream, STOP_WORDS));
+      }
+    };
+    assertAnalyzesTo(a, "running horses", new String[] {"running", "hors"});
+    a.close();
+  }
+
+  public void testSameTokensAsChain() throws IOException {
+    Analyzer expected = chained();
+    for (int maxCachedStems : new int[] {0, 3, CMPT456StemFilter.DEFAULT_MAX_CACHED_STEMS}) {
+      Analyzer actual = fused(maxCachedStems);
+      for (int iter = 0; iter < 100; iter++) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = random().nextInt(20); i >= 0; i--) {
+          sb.append(WORDS[random().nextInt(WORDS.length)]).append(' ');
+        }
+        final String text = sb.toString();
+        assertEquals(text, tokens(expected, text), tokens(actual, text));
+      }
+      actual.close();
+    }
+    expected.close();
+  }
+
+  public void testInvalidMaxCachedStems() {
+    expectThrows(IllegalArgumentException.class, () -> {
+      new CMPT456StemFilter(new MockTokenizer(), STOP_WORDS, -1);
+    });
+  }
+
+  public void testRandomStrings() throws IOException {
+    Analyzer a = fused(TestUtil.nextInt(random(), 0, 100));
+    checkRandomData(random(), a, 1000 * RANDOM_MULTIPLIER);
+    a.close();
+  }
+
+  /** Terms along with their position increments. */
+  private static List<String> tokens(Analyzer analyzer, String text) throws IOException {
+    List<String> tokens = new ArrayList<>();
+    try (TokenStream stream = analyzer.tokenStream("field", text)) {
+      CharTermAttribute termAtt = stream.addAttribute(CharTermAttribute.class);
+      PositionIncrementAttribute posIncAtt = stream.addAttribute(PositionIncrementAttribute.class);
+      stream.reset();
+      while (stream.incrementToken()) {
+        tokens.add(termAtt.toString() + "/" + posIncAtt.getPositionIncrement());
+      }
+      stream.end();
+    }
+    return tokens;
+  }
+}
@@ -129,6 +129,28 @@ public class FacetsCollector extends SimpleCollector implements Collector {
     totalHits++;
   }
 
+  @Override
+  public BatchMode batchMode() {
+    return keepScores ? BatchMode.DOCS_AND_SCORES : BatchMode.DOCS;
+  }
+
+  @Override
+  public final void collect(int[] docs, float[] scores, int count) throws IOException {
+    final DocIdSetBuilder.BulkAdder adder = docsBuilder.grow(count);
+    for (int i = 0; i < count; ++i) {
+      adder.add(docs[i]);
+    }
+    if (keepScores) {
+      if (totalHits + count > this.scores.length) {
+        float[] newScores = new float[ArrayUtil.oversize(totalHits + count, 4)];
+        System.arraycopy(this.scores, 0, newScores, 0, totalHits);
+        this.scores = newScores;
+      }
+      System.arraycopy(scores, 0, this.scores, totalHits, count);
+    }
+    totalHits += count;
+  }
+
   @Override
   public boolean needsScores() {
     return true;
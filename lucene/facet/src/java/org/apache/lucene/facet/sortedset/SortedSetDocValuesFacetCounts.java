@@ -31,11 +31,13 @@ import org.apache.lucene.facet.FacetsConfig;
 import org.apache.lucene.facet.LabelAndValue;
 import org.apache.lucene.facet.TopOrdAndIntQueue;
 import org.apache.lucene.facet.sortedset.SortedSetDocValuesReaderState.OrdRange;
+import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.MultiDocValues.MultiSortedSetDocValues;
 import org.apache.lucene.index.MultiDocValues;
 import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.util.BytesRef;
@@ -147,6 +149,12 @@ public class SortedSetDocValuesFacetCounts extends Facets {
       return;
     }
 
+    final SortedDocValues singleValues = DocValues.unwrapSingleton(segValues);
+    if (singleValues != null) {
+      countSingleValued(ordinalMap == null ? null : ordinalMap.getGlobalOrds(segOrd), singleValues, hits);
+      return;
+    }
+
     DocIdSetIterator docs = hits.bits.iterator();
 
     // TODO: yet another option is to count all segs
@@ -218,6 +226,52 @@ public class SortedSetDocValuesFacetCounts extends Facets {
     }
   }
 
+  /** Number of documents whose ords are fetched at once for single-valued fields. */
+  private static final int BULK_SIZE = 256;
+
+  /** Like {@link #countOneSegment} for single-valued fields: ords are fetched in bulk. */
+  private void countSingleValued(LongValues ordMap, SortedDocValues segValues, MatchingDocs hits) throws IOException {
+    final int numSegOrds = segValues.getValueCount();
+    // same heuristic as for multi-valued fields
+    final boolean remapAsWeGo = ordMap != null && hits.totalHits < numSegOrds/10;
+    final int[] segCounts = ordMap == null || remapAsWeGo ? counts : new int[numSegOrds];
+
+    final DocIdSetIterator docs = hits.bits.iterator();
+    final int[] docBuffer = new int[BULK_SIZE];
+    final int[] ordBuffer = new int[BULK_SIZE];
+    int doc = docs.nextDoc();
+    while (doc != DocIdSetIterator.NO_MORE_DOCS) {
+      int count = 0;
+      do {
+        docBuffer[count++] = doc;
+        doc = docs.nextDoc();
+      } while (count < BULK_SIZE && doc != DocIdSetIterator.NO_MORE_DOCS);
+
+      segValues.getOrds(docBuffer, ordBuffer, count);
+      for (int i = 0; i < count; ++i) {
+        final int ord = ordBuffer[i];
+        if (ord == -1) {
+          continue;
+        }
+        if (remapAsWeGo) {
+          counts[(int) ordMap.get(ord)]++;
+        } else {
+          segCounts[ord]++;
+        }
+      }
+    }
+
+    if (segCounts != counts) {
+      // migrate to global ords:
+      for(int ord=0;ord<numSegOrds;ord++) {
+        int count = segCounts[ord];
+        if (count != 0) {
+          counts[(int) ordMap.get(ord)] += count;
+        }
+      }
+    }
+  }
+
   /** Does all the "real work" of tallying up the counts. */
   private final void count(List<MatchingDocs> matchingDocs) throws IOException {
     //System.out.println("ssdv count");
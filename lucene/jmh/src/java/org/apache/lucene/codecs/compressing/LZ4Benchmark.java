@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.compressing;
+
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.ByteArrayDataOutput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compresses and decompresses a stored-fields sized chunk with {@code LZ4}, the
+ * algorithm behind {@link CompressionMode#FAST} and {@link CompressionMode#FAST_DECOMPRESSION}.
+ * <p>
+ * {@code text} is made of words drawn from a small vocabulary, {@code random} is incompressible.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LZ4Benchmark {
+
+  @Param({"16384", "61440"})
+  int length;
+
+  @Param({"text", "random"})
+  String data;
+
+  private byte[] uncompressed;
+  private byte[] compressed;
+  private int compressedLength;
+  private byte[] restored;
+  private final LZ4.HashTable hashTable = new LZ4.HashTable();
+  private final LZ4.HCHashTable hcHashTable = new LZ4.HCHashTable();
+  private final ByteArrayDataOutput out = new ByteArrayDataOutput();
+  private final ByteArrayDataInput in = new ByteArrayDataInput();
+
+  @Setup
+  public void setup() throws IOException {
+    Random random = new Random(0x124L);
+    uncompressed = new byte[length];
+    if ("text".equals(data)) {
+      String[] vocabulary = new String[512];
+      for (int i = 0; i < vocabulary.length; i++) {
+        char[] chars = new char[2 + random.nextInt(8)];
+        for (int j = 0; j < chars.length; j++) {
+          chars[j] = (char) ('a' + random.nextInt(26));
+        }
+        vocabulary[i] = new String(chars);
+      }
+      for (int i = 0; i < length; ) {
+        String word = vocabulary[random.nextInt(vocabulary.length)];
+        for (int j = 0; j < word.length() && i < length; j++) {
+          uncompressed[i++] = (byte) word.charAt(j);
+        }
+        if (i < length) {
+          uncompressed[i++] = ' ';
+        }
+      }
+    } else {
+      random.nextBytes(uncompressed);
+    }
+    // worst case of LZ4 is slightly larger than the input
+    compressed = new byte[length + length / 255 + 16];
+    out.reset(compressed);
+    LZ4.compress(uncompressed, 0, length, out, hashTable);
+    compressedLength = out.getPosition();
+    restored = new byte[length];
+  }
+
+  @Benchmark
+  public int compress() throws IOException {
+    out.reset(compressed);
+    LZ4.compress(uncompressed, 0, length, out, hashTable);
+    return out.getPosition();
+  }
+
+  @Benchmark
+  public int compressHC() throws IOException {
+    out.reset(compressed);
+    LZ4.compressHC(uncompressed, 0, length, out, hcHashTable);
+    return out.getPosition();
+  }
+
+  @Benchmark
+  public int decompress() throws IOException {
+    in.reset(compressed, 0, compressedLength);
+    return LZ4.decompress(in, length, restored, 0);
+  }
+}
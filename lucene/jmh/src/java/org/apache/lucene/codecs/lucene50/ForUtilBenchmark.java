@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.lucene50;
+
+
+import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.BLOCK_SIZE;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.packed.PackedInts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decodes and encodes blocks of {@link Lucene50PostingsFormat#BLOCK_SIZE} packed ints
+ * with {@code ForUtil}, the inner loop of {@link Lucene50PostingsReader}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ForUtilBenchmark {
+
+  static final int NUM_BLOCKS = 1024;
+
+  @Param({"1", "4", "7", "12", "16", "23"})
+  int bitsPerValue;
+
+  private Directory dir;
+  private ForUtil forUtil;
+  private IndexInput in;
+  private int[][] blocks;
+  private final byte[] encoded = new byte[ForUtil.MAX_ENCODED_SIZE];
+  private final int[] packed = new int[ForUtil.MAX_PACKED_SIZE];
+  private final int[] decoded = new int[ForUtil.MAX_DATA_SIZE];
+
+  @Setup
+  public void setup() throws IOException {
+    Random random = new Random(0xF0A11L + bitsPerValue);
+    blocks = new int[NUM_BLOCKS][BLOCK_SIZE];
+    for (int[] block : blocks) {
+      for (int i = 0; i < BLOCK_SIZE; i++) {
+        // make sure every block actually needs bitsPerValue bits
+        block[i] = i == 0 ? (int) PackedInts.maxValue(bitsPerValue) : random.nextInt(1 << bitsPerValue);
+      }
+    }
+    dir = new RAMDirectory();
+    try (IndexOutput out = dir.createOutput("for", IOContext.DEFAULT)) {
+      forUtil = new ForUtil(PackedInts.COMPACT, out, Lucene50PostingsFormat.VERSION_CURRENT);
+      for (int[] block : blocks) {
+        forUtil.writeBlock(block, encoded, out);
+      }
+    }
+    in = dir.openInput("for", IOContext.DEFAULT);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    in.close();
+    dir.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_BLOCKS)
+  public int readBlock() throws IOException {
+    in.seek(0);
+    int sum = 0;
+    for (int i = 0; i < NUM_BLOCKS; i++) {
+      forUtil.readBlock(in, encoded, packed, decoded);
+      sum += decoded[i & (BLOCK_SIZE - 1)];
+    }
+    return sum;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_BLOCKS)
+  public int readBlockPrefixSum() throws IOException {
+    in.seek(0);
+    int sum = 0;
+    for (int i = 0; i < NUM_BLOCKS; i++) {
+      forUtil.readBlock(in, encoded, packed, decoded);
+      ForUtil.prefixSum(decoded, BLOCK_SIZE, sum);
+      sum = decoded[BLOCK_SIZE - 1];
+    }
+    return sum;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_BLOCKS)
+  public long skipBlock() throws IOException {
+    in.seek(0);
+    for (int i = 0; i < NUM_BLOCKS; i++) {
+      forUtil.skipBlock(in);
+    }
+    return in.getFilePointer();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_BLOCKS)
+  public long writeBlock() throws IOException {
+    long length;
+    try (IndexOutput out = dir.createOutput("write", IOContext.DEFAULT)) {
+      for (int[] block : blocks) {
+        forUtil.writeBlock(block, encoded, out);
+      }
+      length = out.getFilePointer();
+    }
+    dir.deleteFile("write");
+    return length;
+  }
+}
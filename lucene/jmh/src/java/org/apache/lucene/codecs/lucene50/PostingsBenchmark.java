@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.lucene50;
+
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BenchmarkIndex;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.store.Directory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Iterates postings lists read by {@link Lucene50PostingsReader}, which decodes
+ * doc and freq blocks with {@code ForUtil} and skips with {@code Lucene50SkipReader}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PostingsBenchmark {
+
+  @Param({"1000000"})
+  int numDocs;
+
+  @Param({"p90", "p50", "p10", "p1"})
+  String term;
+
+  /** Gap between the targets of {@link #advance}, in docs */
+  @Param({"16", "1024"})
+  int advanceGap;
+
+  /** Name of the postings format the index is written with */
+  @Param({"Lucene50", "Lucene50BlockMax"})
+  String postingsFormat;
+
+  private Directory dir;
+  private DirectoryReader reader;
+  private LeafReader leaf;
+  private Term t;
+
+  @Setup
+  public void setup() throws IOException {
+    dir = BenchmarkIndex.build(numDocs, BenchmarkIndex.SEED, postingsFormat);
+    reader = DirectoryReader.open(dir);
+    leaf = reader.leaves().get(0).reader();
+    t = new Term(BenchmarkIndex.FIELD, term);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    reader.close();
+    dir.close();
+  }
+
+  @Benchmark
+  public int nextDoc() throws IOException {
+    PostingsEnum postings = leaf.postings(t, PostingsEnum.NONE);
+    int count = 0;
+    while (postings.nextDoc() != DocIdSetIterator.NO_MORE_DOCS) {
+      count++;
+    }
+    return count;
+  }
+
+  @Benchmark
+  public long nextDocFreqs() throws IOException {
+    PostingsEnum postings = leaf.postings(t, PostingsEnum.FREQS);
+    long sumFreqs = 0;
+    while (postings.nextDoc() != DocIdSetIterator.NO_MORE_DOCS) {
+      sumFreqs += postings.freq();
+    }
+    return sumFreqs;
+  }
+
+  @Benchmark
+  public int advance() throws IOException {
+    PostingsEnum postings = leaf.postings(t, PostingsEnum.NONE);
+    int count = 0;
+    for (int doc = postings.advance(0); doc != DocIdSetIterator.NO_MORE_DOCS; doc = postings.advance(doc + advanceGap)) {
+      count++;
+    }
+    return count;
+  }
+}
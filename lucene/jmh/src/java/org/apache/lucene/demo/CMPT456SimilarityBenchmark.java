@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.demo;
+
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BenchmarkIndex;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares top-10 searches scored by {@link CMPT456Similarity} and by
+ * {@link CMPT456FastSimilarity}, over term and disjunction queries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CMPT456SimilarityBenchmark {
+
+  @Param({"1000000"})
+  int numDocs;
+
+  /** One of {@link BenchmarkIndex#TERMS}, or two of them separated by a space for a disjunction */
+  @Param({"p90", "p50", "p90 p50", "p50 p10"})
+  String query;
+
+  @Param({"CMPT456Similarity", "CMPT456FastSimilarity"})
+  String similarity;
+
+  private Directory dir;
+  private DirectoryReader reader;
+  private IndexSearcher searcher;
+  private Query q;
+
+  @Setup
+  public void setup() throws IOException {
+    dir = BenchmarkIndex.build(numDocs, BenchmarkIndex.SEED);
+    reader = DirectoryReader.open(dir);
+    searcher = new IndexSearcher(reader);
+    searcher.setQueryCache(null);
+    if ("CMPT456Similarity".equals(similarity)) {
+      searcher.setSimilarity(new CMPT456Similarity());
+    } else {
+      searcher.setSimilarity(new CMPT456FastSimilarity());
+    }
+    String[] terms = query.split(" ");
+    if (terms.length == 1) {
+      q = new TermQuery(new Term(BenchmarkIndex.FIELD, terms[0]));
+    } else {
+      BooleanQuery.Builder builder = new BooleanQuery.Builder();
+      for (String term : terms) {
+        builder.add(new TermQuery(new Term(BenchmarkIndex.FIELD, term)), Occur.SHOULD);
+      }
+      q = builder.build();
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    reader.close();
+    dir.close();
+  }
+
+  @Benchmark
+  public TopDocs search() throws IOException {
+    return searcher.search(q, 10);
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.Directory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs match-all and high hit count term queries into {@link TotalHitCountCollector}
+ * and {@link TopScoreDocCollector}, with hits passed one at a time or in batches
+ * (see {@link LeafCollector#batchMode()}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BatchCollectionBenchmark {
+
+  @Param({"1000000"})
+  int numDocs;
+
+  /** {@code *:*} or one of {@link BenchmarkIndex#TERMS} */
+  @Param({"*:*", "p90", "p50"})
+  String query;
+
+  @Param({"count", "top10"})
+  String collector;
+
+  /** Whether the collector accepts batches of hits */
+  @Param({"true", "false"})
+  boolean batch;
+
+  private Directory dir;
+  private DirectoryReader reader;
+  private IndexSearcher searcher;
+  private Query q;
+
+  @Setup
+  public void setup() throws IOException {
+    dir = BenchmarkIndex.build(numDocs, BenchmarkIndex.SEED);
+    reader = DirectoryReader.open(dir);
+    searcher = new IndexSearcher(reader);
+    searcher.setQueryCache(null);
+    if ("*:*".equals(query)) {
+      q = new MatchAllDocsQuery();
+    } else {
+      q = new TermQuery(new Term(BenchmarkIndex.FIELD, query));
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    reader.close();
+    dir.close();
+  }
+
+  @Benchmark
+  public int search() throws IOException {
+    if ("count".equals(collector)) {
+      TotalHitCountCollector c = new TotalHitCountCollector();
+      searcher.search(q, wrap(c));
+      return c.getTotalHits();
+    } else {
+      // batching is opt-in for this collector
+      TopScoreDocCollector c = TopScoreDocCollector.create(10, null, true, batch);
+      searcher.search(q, wrap(c));
+      return c.getTotalHits();
+    }
+  }
+
+  /** Hides batch support of the collector behind a {@link FilterLeafCollector} if batches are disabled. */
+  private Collector wrap(Collector in) {
+    if (batch) {
+      return in;
+    }
+    return new FilterCollector(in) {
+      @Override
+      public LeafCollector getLeafCollector(LeafReaderContext context) throws IOException {
+        return new FilterLeafCollector(super.getLeafCollector(context)) {};
+      }
+    };
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+
+import java.io.IOException;
+import java.util.Random;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.codecs.PostingsFormat;
+import org.apache.lucene.codecs.lucene62.Lucene62Codec;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+
+/**
+ * Builds the synthetic single-segment index shared by the postings and scorer benchmarks.
+ * <p>
+ * Every document of field {@link #FIELD} contains each of {@link #TERMS} with the
+ * probability given by the term's name, with a term frequency between 1 and 4. The
+ * index only depends on the number of documents and the seed, so numbers are
+ * comparable from one run (and one release) to the next.
+ */
+public final class BenchmarkIndex {
+
+  /** Field holding the terms */
+  public static final String FIELD = "body";
+
+  /** Terms, named after the percentage of documents that contain them */
+  public static final String[] TERMS = {"p90", "p50", "p10", "p1"};
+
+  private static final double[] PROBABILITIES = {0.9, 0.5, 0.1, 0.01};
+
+  /** Default seed */
+  public static final long SEED = 0xBE7CB3L;
+
+  private BenchmarkIndex() {}
+
+  /** Builds a force-merged index of {@code numDocs} documents in a {@link RAMDirectory}. */
+  public static Directory build(int numDocs, long seed) throws IOException {
+    return build(numDocs, seed, null);
+  }
+
+  /**
+   * Same as {@link #build(int, long)}, but writes postings with the postings format
+   * of the given name, or with the default codec's if {@code postingsFormat} is null.
+   */
+  public static Directory build(int numDocs, long seed, String postingsFormat) throws IOException {
+    Random random = new Random(seed);
+    Directory dir = new RAMDirectory();
+    IndexWriterConfig iwc = new IndexWriterConfig(new StandardAnalyzer());
+    if (postingsFormat != null) {
+      final PostingsFormat format = PostingsFormat.forName(postingsFormat);
+      iwc.setCodec(new Lucene62Codec() {
+        @Override
+        public PostingsFormat getPostingsFormatForField(String field) {
+          return format;
+        }
+      });
+    }
+    iwc.setOpenMode(IndexWriterConfig.OpenMode.CREATE);
+    iwc.setRAMBufferSizeMB(256);
+    try (IndexWriter writer = new IndexWriter(dir, iwc)) {
+      Document doc = new Document();
+      Field field = new TextField(FIELD, "", Field.Store.NO);
+      doc.add(field);
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < numDocs; i++) {
+        sb.setLength(0);
+        for (int t = 0; t < TERMS.length; t++) {
+          if (random.nextDouble() < PROBABILITIES[t]) {
+            for (int freq = 1 + random.nextInt(4); freq > 0; freq--) {
+              sb.append(TERMS[t]).append(' ');
+            }
+          }
+        }
+        field.setStringValue(sb.toString());
+        writer.addDocument(doc);
+      }
+      writer.forceMerge(1);
+    }
+    return dir;
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.Directory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Leap-frogs {@link ConjunctionDISI} over raw postings and drives the
+ * conjunction and {@code DisjunctionScorer} scorers of {@link BooleanQuery}
+ * with {@code nextDoc} and {@code advance}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ConjunctionDisjunctionBenchmark {
+
+  @Param({"1000000"})
+  int numDocs;
+
+  /** Comma-separated terms of {@link BenchmarkIndex#TERMS} */
+  @Param({"p90,p50", "p50,p10", "p10,p1", "p90,p50,p10"})
+  String terms;
+
+  /** Gap between the targets of the advance benchmarks, in docs */
+  @Param({"64"})
+  int advanceGap;
+
+  /** Name of the postings format the index is written with */
+  @Param({"Lucene50", "Lucene50BlockMax"})
+  String postingsFormat;
+
+  private Directory dir;
+  private DirectoryReader reader;
+  private LeafReaderContext context;
+  private IndexSearcher searcher;
+  private Term[] queryTerms;
+  private Weight conjunction;
+  private Weight disjunction;
+
+  @Setup
+  public void setup() throws IOException {
+    dir = BenchmarkIndex.build(numDocs, BenchmarkIndex.SEED, postingsFormat);
+    reader = DirectoryReader.open(dir);
+    context = reader.leaves().get(0);
+    searcher = new IndexSearcher(reader);
+    searcher.setQueryCache(null);
+    String[] split = terms.split(",");
+    queryTerms = new Term[split.length];
+    BooleanQuery.Builder must = new BooleanQuery.Builder();
+    BooleanQuery.Builder should = new BooleanQuery.Builder();
+    for (int i = 0; i < split.length; i++) {
+      queryTerms[i] = new Term(BenchmarkIndex.FIELD, split[i]);
+      must.add(new TermQuery(queryTerms[i]), BooleanClause.Occur.MUST);
+      should.add(new TermQuery(queryTerms[i]), BooleanClause.Occur.SHOULD);
+    }
+    conjunction = searcher.createNormalizedWeight(must.build(), true);
+    disjunction = searcher.createNormalizedWeight(should.build(), true);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    reader.close();
+    dir.close();
+  }
+
+  @Benchmark
+  public int conjunctionDISI() throws IOException {
+    List<DocIdSetIterator> iterators = new ArrayList<>();
+    for (Term term : queryTerms) {
+      iterators.add(context.reader().postings(term, PostingsEnum.NONE));
+    }
+    return count(ConjunctionDISI.intersectIterators(iterators));
+  }
+
+  @Benchmark
+  public int conjunctionDISIAdvance() throws IOException {
+    List<DocIdSetIterator> iterators = new ArrayList<>();
+    for (Term term : queryTerms) {
+      iterators.add(context.reader().postings(term, PostingsEnum.NONE));
+    }
+    return advance(ConjunctionDISI.intersectIterators(iterators), advanceGap);
+  }
+
+  @Benchmark
+  public double conjunctionScorer() throws IOException {
+    return score(conjunction.scorer(context));
+  }
+
+  @Benchmark
+  public double disjunctionScorer() throws IOException {
+    return score(disjunction.scorer(context));
+  }
+
+  @Benchmark
+  public int disjunctionScorerAdvance() throws IOException {
+    return advance(disjunction.scorer(context).iterator(), advanceGap);
+  }
+
+  private static int count(DocIdSetIterator it) throws IOException {
+    int count = 0;
+    while (it.nextDoc() != DocIdSetIterator.NO_MORE_DOCS) {
+      count++;
+    }
+    return count;
+  }
+
+  private static int advance(DocIdSetIterator it, int gap) throws IOException {
+    int count = 0;
+    for (int doc = it.advance(0); doc != DocIdSetIterator.NO_MORE_DOCS; doc = it.advance(doc + gap)) {
+      count++;
+    }
+    return count;
+  }
+
+  private static double score(Scorer scorer) throws IOException {
+    DocIdSetIterator it = scorer.iterator();
+    double sum = 0;
+    while (it.nextDoc() != DocIdSetIterator.NO_MORE_DOCS) {
+      sum += scorer.score();
+    }
+    return sum;
+  }
+}
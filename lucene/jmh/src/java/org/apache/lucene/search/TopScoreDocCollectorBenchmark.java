@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.store.Directory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Feeds precomputed scores to {@link TopScoreDocCollector#create(int)} through
+ * a {@code FakeScorer}, so only the priority queue maintenance is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TopScoreDocCollectorBenchmark {
+
+  static final int NUM_DOCS = 1 << 20;
+
+  @Param({"10", "100", "1000"})
+  int numHits;
+
+  /**
+   * {@code random} scores are rarely competitive once the queue is full,
+   * {@code increasing} scores make every hit replace the queue's top.
+   */
+  @Param({"random", "increasing"})
+  String scores;
+
+  private Directory dir;
+  private DirectoryReader reader;
+  private LeafReaderContext context;
+  private float[] docScores;
+
+  @Setup
+  public void setup() throws IOException {
+    // the collector only needs a leaf for its doc base
+    dir = BenchmarkIndex.build(1, BenchmarkIndex.SEED);
+    reader = DirectoryReader.open(dir);
+    context = reader.leaves().get(0);
+    Random random = new Random(BenchmarkIndex.SEED);
+    docScores = new float[NUM_DOCS];
+    for (int i = 0; i < NUM_DOCS; i++) {
+      docScores[i] = "increasing".equals(scores) ? i : random.nextFloat();
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    reader.close();
+    dir.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_DOCS)
+  public TopDocs collect() throws IOException {
+    TopScoreDocCollector collector = TopScoreDocCollector.create(numHits);
+    LeafCollector leafCollector = collector.getLeafCollector(context);
+    FakeScorer scorer = new FakeScorer();
+    leafCollector.setScorer(scorer);
+    for (int doc = 0; doc < NUM_DOCS; doc++) {
+      scorer.doc = doc;
+      scorer.score = docScores[doc];
+      leafCollector.collect(doc);
+    }
+    return collector.topDocs();
+  }
+}
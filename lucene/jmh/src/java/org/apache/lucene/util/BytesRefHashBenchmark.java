@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util;
+
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Adds terms to a {@link BytesRefHash}, as the indexing chain does for every token.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BytesRefHashBenchmark {
+
+  static final int NUM_TOKENS = 1 << 18;
+
+  /** Number of distinct terms among the {@link #NUM_TOKENS} added tokens */
+  @Param({"1024", "65536", "262144"})
+  int uniqueTerms;
+
+  private BytesRef[] tokens;
+  private BytesRefHash hash;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(0xB7E5L);
+    BytesRef[] terms = new BytesRef[uniqueTerms];
+    for (int i = 0; i < uniqueTerms; i++) {
+      // a unique prefix plus random ascii letters, 4 to 15 bytes long
+      StringBuilder sb = new StringBuilder(Integer.toString(i, Character.MAX_RADIX));
+      for (int len = 4 + random.nextInt(12); sb.length() < len; ) {
+        sb.append((char) ('a' + random.nextInt(26)));
+      }
+      terms[i] = new BytesRef(sb);
+    }
+    tokens = new BytesRef[NUM_TOKENS];
+    for (int i = 0; i < NUM_TOKENS; i++) {
+      tokens[i] = i < uniqueTerms ? terms[i] : terms[random.nextInt(uniqueTerms)];
+    }
+    hash = new BytesRefHash();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_TOKENS)
+  public int add() {
+    hash.clear();
+    hash.reinit();
+    for (BytesRef token : tokens) {
+      hash.add(token);
+    }
+    return hash.size();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_TOKENS)
+  public int addAndSort() {
+    hash.clear();
+    hash.reinit();
+    for (BytesRef token : tokens) {
+      hash.add(token);
+    }
+    return hash.sort()[0];
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util.fst;
+
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.IntsRefBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Looks up existing and missing terms in an {@link FST} with {@link Util#get(FST, BytesRef)}
+ * and seeks a {@link BytesRefFSTEnum}, like the terms index does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FSTBenchmark {
+
+  static final int NUM_LOOKUPS = 1 << 14;
+
+  @Param({"10000", "1000000"})
+  int numTerms;
+
+  private FST<Long> fst;
+  private BytesRef[] hits;
+  private BytesRef[] misses;
+  private BytesRefFSTEnum<Long> fstEnum;
+
+  @Setup
+  public void setup() throws IOException {
+    Random random = new Random(0xF57L);
+    TreeSet<BytesRef> terms = new TreeSet<>();
+    while (terms.size() < numTerms) {
+      terms.add(randomTerm(random));
+    }
+    Builder<Long> builder = new Builder<>(FST.INPUT_TYPE.BYTE1, PositiveIntOutputs.getSingleton());
+    IntsRefBuilder scratch = new IntsRefBuilder();
+    long ord = 0;
+    for (BytesRef term : terms) {
+      builder.add(Util.toIntsRef(term, scratch), ord++);
+    }
+    fst = builder.finish();
+    fstEnum = new BytesRefFSTEnum<>(fst);
+
+    BytesRef[] sorted = terms.toArray(new BytesRef[terms.size()]);
+    hits = new BytesRef[NUM_LOOKUPS];
+    misses = new BytesRef[NUM_LOOKUPS];
+    for (int i = 0; i < NUM_LOOKUPS; i++) {
+      hits[i] = sorted[random.nextInt(sorted.length)];
+      BytesRef miss;
+      do {
+        miss = randomTerm(random);
+      } while (terms.contains(miss));
+      misses[i] = miss;
+    }
+  }
+
+  private static BytesRef randomTerm(Random random) {
+    char[] chars = new char[3 + random.nextInt(10)];
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = (char) ('a' + random.nextInt(26));
+    }
+    return new BytesRef(new String(chars));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_LOOKUPS)
+  public long getHits() throws IOException {
+    long sum = 0;
+    for (BytesRef term : hits) {
+      sum += Util.get(fst, term);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_LOOKUPS)
+  public int getMisses() throws IOException {
+    int found = 0;
+    for (BytesRef term : misses) {
+      if (Util.get(fst, term) != null) {
+        found++;
+      }
+    }
+    return found;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_LOOKUPS)
+  public long seekCeil() throws IOException {
+    long sum = 0;
+    for (BytesRef term : misses) {
+      BytesRefFSTEnum.InputOutput<Long> result = fstEnum.seekCeil(term);
+      if (result != null) {
+        sum += result.output;
+      }
+    }
+    return sum;
+  }
+}
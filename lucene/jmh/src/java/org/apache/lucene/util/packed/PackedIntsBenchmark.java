@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util.packed;
+
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.RAMDirectory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reads values from {@link PackedInts.Reader}s, sequentially, at random and in bulk.
+ * <p>
+ * {@code heap} loads the values with {@link PackedInts#getReader(org.apache.lucene.store.DataInput)},
+ * {@code direct} reads them from the file with {@link PackedInts#getDirectReader(IndexInput)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PackedIntsBenchmark {
+
+  static final int VALUE_COUNT = 1 << 20;
+  static final int NUM_RANDOM_READS = 1 << 16;
+
+  @Param({"1", "7", "12", "21", "32", "48"})
+  int bitsPerValue;
+
+  @Param({"heap", "direct"})
+  String reader;
+
+  private Directory dir;
+  private IndexInput in;
+  private PackedInts.Reader values;
+  private int[] randomIndexes;
+  private final long[] buffer = new long[128];
+
+  @Setup
+  public void setup() throws IOException {
+    Random random = new Random(0xBAC4EDL + bitsPerValue);
+    long maxValue = PackedInts.maxValue(bitsPerValue);
+    dir = new RAMDirectory();
+    try (IndexOutput out = dir.createOutput("packed", IOContext.DEFAULT)) {
+      PackedInts.Writer writer = PackedInts.getWriter(out, VALUE_COUNT, bitsPerValue, PackedInts.COMPACT);
+      for (int i = 0; i < VALUE_COUNT; i++) {
+        writer.add(random.nextLong() & maxValue);
+      }
+      writer.finish();
+    }
+    in = dir.openInput("packed", IOContext.DEFAULT);
+    if ("direct".equals(reader)) {
+      values = PackedInts.getDirectReader(in);
+    } else {
+      values = PackedInts.getReader(in);
+    }
+    randomIndexes = new int[NUM_RANDOM_READS];
+    for (int i = 0; i < NUM_RANDOM_READS; i++) {
+      randomIndexes[i] = random.nextInt(VALUE_COUNT);
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    in.close();
+    dir.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(VALUE_COUNT)
+  public long sequentialGet() {
+    long sum = 0;
+    for (int i = 0; i < VALUE_COUNT; i++) {
+      sum += values.get(i);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_RANDOM_READS)
+  public long randomGet() {
+    long sum = 0;
+    for (int index : randomIndexes) {
+      sum += values.get(index);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(VALUE_COUNT)
+  public long bulkGet() {
+    long sum = 0;
+    for (int i = 0; i < VALUE_COUNT; ) {
+      int read = values.get(i, buffer, 0, buffer.length);
+      for (int j = 0; j < read; j++) {
+        sum += buffer[j];
+      }
+      i += read;
+    }
+    return sum;
+  }
+}
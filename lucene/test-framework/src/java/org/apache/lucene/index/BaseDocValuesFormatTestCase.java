@@ -1250,10 +1250,63 @@ public abstract class BaseDocValuesFormatTestCase extends BaseIndexFileFormatTes
         long storedValue = Long.parseLong(r.document(i).get("stored"));
         assertEquals(storedValue, docValues.get(i));
       }
+      assertBulkGet(docValues, r.maxDoc());
     }
     ir.close();
     dir.close();
   }
+
+  /** Returns random doc IDs in increasing order, possibly with duplicates. */
+  private static int[] randomSortedDocs(int maxDoc) {
+    final int[] docs = new int[TestUtil.nextInt(random(), 0, 2 * maxDoc)];
+    for (int i = 0; i < docs.length; i++) {
+      docs[i] = random().nextInt(maxDoc);
+    }
+    Arrays.sort(docs);
+    return docs;
+  }
+
+  /** Checks the bulk methods of {@link NumericDocValues} against {@link NumericDocValues#get(int)}. */
+  private static void assertBulkGet(NumericDocValues docValues, int maxDoc) {
+    if (maxDoc == 0) {
+      return;
+    }
+    final int[] docs = randomSortedDocs(maxDoc);
+    final long[] values = new long[docs.length + 1];
+    values[docs.length] = 42;
+    docValues.get(docs, values, docs.length);
+    for (int i = 0; i < docs.length; i++) {
+      assertEquals(docValues.get(docs[i]), values[i]);
+    }
+    assertEquals("wrote past count", 42, values[docs.length]);
+
+    final int from = random().nextInt(maxDoc);
+    final int count = TestUtil.nextInt(random(), 0, maxDoc - from);
+    docValues.getRange(from, values, Math.min(count, values.length));
+    for (int i = 0; i < Math.min(count, values.length); i++) {
+      assertEquals(docValues.get(from + i), values[i]);
+    }
+  }
+
+  /** Checks the bulk methods of {@link SortedDocValues} against {@link SortedDocValues#getOrd(int)}. */
+  private static void assertBulkGetOrds(SortedDocValues docValues, int maxDoc) {
+    if (maxDoc == 0) {
+      return;
+    }
+    final int[] docs = randomSortedDocs(maxDoc);
+    final int[] ords = new int[Math.max(docs.length, maxDoc)];
+    docValues.getOrds(docs, ords, docs.length);
+    for (int i = 0; i < docs.length; i++) {
+      assertEquals(docValues.getOrd(docs[i]), ords[i]);
+    }
+
+    final int from = random().nextInt(maxDoc);
+    final int count = TestUtil.nextInt(random(), 0, maxDoc - from);
+    docValues.getOrdRange(from, ords, count);
+    for (int i = 0; i < count; i++) {
+      assertEquals(docValues.getOrd(from + i), ords[i]);
+    }
+  }
   
   private void doTestSortedNumericsVsStoredFields(LongProducer counts, LongProducer values) throws Exception {
     Directory dir = newDirectory();
@@ -1485,6 +1538,7 @@ public abstract class BaseDocValuesFormatTestCase extends BaseIndexFileFormatTes
         BytesRef scratch = docValues.get(i);
         assertEquals(binaryValue, scratch);
       }
+      assertBulkGetOrds(r.getSortedDocValues("dv"), r.maxDoc());
     }
     ir.close();
     writer.forceMerge(1);
@@ -1499,6 +1553,7 @@ public abstract class BaseDocValuesFormatTestCase extends BaseIndexFileFormatTes
         BytesRef scratch = docValues.get(i);
         assertEquals(binaryValue, scratch);
       }
+      assertBulkGetOrds(r.getSortedDocValues("dv"), r.maxDoc());
     }
     ir.close();
     writer.close();
@@ -53,5 +53,26 @@ class AssertingLeafCollector extends FilterLeafCollector {
     lastCollected = doc;
   }
 
+  @Override
+  public BatchMode batchMode() {
+    return in.batchMode();
+  }
+
+  @Override
+  public void collect(int[] docs, float[] scores, int count) throws IOException {
+    final BatchMode batchMode = in.batchMode();
+    assert batchMode != BatchMode.NONE : "Collected a batch but the collector does not accept batches";
+    assert count > 0 : "Empty batch";
+    assert (scores != null) == (batchMode == BatchMode.DOCS_AND_SCORES) : "batchMode=" + batchMode + " but scores=" + scores;
+    for (int i = 0; i < count; ++i) {
+      final int doc = docs[i];
+      assert doc > lastCollected : "Out of order : " + lastCollected + " " + doc;
+      assert doc >= min : "Out of range: " + doc + " < " + min;
+      assert doc < max : "Out of range: " + doc + " >= " + max;
+      lastCollected = doc;
+    }
+    in.collect(docs, scores, count);
+  }
+
 }
 
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.compressing;
+
+import java.io.IOException;
+
+import org.apache.lucene.analysis.MockAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.RandomIndexWriter;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+
+public class TestStoredFieldsChunkCache extends LuceneTestCase {
+
+  public void testStats() {
+    final StoredFieldsChunkCache cache = new StoredFieldsChunkCache(StoredFieldsChunkCache.ENTRY_RAM_BYTES_USED * 2 + 256);
+    assertNull(cache.get("a", 0));
+    assertEquals(1, cache.getMissCount());
+
+    final byte[] chunk = new byte[10];
+    cache.put("a", 0, chunk);
+    assertSame(chunk, cache.get("a", 0));
+    assertNull(cache.get("a", 10));
+    assertNull(cache.get("b", 0));
+    assertEquals(1, cache.getHitCount());
+    assertEquals(3, cache.getMissCount());
+    assertEquals(1, cache.getCacheSize());
+    assertEquals(1, cache.getCacheCount());
+    assertTrue(cache.ramBytesUsed() > 10);
+
+    // too large to ever be cached
+    cache.put("a", 10, new byte[1024]);
+    assertEquals(1, cache.getCacheSize());
+    assertEquals(1, cache.getCacheCount());
+
+    // evicts the least recently used entry
+    cache.put("b", 0, new byte[100]);
+    cache.get("a", 0);
+    cache.put("c", 0, new byte[100]);
+    assertEquals(2, cache.getCacheSize());
+    assertEquals(3, cache.getCacheCount());
+    assertEquals(1, cache.getEvictionCount());
+    assertNotNull(cache.get("a", 0));
+    assertNull(cache.get("b", 0));
+    assertTrue(cache.ramBytesUsed() <= cache.getMaxRamBytesUsed());
+
+    cache.clear();
+    assertEquals(0, cache.getCacheSize());
+    assertEquals(0, cache.ramBytesUsed());
+    assertEquals(3, cache.getEvictionCount());
+  }
+
+  public void testConcurrentStats() throws Exception {
+    final StoredFieldsChunkCache cache = new StoredFieldsChunkCache(1 << 20);
+    final int numThreads = TestUtil.nextInt(random(), 2, 8);
+    final int numLookups = atLeast(1000);
+    final Thread[] threads = new Thread[numThreads];
+    for (int t = 0; t < numThreads; ++t) {
+      threads[t] = new Thread() {
+        @Override
+        public void run() {
+          for (int i = 0; i < numLookups; ++i) {
+            if (cache.get("a", i % 10) == null) {
+              cache.put("a", i % 10, new byte[10]);
+            }
+          }
+        }
+      };
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    // every lookup is counted, including the ones that did not get the lock
+    assertEquals((long) numThreads * numLookups, cache.getHitCount() + cache.getMissCount());
+  }
+
+  private Directory newIndex(int numDocs) throws IOException {
+    final Directory dir = newDirectory();
+    final IndexWriterConfig iwc = newIndexWriterConfig(new MockAnalyzer(random()));
+    iwc.setCodec(CompressingCodec.randomInstance(random()));
+    final RandomIndexWriter w = new RandomIndexWriter(random(), dir, iwc);
+    for (int i = 0; i < numDocs; ++i) {
+      final Document doc = new Document();
+      doc.add(new StringField("id", Integer.toString(i), Store.YES));
+      doc.add(new StoredField("body", TestUtil.randomSimpleString(random(), 0, 100)));
+      w.addDocument(doc);
+    }
+    w.close();
+    return dir;
+  }
+
+  private static int[] randomDocs(IndexReader reader) {
+    final int[] docIDs = new int[TestUtil.nextInt(random(), 0, 50)];
+    for (int i = 0; i < docIDs.length; ++i) {
+      docIDs[i] = random().nextInt(reader.maxDoc());
+    }
+    return docIDs;
+  }
+
+  private static void assertBatch(IndexReader reader, int[] docIDs) throws IOException {
+    final Document[] docs = reader.document(docIDs);
+    assertEquals(docIDs.length, docs.length);
+    for (int i = 0; i < docIDs.length; ++i) {
+      final Document expected = reader.document(docIDs[i]);
+      assertEquals(expected.get("id"), docs[i].get("id"));
+      assertEquals(expected.get("body"), docs[i].get("body"));
+    }
+  }
+
+  public void testBatchDocuments() throws IOException {
+    final Directory dir = newIndex(atLeast(200));
+    final IndexReader reader = DirectoryReader.open(dir);
+    for (int iter = 0; iter < 20; ++iter) {
+      assertBatch(reader, randomDocs(reader));
+    }
+
+    expectThrows(IndexOutOfBoundsException.class, () -> {
+      reader.document(new int[] { 0, reader.maxDoc() });
+    });
+
+    reader.close();
+    dir.close();
+  }
+
+  public void testCachedDocuments() throws IOException {
+    final Directory dir = newIndex(atLeast(200));
+    final IndexReader reader = DirectoryReader.open(dir);
+    final String[] ids = new String[reader.maxDoc()];
+    for (int i = 0; i < reader.maxDoc(); ++i) {
+      ids[i] = reader.document(i).get("id");
+    }
+    final StoredFieldsChunkCache cache = new StoredFieldsChunkCache(TestUtil.nextInt(random(), 1, 1 << 20));
+    CompressingStoredFieldsReader.setChunkCache(cache);
+    try {
+      for (int iter = 0; iter < 20; ++iter) {
+        assertBatch(reader, randomDocs(reader));
+      }
+      for (int i = 0; i < reader.maxDoc(); ++i) {
+        assertEquals(ids[i], reader.document(i).get("id"));
+      }
+      assertTrue(cache.ramBytesUsed() <= cache.getMaxRamBytesUsed());
+      assertEquals(cache.getCacheCount() - cache.getEvictionCount(), cache.getCacheSize());
+    } finally {
+      CompressingStoredFieldsReader.setChunkCache(null);
+    }
+    reader.close();
+    dir.close();
+  }
+
+}
@@ -72,6 +72,26 @@ public class DocSetCollector extends SimpleCollector {
     pos++;
   }
 
+  @Override
+  public BatchMode batchMode() {
+    return BatchMode.DOCS;
+  }
+
+  @Override
+  public void collect(int[] docs, float[] scores, int count) throws IOException {
+    int i = 0;
+    for (; i < count && pos < smallSetSize; ++i, ++pos) {
+      scratch.add(pos, docs[i] + base);
+    }
+    if (i < count) {
+      if (bits==null) bits = new FixedBitSet(maxDoc);
+      pos += count - i;
+      for (; i < count; ++i) {
+        bits.set(docs[i] + base);
+      }
+    }
+  }
+
   /** The number of documents that have been collected */
   public int size() {
     return pos;